@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import hu.akarnokd.rxjava3.schedulers.BlockingScheduler;
+import hu.akarnokd.rxjava3.schedulers.BlockingScheduler.IdleStrategy;
+
+/**
+ * Measures the latency percentiles of handing over a task from the benchmark
+ * thread to an idle BlockingScheduler event loop running on another thread.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='BlockingSchedulerLatencyPerf'
+ */
+@BenchmarkMode(Mode.SampleTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class BlockingSchedulerLatencyPerf implements Runnable {
+
+    @Param({"BUSY_SPIN", "SPIN_YIELD_PARK", "PARK"})
+    public IdleStrategy idleStrategy;
+
+    BlockingScheduler scheduler;
+
+    Thread loop;
+
+    volatile long executed;
+
+    long scheduled;
+
+    @Setup
+    public void setup() {
+        scheduler = new BlockingScheduler(idleStrategy);
+        loop = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                scheduler.execute();
+            }
+        }, "BlockingSchedulerLatencyPerf");
+        loop.start();
+    }
+
+    @TearDown
+    public void teardown() throws InterruptedException {
+        scheduler.shutdown();
+        loop.join();
+    }
+
+    @Override
+    public void run() {
+        executed = executed + 1;
+    }
+
+    @Benchmark
+    public long handoff() {
+        long expected = ++scheduled;
+        scheduler.scheduleDirect(this);
+        while (executed != expected) { }
+        return expected;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava3.string.StringFlowable;
+
+/**
+ * Compares streaming the characters of a string one by one with
+ * streaming them in char[] and CharBuffer chunks.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='CharactersPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class CharactersPerf {
+
+    @Param({"1000000"})
+    public int count;
+
+    @Param({"1024"})
+    public int chunkSize;
+
+    String string;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append((char)('a' + i % 26));
+        }
+        string = sb.toString();
+    }
+
+    @Benchmark
+    public void characters(Blackhole bh) {
+        StringFlowable.characters(string).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void characterChunks(Blackhole bh) {
+        StringFlowable.characterChunks(string, chunkSize).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void characterBuffers(Blackhole bh) {
+        StringFlowable.characterBuffers(string, chunkSize).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void codePointChunks(Blackhole bh) {
+        StringFlowable.codePointChunks(string, chunkSize).subscribe(new PerfConsumer(bh));
+    }
+}
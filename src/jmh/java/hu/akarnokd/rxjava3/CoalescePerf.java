@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava3.operators.FlowableTransformers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Compares the eager coalesce with the adaptive, size/weight/linger bounded coalesce
+ * when the coalesced lists are consumed on another thread, one at a time.
+ * Besides the throughput, the secondary "items" and "lists" counters give the average
+ * list size; bigger lists mean fewer hand-offs but longer waits for the first items.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='CoalescePerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class CoalescePerf {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    @Param({"eager", "size", "weight"})
+    public String mode;
+
+    Flowable<List<Integer>> source;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Batches {
+        public long lists;
+
+        public long items;
+    }
+
+    @Setup
+    public void setup() {
+        Supplier<List<Integer>> supplier = new Supplier<List<Integer>>() {
+            @Override
+            public List<Integer> get() throws Exception {
+                return new ArrayList<>();
+            }
+        };
+        BiConsumer<List<Integer>, Integer> coalescer = new BiConsumer<List<Integer>, Integer>() {
+            @Override
+            public void accept(List<Integer> a, Integer b) throws Exception {
+                a.add(b);
+            }
+        };
+
+        Flowable<Integer> range = Flowable.range(1, count);
+        if ("eager".equals(mode)) {
+            source = range.compose(FlowableTransformers.coalesce(supplier, coalescer));
+        } else if ("size".equals(mode)) {
+            source = range.compose(FlowableTransformers.coalesce(supplier, coalescer,
+                    128, 1, TimeUnit.MILLISECONDS, Schedulers.single()));
+        } else {
+            source = range.compose(FlowableTransformers.coalesce(supplier, coalescer,
+                    Integer.MAX_VALUE, new Function<Integer, Long>() {
+                        @Override
+                        public Long apply(Integer v) throws Exception {
+                            return 4L;
+                        }
+                    }, 512, 1, TimeUnit.MILLISECONDS, Schedulers.single()));
+        }
+        source = source.observeOn(Schedulers.computation(), false, 1);
+    }
+
+    @Benchmark
+    public void coalesce(final Blackhole bh, final Batches batches) {
+        List<List<Integer>> lists = source.toList().blockingGet();
+        batches.lists += lists.size();
+        for (List<Integer> list : lists) {
+            batches.items += list.size();
+        }
+        bh.consume(lists);
+    }
+}
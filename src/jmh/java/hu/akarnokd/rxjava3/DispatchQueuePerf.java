@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava3.util.*;
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+
+/**
+ * Compares the queues usable by the DispatchWork processor and subject when
+ * a producer hands out items to a varying number of concurrently polling consumers.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='DispatchQueuePerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class DispatchQueuePerf {
+
+    @Param({"spmc", "mpmc", "mpmcBatch"})
+    public String queue;
+
+    @Param({"1", "4", "16", "64"})
+    public int consumers;
+
+    static final int COUNT = 100_000;
+
+    static final int BATCH = 16;
+
+    ExecutorService executor;
+
+    Integer[] items;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(consumers);
+        items = new Integer[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            items[i] = i;
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void dispatch(Blackhole bh) throws InterruptedException {
+        final SimplePlainQueue<Integer> q;
+        if ("spmc".equals(queue)) {
+            q = new SpmcLinkedArrayQueue<>(128);
+        } else {
+            q = new MpmcLinkedArrayQueue<>(128);
+        }
+
+        final AtomicInteger received = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(consumers);
+
+        for (int i = 0; i < consumers; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    AtomicInteger r = received;
+                    while (r.get() != COUNT) {
+                        if (q.poll() != null) {
+                            r.getAndIncrement();
+                        }
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+
+        Integer[] a = items;
+        if ("mpmcBatch".equals(queue)) {
+            MpmcLinkedArrayQueue<Integer> mq = (MpmcLinkedArrayQueue<Integer>)q;
+            for (int i = 0; i < COUNT; i += BATCH) {
+                mq.offer(a, i, Math.min(BATCH, COUNT - i));
+            }
+        } else {
+            for (int i = 0; i < COUNT; i++) {
+                q.offer(a[i]);
+            }
+        }
+
+        latch.await();
+        bh.consume(received.get());
+    }
+}
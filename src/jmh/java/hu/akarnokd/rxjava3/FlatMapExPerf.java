@@ -71,6 +71,10 @@ public class FlatMapExPerf {
 
     Flowable<Integer> asyncAsyncB;
 
+    Flowable<Integer> syncSyncBatched;
+
+    Flowable<Integer> syncAsyncBatched;
+
     @Setup
     public void setup() {
         Integer[] array = new Integer[count];
@@ -118,6 +122,10 @@ public class FlatMapExPerf {
         asyncSyncB = source.compose(FlowableTransformers.flatMapAsync(f1, Schedulers.single(), false));
 
         asyncAsyncB = source.compose(FlowableTransformers.flatMapAsync(f2, Schedulers.single(), false));
+
+        syncSyncBatched = source.compose(FlowableTransformers.flatMapSyncBatched(f1));
+
+        syncAsyncBatched = source.compose(FlowableTransformers.flatMapSyncBatched(f2));
 }
 
     @Benchmark
@@ -201,4 +209,16 @@ public class FlatMapExPerf {
         c.await(count * range);
     }
 
-}
\ No newline at end of file
+    @Benchmark
+    public void syncSyncBatched(Blackhole bh) {
+        PerfConsumer c = new PerfConsumer(bh);
+        syncSyncBatched.subscribe(c);
+    }
+
+    @Benchmark
+    public void syncAsyncBatched(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        syncAsyncBatched.subscribe(c);
+        c.await(count * range);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava3.joins.JoinObservable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.functions.*;
+
+/**
+ * Measures the throughput of 2-, 4- and 9-way joins of synchronous sources.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='JoinsPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class JoinsPerf {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    Observable<Integer> join2;
+
+    Observable<Integer> join4;
+
+    Observable<Integer> join9;
+
+    @Setup
+    public void setup() {
+        Observable<Integer>[] sources = sources(9);
+
+        join2 = JoinObservable.when(
+                JoinObservable.from(sources[0]).and(sources[1])
+                .then(new BiFunction<Integer, Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer t1, Integer t2) throws Exception {
+                        return t1;
+                    }
+                })
+        ).toObservable();
+
+        join4 = JoinObservable.when(
+                JoinObservable.from(sources[0]).and(sources[1]).and(sources[2]).and(sources[3])
+                .then(new Function4<Integer, Integer, Integer, Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer t1, Integer t2, Integer t3, Integer t4) throws Exception {
+                        return t1;
+                    }
+                })
+        ).toObservable();
+
+        join9 = JoinObservable.when(
+                JoinObservable.from(sources[0]).and(sources[1]).and(sources[2]).and(sources[3])
+                .and(sources[4]).and(sources[5]).and(sources[6]).and(sources[7]).and(sources[8])
+                .then(new Function9<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer t1, Integer t2, Integer t3, Integer t4, Integer t5,
+                            Integer t6, Integer t7, Integer t8, Integer t9) throws Exception {
+                        return t1;
+                    }
+                })
+        ).toObservable();
+    }
+
+    @SuppressWarnings("unchecked")
+    Observable<Integer>[] sources(int n) {
+        Observable<Integer>[] result = new Observable[n];
+        for (int i = 0; i < n; i++) {
+            // distinct instances so each participates as a separate source
+            result[i] = Observable.range(0, count).hide();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void join2(Blackhole bh) {
+        join2.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void join4(Blackhole bh) {
+        join4.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void join9(Blackhole bh) {
+        join9.subscribe(new PerfConsumer(bh));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava3.operators.FlowableTransformers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.Function;
+
+/**
+ * Compares the one-at-a-time mapAsync with the ordered and unordered concurrent mapAsync
+ * when every inner Publisher simulates a remote lookup by emitting its result after
+ * the given latency.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MapAsyncPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MapAsyncPerf {
+
+    @Param({"100"})
+    public int count;
+
+    @Param({"1"})
+    public int latencyMillis;
+
+    @Param({"serial", "ordered", "unordered"})
+    public String mode;
+
+    @Param({"1", "16", "64"})
+    public int maxConcurrency;
+
+    Flowable<Integer> source;
+
+    @Setup
+    public void setup() {
+        Function<Integer, Publisher<Integer>> lookup = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v).delay(latencyMillis, TimeUnit.MILLISECONDS);
+            }
+        };
+
+        Flowable<Integer> range = Flowable.range(1, count);
+        if ("serial".equals(mode)) {
+            source = range.compose(FlowableTransformers.mapAsync(lookup));
+        } else {
+            source = range.compose(FlowableTransformers.mapAsyncConcurrent(lookup, maxConcurrency, "ordered".equals(mode)));
+        }
+    }
+
+    @Benchmark
+    public void mapAsync(Blackhole bh) {
+        bh.consume(source.blockingLast());
+    }
+}
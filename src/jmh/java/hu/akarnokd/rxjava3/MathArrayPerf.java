@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import hu.akarnokd.rxjava3.math.MathFlowable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.Function;
+
+/**
+ * Compares the boxed sum/max/average operators of MathFlowable with the
+ * primitive array based ones over the same number of elements.
+ * The array sources emit the same preallocated chunk {@code count / chunk} times.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MathArrayPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MathArrayPerf {
+
+    @Param({"1000000", "10000000", "100000000"})
+    public int count;
+
+    @Param({"1024"})
+    public int chunk;
+
+    Flowable<Long> boxedLongs;
+
+    Flowable<Double> boxedDoubles;
+
+    Flowable<long[]> longArrays;
+
+    Flowable<double[]> doubleArrays;
+
+    @Setup
+    public void setup() {
+        boxedLongs = Flowable.rangeLong(0, count);
+        boxedDoubles = boxedLongs.map(new Function<Long, Double>() {
+            @Override
+            public Double apply(Long v) throws Exception {
+                return v.doubleValue();
+            }
+        });
+
+        final long[] longChunk = new long[chunk];
+        final double[] doubleChunk = new double[chunk];
+        for (int i = 0; i < chunk; i++) {
+            longChunk[i] = i;
+            doubleChunk[i] = i;
+        }
+
+        Flowable<Integer> chunks = Flowable.range(0, count / chunk);
+
+        longArrays = chunks.map(new Function<Integer, long[]>() {
+            @Override
+            public long[] apply(Integer v) throws Exception {
+                return longChunk;
+            }
+        });
+
+        doubleArrays = chunks.map(new Function<Integer, double[]>() {
+            @Override
+            public double[] apply(Integer v) throws Exception {
+                return doubleChunk;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object sumLongBoxed() {
+        return MathFlowable.sumLong(boxedLongs).blockingSingle();
+    }
+
+    @Benchmark
+    public Object sumLongArray() {
+        return MathFlowable.sumLongArray(longArrays).blockingSingle();
+    }
+
+    @Benchmark
+    public Object maxLongBoxed() {
+        return MathFlowable.max(boxedLongs).blockingSingle();
+    }
+
+    @Benchmark
+    public Object maxLongArray() {
+        return MathFlowable.maxLongArray(longArrays).blockingSingle();
+    }
+
+    @Benchmark
+    public Object averageDoubleBoxed() {
+        return MathFlowable.averageDouble(boxedDoubles).blockingSingle();
+    }
+
+    @Benchmark
+    public Object averageDoubleArray() {
+        return MathFlowable.averageDoubleArray(doubleArrays).blockingSingle();
+    }
+}
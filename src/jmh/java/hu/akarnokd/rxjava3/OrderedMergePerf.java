@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava3.operators.BasicMergeSubscription;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.internal.functions.Functions;
+
+/**
+ * Compares the linear-scan and heap-based merge of BasicMergeSubscription.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='OrderedMergePerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class OrderedMergePerf {
+
+    @Param({"2", "4", "8", "16", "32", "64", "128", "256", "512", "1024", "2048", "4096"})
+    public int n;
+
+    @Param({"262144"})
+    public int total;
+
+    Flowable<Integer> linear;
+
+    Flowable<Integer> heap;
+
+    @Setup
+    public void setup() {
+        int perSource = Math.max(1, total / n);
+
+        @SuppressWarnings("unchecked")
+        Flowable<Integer>[] sources = new Flowable[n];
+        for (int i = 0; i < n; i++) {
+            Integer[] values = new Integer[perSource];
+            for (int j = 0; j < perSource; j++) {
+                values[j] = j * n + i;
+            }
+            sources[i] = Flowable.fromArray(values);
+        }
+
+        linear = new MergeWith<>(sources, Functions.<Integer>naturalComparator(), false);
+        heap = new MergeWith<>(sources, Functions.<Integer>naturalComparator(), true);
+    }
+
+    @Benchmark
+    public void linear(Blackhole bh) {
+        linear.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void heap(Blackhole bh) {
+        heap.subscribe(new PerfConsumer(bh));
+    }
+
+    static final class MergeWith<T> extends Flowable<T> {
+
+        final Publisher<T>[] sources;
+
+        final Comparator<? super T> comparator;
+
+        final boolean useHeap;
+
+        MergeWith(Publisher<T>[] sources, Comparator<? super T> comparator, boolean useHeap) {
+            this.sources = sources;
+            this.comparator = comparator;
+            this.useHeap = useHeap;
+        }
+
+        @Override
+        protected void subscribeActual(Subscriber<? super T> s) {
+            BasicMergeSubscription<T> parent = new BasicMergeSubscription<>(s, comparator,
+                    sources.length, Flowable.bufferSize(), false, useHeap);
+            s.onSubscribe(parent);
+            parent.subscribe(sources, sources.length);
+        }
+    }
+}
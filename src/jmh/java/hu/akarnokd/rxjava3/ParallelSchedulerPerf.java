@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava3.schedulers.ParallelScheduler;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+
+/**
+ * Compares the pinned and work-stealing modes of the ParallelScheduler
+ * with tasks of skewed durations: every {@code skew}th Worker runs slow tasks.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='ParallelSchedulerPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ParallelSchedulerPerf {
+
+    @Param({"false", "true"})
+    public boolean workStealing;
+
+    @Param({"64"})
+    public int workers;
+
+    @Param({"100"})
+    public int tasks;
+
+    @Param({"1", "8", "64"})
+    public int skew;
+
+    @Param({"100"})
+    public int fastTokens;
+
+    @Param({"10000"})
+    public int slowTokens;
+
+    Scheduler scheduler;
+
+    @Setup
+    public void setup() {
+        scheduler = new ParallelScheduler(Runtime.getRuntime().availableProcessors(),
+                true, Thread.NORM_PRIORITY, "ParallelSchedulerPerf", workStealing);
+    }
+
+    @TearDown
+    public void teardown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void skewed() throws InterruptedException {
+        final CountDownLatch cdl = new CountDownLatch(workers * tasks);
+        Worker[] ws = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            ws[i] = scheduler.createWorker();
+        }
+
+        for (int j = 0; j < tasks; j++) {
+            for (int i = 0; i < workers; i++) {
+                final long tokens = i % skew == 0 ? slowTokens : fastTokens;
+                ws[i].schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        Blackhole.consumeCPU(tokens);
+                        cdl.countDown();
+                    }
+                });
+            }
+        }
+
+        cdl.await();
+
+        for (Worker w : ws) {
+            w.dispose();
+        }
+    }
+}
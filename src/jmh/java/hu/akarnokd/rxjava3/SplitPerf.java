@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava3.string.StringFlowable;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Measures StringFlowable.split over about 4 MB of text delivered in 8 KB chunks:
+ * short (80 character) lines, a single huge line and a mix of the two,
+ * with a literal and a regex line separator.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='SplitPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SplitPerf {
+
+    static final int TOTAL = 4 * 1024 * 1024;
+
+    static final int CHUNK = 8 * 1024;
+
+    @Param({"short", "huge", "mixed"})
+    public String lines;
+
+    @Param({"literal", "regex"})
+    public String separator;
+
+    Flowable<String> source;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(TOTAL);
+        int lineLength = 0;
+        Random random = new Random(1);
+        while (sb.length() < TOTAL) {
+            if (lineLength == 0) {
+                if ("short".equals(lines)) {
+                    lineLength = 80;
+                } else if ("huge".equals(lines)) {
+                    lineLength = TOTAL;
+                } else {
+                    lineLength = random.nextInt(10) == 0 ? 256 * 1024 : 80;
+                }
+            }
+            if (--lineLength == 0) {
+                sb.append('\n');
+            } else {
+                sb.append((char)('a' + sb.length() % 26));
+            }
+        }
+
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < sb.length(); i += CHUNK) {
+            chunks.add(sb.substring(i, Math.min(sb.length(), i + CHUNK)));
+        }
+        source = Flowable.fromIterable(chunks).compose(StringFlowable.split("literal".equals(separator) ? "\n" : "\r?\n"));
+    }
+
+    @Benchmark
+    public void split(Blackhole bh) {
+        source.subscribe(new PerfConsumer(bh));
+    }
+}
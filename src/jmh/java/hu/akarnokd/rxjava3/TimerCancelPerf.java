@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import hu.akarnokd.rxjava3.schedulers.*;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.internal.functions.Functions;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Measures the cost of scheduling a delayed task and cancelling it before it
+ * expires, the typical usage pattern of timeouts.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='TimerCancelPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TimerCancelPerf {
+
+    @Param({"single", "parallel", "wheel"})
+    public String type;
+
+    @Param({"1000"})
+    public int count;
+
+    Scheduler scheduler;
+
+    Worker worker;
+
+    Disposable[] tasks;
+
+    @Setup
+    public void setup() {
+        switch (type) {
+        case "single":
+            scheduler = Schedulers.single();
+            break;
+        case "parallel":
+            scheduler = new ParallelScheduler(1);
+            break;
+        default:
+            scheduler = new HashedWheelScheduler(10, TimeUnit.MILLISECONDS);
+        }
+        worker = scheduler.createWorker();
+        tasks = new Disposable[count];
+    }
+
+    @TearDown
+    public void teardown() {
+        worker.dispose();
+        if (!"single".equals(type)) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object scheduleCancelDirect() {
+        Scheduler s = scheduler;
+        Disposable[] ds = tasks;
+        int n = ds.length;
+        for (int i = 0; i < n; i++) {
+            ds[i] = s.scheduleDirect(Functions.EMPTY_RUNNABLE, 10 + (i & 1023), TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < n; i++) {
+            ds[i].dispose();
+        }
+        return ds;
+    }
+
+    @Benchmark
+    public Object scheduleCancelWorker() {
+        Worker w = worker;
+        Disposable[] ds = tasks;
+        int n = ds.length;
+        for (int i = 0; i < n; i++) {
+            ds[i] = w.schedule(Functions.EMPTY_RUNNABLE, 10 + (i & 1023), TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < n; i++) {
+            ds[i].dispose();
+        }
+        return ds;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.debug;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the immutable assembly records of identical call-sites, up to a maximum
+ * number of distinct call-sites; beyond that, new call-sites get their own,
+ * non-shared records.
+ */
+final class CallSiteCache {
+
+    final ConcurrentHashMap<CallSite, CallSite> map;
+
+    final int maxCallSites;
+
+    CallSiteCache(int maxCallSites) {
+        this.maxCallSites = maxCallSites;
+        this.map = new ConcurrentHashMap<>();
+    }
+
+    CallSite intern(StackTraceElement[] frames) {
+        CallSite key = new CallSite(frames);
+        CallSite cs = map.get(key);
+        if (cs == null) {
+            cs = key;
+            if (map.size() < maxCallSites) {
+                CallSite prev = map.putIfAbsent(key, key);
+                if (prev != null) {
+                    cs = prev;
+                }
+            }
+        }
+        return cs;
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    /**
+     * The relevant stacktrace elements of a call-site and their
+     * lazily formatted text; safe to share between threads.
+     */
+    static final class CallSite {
+        final StackTraceElement[] frames;
+
+        final int hash;
+
+        volatile String stacktrace;
+
+        CallSite(StackTraceElement[] frames) {
+            this.frames = frames;
+            this.hash = Arrays.hashCode(frames);
+        }
+
+        String stacktrace() {
+            String s = stacktrace;
+            if (s == null) {
+                s = RxJavaAssemblyException.format(frames);
+                stacktrace = s;
+            }
+            return s;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CallSite
+                    && ((CallSite)obj).hash == hash
+                    && Arrays.equals(((CallSite)obj).frames, frames);
+        }
+    }
+}
@@ -31,7 +31,7 @@ final class CompletableOnAssembly extends Completable {
 
     CompletableOnAssembly(CompletableSource source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
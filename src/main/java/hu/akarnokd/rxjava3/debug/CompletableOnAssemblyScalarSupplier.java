@@ -31,7 +31,7 @@ final class CompletableOnAssemblyScalarSupplier extends Completable implements S
 
     CompletableOnAssemblyScalarSupplier(CompletableSource source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -32,7 +32,7 @@ final class CompletableOnAssemblySupplier extends Completable implements Supplie
 
     CompletableOnAssemblySupplier(CompletableSource source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -35,7 +35,7 @@ final class FlowableOnAssembly<T> extends Flowable<T> {
 
     FlowableOnAssembly(Publisher<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -37,7 +37,7 @@ final class FlowableOnAssemblyConnectable<T> extends ConnectableFlowable<T> {
 
     FlowableOnAssemblyConnectable(ConnectableFlowable<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -35,7 +35,7 @@ final class FlowableOnAssemblyScalarSupplier<T> extends Flowable<T> implements S
 
     FlowableOnAssemblyScalarSupplier(Publisher<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
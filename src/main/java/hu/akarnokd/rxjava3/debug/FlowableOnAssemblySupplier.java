@@ -37,7 +37,7 @@ final class FlowableOnAssemblySupplier<T> extends Flowable<T> implements Supplie
 
     FlowableOnAssemblySupplier(Publisher<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
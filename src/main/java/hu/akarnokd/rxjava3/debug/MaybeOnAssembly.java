@@ -33,7 +33,7 @@ final class MaybeOnAssembly<T> extends Maybe<T> {
 
     MaybeOnAssembly(MaybeSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -33,7 +33,7 @@ final class MaybeOnAssemblyScalarSupplier<T> extends Maybe<T> implements ScalarS
 
     MaybeOnAssemblyScalarSupplier(MaybeSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -34,7 +34,7 @@ final class MaybeOnAssemblySupplier<T> extends Maybe<T> implements Supplier<T> {
 
     MaybeOnAssemblySupplier(MaybeSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
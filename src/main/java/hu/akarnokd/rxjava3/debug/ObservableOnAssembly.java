@@ -33,7 +33,7 @@ final class ObservableOnAssembly<T> extends Observable<T> {
 
     ObservableOnAssembly(ObservableSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -35,7 +35,7 @@ final class ObservableOnAssemblyConnectable<T> extends ConnectableObservable<T>
 
     ObservableOnAssemblyConnectable(ConnectableObservable<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -33,7 +33,7 @@ final class ObservableOnAssemblyScalarSupplier<T> extends Observable<T> implemen
 
     ObservableOnAssemblyScalarSupplier(ObservableSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -34,7 +34,7 @@ final class ObservableOnAssemblySupplier<T> extends Observable<T> implements Sup
 
     ObservableOnAssemblySupplier(ObservableSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -36,7 +36,7 @@ final class ParallelFlowableOnAssembly<T> extends ParallelFlowable<T> {
 
     ParallelFlowableOnAssembly(ParallelFlowable<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -18,35 +18,84 @@ package hu.akarnokd.rxjava3.debug;
 
 import java.util.*;
 
+import hu.akarnokd.rxjava3.debug.CallSiteCache.CallSite;
+
 /**
  * Holds onto the assembly stacktrace.
+ * <p>
+ * In the production mode of {@link RxJavaAssemblyTracking}, only the relevant
+ * raw stacktrace elements are kept and formatted when the {@link #stacktrace()} is
+ * first requested; instances of the same call-site share these elements.
  */
 public final class RxJavaAssemblyException extends RuntimeException {
 
     private static final long serialVersionUID = -6757520270386306081L;
 
+    /**
+     * The bounded cache of the call-sites seen in production mode, null if
+     * each assembly should capture and format its stacktrace eagerly.
+     */
+    static volatile CallSiteCache callSites;
+
+    /** The possibly shared call-site record in production mode, null otherwise. */
+    final CallSite callSite;
+
     final String stacktrace;
 
     public RxJavaAssemblyException() {
+        this.callSite = null;
         this.stacktrace = buildStackTrace();
     }
 
+    RxJavaAssemblyException(CallSite callSite) {
+        this.callSite = callSite;
+        this.stacktrace = null;
+    }
+
+    /**
+     * Captures the current stacktrace according to the current tracking mode.
+     * @return the new RxJavaAssemblyException instance
+     */
+    static RxJavaAssemblyException capture() {
+        CallSiteCache c = callSites;
+        if (c == null) {
+            return new RxJavaAssemblyException();
+        }
+        return new RxJavaAssemblyException(c.intern(filter(Thread.currentThread().getStackTrace())));
+    }
+
     public static String buildStackTrace() {
-        StringBuilder b = new StringBuilder();
+        return format(filter(Thread.currentThread().getStackTrace()));
+    }
 
-        StackTraceElement[] es = Thread.currentThread().getStackTrace();
+    static String format(StackTraceElement[] es) {
+        StringBuilder b = new StringBuilder();
 
         b.append("RxJavaAssemblyException: assembled\r\n");
 
         for (StackTraceElement e : es) {
-            if (filter(e)) {
-                b.append("at ").append(e).append("\r\n");
-            }
+            b.append("at ").append(e).append("\r\n");
         }
 
         return b.toString();
     }
 
+    /**
+     * Returns the relevant stacktrace elements.
+     * @param es the stacktrace elements
+     * @return the array of elements that passed the filter
+     */
+    static StackTraceElement[] filter(StackTraceElement[] es) {
+        int n = 0;
+        StackTraceElement[] result = new StackTraceElement[es.length];
+        for (StackTraceElement e : es) {
+            if (filter(e)) {
+                result[n++] = e;
+            }
+        }
+        return n == es.length ? result : Arrays.copyOf(result, n);
+    }
+
     /**
      * Filters out irrelevant stacktrace entries.
      * @param e the stacktrace element
@@ -97,7 +146,8 @@ public final class RxJavaAssemblyException extends RuntimeException {
      * @return the captured and filtered stacktrace
      */
     public String stacktrace() {
-        return stacktrace;
+        CallSite cs = callSite;
+        return cs != null ? cs.stacktrace() : stacktrace;
     }
 
     @Override
@@ -127,7 +177,8 @@ public final class RxJavaAssemblyException extends RuntimeException {
         }
 
         try {
-            ex.initCause(this);
+            // in production mode, the causal chain of one error must not link the instances of others
+            ex.initCause(callSite != null ? new RxJavaAssemblyException(callSite) : this);
         } catch (Throwable exc) {
             // didn't work, oh well
         }
@@ -16,6 +16,7 @@
 
 package hu.akarnokd.rxjava3.debug;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.reactivex.rxjava3.core.*;
@@ -31,12 +32,22 @@ import io.reactivex.rxjava3.plugins.RxJavaPlugins;
  * by capturing the current stacktrace (warning: very expensive!), have it in a debug-time accessible
  * field (when walking the references in a debugger) and append it to exceptions passing by the
  * regular {@code onError}.
+ * <p>
+ * The {@link #enableProductionMode(double, int) production mode} reduces the overhead by
+ * tracking only a random sample of the assemblies, formatting the stacktraces only when
+ * they are requested and sharing the record of identical call-sites.
  */
 public final class RxJavaAssemblyTracking {
 
     /** Simply lock out concurrent state changes. */
     static final AtomicBoolean lock = new AtomicBoolean();
 
+    /** The default maximum number of distinct call-sites interned in production mode. */
+    public static final int DEFAULT_MAX_CALL_SITES = 4096;
+
+    /** The probability an assembly is tracked. */
+    static volatile double samplingRate = 1d;
+
     /** Utility class. */
     private RxJavaAssemblyTracking() {
         throw new IllegalStateException("No instances!");
@@ -45,13 +56,62 @@ public final class RxJavaAssemblyTracking {
     /**
      * Enable the assembly tracking.
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public static void enable() {
+        enable(1d, null);
+    }
+
+    /**
+     * Enable the assembly tracking in production mode, tracking every assembly
+     * and interning up to {@link #DEFAULT_MAX_CALL_SITES} distinct call-sites.
+     * @see #enableProductionMode(double, int)
+     * @since 3.0.0
+     */
+    public static void enableProductionMode() {
+        enableProductionMode(1d, DEFAULT_MAX_CALL_SITES);
+    }
+
+    /**
+     * Enable the assembly tracking in production mode.
+     * <p>
+     * Only a random sample of the assemblies are tracked, the others are
+     * not wrapped at all. Each tracked assembly still captures
+     * {@link Thread#getStackTrace()} eagerly and gets its own
+     * {@link RxJavaAssemblyException}, but keeps only the relevant raw stacktrace
+     * elements, which are formatted when {@link RxJavaAssemblyException#stacktrace()}
+     * is first called. Assemblies with the same stacktrace elements share the
+     * same interned call-site record, up to the given number of distinct call-sites.
+     * @param samplingRate the probability an assembly is tracked, in (0, 1]
+     * @param maxCallSites the maximum number of distinct call-sites to intern, non-negative
+     * @since 3.0.0
+     */
+    public static void enableProductionMode(double samplingRate, int maxCallSites) {
+        if (!(samplingRate > 0d && samplingRate <= 1d)) {
+            throw new IllegalArgumentException("samplingRate in (0, 1] required but it was " + samplingRate);
+        }
+        if (maxCallSites < 0) {
+            throw new IllegalArgumentException("maxCallSites >= 0 required but it was " + maxCallSites);
+        }
+        enable(samplingRate, new CallSiteCache(maxCallSites));
+    }
+
+    static boolean sampled() {
+        double r = samplingRate;
+        return r >= 1d || ThreadLocalRandom.current().nextDouble() < r;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static void enable(double samplingRate, CallSiteCache callSites) {
         if (lock.compareAndSet(false, true)) {
 
+            RxJavaAssemblyTracking.samplingRate = samplingRate;
+            RxJavaAssemblyException.callSites = callSites;
+
             RxJavaPlugins.setOnFlowableAssembly(new Function<Flowable, Flowable>() {
                 @Override
                 public Flowable apply(Flowable f) throws Exception {
+                    if (!sampled()) {
+                        return f;
+                    }
                     if (f instanceof Supplier) {
                         if (f instanceof ScalarSupplier) {
                             return new FlowableOnAssemblyScalarSupplier(f);
@@ -65,6 +125,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnConnectableFlowableAssembly(new Function<ConnectableFlowable, ConnectableFlowable>() {
                 @Override
                 public ConnectableFlowable apply(ConnectableFlowable f) throws Exception {
+                    if (!sampled()) {
+                        return f;
+                    }
                     return new FlowableOnAssemblyConnectable(f);
                 }
             });
@@ -72,6 +135,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnObservableAssembly(new Function<Observable, Observable>() {
                 @Override
                 public Observable apply(Observable f) throws Exception {
+                    if (!sampled()) {
+                        return f;
+                    }
                     if (f instanceof Supplier) {
                         if (f instanceof ScalarSupplier) {
                             return new ObservableOnAssemblyScalarSupplier(f);
@@ -85,6 +151,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnConnectableObservableAssembly(new Function<ConnectableObservable, ConnectableObservable>() {
                 @Override
                 public ConnectableObservable apply(ConnectableObservable f) throws Exception {
+                    if (!sampled()) {
+                        return f;
+                    }
                     return new ObservableOnAssemblyConnectable(f);
                 }
             });
@@ -92,6 +161,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnSingleAssembly(new Function<Single, Single>() {
                 @Override
                 public Single apply(Single f) throws Exception {
+                    if (!sampled()) {
+                        return f;
+                    }
                     if (f instanceof Supplier) {
                         if (f instanceof ScalarSupplier) {
                             return new SingleOnAssemblyScalarSupplier(f);
@@ -105,6 +177,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnCompletableAssembly(new Function<Completable, Completable>() {
                 @Override
                 public Completable apply(Completable f) throws Exception {
+                    if (!sampled()) {
+                        return f;
+                    }
                     if (f instanceof Supplier) {
                         if (f instanceof ScalarSupplier) {
                             return new CompletableOnAssemblyScalarSupplier(f);
@@ -118,6 +193,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnMaybeAssembly(new Function<Maybe, Maybe>() {
                 @Override
                 public Maybe apply(Maybe f) throws Exception {
+                    if (!sampled()) {
+                        return f;
+                    }
                     if (f instanceof Supplier) {
                         if (f instanceof ScalarSupplier) {
                             return new MaybeOnAssemblyScalarSupplier(f);
@@ -131,6 +209,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnParallelAssembly(new Function<ParallelFlowable, ParallelFlowable>() {
                 @Override
                 public ParallelFlowable apply(ParallelFlowable t) throws Exception {
+                    if (!sampled()) {
+                        return t;
+                    }
                     return new ParallelFlowableOnAssembly(t);
                 }
             });
@@ -156,6 +237,9 @@ public final class RxJavaAssemblyTracking {
 
             RxJavaPlugins.setOnParallelAssembly(null);
 
+            samplingRate = 1d;
+            RxJavaAssemblyException.callSites = null;
+
             lock.set(false);
         }
     }
@@ -33,7 +33,7 @@ final class SingleOnAssembly<T> extends Single<T> {
 
     SingleOnAssembly(SingleSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
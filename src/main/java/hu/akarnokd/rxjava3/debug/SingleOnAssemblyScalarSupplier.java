@@ -33,7 +33,7 @@ final class SingleOnAssemblyScalarSupplier<T> extends Single<T> implements Scala
 
     SingleOnAssemblyScalarSupplier(SingleSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
@@ -34,7 +34,7 @@ final class SingleOnAssemblySupplier<T> extends Single<T> implements Supplier<T>
 
     SingleOnAssemblySupplier(SingleSource<T> source) {
         this.source = source;
-        this.assembled = new RxJavaAssemblyException();
+        this.assembled = RxJavaAssemblyException.capture();
     }
 
     @Override
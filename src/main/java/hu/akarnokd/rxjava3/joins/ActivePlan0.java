@@ -16,22 +16,36 @@
 
 package hu.akarnokd.rxjava3.joins;
 
-import java.util.*;
-
 /**
  * Represents an activated plan.
  */
 abstract class ActivePlan0 {
-    protected final Map<JoinObserver, JoinObserver> joinObservers = new HashMap<>();
+    /** The distinct join observers of this plan; a source may appear multiple times in a pattern. */
+    protected JoinObserver[] joinObservers = new JoinObserver[0];
 
-    protected abstract void match() throws Throwable;
+    /**
+     * Tries to match one element from each participating source.
+     * @return true if a combination was consumed and emitted, false if
+     * there was nothing to match or the plan has completed
+     * @throws Throwable if the onNext or onCompleted callback failed
+     */
+    protected abstract boolean match() throws Throwable;
 
     protected void addJoinObserver(JoinObserver joinObserver) {
-        joinObservers.put(joinObserver, joinObserver);
+        JoinObserver[] a = joinObservers;
+        for (JoinObserver jo : a) {
+            if (jo == joinObserver) {
+                return;
+            }
+        }
+        JoinObserver[] b = new JoinObserver[a.length + 1];
+        System.arraycopy(a, 0, b, 0, a.length);
+        b[a.length] = joinObserver;
+        joinObservers = b;
     }
 
     protected void dequeue() {
-        for (JoinObserver jo : joinObservers.values()) {
+        for (JoinObserver jo : joinObservers) {
             jo.dequeue();
         }
     }
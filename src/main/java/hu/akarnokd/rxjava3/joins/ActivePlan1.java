@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava3.joins;
 
-import io.reactivex.rxjava3.core.Notification;
 import io.reactivex.rxjava3.functions.*;
 
 /**
@@ -36,16 +35,18 @@ final class ActivePlan1<T1> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Throwable {
-        if (!jo1.queue().isEmpty()) {
-            Notification<T1> n1 = jo1.queue().peek();
-            if (n1.isOnComplete()) {
+    protected boolean match() throws Throwable {
+        if (jo1.isReady()) {
+            T1 v1 = jo1.peek();
+            if (jo1.isCompleted()) {
                 onCompleted.run();
-            } else {
-                dequeue();
-                onNext.accept(n1.getValue());
+                return false;
             }
+            dequeue();
+            onNext.accept(v1);
+            return true;
         }
+        return false;
     }
 
 }
@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava3.joins;
 
-import io.reactivex.rxjava3.core.Notification;
 import io.reactivex.rxjava3.functions.*;
 
 /**
@@ -40,18 +39,20 @@ final class ActivePlan2<T1, T2> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Throwable {
-        if (!jo1.queue().isEmpty() && !jo2.queue().isEmpty()) {
-            Notification<T1> n1 = jo1.queue().peek();
-            Notification<T2> n2 = jo2.queue().peek();
+    protected boolean match() throws Throwable {
+        if (jo1.isReady() && jo2.isReady()) {
+            T1 v1 = jo1.peek();
+            T2 v2 = jo2.peek();
 
-            if (n1.isOnComplete() || n2.isOnComplete()) {
+            if (jo1.isCompleted() || jo2.isCompleted()) {
                 onCompleted.run();
-            } else {
-                dequeue();
-                onNext.accept(n1.getValue(), n2.getValue());
+                return false;
             }
+            dequeue();
+            onNext.accept(v1, v2);
+            return true;
         }
+        return false;
     }
 
 }
@@ -17,7 +17,6 @@
 package hu.akarnokd.rxjava3.joins;
 
 import hu.akarnokd.rxjava3.functions.Consumer3;
-import io.reactivex.rxjava3.core.Notification;
 import io.reactivex.rxjava3.functions.Action;
 
 /**
@@ -49,21 +48,23 @@ final class ActivePlan3<T1, T2, T3> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Throwable {
-        if (!first.queue().isEmpty()
-                && !second.queue().isEmpty()
-                && !third.queue().isEmpty()) {
-            Notification<T1> n1 = first.queue().peek();
-            Notification<T2> n2 = second.queue().peek();
-            Notification<T3> n3 = third.queue().peek();
+    protected boolean match() throws Throwable {
+        if (first.isReady()
+                && second.isReady()
+                && third.isReady()) {
+            T1 v1 = first.peek();
+            T2 v2 = second.peek();
+            T3 v3 = third.peek();
 
-            if (n1.isOnComplete() || n2.isOnComplete() || n3.isOnComplete()) {
+            if (first.isCompleted() || second.isCompleted() || third.isCompleted()) {
                 onCompleted.run();
-            } else {
-                dequeue();
-                onNext.accept(n1.getValue(), n2.getValue(), n3.getValue());
+                return false;
             }
+            dequeue();
+            onNext.accept(v1, v2, v3);
+            return true;
         }
+        return false;
     }
 
 }
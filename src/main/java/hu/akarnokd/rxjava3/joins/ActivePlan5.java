@@ -17,7 +17,6 @@
 package hu.akarnokd.rxjava3.joins;
 
 import hu.akarnokd.rxjava3.functions.Consumer5;
-import io.reactivex.rxjava3.core.Notification;
 import io.reactivex.rxjava3.functions.Action;
 
 /**
@@ -60,37 +59,39 @@ final class ActivePlan5<T1, T2, T3, T4, T5> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Throwable {
-        if (!jo1.queue().isEmpty()
-                && !jo2.queue().isEmpty()
-                && !jo3.queue().isEmpty()
-                && !jo4.queue().isEmpty()
-                && !jo5.queue().isEmpty()
+    protected boolean match() throws Throwable {
+        if (jo1.isReady()
+                && jo2.isReady()
+                && jo3.isReady()
+                && jo4.isReady()
+                && jo5.isReady()
         ) {
-            Notification<T1> n1 = jo1.queue().peek();
-            Notification<T2> n2 = jo2.queue().peek();
-            Notification<T3> n3 = jo3.queue().peek();
-            Notification<T4> n4 = jo4.queue().peek();
-            Notification<T5> n5 = jo5.queue().peek();
+            T1 v1 = jo1.peek();
+            T2 v2 = jo2.peek();
+            T3 v3 = jo3.peek();
+            T4 v4 = jo4.peek();
+            T5 v5 = jo5.peek();
 
-            if (n1.isOnComplete()
-                    || n2.isOnComplete()
-                    || n3.isOnComplete()
-                    || n4.isOnComplete()
-                    || n5.isOnComplete()
+            if (jo1.isCompleted()
+                    || jo2.isCompleted()
+                    || jo3.isCompleted()
+                    || jo4.isCompleted()
+                    || jo5.isCompleted()
             ) {
                 onCompleted.run();
-            } else {
-                dequeue();
-                onNext.accept(
-                        n1.getValue(),
-                        n2.getValue(),
-                        n3.getValue(),
-                        n4.getValue(),
-                        n5.getValue()
-                );
+                return false;
             }
+            dequeue();
+            onNext.accept(
+                    v1,
+                    v2,
+                    v3,
+                    v4,
+                    v5
+            );
+            return true;
         }
+        return false;
     }
 
 }
@@ -17,7 +17,6 @@
 package hu.akarnokd.rxjava3.joins;
 
 import hu.akarnokd.rxjava3.functions.Consumer9;
-import io.reactivex.rxjava3.core.Notification;
 import io.reactivex.rxjava3.functions.Action;
 
 /**
@@ -80,53 +79,55 @@ final class ActivePlan9<T1, T2, T3, T4, T5, T6, T7, T8, T9> extends ActivePlan0
     }
 
     @Override
-    protected void match() throws Throwable {
-        if (!jo1.queue().isEmpty()
-                && !jo2.queue().isEmpty()
-                && !jo3.queue().isEmpty()
-                && !jo4.queue().isEmpty()
-                && !jo5.queue().isEmpty()
-                && !jo6.queue().isEmpty()
-                && !jo7.queue().isEmpty()
-                && !jo8.queue().isEmpty()
-                && !jo9.queue().isEmpty()
+    protected boolean match() throws Throwable {
+        if (jo1.isReady()
+                && jo2.isReady()
+                && jo3.isReady()
+                && jo4.isReady()
+                && jo5.isReady()
+                && jo6.isReady()
+                && jo7.isReady()
+                && jo8.isReady()
+                && jo9.isReady()
         ) {
-            Notification<T1> n1 = jo1.queue().peek();
-            Notification<T2> n2 = jo2.queue().peek();
-            Notification<T3> n3 = jo3.queue().peek();
-            Notification<T4> n4 = jo4.queue().peek();
-            Notification<T5> n5 = jo5.queue().peek();
-            Notification<T6> n6 = jo6.queue().peek();
-            Notification<T7> n7 = jo7.queue().peek();
-            Notification<T8> n8 = jo8.queue().peek();
-            Notification<T9> n9 = jo9.queue().peek();
+            T1 v1 = jo1.peek();
+            T2 v2 = jo2.peek();
+            T3 v3 = jo3.peek();
+            T4 v4 = jo4.peek();
+            T5 v5 = jo5.peek();
+            T6 v6 = jo6.peek();
+            T7 v7 = jo7.peek();
+            T8 v8 = jo8.peek();
+            T9 v9 = jo9.peek();
 
-            if (n1.isOnComplete()
-                    || n2.isOnComplete()
-                    || n3.isOnComplete()
-                    || n4.isOnComplete()
-                    || n5.isOnComplete()
-                    || n6.isOnComplete()
-                    || n7.isOnComplete()
-                    || n8.isOnComplete()
-                    || n9.isOnComplete()
+            if (jo1.isCompleted()
+                    || jo2.isCompleted()
+                    || jo3.isCompleted()
+                    || jo4.isCompleted()
+                    || jo5.isCompleted()
+                    || jo6.isCompleted()
+                    || jo7.isCompleted()
+                    || jo8.isCompleted()
+                    || jo9.isCompleted()
             ) {
                 onCompleted.run();
-            } else {
-                dequeue();
-                onNext.accept(
-                        n1.getValue(),
-                        n2.getValue(),
-                        n3.getValue(),
-                        n4.getValue(),
-                        n5.getValue(),
-                        n6.getValue(),
-                        n7.getValue(),
-                        n8.getValue(),
-                        n9.getValue()
-                );
+                return false;
             }
+            dequeue();
+            onNext.accept(
+                    v1,
+                    v2,
+                    v3,
+                    v4,
+                    v5,
+                    v6,
+                    v7,
+                    v8,
+                    v9
+            );
+            return true;
         }
+        return false;
     }
 
 }
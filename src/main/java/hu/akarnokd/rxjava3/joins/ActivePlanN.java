@@ -16,9 +16,8 @@
 
 package hu.akarnokd.rxjava3.joins;
 
-import java.util.*;
+import java.util.List;
 
-import io.reactivex.rxjava3.core.Notification;
 import io.reactivex.rxjava3.functions.*;
 
 /**
@@ -27,42 +26,42 @@ import io.reactivex.rxjava3.functions.*;
 final class ActivePlanN extends ActivePlan0 {
     private final Consumer<? super Object[]> onNext;
     private final Action onCompleted;
-    private final List<JoinObserver1<? extends Object>> observers;
+    private final JoinObserver1<?>[] observers;
 
     ActivePlanN(List<JoinObserver1<? extends Object>> observers,
             Consumer<? super Object[]> onNext,
             Action onCompleted) {
         this.onNext = onNext;
         this.onCompleted = onCompleted;
-        this.observers = new ArrayList<>(observers);
-        for (JoinObserver1<? extends Object> jo : this.observers) {
+        this.observers = observers.toArray(new JoinObserver1<?>[0]);
+        for (JoinObserver1<?> jo : this.observers) {
             addJoinObserver(jo);
         }
     }
 
     @Override
-    protected void match() throws Throwable {
-        Object[] notifications = new Object[this.observers.size()];
-        int j = 0;
-        int completedCount = 0;
-        for (JoinObserver1<? extends Object> jo : this.observers) {
-            if (jo.queue().isEmpty()) {
-                return;
+    protected boolean match() throws Throwable {
+        JoinObserver1<?>[] a = observers;
+        boolean completed = false;
+        for (JoinObserver1<?> jo : a) {
+            if (!jo.isReady()) {
+                return false;
             }
-            Notification<? extends Object> n = jo.queue().peek();
-            if (n.isOnComplete()) {
-                completedCount++;
-            }
-            notifications[j] = n.getValue();
-            j++;
+            completed |= jo.isCompleted();
         }
 
-        if (completedCount == j) {
+        if (completed) {
             onCompleted.run();
-        } else {
-            dequeue();
-            onNext.accept(notifications);
+            return false;
+        }
+        // the selector may retain the array so it can't be reused between matches
+        Object[] values = new Object[a.length];
+        for (int i = 0; i < a.length; i++) {
+            values[i] = a[i].peek();
         }
+        dequeue();
+        onNext.accept(values);
+        return true;
     }
 
 }
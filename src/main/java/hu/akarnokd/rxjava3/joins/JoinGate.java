@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.joins;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.exceptions.*;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * Serializes the matching of the active plans of a join via a lock-free
+ * work-in-progress counter: the source thread that increments it from zero
+ * drains all buffered items, other source threads just indicate more work.
+ * <p>
+ * The plan table is an array that is only copied when a plan completes,
+ * matching itself doesn't allocate.
+ */
+final class JoinGate extends AtomicInteger {
+
+    private static final long serialVersionUID = 6307386286702224716L;
+
+    private final Consumer<Throwable> onError;
+
+    private JoinObserver[] observers;
+
+    private ActivePlan0[] plans;
+
+    private boolean terminated;
+
+    JoinGate(Consumer<Throwable> onError) {
+        this.onError = onError;
+    }
+
+    void init(Collection<JoinObserver> observers, List<ActivePlan0> plans) {
+        this.observers = observers.toArray(new JoinObserver[0]);
+        this.plans = plans.toArray(new ActivePlan0[0]);
+    }
+
+    /**
+     * Removes a completed plan; called from the drain loop only.
+     * @param plan the plan to remove
+     */
+    void remove(ActivePlan0 plan) {
+        ActivePlan0[] a = plans;
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            if (a[i] == plan) {
+                ActivePlan0[] b = new ActivePlan0[n - 1];
+                System.arraycopy(a, 0, b, 0, i);
+                System.arraycopy(a, i + 1, b, i, n - i - 1);
+                plans = b;
+                return;
+            }
+        }
+    }
+
+    void drain() {
+        if (getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        for (;;) {
+            if (!terminated) {
+                for (JoinObserver jo : observers) {
+                    if (jo.checkError()) {
+                        terminated = true;
+                        break;
+                    }
+                }
+            }
+
+            if (!terminated) {
+                for (ActivePlan0 plan : plans) {
+                    try {
+                        while (plan.match()) { }
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        terminated = true;
+                        try {
+                            onError.accept(ex);
+                        } catch (Throwable ex2) {
+                            Exceptions.throwIfFatal(ex2);
+                            RxJavaPlugins.onError(new CompositeException(ex, ex2));
+                        }
+                        break;
+                    }
+                }
+            }
+
+            if (terminated || plans.length == 0) {
+                for (JoinObserver jo : observers) {
+                    jo.clear();
+                }
+            }
+
+            missed = addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+}
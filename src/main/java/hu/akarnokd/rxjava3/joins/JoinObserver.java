@@ -22,7 +22,19 @@ import io.reactivex.rxjava3.disposables.Disposable;
  * Base interface to manage joined observations.
  */
 interface JoinObserver extends Disposable {
-    void subscribe(Object gate);
+    void subscribe(JoinGate gate);
 
     void dequeue();
+
+    /**
+     * Delivers the error of the source, if any, and clears the buffered items.
+     * Called from the drain loop only.
+     * @return true if the source has failed
+     */
+    boolean checkError();
+
+    /**
+     * Drops the buffered items; called from the drain loop only.
+     */
+    void clear();
 }
@@ -16,54 +16,76 @@
 
 package hu.akarnokd.rxjava3.joins;
 
-import java.util.*;
 import java.util.concurrent.atomic.*;
 
-import io.reactivex.rxjava3.core.Notification;
-import io.reactivex.rxjava3.core.Observable;
-import io.reactivex.rxjava3.core.Observer;
+import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.exceptions.*;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.internal.disposables.DisposableHelper;
+import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 
 /**
- * Default implementation of a join observer.
- * @param <T> the input element type
+ * Buffers the items of a source in a single-producer single-consumer queue
+ * where the producer is the source and the consumer is whichever thread
+ * runs the {@link JoinGate} drain loop.
+ * @param <T> the value type
  */
-final class JoinObserver1<T> implements Observer<Notification<T>>, JoinObserver {
-    private Object gate;
+final class JoinObserver1<T> extends AtomicReference<Disposable> implements Observer<T>, JoinObserver {
+
+    private static final long serialVersionUID = -1466017793444404254L;
+
+    private JoinGate gate;
     private final Observable<T> source;
     private final Consumer<Throwable> onError;
-    private final List<ActivePlan0> activePlans;
-    private final Queue<Notification<T>> queue;
+    private final SpscLinkedArrayQueue<T> queue;
     private final AtomicBoolean subscribed = new AtomicBoolean(false);
-    private final InnerObserver safeObserver;
+    /** The number of active plans referencing this observer, accessed from the drain loop only. */
+    private int activePlans;
+    private volatile boolean done;
+    private Throwable error;
 
     JoinObserver1(Observable<T> source, Consumer<Throwable> onError) {
         this.source = source;
         this.onError = onError;
-        queue = new LinkedList<>();
-        activePlans = new ArrayList<>();
-        safeObserver = new InnerObserver();
-        // add this subscription so it gets unsubscribed when the parent does
-//        add(safeObserver);
+        this.queue = new SpscLinkedArrayQueue<>(Flowable.bufferSize());
+    }
+
+    /**
+     * Returns true if there is an item or a completion to match.
+     * @return true if there is an item or a completion to match
+     */
+    public boolean isReady() {
+        boolean d = done;
+        return !queue.isEmpty() || (d && error == null);
+    }
+
+    /**
+     * Returns true if the source has completed normally and all of its items were consumed.
+     * @return true if the head of the sequence is the completion
+     */
+    public boolean isCompleted() {
+        return done && error == null && queue.isEmpty();
     }
 
-    public Queue<Notification<T>> queue() {
-        return queue;
+    /**
+     * Returns the current head item without removing it, null if the sequence has completed.
+     * @return the current head item
+     */
+    public T peek() {
+        return queue.peek();
     }
 
     public void addActivePlan(ActivePlan0 activePlan) {
-        activePlans.add(activePlan);
+        activePlans++;
     }
 
     @Override
-    public void subscribe(Object gate) {
+    public void subscribe(JoinGate gate) {
         if (subscribed.compareAndSet(false, true)) {
             this.gate = gate;
-            source.materialize().subscribe(this);
+            source.subscribe(this);
         } else {
             throw new IllegalStateException("Can only be subscribed to once.");
         }
@@ -71,100 +93,69 @@ final class JoinObserver1<T> implements Observer<Notification<T>>, JoinObserver
 
     @Override
     public void dequeue() {
-        queue.remove();
+        queue.poll();
+    }
+
+    @Override
+    public boolean checkError() {
+        if (done && !isDisposed()) {
+            Throwable ex = error;
+            if (ex != null) {
+                queue.clear();
+                try {
+                    onError.accept(ex);
+                } catch (Throwable ex2) {
+                    Exceptions.throwIfFatal(ex2);
+                    RxJavaPlugins.onError(new CompositeException(ex, ex2));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        DisposableHelper.setOnce(this, d);
     }
 
     @Override
-    public void onNext(Notification<T> args) {
-        safeObserver.onNext(args);
+    public void onNext(T t) {
+        queue.offer(t);
+        gate.drain();
     }
 
     @Override
     public void onError(Throwable e) {
-        safeObserver.onError(e);
+        error = e;
+        done = true;
+        gate.drain();
     }
 
     @Override
     public void onComplete() {
-        safeObserver.onComplete();
+        done = true;
+        gate.drain();
     }
 
     void removeActivePlan(ActivePlan0 activePlan) {
-        activePlans.remove(activePlan);
-        if (activePlans.isEmpty()) {
+        if (--activePlans == 0) {
             dispose();
         }
     }
 
-    @Override
-    public void onSubscribe(Disposable d) {
-        safeObserver.onSubscribe(d);
-    }
-
     @Override
     public boolean isDisposed() {
-        return DisposableHelper.isDisposed(safeObserver.get());
+        return DisposableHelper.isDisposed(get());
     }
 
     @Override
     public void dispose() {
-        DisposableHelper.dispose(safeObserver);
-    }
-
-    final class InnerObserver
-    extends AtomicReference<Disposable>
-    implements Observer<Notification<T>> {
-
-        private static final long serialVersionUID = -1466017793444404254L;
-
-        @Override
-        public void onSubscribe(Disposable d) {
-            DisposableHelper.setOnce(this, d);
-        }
-
-        @Override
-        public void onNext(Notification<T> args) {
-            synchronized (gate) {
-                if (!DisposableHelper.isDisposed(get())) {
-                    if (args.isOnError()) {
-                        try {
-                            onError.accept(args.getError());
-                        } catch (Throwable ex) {
-                            Exceptions.throwIfFatal(ex);
-                            RxJavaPlugins.onError(new CompositeException(args.getError(), ex));
-                        }
-                        return;
-                    }
-                    queue.add(args);
-
-                    // remark: activePlans might change while iterating
-                    for (ActivePlan0 a : new ArrayList<>(activePlans)) {
-                        try {
-                            a.match();
-                        } catch (Throwable ex) {
-                            Exceptions.throwIfFatal(ex);
-                            try {
-                                onError.accept(ex);
-                            } catch (Throwable ex2) {
-                                Exceptions.throwIfFatal(ex2);
-                                RxJavaPlugins.onError(new CompositeException(ex, ex2));
-                                return;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        @Override
-        public void onError(Throwable e) {
-            // not expected
-        }
-
-        @Override
-        public void onComplete() {
-            // not expected or ignored
-        }
+        DisposableHelper.dispose(this);
     }
-
-}
\ No newline at end of file
+}
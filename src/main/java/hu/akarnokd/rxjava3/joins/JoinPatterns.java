@@ -94,7 +94,6 @@ final class JoinPatterns {
             @Override
             protected void subscribeActual(final Observer<? super R> t1) {
                 final Map<Object, JoinObserver> externalSubscriptions = new HashMap<>();
-                final Object gate = new Object();
                 final List<ActivePlan0> activePlans = new ArrayList<>();
 
                 final Observer<R> out = new SafeObserver<>(new Observer<R>() {
@@ -124,12 +123,15 @@ final class JoinPatterns {
 
                 out.onSubscribe(Disposable.empty());
 
+                final JoinGate gate = new JoinGate(Plan.onErrorFrom(out));
+
                 try {
                     for (Plan<R> plan : plans) {
                         activePlans.add(plan.activate(externalSubscriptions, out, new Consumer<ActivePlan0>() {
                             @Override
                             public void accept(ActivePlan0 activePlan) {
                                 activePlans.remove(activePlan);
+                                gate.remove(activePlan);
                                 if (activePlans.isEmpty()) {
                                     out.onComplete();
                                 }
@@ -140,6 +142,7 @@ final class JoinPatterns {
                     Observable.<R> error(t).subscribe(t1);
                     return;
                 }
+                gate.init(externalSubscriptions.values(), activePlans);
                 CompositeDisposable group = new CompositeDisposable();
                 t1.onSubscribe(group);
                 for (JoinObserver jo : externalSubscriptions.values()) {
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.internal.subscribers.DeferredScalarSubscriber;
+
+final class FlowableQuantileSketch extends FlowableSource<Number, QuantileSketch> {
+
+    final double relativeAccuracy;
+
+    FlowableQuantileSketch(Publisher<Number> source, double relativeAccuracy) {
+        super(source);
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super QuantileSketch> subscriber) {
+        source.subscribe(new QuantileSketchSubscriber(subscriber, relativeAccuracy));
+    }
+
+    static final class QuantileSketchSubscriber extends DeferredScalarSubscriber<Number, QuantileSketch> {
+
+        private static final long serialVersionUID = 600979972678601618L;
+
+        final QuantileSketch sketch;
+
+        QuantileSketchSubscriber(Subscriber<? super QuantileSketch> downstream, double relativeAccuracy) {
+            super(downstream);
+            this.sketch = new QuantileSketch(relativeAccuracy);
+        }
+
+        @Override
+        public void onNext(Number value) {
+            sketch.add(value.doubleValue());
+        }
+
+        @Override
+        public void onComplete() {
+            QuantileSketch s = sketch;
+            if (s.count() != 0L) {
+                complete(s);
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
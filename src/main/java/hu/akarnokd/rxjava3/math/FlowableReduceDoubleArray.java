@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.internal.subscribers.DeferredScalarSubscriber;
+
+final class FlowableReduceDoubleArray extends FlowableSource<double[], Double> {
+
+    final int mode;
+
+    FlowableReduceDoubleArray(Publisher<double[]> source, int mode) {
+        super(source);
+        this.mode = mode;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super Double> subscriber) {
+        source.subscribe(new ReduceDoubleArraySubscriber(subscriber, mode));
+    }
+
+    static final class ReduceDoubleArraySubscriber extends DeferredScalarSubscriber<double[], Double> {
+
+        private static final long serialVersionUID = 600979972678601618L;
+
+        final int mode;
+
+        double accumulator;
+
+        ReduceDoubleArraySubscriber(Subscriber<? super Double> downstream, int mode) {
+            super(downstream);
+            this.mode = mode;
+        }
+
+        @Override
+        public void onNext(double[] array) {
+            if (array.length == 0) {
+                return;
+            }
+            switch (mode) {
+            case PrimitiveArrayMath.SUM:
+                accumulator += PrimitiveArrayMath.sum(array);
+                break;
+            case PrimitiveArrayMath.MIN: {
+                double m = PrimitiveArrayMath.min(array);
+                accumulator = hasValue ? Math.min(accumulator, m) : m;
+                break;
+            }
+            default: {
+                double m = PrimitiveArrayMath.max(array);
+                accumulator = hasValue ? Math.max(accumulator, m) : m;
+            }
+            }
+            hasValue = true;
+        }
+
+        @Override
+        public void onComplete() {
+            if (hasValue) {
+                complete(accumulator);
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
@@ -16,12 +16,15 @@
 
 package hu.akarnokd.rxjava3.math;
 
-import java.util.Comparator;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import org.reactivestreams.Publisher;
 
 import hu.akarnokd.rxjava3.util.SelfComparator;
-import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.internal.functions.ObjectHelper;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 
 /**
@@ -77,4 +80,238 @@ public final class MathFlowable {
         return RxJavaPlugins.onAssembly(new FlowableAverageDouble((Publisher<Number>)source));
     }
 
+    /**
+     * Computes the count, sum, mean, variance, minimum and maximum of the numbers
+     * of the source in a single pass, or completes empty if the source is empty.
+     * <p>
+     * The mean and variance are computed with Welford's algorithm and the sum
+     * is compensated (Kahan-Neumaier) which avoids the loss of precision of
+     * naive running sums on long sequences.
+     * @param source the source of numbers
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    @SuppressWarnings("unchecked")
+    public static Flowable<Statistics> statistics(Publisher<? extends Number> source) {
+        return RxJavaPlugins.onAssembly(new FlowableStatistics((Publisher<Number>)source));
+    }
+
+    /**
+     * Collects the numbers of the source into a {@link QuantileSketch} with 1% relative accuracy
+     * and emits it when the source completes, or completes empty if the source is empty.
+     * @param source the source of numbers
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<QuantileSketch> quantileSketch(Publisher<? extends Number> source) {
+        return quantileSketch(source, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Collects the numbers of the source into a {@link QuantileSketch} with the given relative accuracy
+     * and emits it when the source completes, or completes empty if the source is empty.
+     * @param source the source of numbers
+     * @param relativeAccuracy the relative accuracy of the quantiles, in (0, 1) exclusive
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    @SuppressWarnings("unchecked")
+    public static Flowable<QuantileSketch> quantileSketch(Publisher<? extends Number> source, double relativeAccuracy) {
+        Objects.requireNonNull(source, "source is null");
+        QuantileSketch.verifyRelativeAccuracy(relativeAccuracy);
+        return RxJavaPlugins.onAssembly(new FlowableQuantileSketch((Publisher<Number>)source, relativeAccuracy));
+    }
+
+    /**
+     * Emits the approximate values (with 1% relative accuracy) at the given quantiles of the numbers
+     * of the source when it completes, or completes empty if the source is empty.
+     * <p>
+     * The values are not retained, only counted in a compact {@link QuantileSketch}.
+     * @param source the source of numbers
+     * @param quantiles the quantiles, each in [0, 1], for example, 0.5, 0.99, 0.999
+     * @return the new Flowable instance emitting an array with the values in the order of the quantiles
+     * @since 3.0.0
+     */
+    public static Flowable<double[]> percentiles(Publisher<? extends Number> source, double... quantiles) {
+        return quantileSketch(source).map(new QuantilesFunction(QuantileSketch.verifyQuantiles(quantiles)));
+    }
+
+    /**
+     * Emits the approximate values (with 1% relative accuracy) at the given quantiles of each
+     * consecutive, non-overlapping window of the given number of items of the source
+     * (and the last, possibly shorter window).
+     * @param source the source of numbers
+     * @param windowSize the number of items per window, positive
+     * @param quantiles the quantiles, each in [0, 1], for example, 0.5, 0.99, 0.999
+     * @return the new Flowable instance emitting an array with the values in the order of the quantiles per window
+     * @since 3.0.0
+     */
+    public static Flowable<double[]> windowedPercentiles(Publisher<? extends Number> source, int windowSize, double... quantiles) {
+        ObjectHelper.verifyPositive(windowSize, "windowSize");
+        return windowedPercentiles(Flowable.fromPublisher(source).window(windowSize), quantiles);
+    }
+
+    /**
+     * Emits the approximate values (with 1% relative accuracy) at the given quantiles of each
+     * consecutive, non-overlapping time window of the source; windows without items
+     * are skipped.
+     * @param source the source of numbers
+     * @param time the length of the time windows
+     * @param unit the time unit of the windows
+     * @param scheduler the scheduler timing the windows
+     * @param quantiles the quantiles, each in [0, 1], for example, 0.5, 0.99, 0.999
+     * @return the new Flowable instance emitting an array with the values in the order of the quantiles per window
+     * @since 3.0.0
+     */
+    public static Flowable<double[]> windowedPercentiles(Publisher<? extends Number> source, long time, TimeUnit unit, Scheduler scheduler, double... quantiles) {
+        return windowedPercentiles(Flowable.fromPublisher(source).window(time, unit, scheduler), quantiles);
+    }
+
+    static <T extends Number> Flowable<double[]> windowedPercentiles(Flowable<Flowable<T>> windows, double... quantiles) {
+        final QuantilesFunction extractor = new QuantilesFunction(QuantileSketch.verifyQuantiles(quantiles));
+        return windows.concatMap(new Function<Flowable<T>, Publisher<double[]>>() {
+            @Override
+            public Publisher<double[]> apply(Flowable<T> w) throws Exception {
+                return quantileSketch(w).map(extractor);
+            }
+        });
+    }
+
+    /**
+     * Sums up the elements of the primitive long arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Long> sumLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceLongArray(source, PrimitiveArrayMath.SUM));
+    }
+
+    /**
+     * Returns the smallest of the elements of the primitive long arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Long> minLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceLongArray(source, PrimitiveArrayMath.MIN));
+    }
+
+    /**
+     * Returns the largest of the elements of the primitive long arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Long> maxLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceLongArray(source, PrimitiveArrayMath.MAX));
+    }
+
+    /**
+     * Computes the average of the elements of the primitive long arrays of the source,
+     * or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Double> averageLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableAverageLongArray(source));
+    }
+
+    /**
+     * Sums up the elements of the primitive int arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * <p>
+     * The sum overflows the same way as {@link #sumInt(Publisher)}.
+     * @param source the source of int arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Integer> sumIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceIntArray(source, PrimitiveArrayMath.SUM));
+    }
+
+    /**
+     * Returns the smallest of the elements of the primitive int arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of int arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Integer> minIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceIntArray(source, PrimitiveArrayMath.MIN));
+    }
+
+    /**
+     * Returns the largest of the elements of the primitive int arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of int arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Integer> maxIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceIntArray(source, PrimitiveArrayMath.MAX));
+    }
+
+    /**
+     * Computes the average of the elements of the primitive int arrays of the source,
+     * or completes empty if there were no elements at all.
+     * @param source the source of int arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Double> averageIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableAverageIntArray(source));
+    }
+
+    /**
+     * Sums up the elements of the primitive double arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of double arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Double> sumDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceDoubleArray(source, PrimitiveArrayMath.SUM));
+    }
+
+    /**
+     * Returns the smallest of the elements of the primitive double arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * <p>
+     * Unlike {@link #min(Publisher)}, NaNs are propagated via {@link Math#min(double, double)}.
+     * @param source the source of double arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Double> minDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceDoubleArray(source, PrimitiveArrayMath.MIN));
+    }
+
+    /**
+     * Returns the largest of the elements of the primitive double arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * <p>
+     * Unlike {@link #max(Publisher)}, NaNs are propagated via {@link Math#max(double, double)}.
+     * @param source the source of double arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Double> maxDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableReduceDoubleArray(source, PrimitiveArrayMath.MAX));
+    }
+
+    /**
+     * Computes the average of the elements of the primitive double arrays of the source,
+     * or completes empty if there were no elements at all.
+     * @param source the source of double arrays
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<Double> averageDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableAverageDoubleArray(source));
+    }
 }
@@ -75,4 +75,157 @@ public final class MathObservable {
         return RxJavaPlugins.onAssembly(new ObservableAverageDouble((ObservableSource<Number>)source));
     }
 
+    /**
+     * Computes the count, sum, mean, variance, minimum and maximum of the numbers
+     * of the source in a single pass, or completes empty if the source is empty.
+     * <p>
+     * The mean and variance are computed with Welford's algorithm and the sum
+     * is compensated (Kahan-Neumaier) which avoids the loss of precision of
+     * naive running sums on long sequences.
+     * @param source the source of numbers
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    @SuppressWarnings("unchecked")
+    public static Observable<Statistics> statistics(ObservableSource<? extends Number> source) {
+        return RxJavaPlugins.onAssembly(new ObservableStatistics((ObservableSource<Number>)source));
+    }
+
+    /**
+     * Sums up the elements of the primitive long arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Long> sumLongArray(ObservableSource<long[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceLongArray(source, PrimitiveArrayMath.SUM));
+    }
+
+    /**
+     * Returns the smallest of the elements of the primitive long arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Long> minLongArray(ObservableSource<long[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceLongArray(source, PrimitiveArrayMath.MIN));
+    }
+
+    /**
+     * Returns the largest of the elements of the primitive long arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Long> maxLongArray(ObservableSource<long[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceLongArray(source, PrimitiveArrayMath.MAX));
+    }
+
+    /**
+     * Computes the average of the elements of the primitive long arrays of the source,
+     * or completes empty if there were no elements at all.
+     * @param source the source of long arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Double> averageLongArray(ObservableSource<long[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableAverageLongArray(source));
+    }
+
+    /**
+     * Sums up the elements of the primitive int arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * <p>
+     * The sum overflows the same way as {@link #sumInt(ObservableSource)}.
+     * @param source the source of int arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Integer> sumIntArray(ObservableSource<int[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceIntArray(source, PrimitiveArrayMath.SUM));
+    }
+
+    /**
+     * Returns the smallest of the elements of the primitive int arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of int arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Integer> minIntArray(ObservableSource<int[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceIntArray(source, PrimitiveArrayMath.MIN));
+    }
+
+    /**
+     * Returns the largest of the elements of the primitive int arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of int arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Integer> maxIntArray(ObservableSource<int[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceIntArray(source, PrimitiveArrayMath.MAX));
+    }
+
+    /**
+     * Computes the average of the elements of the primitive int arrays of the source,
+     * or completes empty if there were no elements at all.
+     * @param source the source of int arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Double> averageIntArray(ObservableSource<int[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableAverageIntArray(source));
+    }
+
+    /**
+     * Sums up the elements of the primitive double arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * @param source the source of double arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Double> sumDoubleArray(ObservableSource<double[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceDoubleArray(source, PrimitiveArrayMath.SUM));
+    }
+
+    /**
+     * Returns the smallest of the elements of the primitive double arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * <p>
+     * Unlike {@link #min(ObservableSource)}, NaNs are propagated via {@link Math#min(double, double)}.
+     * @param source the source of double arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Double> minDoubleArray(ObservableSource<double[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceDoubleArray(source, PrimitiveArrayMath.MIN));
+    }
+
+    /**
+     * Returns the largest of the elements of the primitive double arrays of the source,
+     * ignoring empty arrays, or completes empty if there were no elements at all.
+     * <p>
+     * Unlike {@link #max(ObservableSource)}, NaNs are propagated via {@link Math#max(double, double)}.
+     * @param source the source of double arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Double> maxDoubleArray(ObservableSource<double[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableReduceDoubleArray(source, PrimitiveArrayMath.MAX));
+    }
+
+    /**
+     * Computes the average of the elements of the primitive double arrays of the source,
+     * or completes empty if there were no elements at all.
+     * @param source the source of double arrays
+     * @return the new Observable instance
+     * @since 3.0.0
+     */
+    public static Observable<Double> averageDoubleArray(ObservableSource<double[]> source) {
+        return RxJavaPlugins.onAssembly(new ObservableAverageDoubleArray(source));
+    }
 }
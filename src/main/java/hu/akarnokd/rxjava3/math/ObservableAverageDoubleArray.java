@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.internal.observers.DeferredScalarObserver;
+
+final class ObservableAverageDoubleArray extends ObservableWithSource<double[], Double> {
+
+    ObservableAverageDoubleArray(ObservableSource<double[]> source) {
+        super(source);
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super Double> observer) {
+        source.subscribe(new AverageDoubleArrayObserver(observer));
+    }
+
+    static final class AverageDoubleArrayObserver extends DeferredScalarObserver<double[], Double> {
+
+        private static final long serialVersionUID = 600979972678601618L;
+
+        double accumulator;
+
+        long count;
+
+        AverageDoubleArrayObserver(Observer<? super Double> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(double[] array) {
+            accumulator += PrimitiveArrayMath.sum(array);
+            count += array.length;
+        }
+
+        @Override
+        public void onComplete() {
+            long c = count;
+            if (c != 0) {
+                complete(accumulator / c);
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.internal.observers.DeferredScalarObserver;
+
+final class ObservableAverageLongArray extends ObservableWithSource<long[], Double> {
+
+    ObservableAverageLongArray(ObservableSource<long[]> source) {
+        super(source);
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super Double> observer) {
+        source.subscribe(new AverageLongArrayObserver(observer));
+    }
+
+    static final class AverageLongArrayObserver extends DeferredScalarObserver<long[], Double> {
+
+        private static final long serialVersionUID = 600979972678601618L;
+
+        double accumulator;
+
+        long count;
+
+        AverageLongArrayObserver(Observer<? super Double> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(long[] array) {
+            accumulator += PrimitiveArrayMath.sumAsDouble(array);
+            count += array.length;
+        }
+
+        @Override
+        public void onComplete() {
+            long c = count;
+            if (c != 0) {
+                complete(accumulator / c);
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.internal.observers.DeferredScalarObserver;
+
+final class ObservableReduceDoubleArray extends ObservableWithSource<double[], Double> {
+
+    final int mode;
+
+    ObservableReduceDoubleArray(ObservableSource<double[]> source, int mode) {
+        super(source);
+        this.mode = mode;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super Double> observer) {
+        source.subscribe(new ReduceDoubleArrayObserver(observer, mode));
+    }
+
+    static final class ReduceDoubleArrayObserver extends DeferredScalarObserver<double[], Double> {
+
+        private static final long serialVersionUID = 600979972678601618L;
+
+        final int mode;
+
+        double accumulator;
+
+        boolean hasValue;
+
+        ReduceDoubleArrayObserver(Observer<? super Double> downstream, int mode) {
+            super(downstream);
+            this.mode = mode;
+        }
+
+        @Override
+        public void onNext(double[] array) {
+            if (array.length == 0) {
+                return;
+            }
+            switch (mode) {
+            case PrimitiveArrayMath.SUM:
+                accumulator += PrimitiveArrayMath.sum(array);
+                break;
+            case PrimitiveArrayMath.MIN: {
+                double m = PrimitiveArrayMath.min(array);
+                accumulator = hasValue ? Math.min(accumulator, m) : m;
+                break;
+            }
+            default: {
+                double m = PrimitiveArrayMath.max(array);
+                accumulator = hasValue ? Math.max(accumulator, m) : m;
+            }
+            }
+            hasValue = true;
+        }
+
+        @Override
+        public void onComplete() {
+            if (hasValue) {
+                complete(accumulator);
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.internal.observers.DeferredScalarObserver;
+
+final class ObservableStatistics extends ObservableWithSource<Number, Statistics> {
+
+    ObservableStatistics(ObservableSource<Number> source) {
+        super(source);
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super Statistics> observer) {
+        source.subscribe(new StatisticsObserver(observer));
+    }
+
+    static final class StatisticsObserver extends DeferredScalarObserver<Number, Statistics> {
+
+        private static final long serialVersionUID = 8645575082613773782L;
+
+        final StatisticsAccumulator accumulator;
+
+        StatisticsObserver(Observer<? super Statistics> downstream) {
+            super(downstream);
+            this.accumulator = new StatisticsAccumulator();
+        }
+
+        @Override
+        public void onNext(Number value) {
+            accumulator.add(value.doubleValue());
+        }
+
+        @Override
+        public void onComplete() {
+            StatisticsAccumulator a = accumulator;
+            if (a.count() != 0) {
+                complete(a.toStatistics());
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+/**
+ * Tight reduction loops over primitive arrays the JIT can unroll and vectorize.
+ */
+final class PrimitiveArrayMath {
+
+    static final int SUM = 0;
+
+    static final int MIN = 1;
+
+    static final int MAX = 2;
+
+    /** Utility class. */
+    private PrimitiveArrayMath() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    static long sum(long[] array) {
+        long s = 0;
+        for (long v : array) {
+            s += v;
+        }
+        return s;
+    }
+
+    static double sumAsDouble(long[] array) {
+        double s = 0;
+        for (long v : array) {
+            s += v;
+        }
+        return s;
+    }
+
+    static long min(long[] array) {
+        long m = array[0];
+        for (int i = 1; i < array.length; i++) {
+            m = Math.min(m, array[i]);
+        }
+        return m;
+    }
+
+    static long max(long[] array) {
+        long m = array[0];
+        for (int i = 1; i < array.length; i++) {
+            m = Math.max(m, array[i]);
+        }
+        return m;
+    }
+
+    static int sum(int[] array) {
+        int s = 0;
+        for (int v : array) {
+            s += v;
+        }
+        return s;
+    }
+
+    static long sumAsLong(int[] array) {
+        long s = 0;
+        for (int v : array) {
+            s += v;
+        }
+        return s;
+    }
+
+    static int min(int[] array) {
+        int m = array[0];
+        for (int i = 1; i < array.length; i++) {
+            m = Math.min(m, array[i]);
+        }
+        return m;
+    }
+
+    static int max(int[] array) {
+        int m = array[0];
+        for (int i = 1; i < array.length; i++) {
+            m = Math.max(m, array[i]);
+        }
+        return m;
+    }
+
+    static double sum(double[] array) {
+        double s = 0;
+        for (double v : array) {
+            s += v;
+        }
+        return s;
+    }
+
+    static double min(double[] array) {
+        double m = array[0];
+        for (int i = 1; i < array.length; i++) {
+            m = Math.min(m, array[i]);
+        }
+        return m;
+    }
+
+    static double max(double[] array) {
+        double m = array[0];
+        for (int i = 1; i < array.length; i++) {
+            m = Math.max(m, array[i]);
+        }
+        return m;
+    }
+}
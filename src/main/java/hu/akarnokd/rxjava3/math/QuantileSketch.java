@@ -0,0 +1,348 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import java.util.Arrays;
+
+/**
+ * A compact, mergeable sketch of a distribution of numbers that answers
+ * quantile queries with a bounded relative error.
+ * <p>
+ * The values are counted in logarithmically sized buckets (similar to HDR
+ * histograms and DDSketch): a bucket covers the range
+ * {@code (gamma^(i-1), gamma^i]} with {@code gamma = (1 + a) / (1 - a)}
+ * where {@code a} is the relative accuracy, thus the memory use depends
+ * on the dynamic range of the values and not on their number. For example, values
+ * between 1 microsecond and 1 hour expressed in nanoseconds need about 1100
+ * buckets with the default 1% accuracy.
+ * <p>
+ * Sketches built with the same relative accuracy can be merged
+ * without any loss of accuracy.
+ * <p>
+ * NaN values are ignored, infinite values are treated as
+ * &plusmn;{@link Double#MAX_VALUE}. Not thread-safe.
+ * @since 3.0.0
+ */
+public final class QuantileSketch {
+
+    /** The default relative accuracy: 1%. */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    final double relativeAccuracy;
+
+    final double logGamma;
+
+    final double valueMultiplier;
+
+    final Store positive;
+
+    final Store negative;
+
+    long zeroCount;
+
+    long count;
+
+    double min = Double.POSITIVE_INFINITY;
+
+    double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructs an empty sketch with the default 1% relative accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Constructs an empty sketch with the given relative accuracy.
+     * @param relativeAccuracy the relative accuracy of the quantiles, in (0, 1) exclusive
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        verifyRelativeAccuracy(relativeAccuracy);
+        this.relativeAccuracy = relativeAccuracy;
+        double gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.valueMultiplier = 2 / (1 + gamma);
+        this.positive = new Store();
+        this.negative = new Store();
+    }
+
+    /**
+     * Checks that the relative accuracy is in (0, 1) exclusive.
+     * @param relativeAccuracy the relative accuracy to check
+     * @throws IllegalArgumentException if the relative accuracy is out of range
+     */
+    public static void verifyRelativeAccuracy(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0d && relativeAccuracy < 1d)) {
+            throw new IllegalArgumentException("relativeAccuracy in (0, 1) required but it was " + relativeAccuracy);
+        }
+    }
+
+    /**
+     * Checks that at least one quantile is given and each is in [0, 1].
+     * @param quantiles the quantiles to check
+     * @return a copy of the quantiles
+     * @throws IllegalArgumentException if there are no quantiles or one is out of range
+     */
+    public static double[] verifyQuantiles(double[] quantiles) {
+        if (quantiles.length == 0) {
+            throw new IllegalArgumentException("At least one quantile is required");
+        }
+        for (double q : quantiles) {
+            if (!(q >= 0d && q <= 1d)) {
+                throw new IllegalArgumentException("quantile in [0, 1] required but it was " + q);
+            }
+        }
+        return quantiles.clone();
+    }
+
+    /**
+     * Adds a value to the sketch.
+     * @param value the value to add
+     */
+    public void add(double value) {
+        if (value != value) {
+            return;
+        }
+        if (value > 0d) {
+            positive.add(index(value));
+        } else if (value < 0d) {
+            negative.add(index(-value));
+        } else {
+            zeroCount++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    int index(double positiveValue) {
+        return (int)Math.ceil(Math.log(Math.min(positiveValue, Double.MAX_VALUE)) / logGamma);
+    }
+
+    double value(int index) {
+        return Math.exp(index * logGamma) * valueMultiplier;
+    }
+
+    /**
+     * Merges the counts of the other sketch into this sketch.
+     * @param other the other sketch, with the same relative accuracy
+     * @return this
+     * @throws IllegalArgumentException if the other sketch has a different relative accuracy
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches with different relative accuracies: " + relativeAccuracy + " vs. " + other.relativeAccuracy);
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Returns the approximate value at the given quantile, or NaN if the sketch is empty.
+     * <p>
+     * The quantiles 0 and 1 return the exact minimum and maximum.
+     * @param quantile the quantile in [0, 1], for example, 0.99 for the 99th percentile
+     * @return the approximate value at the quantile
+     */
+    public double quantile(double quantile) {
+        if (!(quantile >= 0d && quantile <= 1d)) {
+            throw new IllegalArgumentException("quantile in [0, 1] required but it was " + quantile);
+        }
+        if (count == 0L) {
+            return Double.NaN;
+        }
+        if (quantile == 0d) {
+            return min;
+        }
+        if (quantile == 1d) {
+            return max;
+        }
+        double rank = quantile * (count - 1);
+        double v;
+        long negatives = negative.total;
+        if (rank < negatives) {
+            v = -value(negative.indexAtRank(negatives - 1 - rank));
+        } else if (rank < negatives + zeroCount) {
+            v = 0d;
+        } else {
+            v = value(positive.indexAtRank(rank - negatives - zeroCount));
+        }
+        return Math.max(min, Math.min(max, v));
+    }
+
+    /**
+     * Returns the approximate values at the given quantiles.
+     * @param quantiles the quantiles, each in [0, 1]
+     * @return the array of the approximate values, in the order of the quantiles
+     */
+    public double[] quantiles(double... quantiles) {
+        double[] result = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            result[i] = quantile(quantiles[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of values added (or merged) so far.
+     * @return the number of values
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest value added so far, +Infinity if the sketch is empty.
+     * @return the smallest value
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value added so far, -Infinity if the sketch is empty.
+     * @return the largest value
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Returns the relative accuracy of this sketch.
+     * @return the relative accuracy
+     */
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Removes all values from this sketch, keeping the allocated buckets.
+     */
+    public void clear() {
+        positive.clear();
+        negative.clear();
+        zeroCount = 0L;
+        count = 0L;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch[count=" + count + ", relativeAccuracy=" + relativeAccuracy
+                + ", min=" + min + ", max=" + max + "]";
+    }
+
+    /**
+     * A dense, growable range of bucket counters.
+     */
+    static final class Store {
+
+        static final int INITIAL_CAPACITY = 64;
+
+        long[] counts;
+
+        /** The bucket index of counts[0]. */
+        int offset;
+
+        long total;
+
+        void add(int index) {
+            ensureRange(index, index);
+            counts[index - offset]++;
+            total++;
+        }
+
+        void ensureRange(int minIndex, int maxIndex) {
+            long[] c = counts;
+            if (c == null) {
+                int n = Math.max(INITIAL_CAPACITY, maxIndex - minIndex + 1);
+                counts = new long[n];
+                offset = minIndex - (n - (maxIndex - minIndex + 1)) / 2;
+                return;
+            }
+            int o = offset;
+            if (minIndex >= o && maxIndex < o + c.length) {
+                return;
+            }
+            int newMin = Math.min(minIndex, o);
+            int newMax = Math.max(maxIndex, o + c.length - 1);
+            int span = newMax - newMin + 1;
+            // grow by at least 50% to amortize the copies
+            int n = Math.max(span, c.length + (c.length >> 1));
+            int newOffset = minIndex < o ? newMax - n + 1 : newMin;
+            long[] d = new long[n];
+            System.arraycopy(c, 0, d, o - newOffset, c.length);
+            counts = d;
+            offset = newOffset;
+        }
+
+        void merge(Store other) {
+            long[] oc = other.counts;
+            if (oc == null || other.total == 0L) {
+                return;
+            }
+            int lo = 0;
+            while (oc[lo] == 0L) {
+                lo++;
+            }
+            int hi = oc.length - 1;
+            while (oc[hi] == 0L) {
+                hi--;
+            }
+            int oo = other.offset;
+            ensureRange(oo + lo, oo + hi);
+            long[] c = counts;
+            int shift = oo - offset;
+            for (int i = lo; i <= hi; i++) {
+                c[i + shift] += oc[i];
+            }
+            total += other.total;
+        }
+
+        int indexAtRank(double rank) {
+            long[] c = counts;
+            long n = 0L;
+            int last = 0;
+            for (int i = 0; i < c.length; i++) {
+                long k = c[i];
+                if (k != 0L) {
+                    n += k;
+                    if (n > rank) {
+                        return i + offset;
+                    }
+                    last = i;
+                }
+            }
+            return last + offset;
+        }
+
+        void clear() {
+            long[] c = counts;
+            if (c != null) {
+                Arrays.fill(c, 0L);
+            }
+            total = 0L;
+        }
+    }
+}
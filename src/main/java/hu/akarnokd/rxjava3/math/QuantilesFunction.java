@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import io.reactivex.rxjava3.functions.Function;
+
+/**
+ * Extracts the given quantiles from a {@link QuantileSketch}.
+ * @since 3.0.0
+ */
+final class QuantilesFunction implements Function<QuantileSketch, double[]> {
+
+    final double[] quantiles;
+
+    QuantilesFunction(double[] quantiles) {
+        this.quantiles = quantiles;
+    }
+
+    @Override
+    public double[] apply(QuantileSketch t) throws Exception {
+        return t.quantiles(quantiles);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+import java.util.Objects;
+
+/**
+ * Immutable summary statistics of a sequence of numbers: count, sum, mean,
+ * variance, minimum and maximum, computed in a single pass with
+ * Welford's algorithm and a compensated (Kahan-Neumaier) sum.
+ * <p>
+ * Use {@link #combine(Statistics)} to merge the statistics of
+ * disjoint parts of a sequence, for example, the rails of a
+ * {@code ParallelFlowable}.
+ * @since 3.0.0
+ */
+public final class Statistics {
+
+    final long count;
+
+    final double sum;
+
+    final double mean;
+
+    final double m2;
+
+    final double min;
+
+    final double max;
+
+    Statistics(long count, double sum, double mean, double m2, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.mean = mean;
+        this.m2 = m2;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Returns the number of values.
+     * @return the number of values
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the compensated sum of the values.
+     * @return the sum of the values
+     */
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * Returns the arithmetic mean of the values.
+     * @return the mean of the values
+     */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * Returns the population variance (the mean squared deviation from the mean) of the values.
+     * @return the population variance
+     */
+    public double variance() {
+        return m2 / count;
+    }
+
+    /**
+     * Returns the sample variance (with Bessel's correction) of the values,
+     * or NaN if there is only one value.
+     * @return the sample variance
+     */
+    public double sampleVariance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * Returns the population standard deviation of the values.
+     * @return the population standard deviation
+     */
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Returns the smallest value.
+     * @return the smallest value
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value.
+     * @return the largest value
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Returns the statistics of the values of both this and the other Statistics,
+     * as if they were computed over the union of the two sequences.
+     * @param other the other statistics to combine with
+     * @return the combined statistics
+     */
+    public Statistics combine(Statistics other) {
+        Objects.requireNonNull(other, "other is null");
+        long n1 = count;
+        long n2 = other.count;
+        long n = n1 + n2;
+        double delta = other.mean - mean;
+        double newMean = mean + delta * ((double)n2 / n);
+        double newM2 = m2 + other.m2 + delta * delta * ((double)n1 / n) * n2;
+        return new Statistics(n, sum + other.sum, newMean, newM2,
+                Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    @Override
+    public String toString() {
+        return "Statistics[count=" + count
+                + ", sum=" + sum
+                + ", mean=" + mean
+                + ", variance=" + variance()
+                + ", min=" + min
+                + ", max=" + max
+                + "]";
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.math;
+
+/**
+ * Mutable, allocation-free, single-pass accumulator of {@link Statistics};
+ * not thread-safe.
+ * @since 3.0.0
+ */
+public final class StatisticsAccumulator {
+
+    long count;
+
+    double sum;
+
+    /** The running compensation of the lost low-order bits of {@link #sum}. */
+    double compensation;
+
+    double mean;
+
+    double m2;
+
+    double min = Double.POSITIVE_INFINITY;
+
+    double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a value to the statistics.
+     * @param value the value to add
+     */
+    public void add(double value) {
+        long n = ++count;
+
+        double delta = value - mean;
+        mean += delta / n;
+        m2 += delta * (value - mean);
+
+        double s = sum;
+        double t = s + value;
+        if (Math.abs(s) >= Math.abs(value)) {
+            compensation += (s - t) + value;
+        } else {
+            compensation += (value - t) + s;
+        }
+        sum = t;
+
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the number of values added so far.
+     * @return the number of values added so far
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the statistics of the values added so far.
+     * @return the statistics of the values added so far
+     */
+    public Statistics toStatistics() {
+        return new Statistics(count, sum + compensation, mean, m2, min, max);
+    }
+}
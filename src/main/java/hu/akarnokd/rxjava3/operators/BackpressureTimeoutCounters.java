@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the elements delivered to the downstream and the elements evicted
+ * by the {@code onBackpressureTimeout} operators of {@link FlowableTransformers};
+ * the same instance can be shared between subscriptions and read at any time.
+ * @since 3.0.0
+ */
+public final class BackpressureTimeoutCounters {
+
+    final AtomicLong delivered = new AtomicLong();
+
+    final AtomicLong expired = new AtomicLong();
+
+    final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * Returns the number of elements emitted to the downstream.
+     * @return the number of elements emitted to the downstream
+     */
+    public long delivered() {
+        return delivered.get();
+    }
+
+    /**
+     * Returns the number of elements evicted for any reason: because they
+     * timed out, the buffer was full or the sequence was cancelled.
+     * @return the number of elements evicted
+     */
+    public long evicted() {
+        return evicted.get();
+    }
+
+    /**
+     * Returns the number of elements evicted because they timed out.
+     * @return the number of elements evicted because they timed out
+     */
+    public long expired() {
+        return expired.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BackpressureTimeoutCounters[delivered=" + delivered() + ", evicted=" + evicted() + ", expired=" + expired() + "]";
+    }
+}
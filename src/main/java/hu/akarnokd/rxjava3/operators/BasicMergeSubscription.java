@@ -31,6 +31,11 @@ import io.reactivex.rxjava3.parallel.ParallelFlowable;
 /**
  * Subscription coordinator that merges items from a fixed set of source Publishers by
  * picking the smallest available next item from them based on a Comparator.
+ * <p>
+ * With few sources, the next item is picked by scanning the current head of each source.
+ * With {@link #HEAP_THRESHOLD} or more sources, the heads are kept in an indexed binary
+ * heap which is updated incrementally whenever the picked source advances, so picking
+ * the next item takes O(log n) comparisons instead of O(n).
  *
  * @param <T> the value type
  * @since 0.17.9
@@ -40,6 +45,12 @@ extends AtomicInteger
 implements Subscription, InnerQueuedSubscriberSupport<T> {
     private static final long serialVersionUID = -8467324377226330554L;
 
+    /**
+     * The number of sources from which on the heap-based merge is used by default.
+     * @since 3.0.0
+     */
+    public static final int HEAP_THRESHOLD = 16;
+
     final Subscriber<? super T> downstream;
 
     final Comparator<? super T> comparator;
@@ -54,10 +65,35 @@ implements Subscription, InnerQueuedSubscriberSupport<T> {
 
     final Object[] latest;
 
+    /** The source indexes having a value in latest, ordered as a binary min-heap; null in the linear mode. */
+    final int[] heap;
+
+    /** The source indexes without a value and not yet known to be done; null in the linear mode. */
+    final int[] missing;
+
+    int heapSize;
+
+    int missingCount;
+
     volatile boolean cancelled;
 
-    @SuppressWarnings("unchecked")
     public BasicMergeSubscription(Subscriber<? super T> downstream, Comparator<? super T> comparator, int n, int prefetch, boolean delayErrors) {
+        this(downstream, comparator, n, prefetch, delayErrors, n >= HEAP_THRESHOLD);
+    }
+
+    /**
+     * Constructs a BasicMergeSubscription with an explicit choice of the merge strategy.
+     * @param downstream the downstream subscriber
+     * @param comparator the comparator to pick the smallest item with
+     * @param n the number of sources
+     * @param prefetch the number of items to prefetch from each source
+     * @param delayErrors if true, errors are delayed until all sources terminate
+     * @param useHeap if true, the heads of the sources are kept in a binary heap,
+     *                if false, the heads are scanned linearly for each item
+     * @since 3.0.0
+     */
+    @SuppressWarnings("unchecked")
+    public BasicMergeSubscription(Subscriber<? super T> downstream, Comparator<? super T> comparator, int n, int prefetch, boolean delayErrors, boolean useHeap) {
         this.downstream = downstream;
         this.comparator = comparator;
         this.delayErrors = delayErrors;
@@ -69,6 +105,18 @@ implements Subscription, InnerQueuedSubscriberSupport<T> {
         this.requested = new AtomicLong();
         this.errors = new AtomicThrowable();
         this.latest = new Object[n];
+        if (useHeap) {
+            int[] m = new int[n];
+            for (int i = 0; i < n; i++) {
+                m[i] = i;
+            }
+            this.missing = m;
+            this.missingCount = n;
+            this.heap = new int[n];
+        } else {
+            this.missing = null;
+            this.heap = null;
+        }
     }
 
     public void subscribe(Publisher<T>[] sources, int n) {
@@ -161,12 +209,20 @@ implements Subscription, InnerQueuedSubscriberSupport<T> {
         drain();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void drain() {
         if (getAndIncrement() != 0) {
             return;
         }
+        if (heap != null) {
+            drainHeap();
+        } else {
+            drainLinear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void drainLinear() {
 
         int missed = 1;
 
@@ -346,4 +402,217 @@ implements Subscription, InnerQueuedSubscriberSupport<T> {
             }
         }
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    void drainHeap() {
+        int missed = 1;
+
+        Subscriber<? super T> a = downstream;
+        AtomicThrowable err = errors;
+        InnerQueuedSubscriber<T>[] subs = subscribers;
+        Object[] latest = this.latest;
+        int[] heap = this.heap;
+        int[] missing = this.missing;
+
+        for (;;) {
+
+            long r = requested.get();
+            long e = 0L;
+            // the source at the top of the heap has been consumed and needs its next item
+            boolean topStale = false;
+
+            for (;;) {
+                if (cancelled) {
+                    clearSources();
+                    return;
+                }
+
+                if (!delayErrors && err.get() != null) {
+                    cancelAndClearSources();
+                    a.onError(err.terminate());
+                    return;
+                }
+
+                if (topStale) {
+                    topStale = false;
+                    int idx = heap[0];
+                    InnerQueuedSubscriber<T> inner = subs[idx];
+                    boolean innerDone = inner.isDone();
+                    T v;
+                    try {
+                        v = inner.queue().poll();
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        err.tryAddThrowableOrReport(ex);
+                        inner.setDone();
+                        if (!delayErrors) {
+                            cancelAndClearSources();
+                            err.tryTerminateConsumer(a);
+                            return;
+                        }
+                        v = null;
+                        innerDone = true;
+                    }
+
+                    try {
+                        if (v != null) {
+                            // replace the head of the same source in place
+                            latest[idx] = v;
+                            siftDown(0);
+                        } else {
+                            if (innerDone) {
+                                latest[idx] = this;
+                            } else {
+                                missing[missingCount++] = idx;
+                            }
+                            int n = --heapSize;
+                            if (n != 0) {
+                                heap[0] = heap[n];
+                                siftDown(0);
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        err.tryAddThrowableOrReport(ex);
+                        cancelAndClearSources();
+                        a.onError(err.terminate());
+                        return;
+                    }
+                }
+
+                int m = missingCount;
+                int j = 0;
+                while (j < m) {
+                    int idx = missing[j];
+                    InnerQueuedSubscriber<T> inner = subs[idx];
+                    boolean innerDone = inner.isDone();
+                    SimpleQueue<T> q = inner.queue();
+                    T v;
+                    try {
+                        v = q != null ? q.poll() : null;
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        err.tryAddThrowableOrReport(ex);
+                        inner.setDone();
+                        if (!delayErrors) {
+                            cancelAndClearSources();
+                            err.tryTerminateConsumer(a);
+                            return;
+                        }
+                        v = null;
+                        innerDone = true;
+                    }
+
+                    if (v != null) {
+                        latest[idx] = v;
+                        int k = heapSize++;
+                        heap[k] = idx;
+                        try {
+                            siftUp(k);
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            err.tryAddThrowableOrReport(ex);
+                            cancelAndClearSources();
+                            a.onError(err.terminate());
+                            return;
+                        }
+                        missing[j] = missing[--m];
+                    } else
+                    if (innerDone) {
+                        latest[idx] = this;
+                        missing[j] = missing[--m];
+                    } else {
+                        j++;
+                    }
+                }
+                missingCount = m;
+
+                if (m != 0) {
+                    break;
+                }
+
+                if (heapSize == 0) {
+                    if (err.get() != null) {
+                        a.onError(err.terminate());
+                    } else {
+                        a.onComplete();
+                    }
+                    return;
+                }
+
+                if (e == r) {
+                    break;
+                }
+
+                int pick = heap[0];
+                T v = (T)latest[pick];
+                latest[pick] = null;
+                topStale = true;
+
+                a.onNext(v);
+                subs[pick].requestOne();
+
+                e++;
+            }
+
+            if (e != 0L) {
+                BackpressureHelper.produced(requested, e);
+            }
+
+            missed = addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Compares the current heads of two sources, breaking ties by the source index
+     * so that the heap picks items in the same order as the linear scan.
+     * @param i the first source index
+     * @param j the second source index
+     * @return true if the head of source i should be emitted before the head of source j
+     */
+    @SuppressWarnings("unchecked")
+    boolean less(int i, int j) {
+        int c = comparator.compare((T)latest[i], (T)latest[j]);
+        return c < 0 || (c == 0 && i < j);
+    }
+
+    void siftUp(int k) {
+        int[] h = heap;
+        int idx = h[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            int p = h[parent];
+            if (!less(idx, p)) {
+                break;
+            }
+            h[k] = p;
+            k = parent;
+        }
+        h[k] = idx;
+    }
+
+    void siftDown(int k) {
+        int[] h = heap;
+        int n = heapSize;
+        int idx = h[k];
+        int half = n >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            int c = h[child];
+            int right = child + 1;
+            if (right < n && less(h[right], c)) {
+                child = right;
+                c = h[right];
+            }
+            if (!less(c, idx)) {
+                break;
+            }
+            h[k] = c;
+            k = child;
+        }
+        h[k] = idx;
+    }
+}
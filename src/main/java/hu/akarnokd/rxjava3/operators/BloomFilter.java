@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.*;
+
+import io.reactivex.rxjava3.functions.*;
+
+/**
+ * A Bloom filter with a fixed amount of memory, for use as the visited predicate
+ * of the key-deduplicating {@code expand} operators of {@link FlowableTransformers}.
+ * <p>
+ * {@link #add(Object)} returns false if the element was added before, but also, with about
+ * the given false positive probability, for elements that were never added. When used for
+ * deduplication, such elements are wrongly considered already visited and are skipped.
+ * In return, the memory used doesn't depend on the number of elements added: about
+ * 10 bits per expected element for a 1% false positive probability.
+ * <p>
+ * The elements are hashed via their {@code hashCode()}, thus elements with equal hash codes
+ * are indistinguishable. The elements can't be removed nor enumerated; {@link #size()}
+ * returns the number of successful {@code add} calls. Null elements are not supported.
+ * <p>
+ * Not thread-safe.
+ * @param <T> the element type
+ * @since 3.0.0
+ */
+public final class BloomFilter<T> implements Predicate<T> {
+
+    final long[] bits;
+
+    final long bitSize;
+
+    final int hashCount;
+
+    int size;
+
+    /**
+     * Constructs an empty Bloom filter sized for the given number of elements
+     * and false positive probability.
+     * @param expectedElements the number of elements expected to be added, positive
+     * @param falsePositiveProbability the probability that {@code add} returns false
+     *        for a new element once the expected number of elements was added, between 0 and 1, exclusive
+     */
+    public BloomFilter(int expectedElements, double falsePositiveProbability) {
+        validate(expectedElements, falsePositiveProbability);
+        double ln2 = Math.log(2);
+        long m = (long)Math.ceil(-expectedElements * Math.log(falsePositiveProbability) / (ln2 * ln2));
+        int words = (int)Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (m + 63) >> 6));
+        this.bits = new long[words];
+        this.bitSize = (long)words << 6;
+        this.hashCount = Math.max(1, (int)Math.round((double)bitSize / expectedElements * ln2));
+    }
+
+    /**
+     * Returns a Supplier of empty Bloom filters sized for the given number of elements
+     * and false positive probability.
+     * @param <T> the element type
+     * @param expectedElements the number of elements expected to be added, positive
+     * @param falsePositiveProbability the probability that {@code add} returns false
+     *        for a new element once the expected number of elements was added, between 0 and 1, exclusive
+     * @return the new Supplier instance
+     */
+    public static <T> Supplier<BloomFilter<T>> supplier(final int expectedElements, final double falsePositiveProbability) {
+        validate(expectedElements, falsePositiveProbability);
+        return new Supplier<BloomFilter<T>>() {
+            @Override
+            public BloomFilter<T> get() {
+                return new BloomFilter<>(expectedElements, falsePositiveProbability);
+            }
+        };
+    }
+
+    static void validate(int expectedElements, double falsePositiveProbability) {
+        if (expectedElements <= 0) {
+            throw new IllegalArgumentException("expectedElements > 0 required but it was " + expectedElements);
+        }
+        if (!(falsePositiveProbability > 0d && falsePositiveProbability < 1d)) {
+            throw new IllegalArgumentException("0 < falsePositiveProbability < 1 required but it was " + falsePositiveProbability);
+        }
+    }
+
+    /**
+     * Returns the 64 bit hash of the element, the avalanching mix of its hash code.
+     * @param o the element
+     * @return the hash
+     */
+    static long hash(Object o) {
+        long h = o.hashCode() * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Adds the element to the filter.
+     * @param e the element to add, not null
+     * @return true if the element was not in the filter, false if it was
+     *         or it is a false positive
+     */
+    public boolean add(T e) {
+        long h = hash(Objects.requireNonNull(e, "e is null"));
+        long h1 = h >>> 32;
+        long h2 = h & 0xFFFFFFFFL;
+        long[] b = bits;
+        long m = bitSize;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            // the Kirsch-Mitzenmacher double hashing
+            long idx = (h1 + i * h2) % m;
+            int w = (int)(idx >>> 6);
+            long mask = 1L << idx;
+            long v = b[w];
+            if ((v & mask) == 0L) {
+                b[w] = v | mask;
+                changed = true;
+            }
+        }
+        if (changed) {
+            size++;
+        }
+        return changed;
+    }
+
+    /**
+     * Adds the element to the filter, the same as {@link #add(Object)}.
+     * @param t the element to add, not null
+     * @return true if the element was not in the filter, false if it was
+     *         or it is a false positive
+     */
+    @Override
+    public boolean test(T t) {
+        return add(t);
+    }
+
+    /**
+     * Checks if the element may have been added to the filter.
+     * @param o the element to check, not null
+     * @return false if the element was definitely not added, true if it was
+     *         or it is a false positive
+     */
+    public boolean mightContain(Object o) {
+        long h = hash(Objects.requireNonNull(o, "o is null"));
+        long h1 = h >>> 32;
+        long h2 = h & 0xFFFFFFFFL;
+        long[] b = bits;
+        long m = bitSize;
+        for (int i = 0; i < hashCount; i++) {
+            long idx = (h1 + i * h2) % m;
+            if ((b[(int)(idx >>> 6)] & (1L << idx)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of successful {@link #add(Object)} calls since
+     * the creation or the last {@link #clear()}.
+     * @return the number of elements added
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all elements from the filter.
+     */
+    public void clear() {
+        Arrays.fill(bits, 0L);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BloomFilter[size=" + size + ", bits=" + bitSize + ", hashes=" + hashCount + "]";
+    }
+}
@@ -84,9 +84,31 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
     }
 
     static final class BufferPredicateSubscriber<T, C extends Collection<? super T>>
+    extends AbstractBufferPredicateSubscriber<T, C, C> {
+
+        BufferPredicateSubscriber(Subscriber<? super C> downstream,
+                C buffer,
+                Predicate<? super T> predicate, Mode mode,
+                Supplier<C> bufferSupplier) {
+            super(downstream, buffer, predicate, mode, bufferSupplier);
+        }
+
+        @Override
+        C wrap(C buffer) {
+            return buffer;
+        }
+    }
+
+    /**
+     * Fills the buffers and emits them, wrapped via {@link #wrap(Collection)}.
+     * @param <T> the source value type
+     * @param <C> the buffer type
+     * @param <R> the emitted type
+     */
+    abstract static class AbstractBufferPredicateSubscriber<T, C extends Collection<? super T>, R>
     implements ConditionalSubscriber<T>, Subscription {
 
-        final Subscriber<? super C> downstream;
+        final Subscriber<? super R> downstream;
 
         final Predicate<? super T> predicate;
 
@@ -100,7 +122,7 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
 
         int count;
 
-        BufferPredicateSubscriber(Subscriber<? super C> downstream,
+        AbstractBufferPredicateSubscriber(Subscriber<? super R> downstream,
                 C buffer,
                 Predicate<? super T> predicate, Mode mode,
                 Supplier<C> bufferSupplier) {
@@ -111,6 +133,8 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
             this.bufferSupplier = bufferSupplier;
         }
 
+        abstract R wrap(C buffer);
+
         @Override
         public void onSubscribe(Subscription s) {
             if (SubscriptionHelper.validate(this.upstream, s)) {
@@ -147,7 +171,7 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
                 case AFTER: {
                     buf.add(t);
                     if (b) {
-                        downstream.onNext(buf);
+                        downstream.onNext(wrap(buf));
 
                         try {
                             buffer = bufferSupplier.get();
@@ -171,7 +195,7 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
                         count++;
                         return false;
                     } else {
-                        downstream.onNext(buf);
+                        downstream.onNext(wrap(buf));
                         try {
                             buf = bufferSupplier.get();
                         } catch (Throwable ex) {
@@ -189,7 +213,7 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
                 }
                 default:
                     if (b) {
-                        downstream.onNext(buf);
+                        downstream.onNext(wrap(buf));
 
                         try {
                             buffer = bufferSupplier.get();
@@ -227,7 +251,7 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
             if (b != null) {
                 buffer = null;
                 if (count != 0) {
-                    downstream.onNext(b);
+                    downstream.onNext(wrap(b));
                 }
                 downstream.onComplete();
             }
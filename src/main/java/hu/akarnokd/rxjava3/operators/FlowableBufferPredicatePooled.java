@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.Collection;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.internal.subscriptions.EmptySubscription;
+
+/**
+ * Buffer with a predicate like {@link FlowableBufferPredicate} but take the collections
+ * from a bounded pool per subscription and emit them wrapped into releasable
+ * {@link PooledBuffer}s that return the collection to the pool.
+ *
+ * @param <T> the source value type
+ * @param <C> the buffer type
+ *
+ * @since 3.0.0
+ */
+final class FlowableBufferPredicatePooled<T, C extends Collection<? super T>> extends Flowable<PooledBuffer<C>>
+implements FlowableTransformer<T, PooledBuffer<C>> {
+
+    final Publisher<T> source;
+
+    final Predicate<? super T> predicate;
+
+    final FlowableBufferPredicate.Mode mode;
+
+    final Supplier<C> bufferSupplier;
+
+    final int poolSize;
+
+    FlowableBufferPredicatePooled(Publisher<T> source, Predicate<? super T> predicate, FlowableBufferPredicate.Mode mode,
+            Supplier<C> bufferSupplier, int poolSize) {
+        this.source = source;
+        this.predicate = predicate;
+        this.mode = mode;
+        this.bufferSupplier = bufferSupplier;
+        this.poolSize = poolSize;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super PooledBuffer<C>> s) {
+        PooledBuffer.Pool<C> pool = new PooledBuffer.Pool<>(bufferSupplier, poolSize);
+        C buffer;
+
+        try {
+            buffer = pool.get();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        source.subscribe(new PooledBufferPredicateSubscriber<>(s, buffer, predicate, mode, pool));
+    }
+
+    @Override
+    public Publisher<PooledBuffer<C>> apply(Flowable<T> upstream) {
+        return new FlowableBufferPredicatePooled<>(upstream, predicate, mode, bufferSupplier, poolSize);
+    }
+
+    static final class PooledBufferPredicateSubscriber<T, C extends Collection<? super T>>
+    extends FlowableBufferPredicate.AbstractBufferPredicateSubscriber<T, C, PooledBuffer<C>> {
+
+        final PooledBuffer.Pool<C> pool;
+
+        PooledBufferPredicateSubscriber(Subscriber<? super PooledBuffer<C>> downstream,
+                C buffer,
+                Predicate<? super T> predicate, FlowableBufferPredicate.Mode mode,
+                PooledBuffer.Pool<C> pool) {
+            super(downstream, buffer, predicate, mode, pool);
+            this.pool = pool;
+        }
+
+        @Override
+        PooledBuffer<C> wrap(C buffer) {
+            return new PooledBuffer<>(buffer, pool);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.rxjava3.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.rxjava3.internal.util.BackpressureHelper;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * Coalesces items into a container until it reaches a size or weight limit;
+ * a partially filled container is emitted only if it has been lingering for
+ * the given time and the downstream is waiting for items.
+ * <p>
+ * Full containers queue up while the downstream is not requesting.
+ *
+ * @param <T> the upstream element type
+ * @param <R> the container type emitted to downstream
+ *
+ * @since 3.0.0
+ */
+final class FlowableCoalesceAdaptive<T, R> extends Flowable<R> implements FlowableTransformer<T, R> {
+
+    final Publisher<T> source;
+
+    final Supplier<R> containerSupplier;
+
+    final BiConsumer<R, T> coalescer;
+
+    final int maxSize;
+
+    final Function<? super T, Long> weigher;
+
+    final long maxWeight;
+
+    final long maxLinger;
+
+    final TimeUnit unit;
+
+    final Scheduler scheduler;
+
+    final int bufferSize;
+
+    FlowableCoalesceAdaptive(Publisher<T> source, Supplier<R> containerSupplier, BiConsumer<R, T> coalescer,
+            int maxSize, Function<? super T, Long> weigher, long maxWeight,
+            long maxLinger, TimeUnit unit, Scheduler scheduler, int bufferSize) {
+        this.source = source;
+        this.containerSupplier = containerSupplier;
+        this.coalescer = coalescer;
+        this.maxSize = maxSize;
+        this.weigher = weigher;
+        this.maxWeight = maxWeight;
+        this.maxLinger = maxLinger;
+        this.unit = unit;
+        this.scheduler = scheduler;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public Publisher<R> apply(Flowable<T> upstream) {
+        return new FlowableCoalesceAdaptive<>(upstream, containerSupplier, coalescer, maxSize,
+                weigher, maxWeight, maxLinger, unit, scheduler, bufferSize);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super R> s) {
+        source.subscribe(new CoalesceAdaptiveSubscriber<>(s, containerSupplier, coalescer, maxSize,
+                weigher, maxWeight, maxLinger, unit, scheduler.createWorker(), bufferSize));
+    }
+
+    static final class CoalesceAdaptiveSubscriber<T, R> extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -940232302406016339L;
+
+        final Subscriber<? super R> downstream;
+
+        final Supplier<R> containerSupplier;
+
+        final BiConsumer<R, T> coalescer;
+
+        final int maxSize;
+
+        final Function<? super T, Long> weigher;
+
+        final long maxWeight;
+
+        final long maxLinger;
+
+        final TimeUnit unit;
+
+        final Worker worker;
+
+        final AtomicLong requested;
+
+        final SimplePlainQueue<T> queue;
+
+        final ArrayDeque<R> ready;
+
+        Subscription upstream;
+
+        volatile boolean done;
+        Throwable error;
+
+        volatile boolean cancelled;
+
+        /** The generation of the container whose linger time has expired. */
+        volatile long expired;
+
+        R container;
+
+        int size;
+
+        long weight;
+
+        /** The generation of the current container, incremented whenever it is closed. */
+        long generation;
+
+        Disposable timer;
+
+        long emitted;
+
+        CoalesceAdaptiveSubscriber(Subscriber<? super R> downstream, Supplier<R> containerSupplier,
+                BiConsumer<R, T> coalescer, int maxSize, Function<? super T, Long> weigher, long maxWeight,
+                long maxLinger, TimeUnit unit, Worker worker, int bufferSize) {
+            this.downstream = downstream;
+            this.containerSupplier = containerSupplier;
+            this.coalescer = coalescer;
+            this.maxSize = maxSize;
+            this.weigher = weigher;
+            this.maxWeight = maxWeight;
+            this.maxLinger = maxLinger;
+            this.unit = unit;
+            this.worker = worker;
+            this.requested = new AtomicLong();
+            this.queue = new SpscLinkedArrayQueue<>(bufferSize);
+            this.ready = new ArrayDeque<>();
+            this.expired = -1L;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+                downstream.onSubscribe(this);
+
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            queue.offer(t);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                RxJavaPlugins.onError(t);
+                return;
+            }
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+            worker.dispose();
+            if (getAndIncrement() == 0) {
+                clear();
+            }
+        }
+
+        void clear() {
+            queue.clear();
+            ready.clear();
+            container = null;
+        }
+
+        void lingerExpired(long gen) {
+            expired = gen;
+            drain();
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            long e = emitted;
+            SimplePlainQueue<T> q = queue;
+            ArrayDeque<R> rd = ready;
+            Subscriber<? super R> a = downstream;
+
+            for (;;) {
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                boolean d = done;
+
+                try {
+                    for (;;) {
+                        T v = q.poll();
+                        if (v == null) {
+                            break;
+                        }
+                        add(v);
+                    }
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    upstream.cancel();
+                    worker.dispose();
+                    clear();
+                    a.onError(ex);
+                    return;
+                }
+
+                long r = requested.get();
+
+                if (d || (rd.isEmpty() && e != r && expired == generation)) {
+                    // the upstream is done or the downstream is starved and the container lingered long enough
+                    close();
+                }
+
+                while (e != r) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    R c = rd.poll();
+                    if (c == null) {
+                        break;
+                    }
+                    a.onNext(c);
+                    e++;
+                }
+
+                if (container != null && rd.isEmpty() && e != r && expired == generation) {
+                    // the linger time expired while full containers were waiting, go around and flush it
+                    continue;
+                }
+
+                if (d && rd.isEmpty()) {
+                    worker.dispose();
+                    Throwable ex = error;
+                    if (ex != null) {
+                        a.onError(ex);
+                    } else {
+                        a.onComplete();
+                    }
+                    return;
+                }
+
+                emitted = e;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void add(T v) throws Throwable {
+            R c = container;
+            if (c == null) {
+                c = containerSupplier.get();
+                container = c;
+                final long gen = generation;
+                timer = worker.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        lingerExpired(gen);
+                    }
+                }, maxLinger, unit);
+            }
+            coalescer.accept(c, v);
+            long w = weight;
+            Function<? super T, Long> f = weigher;
+            if (f != null) {
+                w += f.apply(v);
+                weight = w;
+            }
+            if (++size >= maxSize || (f != null && w >= maxWeight)) {
+                close();
+            }
+        }
+
+        void close() {
+            R c = container;
+            if (c != null) {
+                ready.offer(c);
+                container = null;
+                timer.dispose();
+                timer = null;
+                size = 0;
+                weight = 0L;
+                generation++;
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.reactivestreams.*;
 
 import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
 import io.reactivex.rxjava3.functions.Function;
 import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
 import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
@@ -31,10 +32,14 @@ import io.reactivex.rxjava3.internal.util.*;
 
 /**
  * Emit and recursively expand elements from upstream.
+ * <p>
+ * If a key selector and a visited predicate supplier is given, elements whose key
+ * the visited predicate rejects are dropped without emission or expansion.
  * @param <T> the value type
+ * @param <K> the key type of the visited predicate
  * @since 0.16.1
  */
-final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer<T, T> {
+final class FlowableExpand<T, K> extends Flowable<T> implements FlowableTransformer<T, T> {
 
     final Flowable<T> source;
 
@@ -46,24 +51,46 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
 
     final boolean delayErrors;
 
+    final Function<? super T, ? extends K> keySelector;
+
+    final Supplier<? extends Predicate<? super K>> visitedSupplier;
+
     FlowableExpand(Flowable<T> source, Function<? super T, ? extends Publisher<? extends T>> expander,
             ExpandStrategy strategy, int capacityHint, boolean delayErrors) {
+        this(source, expander, strategy, capacityHint, delayErrors, null, null);
+    }
+
+    FlowableExpand(Flowable<T> source, Function<? super T, ? extends Publisher<? extends T>> expander,
+            ExpandStrategy strategy, int capacityHint, boolean delayErrors,
+            Function<? super T, ? extends K> keySelector, Supplier<? extends Predicate<? super K>> visitedSupplier) {
         this.source = source;
         this.expander = expander;
         this.strategy = strategy;
         this.capacityHint = capacityHint;
         this.delayErrors = delayErrors;
+        this.keySelector = keySelector;
+        this.visitedSupplier = visitedSupplier;
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super T> s) {
+        Predicate<? super K> visited = null;
+        if (visitedSupplier != null) {
+            try {
+                visited = Objects.requireNonNull(visitedSupplier.get(), "The visitedSupplier returned a null Predicate");
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                EmptySubscription.error(ex, s);
+                return;
+            }
+        }
         if (strategy != ExpandStrategy.DEPTH_FIRST) {
-            ExpandBreadthSubscriber<T> parent = new ExpandBreadthSubscriber<>(s, expander, capacityHint, delayErrors);
+            ExpandBreadthSubscriber<T, K> parent = new ExpandBreadthSubscriber<>(s, expander, capacityHint, delayErrors, keySelector, visited);
             parent.queue.offer(source);
             s.onSubscribe(parent);
             parent.drainQueue();
         } else {
-            ExpandDepthSubscription<T> parent = new ExpandDepthSubscription<>(s, expander, capacityHint, delayErrors);
+            ExpandDepthSubscription<T, K> parent = new ExpandDepthSubscription<>(s, expander, capacityHint, delayErrors, keySelector, visited);
             parent.source = source;
             s.onSubscribe(parent);
         }
@@ -71,10 +98,10 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
 
     @Override
     public Publisher<T> apply(Flowable<T> upstream) {
-        return new FlowableExpand<>(upstream, expander, strategy, capacityHint, delayErrors);
+        return new FlowableExpand<>(upstream, expander, strategy, capacityHint, delayErrors, keySelector, visitedSupplier);
     }
 
-    static final class ExpandBreadthSubscriber<T> extends SubscriptionArbiter implements FlowableSubscriber<T> {
+    static final class ExpandBreadthSubscriber<T, K> extends SubscriptionArbiter implements FlowableSubscriber<T> {
 
         private static final long serialVersionUID = -8200116117441115256L;
 
@@ -90,12 +117,17 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
 
         final AtomicThrowable errors;
 
+        final Function<? super T, ? extends K> keySelector;
+
+        final Predicate<? super K> visited;
+
         volatile boolean active;
 
         long produced;
 
         ExpandBreadthSubscriber(Subscriber<? super T> downstream,
-                Function<? super T, ? extends Publisher<? extends T>> expander, int capacityHint, boolean delayErrors) {
+                Function<? super T, ? extends Publisher<? extends T>> expander, int capacityHint, boolean delayErrors,
+                Function<? super T, ? extends K> keySelector, Predicate<? super K> visited) {
             super(false);
             this.downstream = downstream;
             this.expander = expander;
@@ -103,6 +135,8 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
             this.queue = new SpscLinkedArrayQueue<>(capacityHint);
             this.errors = new AtomicThrowable();
             this.delayErrors = delayErrors;
+            this.keySelector = keySelector;
+            this.visited = visited;
         }
 
         @Override
@@ -113,10 +147,16 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
         @Override
         public void onNext(T t) {
             produced++;
-            downstream.onNext(t);
 
             Publisher<? extends T> p;
             try {
+                if (visited != null && !visited.test(keySelector.apply(t))) {
+                    // the dropped item counts as produced, replenish it from the current source
+                    request(1);
+                    return;
+                }
+                downstream.onNext(t);
+
                 p = Objects.requireNonNull(expander.apply(t), "The expander returned a null Publisher");
             } catch (Throwable ex) {
                 Exceptions.throwIfFatal(ex);
@@ -184,7 +224,7 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
         }
     }
 
-    static final class ExpandDepthSubscription<T>
+    static final class ExpandDepthSubscription<T, K>
     extends AtomicInteger
     implements Subscription {
 
@@ -204,6 +244,10 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
 
         final boolean delayErrors;
 
+        final Function<? super T, ? extends K> keySelector;
+
+        final Predicate<? super K> visited;
+
         ArrayDeque<ExpandDepthSubscriber> subscriptionStack;
 
         volatile boolean cancelled;
@@ -212,9 +256,13 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
 
         long consumed;
 
+        /** The current value has been accepted by the visited predicate already, accessed from the drain loop only. */
+        boolean valueVisited;
+
         ExpandDepthSubscription(Subscriber<? super T> downstream,
                 Function<? super T, ? extends Publisher<? extends T>> expander,
-                        int capacityHint, boolean delayErrors) {
+                        int capacityHint, boolean delayErrors,
+                        Function<? super T, ? extends K> keySelector, Predicate<? super K> visited) {
             this.downstream = downstream;
             this.expander = expander;
             this.subscriptionStack = new ArrayDeque<>();
@@ -223,6 +271,8 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
             this.requested = new AtomicLong();
             this.current = new AtomicReference<>();
             this.delayErrors = delayErrors;
+            this.keySelector = keySelector;
+            this.visited = visited;
         }
 
         @Override
@@ -335,8 +385,35 @@ final class FlowableExpand<T> extends Flowable<T> implements FlowableTransformer
                     T v = curr.value;
 
                     boolean newSource = false;
+
+                    if (v != null && visited != null && !valueVisited) {
+                        // drop the already seen values even without demand so the sequence can complete
+                        boolean fresh;
+                        try {
+                            fresh = visited.test(keySelector.apply(v));
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            fresh = false;
+                            curr.dispose();
+                            curr.done = true;
+                            currentDone = true;
+                            error.tryAddThrowableOrReport(ex);
+                        }
+
+                        if (fresh) {
+                            valueVisited = true;
+                        } else {
+                            curr.value = null;
+                            v = null;
+                            if (!currentDone) {
+                                curr.requestOne();
+                            }
+                        }
+                    }
+
                     if (v != null && e != requested.get()) {
                         curr.value = null;
+                        valueVisited = false;
                         a.onNext(v);
                         e++;
 
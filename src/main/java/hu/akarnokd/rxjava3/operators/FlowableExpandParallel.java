@@ -0,0 +1,442 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.disposables.*;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.internal.queue.MpscLinkedQueue;
+import io.reactivex.rxjava3.internal.subscriptions.*;
+import io.reactivex.rxjava3.internal.util.*;
+
+/**
+ * Emit and recursively expand elements from upstream, expanding up to the given
+ * number of elements at once on a scheduler.
+ * <p>
+ * The items generated by the upstream and the expansions are collected into a shared
+ * frontier and are emitted in a roughly breadth-first order as the downstream requests.
+ * An emitted item waits in a pending queue until one of the expansion slots becomes free.
+ * Both the frontier and the pending queue hold about {@code capacity} items: if the
+ * frontier is full, the upstream and the running expansions are not requested from;
+ * if the pending queue is full, no more items are emitted. Only if all slots are
+ * taken by such paused expansions while the downstream still requests is the oldest
+ * of them let to continue so that the traversal always makes progress; the frontier
+ * then grows by the remaining items of that expansion, which is the price of
+ * walking a wide tree breadth-first.
+ * <p>
+ * Items whose key the optional visited predicate rejects are dropped without
+ * emission or expansion.
+ * <p>
+ * Any error, from the upstream, the expansions or the functions, cancels all
+ * and is signalled to the downstream immediately.
+ * @param <T> the value type
+ * @param <K> the key type of the visited predicate
+ * @since 3.0.0
+ */
+final class FlowableExpandParallel<T, K> extends Flowable<T> implements FlowableTransformer<T, T> {
+
+    final Publisher<T> source;
+
+    final Function<? super T, ? extends Publisher<? extends T>> expander;
+
+    final int maxConcurrency;
+
+    final int capacity;
+
+    final Scheduler scheduler;
+
+    final Function<? super T, ? extends K> keySelector;
+
+    final Supplier<? extends Predicate<? super K>> visitedSupplier;
+
+    FlowableExpandParallel(Publisher<T> source, Function<? super T, ? extends Publisher<? extends T>> expander,
+            int maxConcurrency, int capacity, Scheduler scheduler,
+            Function<? super T, ? extends K> keySelector, Supplier<? extends Predicate<? super K>> visitedSupplier) {
+        this.source = source;
+        this.expander = expander;
+        this.maxConcurrency = maxConcurrency;
+        this.capacity = capacity;
+        this.scheduler = scheduler;
+        this.keySelector = keySelector;
+        this.visitedSupplier = visitedSupplier;
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new FlowableExpandParallel<>(upstream, expander, maxConcurrency, capacity, scheduler, keySelector, visitedSupplier);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        Predicate<? super K> visited = null;
+        if (visitedSupplier != null) {
+            try {
+                visited = Objects.requireNonNull(visitedSupplier.get(), "The visitedSupplier returned a null Predicate");
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                EmptySubscription.error(ex, s);
+                return;
+            }
+        }
+        ExpandParallelSubscription<T, K> parent = new ExpandParallelSubscription<>(s, expander, maxConcurrency, capacity, scheduler, keySelector, visited);
+        s.onSubscribe(parent);
+        parent.drain();
+        source.subscribe(parent.root);
+    }
+
+    static final class ExpandParallelSubscription<T, K>
+    extends AtomicInteger
+    implements Subscription {
+
+        private static final long serialVersionUID = -4312347466458620325L;
+
+        final Subscriber<? super T> downstream;
+
+        final Function<? super T, ? extends Publisher<? extends T>> expander;
+
+        final int maxConcurrency;
+
+        final int capacity;
+
+        final int prefetch;
+
+        final Scheduler scheduler;
+
+        final Function<? super T, ? extends K> keySelector;
+
+        final Predicate<? super K> visited;
+
+        final AtomicLong requested;
+
+        final AtomicThrowable errors;
+
+        /** The items generated but not yet emitted. */
+        final MpscLinkedQueue<T> frontier;
+
+        /** The number of items ever offered to the frontier. */
+        final AtomicLong offered;
+
+        final CompositeDisposable inners;
+
+        final ExpandInnerSubscriber<T> root;
+
+        /** The items emitted but not yet expanded, accessed from the drain loop only. */
+        final ArrayDeque<T> pending;
+
+        /** The running expansions in the order they were started, accessed from the drain loop only. */
+        final ArrayDeque<ExpandInnerSubscriber<T>> active;
+
+        /** The number of items taken from the frontier, accessed from the drain loop only. */
+        long taken;
+
+        volatile boolean cancelled;
+
+        ExpandParallelSubscription(Subscriber<? super T> downstream,
+                Function<? super T, ? extends Publisher<? extends T>> expander,
+                int maxConcurrency, int capacity, Scheduler scheduler,
+                Function<? super T, ? extends K> keySelector, Predicate<? super K> visited) {
+            this.downstream = downstream;
+            this.expander = expander;
+            this.maxConcurrency = maxConcurrency;
+            this.capacity = capacity;
+            this.prefetch = Math.max(1, capacity / maxConcurrency);
+            this.scheduler = scheduler;
+            this.keySelector = keySelector;
+            this.visited = visited;
+            this.requested = new AtomicLong();
+            this.errors = new AtomicThrowable();
+            this.frontier = new MpscLinkedQueue<>();
+            this.offered = new AtomicLong();
+            this.inners = new CompositeDisposable();
+            this.root = new ExpandInnerSubscriber<>(this, null);
+            this.pending = new ArrayDeque<>();
+            this.active = new ArrayDeque<>();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelAll();
+                if (getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        void cancelAll() {
+            root.dispose();
+            inners.dispose();
+        }
+
+        void clear() {
+            frontier.clear();
+            pending.clear();
+            active.clear();
+        }
+
+        void innerNext(ExpandInnerSubscriber<T> inner, T t) {
+            frontier.offer(t);
+            offered.getAndIncrement();
+            inner.received++;
+            drain();
+        }
+
+        void innerError(ExpandInnerSubscriber<T> inner, Throwable t) {
+            if (errors.tryAddThrowableOrReport(t)) {
+                inner.done = true;
+                drain();
+            }
+        }
+
+        void innerComplete(ExpandInnerSubscriber<T> inner) {
+            inner.done = true;
+            drain();
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super T> a = downstream;
+            MpscLinkedQueue<T> q = frontier;
+            ArrayDeque<T> p = pending;
+            ArrayDeque<ExpandInnerSubscriber<T>> act = active;
+            Predicate<? super K> vs = visited;
+            int cap = capacity;
+            long e = 0L;
+
+            for (;;) {
+                long r = requested.get();
+
+                retire();
+                start();
+
+                while (e != r && p.size() < cap) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    if (errors.get() != null) {
+                        terminateError(a);
+                        return;
+                    }
+
+                    T v = q.poll();
+
+                    if (v == null) {
+                        break;
+                    }
+
+                    taken++;
+
+                    if (vs != null) {
+                        boolean fresh;
+                        try {
+                            fresh = vs.test(keySelector.apply(v));
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.tryAddThrowableOrReport(ex);
+                            continue;
+                        }
+                        if (!fresh) {
+                            continue;
+                        }
+                    }
+
+                    a.onNext(v);
+
+                    e++;
+
+                    p.offer(v);
+                    start();
+                }
+
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                if (errors.get() != null) {
+                    terminateError(a);
+                    return;
+                }
+
+                // read done before the count so the last item offered before completion is seen
+                boolean d = root.done;
+                long size = offered.get() - taken;
+
+                if (d && act.isEmpty() && p.isEmpty() && size == 0L) {
+                    a.onComplete();
+                    return;
+                }
+
+                boolean room = size < cap;
+                replenish(root, room);
+                // all slots are taken by paused expansions, let the oldest one continue
+                boolean stuck = !room && e != r && act.size() == maxConcurrency && p.size() >= cap;
+                for (ExpandInnerSubscriber<T> inner : act) {
+                    replenish(inner, room || stuck);
+                    stuck = false;
+                }
+
+                if (e != 0L) {
+                    BackpressureHelper.produced(requested, e);
+                    e = 0L;
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void terminateError(Subscriber<? super T> a) {
+            cancelAll();
+            clear();
+            errors.tryTerminateConsumer(a);
+        }
+
+        void retire() {
+            Iterator<ExpandInnerSubscriber<T>> it = active.iterator();
+            while (it.hasNext()) {
+                ExpandInnerSubscriber<T> inner = it.next();
+                if (inner.done) {
+                    it.remove();
+                    inners.delete(inner);
+                }
+            }
+        }
+
+        void start() {
+            ArrayDeque<ExpandInnerSubscriber<T>> act = active;
+            while (act.size() < maxConcurrency) {
+                T v = pending.poll();
+                if (v == null) {
+                    break;
+                }
+                ExpandInnerSubscriber<T> inner = new ExpandInnerSubscriber<>(this, v);
+                act.offer(inner);
+                if (inners.add(inner)) {
+                    scheduler.scheduleDirect(inner);
+                }
+            }
+        }
+
+        void replenish(ExpandInnerSubscriber<T> inner, boolean allowed) {
+            if (allowed && !inner.done && inner.requestedCount == inner.received) {
+                inner.requestedCount += prefetch;
+                inner.request(prefetch);
+            }
+        }
+    }
+
+    static final class ExpandInnerSubscriber<T>
+    extends AtomicReference<Subscription>
+    implements FlowableSubscriber<T>, Disposable, Runnable {
+
+        private static final long serialVersionUID = 5384347329658212418L;
+
+        final ExpandParallelSubscription<T, ?> parent;
+
+        final T node;
+
+        final AtomicLong deferredRequested;
+
+        /** The number of items requested so far, accessed from the drain loop only. */
+        long requestedCount;
+
+        /** The number of items received so far, written by the onNext calls only. */
+        volatile long received;
+
+        volatile boolean done;
+
+        ExpandInnerSubscriber(ExpandParallelSubscription<T, ?> parent, T node) {
+            this.parent = parent;
+            this.node = node;
+            this.deferredRequested = new AtomicLong();
+        }
+
+        @Override
+        public void run() {
+            if (isDisposed()) {
+                return;
+            }
+            Publisher<? extends T> p;
+            try {
+                p = Objects.requireNonNull(parent.expander.apply(node), "The expander returned a null Publisher");
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                onError(ex);
+                return;
+            }
+            p.subscribe(this);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            SubscriptionHelper.deferredSetOnce(this, deferredRequested, s);
+        }
+
+        @Override
+        public void onNext(T t) {
+            parent.innerNext(this, t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parent.innerError(this, t);
+        }
+
+        @Override
+        public void onComplete() {
+            parent.innerComplete(this);
+        }
+
+        void request(long n) {
+            SubscriptionHelper.deferredRequest(this, deferredRequested, n);
+        }
+
+        @Override
+        public void dispose() {
+            SubscriptionHelper.cancel(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == SubscriptionHelper.CANCELLED;
+        }
+    }
+}
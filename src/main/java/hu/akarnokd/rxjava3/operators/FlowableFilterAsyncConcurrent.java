@@ -0,0 +1,391 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.rxjava3.internal.util.*;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
+ * input value, running up to the given number of inner Publishers at once, and emits the input values,
+ * in their original order, for which the inner Publisher returned {@code true}.
+ * <p>The upstream values and the results are kept in a fixed-size ring of slots indexed by the
+ * sequence number of the value. If the inner Publisher is empty, the input value is dropped.
+ * Any error, from the upstream, the inner Publishers or the function, cancels all
+ * and is signalled to the downstream immediately.
+ * @param <T> the input value type
+ *
+ * @since 3.0.0
+ */
+final class FlowableFilterAsyncConcurrent<T> extends Flowable<T> implements FlowableTransformer<T, T> {
+
+    final Publisher<T> source;
+
+    final Function<? super T, ? extends Publisher<Boolean>> asyncPredicate;
+
+    final int bufferSize;
+
+    final int maxConcurrency;
+
+    FlowableFilterAsyncConcurrent(Publisher<T> source, Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
+            int bufferSize, int maxConcurrency) {
+        this.source = source;
+        this.asyncPredicate = asyncPredicate;
+        this.bufferSize = bufferSize;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new FlowableFilterAsyncConcurrent<>(upstream, asyncPredicate, bufferSize, maxConcurrency);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        source.subscribe(new FilterAsyncConcurrentSubscriber<>(s, asyncPredicate, bufferSize, maxConcurrency));
+    }
+
+    static final int STATE_FRESH = 0;
+    static final int STATE_RUNNING = 1;
+    static final int STATE_PASS = 2;
+    static final int STATE_DROP = 3;
+
+    static final class FilterAsyncConcurrentSubscriber<T>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = 4862393045284089937L;
+
+        final Subscriber<? super T> downstream;
+
+        final Function<? super T, ? extends Publisher<Boolean>> asyncPredicate;
+
+        final int bufferSize;
+
+        final int maxConcurrency;
+
+        final AtomicThrowable errors;
+
+        final AtomicLong requested;
+
+        /** The upstream values by sequence number. */
+        final AtomicReferenceArray<T> items;
+
+        /** The STATE_x of the predicate of each slot. */
+        final AtomicIntegerArray states;
+
+        /** The running inner subscriber of each slot. */
+        final AtomicReferenceArray<InnerSubscriber> inners;
+
+        /** The number of inner Publishers that haven't produced their result yet. */
+        final AtomicInteger running;
+
+        Subscription upstream;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        long producerIndex;
+
+        /** The sequence number of the next value to emit or drop. */
+        long consumerIndex;
+
+        /** The sequence number of the next value to test. */
+        long startIndex;
+
+        long emitted;
+
+        FilterAsyncConcurrentSubscriber(Subscriber<? super T> downstream,
+                Function<? super T, ? extends Publisher<Boolean>> asyncPredicate, int bufferSize, int maxConcurrency) {
+            this.downstream = downstream;
+            this.asyncPredicate = asyncPredicate;
+            this.bufferSize = bufferSize;
+            this.maxConcurrency = maxConcurrency;
+            this.errors = new AtomicThrowable();
+            this.requested = new AtomicLong();
+            int n = Pow2.roundToPowerOfTwo(bufferSize);
+            this.items = new AtomicReferenceArray<>(n);
+            this.states = new AtomicIntegerArray(n);
+            this.inners = new AtomicReferenceArray<>(n);
+            this.running = new AtomicInteger();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                downstream.onSubscribe(this);
+
+                s.request(bufferSize);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            long pi = producerIndex;
+            items.lazySet((int)pi & (items.length() - 1), t);
+            producerIndex = pi + 1;
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (errors.tryAddThrowableOrReport(t)) {
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                cancelInners();
+                errors.tryTerminateAndReport();
+                if (getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        void cancelInners() {
+            int n = inners.length();
+            for (int i = 0; i < n; i++) {
+                InnerSubscriber inner = inners.get(i);
+                if (inner != null) {
+                    inner.cancel();
+                }
+            }
+        }
+
+        void clear() {
+            int n = items.length();
+            for (int i = 0; i < n; i++) {
+                items.lazySet(i, null);
+                inners.lazySet(i, null);
+            }
+        }
+
+        void innerResult(int index, boolean pass) {
+            states.set(index, pass ? STATE_PASS : STATE_DROP);
+            running.decrementAndGet();
+            drain();
+        }
+
+        void innerError(Throwable ex) {
+            running.decrementAndGet();
+            if (errors.tryAddThrowableOrReport(ex)) {
+                drain();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            long e = emitted;
+            long ci = consumerIndex;
+            long si = startIndex;
+            int max = maxConcurrency;
+            AtomicReferenceArray<T> its = items;
+            AtomicIntegerArray sts = states;
+            int m = its.length() - 1;
+            Subscriber<? super T> a = downstream;
+
+            for (;;) {
+                long r = requested.get();
+
+                for (;;) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    if (errors.get() != null) {
+                        cancelled = true;
+                        upstream.cancel();
+                        cancelInners();
+                        clear();
+                        errors.tryTerminateConsumer(a);
+                        return;
+                    }
+
+                    int offset = (int)ci & m;
+                    T t = its.get(offset);
+
+                    if (t != null) {
+                        int s = sts.get(offset);
+                        if (s == STATE_DROP || (s == STATE_PASS && e != r)) {
+                            if (s == STATE_PASS) {
+                                a.onNext(t);
+                                e++;
+                            }
+                            its.lazySet(offset, null);
+                            inners.lazySet(offset, null);
+                            sts.lazySet(offset, STATE_FRESH);
+                            ci++;
+                            upstream.request(1);
+                            continue;
+                        }
+                    }
+
+                    boolean d = done;
+
+                    offset = (int)si & m;
+                    T u = si - ci <= m && running.get() != max ? its.get(offset) : null;
+
+                    if (u != null) {
+                        Publisher<Boolean> p;
+
+                        try {
+                            p = Objects.requireNonNull(asyncPredicate.apply(u), "The asyncPredicate returned a null Publisher");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.tryAddThrowableOrReport(ex);
+                            continue;
+                        }
+
+                        si++;
+
+                        if (p instanceof Supplier) {
+                            // short-circuit the constant result without an inner subscriber
+                            Boolean b;
+                            try {
+                                @SuppressWarnings("unchecked")
+                                Boolean v = ((Supplier<Boolean>)p).get();
+                                b = v;
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                errors.tryAddThrowableOrReport(ex);
+                                continue;
+                            }
+                            sts.lazySet(offset, b != null && b ? STATE_PASS : STATE_DROP);
+                        } else {
+                            InnerSubscriber inner = new InnerSubscriber(this, offset);
+                            sts.lazySet(offset, STATE_RUNNING);
+                            running.getAndIncrement();
+                            inners.set(offset, inner);
+                            if (cancelled) {
+                                continue;
+                            }
+                            p.subscribe(inner);
+                        }
+                        continue;
+                    }
+
+                    if (d && its.get((int)ci & m) == null) {
+                        cancelled = true;
+                        errors.tryTerminateConsumer(a);
+                        return;
+                    }
+
+                    break;
+                }
+
+                emitted = e;
+                consumerIndex = ci;
+                startIndex = si;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    static final class InnerSubscriber extends AtomicReference<Subscription>
+    implements FlowableSubscriber<Boolean> {
+
+        private static final long serialVersionUID = -3261573658429540024L;
+
+        final FilterAsyncConcurrentSubscriber<?> parent;
+
+        final int index;
+
+        boolean done;
+
+        InnerSubscriber(FilterAsyncConcurrentSubscriber<?> parent, int index) {
+            this.parent = parent;
+            this.index = index;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(Boolean t) {
+            if (!done) {
+                done = true;
+                get().cancel();
+                parent.innerResult(index, t);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                parent.innerError(t);
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.innerResult(index, false);
+            }
+        }
+
+        void cancel() {
+            SubscriptionHelper.cancel(this);
+        }
+    }
+}
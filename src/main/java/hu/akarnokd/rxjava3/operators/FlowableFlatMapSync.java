@@ -31,6 +31,10 @@ import io.reactivex.rxjava3.internal.util.*;
 
 /**
  * FlatMap a bounded number of inner, non-trivial flows (unbound not supported).
+ * <p>
+ * In batched mode, the inner sources are drained depth-first, taking as many items
+ * from an inner source as available and requested in one go and replenishing them
+ * once per batch; the inner subscribers are also reused once their source completed.
  *
  * @param <T> the input value type
  * @param <R> the result value type
@@ -49,23 +53,31 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
     final boolean depthFirst;
 
+    final boolean batched;
+
     FlowableFlatMapSync(Publisher<T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
             int maxConcurrency, int bufferSize, boolean depthFirst) {
+        this(source, mapper, maxConcurrency, bufferSize, depthFirst, false);
+    }
+
+    FlowableFlatMapSync(Publisher<T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
+            int maxConcurrency, int bufferSize, boolean depthFirst, boolean batched) {
         this.source = source;
         this.mapper = mapper;
         this.maxConcurrency = maxConcurrency;
         this.bufferSize = bufferSize;
         this.depthFirst = depthFirst;
+        this.batched = batched;
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super R> s) {
-        source.subscribe(new FlatMapOuterSubscriber<T, R>(s, mapper, maxConcurrency, bufferSize, depthFirst));
+        source.subscribe(new FlatMapOuterSubscriber<T, R>(s, mapper, maxConcurrency, bufferSize, depthFirst, batched));
     }
 
     @Override
     public Publisher<R> apply(Flowable<T> upstream) {
-        return new FlowableFlatMapSync<>(upstream, mapper, maxConcurrency, bufferSize, depthFirst);
+        return new FlowableFlatMapSync<>(upstream, mapper, maxConcurrency, bufferSize, depthFirst, batched);
     }
 
     interface FlatMapInnerSubscriberSupport<T, R> {
@@ -104,6 +116,9 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
         final AtomicLong active;
 
+        /** Completed inner subscribers available for reuse, indexed by their slot; null if not batched. */
+        final FlatMapInnerSubscriber<T, R>[] pool;
+
         volatile boolean done;
 
         volatile boolean cancelled;
@@ -121,6 +136,14 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
                 Function<? super T, ? extends Publisher<? extends R>> mapper,
                         int maxConcurrency, int bufferSize,
                         boolean depthFirst) {
+            this(downstream, mapper, maxConcurrency, bufferSize, depthFirst, false);
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        BaseFlatMapOuterSubscriber(Subscriber<? super R> downstream,
+                Function<? super T, ? extends Publisher<? extends R>> mapper,
+                        int maxConcurrency, int bufferSize,
+                        boolean depthFirst, boolean batched) {
             this.downstream = downstream;
             this.mapper = mapper;
             this.maxConcurrency = maxConcurrency;
@@ -133,6 +156,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             int c = Pow2.roundToPowerOfTwo(maxConcurrency);
             this.subscribers = new AtomicReferenceArray<>(c);
             this.freelist = new AtomicIntegerArray(c + CONSUMER_INDEX + 16);
+            this.pool = batched ? new FlatMapInnerSubscriber[c] : null;
         }
 
         @Override
@@ -175,7 +199,15 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
                     idx = ci + 1;
                 }
 
-                FlatMapInnerSubscriber<T, R> inner = new FlatMapInnerSubscriber<>(this, bufferSize, idx);
+                FlatMapInnerSubscriber<T, R> inner = null;
+                FlatMapInnerSubscriber<T, R>[] pool = this.pool;
+                if (pool != null) {
+                    inner = pool[idx - 1];
+                    pool[idx - 1] = null;
+                }
+                if (inner == null) {
+                    inner = new FlatMapInnerSubscriber<>(this, bufferSize, idx);
+                }
                 s.lazySet(idx - 1, inner);
                 fl.lazySet(m + CONSUMER_INDEX, (ci + 1) & (m - 1));
 
@@ -380,6 +412,145 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             }
         }
 
+        final void depthFirstBatched() {
+            int missed = 1;
+            long e = emitted;
+            AtomicReferenceArray<FlatMapInnerSubscriber<T, R>> s = subscribers;
+            int m = s.length();
+            Subscriber<? super R> a = downstream;
+            AtomicLong act = active;
+
+            for (;;) {
+
+                long r = requested.get();
+
+                while (e != r) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    if (done) {
+                        Throwable ex = error.get();
+                        if (ex != null) {
+                            error.tryTerminateConsumer(a);
+                            cleanupAfter();
+                            return;
+                        }
+                    }
+
+                    long n = act.get();
+                    long f = finished;
+                    int innerEmpty = 0;
+
+                    for (int i = 0, j = 0; i < m && j + f < n; i++) {
+                        FlatMapInnerSubscriber<T, R> inner = s.get(i);
+                        if (inner != null) {
+                            j++;
+                            boolean innerDone = inner.done;
+                            SimpleQueue<R> q = inner.queue;
+
+                            long b = 0L;
+                            boolean empty = true;
+
+                            if (q != null) {
+                                long c = r - e;
+                                try {
+                                    while (b != c) {
+                                        R v = q.poll();
+                                        if (v == null) {
+                                            break;
+                                        }
+                                        a.onNext(v);
+                                        b++;
+                                        if (cancelled) {
+                                            return;
+                                        }
+                                    }
+                                } catch (Throwable ex) {
+                                    Exceptions.throwIfFatal(ex);
+                                    error.tryAddThrowableOrReport(ex);
+                                    upstream.cancel();
+                                    cancelInners();
+                                    error.tryTerminateConsumer(a);
+                                    cleanupAfter();
+                                    return;
+                                }
+                                empty = b != c;
+                            }
+
+                            if (b != 0L) {
+                                e += b;
+                                inner.produced(b);
+                            }
+
+                            if (empty) {
+                                if (innerDone) {
+                                    recycle(inner);
+                                    finished++;
+                                    upstream.request(1);
+                                }
+                                innerEmpty++;
+                            }
+
+                            if (e == r) {
+                                break;
+                            }
+                        }
+                    }
+
+                    boolean d = done;
+                    n = act.get();
+                    f = finished;
+                    if (d) {
+                        if (n == f) {
+                            a.onComplete();
+                            cleanupAfter();
+                            return;
+                        }
+                    }
+
+                    if (innerEmpty + f == n) {
+                        break;
+                    }
+                }
+
+                if (e == r) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    if (done) {
+
+                        Throwable ex = error.get();
+                        if (ex != null) {
+                            error.tryTerminateConsumer(a);
+                            cleanupAfter();
+                            return;
+                        }
+
+                        long n = act.get();
+
+                        if (n == finished) {
+                            a.onComplete();
+                            cleanupAfter();
+                            return;
+                        }
+                    }
+                }
+
+                int w = get();
+                if (w == missed) {
+                    emitted = e;
+                    missed = addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+
         final void breadthFirst() {
             int missed = 1;
             long e = emitted;
@@ -513,6 +684,22 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             fl.lazySet(m + PRODUCER_INDEX, (pi + 1) & (m - 1));
         }
 
+        /**
+         * Removes a completed and drained inner subscriber and, in batched mode,
+         * makes it available for reuse by the next upstream item mapped into its slot.
+         * Must be called from the drain loop only.
+         * @param inner the inner subscriber to remove and recycle
+         */
+        final void recycle(FlatMapInnerSubscriber<T, R> inner) {
+            FlatMapInnerSubscriber<T, R>[] pool = this.pool;
+            if (pool != null) {
+                inner.reset();
+                // the freelist update in remove() publishes the pooled instance
+                pool[inner.index - 1] = inner;
+            }
+            remove(inner);
+        }
+
         final void cancelInners() {
             AtomicReferenceArray<FlatMapInnerSubscriber<T, R>> s = subscribers;
             int m = s.length();
@@ -529,10 +716,13 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
     static final class FlatMapOuterSubscriber<T, R> extends BaseFlatMapOuterSubscriber<T, R> {
         private static final long serialVersionUID = -5109342841608286301L;
 
+        final boolean batched;
+
         FlatMapOuterSubscriber(Subscriber<? super R> downstream,
                 Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, int bufferSize,
-                boolean depthFirst) {
-            super(downstream, mapper, maxConcurrency, bufferSize, depthFirst);
+                boolean depthFirst, boolean batched) {
+            super(downstream, mapper, maxConcurrency, bufferSize, depthFirst, batched);
+            this.batched = batched;
         }
 
         @Override
@@ -543,6 +733,9 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
         }
 
         void drainLoop() {
+            if (batched) {
+                depthFirstBatched();
+            } else
             if (depthFirst) {
                 depthFirst();
             } else {
@@ -689,6 +882,31 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             }
         }
 
+        void produced(long n) {
+            if (fusionMode != QueueFuseable.SYNC) {
+                long p = produced + n;
+                if (p >= limit) {
+                    produced = 0;
+                    get().request(p);
+                } else {
+                    produced = (int)p;
+                }
+            }
+        }
+
+        /**
+         * Prepares this completed and drained inner subscriber to be subscribed to a new source.
+         */
+        void reset() {
+            lazySet(null);
+            if (fusionMode != QueueFuseable.NONE) {
+                queue = null;
+            }
+            fusionMode = QueueFuseable.NONE;
+            produced = 0;
+            done = false;
+        }
+
         SimpleQueue<R> queue() {
             SimpleQueue<R> q = queue;
             if (q == null) {
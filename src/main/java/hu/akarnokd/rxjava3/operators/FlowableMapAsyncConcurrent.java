@@ -0,0 +1,434 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.disposables.*;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+import io.reactivex.rxjava3.internal.queue.*;
+import io.reactivex.rxjava3.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.rxjava3.internal.util.*;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * Maps each upstream value into a single value provided by a generated Publisher for that
+ * input value, running up to the given number of inner Publishers at once, and combines
+ * the original and generated single value into a final result item to be emitted
+ * to downstream in the upstream order or as the results become available.
+ * <p>Only the first item emitted by the inner Publishers are considered. If
+ * the inner Publisher is empty, no resulting item is generated for that input value.
+ * Any error, from the upstream, the inner Publishers or the functions, cancels all
+ * and is signalled to the downstream immediately.
+ * @param <T> the input value type
+ * @param <U> the intermediate value type
+ * @param <R> the result value type
+ *
+ * @since 3.0.0
+ */
+final class FlowableMapAsyncConcurrent<T, U, R> extends Flowable<R> implements FlowableTransformer<T, R> {
+
+    final Publisher<T> source;
+
+    final Function<? super T, ? extends Publisher<? extends U>> mapper;
+
+    final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+    final int maxConcurrency;
+
+    final boolean ordered;
+
+    FlowableMapAsyncConcurrent(Publisher<T> source, Function<? super T, ? extends Publisher<? extends U>> mapper,
+            BiFunction<? super T, ? super U, ? extends R> combiner, int maxConcurrency, boolean ordered) {
+        this.source = source;
+        this.mapper = mapper;
+        this.combiner = combiner;
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public Publisher<R> apply(Flowable<T> upstream) {
+        return new FlowableMapAsyncConcurrent<>(upstream, mapper, combiner, maxConcurrency, ordered);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super R> s) {
+        source.subscribe(new MapAsyncConcurrentSubscriber<T, U, R>(s, mapper, combiner, maxConcurrency, ordered));
+    }
+
+    static final class MapAsyncConcurrentSubscriber<T, U, R>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -2364373651454395437L;
+
+        final Subscriber<? super R> downstream;
+
+        final Function<? super T, ? extends Publisher<? extends U>> mapper;
+
+        final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+        final int maxConcurrency;
+
+        final boolean ordered;
+
+        final AtomicThrowable errors;
+
+        final AtomicLong requested;
+
+        final SimplePlainQueue<T> queue;
+
+        /** The running and finished inner subscribers by sequence number in ordered mode. */
+        final AtomicReferenceArray<InnerSubscriber<T, U>> ring;
+
+        /** The finished inner subscribers in unordered mode. */
+        final SimplePlainQueue<InnerSubscriber<T, U>> completed;
+
+        final CompositeDisposable inners;
+
+        Subscription upstream;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        long producerIndex;
+
+        long consumerIndex;
+
+        /** The finished inner subscriber taken from the completed queue but not yet emitted. */
+        InnerSubscriber<T, U> head;
+
+        /** The number of inner subscribers started but not yet emitted or dropped. */
+        int active;
+
+        long emitted;
+
+        MapAsyncConcurrentSubscriber(Subscriber<? super R> downstream,
+                Function<? super T, ? extends Publisher<? extends U>> mapper,
+                BiFunction<? super T, ? super U, ? extends R> combiner, int maxConcurrency, boolean ordered) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+            this.combiner = combiner;
+            this.maxConcurrency = maxConcurrency;
+            this.ordered = ordered;
+            this.errors = new AtomicThrowable();
+            this.requested = new AtomicLong();
+            this.queue = new SpscArrayQueue<>(maxConcurrency);
+            this.inners = new CompositeDisposable();
+            if (ordered) {
+                this.ring = new AtomicReferenceArray<>(Pow2.roundToPowerOfTwo(maxConcurrency));
+                this.completed = null;
+            } else {
+                this.ring = null;
+                this.completed = new MpscLinkedQueue<>();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                downstream.onSubscribe(this);
+
+                s.request(maxConcurrency);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            queue.offer(t);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (errors.tryAddThrowableOrReport(t)) {
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                inners.dispose();
+                errors.tryTerminateAndReport();
+                if (getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        void clear() {
+            queue.clear();
+            head = null;
+            if (ordered) {
+                int n = ring.length();
+                for (int i = 0; i < n; i++) {
+                    ring.lazySet(i, null);
+                }
+            } else {
+                completed.clear();
+            }
+        }
+
+        void innerDone(InnerSubscriber<T, U> inner) {
+            inners.delete(inner);
+            if (!ordered) {
+                completed.offer(inner);
+            }
+            drain();
+        }
+
+        void innerError(InnerSubscriber<T, U> inner, Throwable ex) {
+            inners.delete(inner);
+            if (errors.tryAddThrowableOrReport(ex)) {
+                drain();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            long e = emitted;
+            long ci = consumerIndex;
+            long pi = producerIndex;
+            int act = active;
+            int max = maxConcurrency;
+            boolean ord = ordered;
+            AtomicReferenceArray<InnerSubscriber<T, U>> rg = ring;
+            int m = ord ? rg.length() - 1 : 0;
+            SimplePlainQueue<T> q = queue;
+            Subscriber<? super R> a = downstream;
+
+            for (;;) {
+                long r = requested.get();
+
+                for (;;) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    if (errors.get() != null) {
+                        cancelled = true;
+                        upstream.cancel();
+                        inners.dispose();
+                        clear();
+                        errors.tryTerminateConsumer(a);
+                        return;
+                    }
+
+                    InnerSubscriber<T, U> h;
+                    if (ord) {
+                        h = rg.get((int)ci & m);
+                        if (h != null && !h.done) {
+                            h = null;
+                        }
+                    } else {
+                        h = head;
+                        if (h == null) {
+                            h = completed.poll();
+                            head = h;
+                        }
+                    }
+
+                    if (h != null) {
+                        U u = h.value;
+                        if (u == null || e != r) {
+                            if (u != null) {
+                                R v;
+                                try {
+                                    v = Objects.requireNonNull(combiner.apply(h.item, u), "The combiner returned a null value");
+                                } catch (Throwable ex) {
+                                    Exceptions.throwIfFatal(ex);
+                                    errors.tryAddThrowableOrReport(ex);
+                                    continue;
+                                }
+
+                                a.onNext(v);
+                                e++;
+                            }
+
+                            if (ord) {
+                                rg.lazySet((int)ci & m, null);
+                                ci++;
+                            } else {
+                                head = null;
+                            }
+                            act--;
+                            // keep the window full instead of batching up the replenishments
+                            upstream.request(1);
+                            continue;
+                        }
+                    }
+
+                    boolean d = done;
+
+                    T t = act != max ? q.poll() : null;
+
+                    if (t != null) {
+                        Publisher<? extends U> p;
+
+                        try {
+                            p = Objects.requireNonNull(mapper.apply(t), "The mapper returned a null Publisher");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.tryAddThrowableOrReport(ex);
+                            continue;
+                        }
+
+                        InnerSubscriber<T, U> inner = new InnerSubscriber<>(this, t);
+                        act++;
+                        if (ord) {
+                            rg.lazySet((int)pi & m, inner);
+                            pi++;
+                        }
+
+                        if (p instanceof Supplier) {
+                            try {
+                                @SuppressWarnings("unchecked")
+                                U u = ((Supplier<U>)p).get();
+                                inner.value = u;
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                errors.tryAddThrowableOrReport(ex);
+                                continue;
+                            }
+                            inner.done = true;
+                            if (!ord) {
+                                completed.offer(inner);
+                            }
+                        } else {
+                            inners.add(inner);
+                            p.subscribe(inner);
+                        }
+                        continue;
+                    }
+
+                    if (d && act == 0 && q.isEmpty()) {
+                        cancelled = true;
+                        errors.tryTerminateConsumer(a);
+                        return;
+                    }
+
+                    break;
+                }
+
+                emitted = e;
+                consumerIndex = ci;
+                producerIndex = pi;
+                active = act;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    static final class InnerSubscriber<T, U> extends AtomicReference<Subscription>
+    implements FlowableSubscriber<U>, Disposable {
+
+        private static final long serialVersionUID = -8221853568166545011L;
+
+        final MapAsyncConcurrentSubscriber<T, U, ?> parent;
+
+        final T item;
+
+        U value;
+
+        volatile boolean done;
+
+        InnerSubscriber(MapAsyncConcurrentSubscriber<T, U, ?> parent, T item) {
+            this.parent = parent;
+            this.item = item;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(U t) {
+            if (!done) {
+                get().cancel();
+                value = t;
+                done = true;
+                parent.innerDone(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                parent.innerError(this, t);
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.innerDone(this);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            SubscriptionHelper.cancel(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == SubscriptionHelper.CANCELLED;
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava3.operators;
 
-import java.util.ArrayDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.*;
 
@@ -26,6 +25,7 @@ import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.core.Scheduler.Worker;
 import io.reactivex.rxjava3.exceptions.Exceptions;
 import io.reactivex.rxjava3.functions.Consumer;
+import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
 import io.reactivex.rxjava3.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.rxjava3.internal.util.BackpressureHelper;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
@@ -33,11 +33,23 @@ import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 /**
  * If the downstream doesn't request, it buffers events and times out
  * old elements from the front of the buffer.
+ * <p>
+ * The elements and their deadlines are kept in a single-producer single-consumer
+ * queue; only the serialized drain loop consumes it, which also evicts
+ * the elements beyond the maximum size and, when a periodic sweep asks for it,
+ * all elements whose deadline has passed. An element thus may linger
+ * for a quarter of the timeout after its deadline.
  * @param <T> the input and output element type
  */
 final class FlowableOnBackpressureTimeout<T> extends Flowable<T>
 implements FlowableTransformer<T, T> {
 
+    /** The sweep period is this part of the timeout. */
+    static final int SWEEP_FRACTION = 4;
+
+    /** The minimum sweep period in nanoseconds. */
+    static final long MIN_SWEEP_PERIOD = TimeUnit.MILLISECONDS.toNanos(1);
+
     final Publisher<T> source;
 
     final int maxSize;
@@ -50,24 +62,27 @@ implements FlowableTransformer<T, T> {
 
     final Consumer<? super T> onEvict;
 
+    final BackpressureTimeoutCounters counters;
+
     FlowableOnBackpressureTimeout(Publisher<T> source, int maxSize, long timeout, TimeUnit unit,
-            Scheduler scheduler, Consumer<? super T> onEvict) {
+            Scheduler scheduler, Consumer<? super T> onEvict, BackpressureTimeoutCounters counters) {
         this.source = source;
         this.maxSize = maxSize;
         this.timeout = timeout;
         this.unit = unit;
         this.scheduler = scheduler;
         this.onEvict = onEvict;
+        this.counters = counters;
     }
 
     @Override
     public Publisher<T> apply(Flowable<T> upstream) {
-        return new FlowableOnBackpressureTimeout<>(upstream, maxSize, timeout, unit, scheduler, onEvict);
+        return new FlowableOnBackpressureTimeout<>(upstream, maxSize, timeout, unit, scheduler, onEvict, counters);
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super T> s) {
-        source.subscribe(new OnBackpressureTimeoutSubscriber<T>(s, maxSize, timeout, unit, scheduler.createWorker(), onEvict));
+        source.subscribe(new OnBackpressureTimeoutSubscriber<T>(s, maxSize, timeout, unit, scheduler.createWorker(), onEvict, counters));
     }
 
     static final class OnBackpressureTimeoutSubscriber<T>
@@ -80,7 +95,7 @@ implements FlowableTransformer<T, T> {
 
         final AtomicLong requested;
 
-        final int maxSizeDouble;
+        final int maxSize;
 
         final long timeout;
 
@@ -90,25 +105,39 @@ implements FlowableTransformer<T, T> {
 
         final Consumer<? super T> onEvict;
 
-        Subscription upstream;
+        final BackpressureTimeoutCounters counters;
 
-        final ArrayDeque<Object> queue;
+        /** Holds pairs of deadline and element. */
+        final SpscLinkedArrayQueue<Object> queue;
+
+        /** The number of elements offered into the queue, written by the producer only. */
+        final AtomicLong produced;
+
+        Subscription upstream;
 
         volatile boolean done;
         Throwable error;
 
         volatile boolean cancelled;
 
+        /** Set by the periodic sweep to have the drain loop evict the timed out elements. */
+        volatile boolean sweep;
+
+        /** The number of elements taken from the queue, accessed from the drain loop only. */
+        long consumed;
+
         OnBackpressureTimeoutSubscriber(Subscriber<? super T> downstream, int maxSize, long timeout, TimeUnit unit,
-                Worker worker, Consumer<? super T> onEvict) {
+                Worker worker, Consumer<? super T> onEvict, BackpressureTimeoutCounters counters) {
             this.downstream = downstream;
-            this.maxSizeDouble = maxSize << 1;
+            this.maxSize = maxSize;
             this.timeout = timeout;
             this.unit = unit;
             this.worker = worker;
             this.onEvict = onEvict;
+            this.counters = counters;
             this.requested = new AtomicLong();
-            this.queue = new ArrayDeque<>();
+            this.produced = new AtomicLong();
+            this.queue = new SpscLinkedArrayQueue<>(Math.min(maxSize, Flowable.bufferSize()) << 1);
         }
 
         @Override
@@ -132,18 +161,13 @@ implements FlowableTransformer<T, T> {
 
         @SuppressWarnings("unchecked")
         void clearQueue() {
+            SpscLinkedArrayQueue<Object> q = queue;
             for (;;) {
-                T evicted;
-                synchronized (this) {
-                    if (queue.isEmpty()) {
-                        break;
-                    }
-
-                    queue.poll();
-                    evicted = (T)queue.poll();
+                if (q.poll() == null) {
+                    break;
                 }
-
-                evict(evicted);
+                consumed++;
+                evict((T)q.poll(), false);
             }
         }
 
@@ -154,24 +178,17 @@ implements FlowableTransformer<T, T> {
 
                 downstream.onSubscribe(this);
 
+                long period = Math.max(MIN_SWEEP_PERIOD, unit.toNanos(timeout) / SWEEP_FRACTION);
+                worker.schedulePeriodically(this, period, period, TimeUnit.NANOSECONDS);
+
                 s.request(Long.MAX_VALUE);
             }
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public void onNext(T t) {
-            T evicted = null;
-            synchronized (this) {
-                if (queue.size() == maxSizeDouble) {
-                    queue.poll();
-                    evicted = (T)queue.poll();
-                }
-                queue.offer(worker.now(unit));
-                queue.offer(t);
-            }
-            evict(evicted);
-            worker.schedule(this, timeout, unit);
+            queue.offer(worker.now(unit) + timeout, t);
+            produced.lazySet(produced.get() + 1);
             drain();
         }
 
@@ -188,49 +205,62 @@ implements FlowableTransformer<T, T> {
             drain();
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public void run() {
-            for (;;) {
-                if (cancelled) {
-                    break;
-                }
-
-                boolean d = done;
-                boolean empty;
-                T evicted = null;
-
-                synchronized (this) {
-                    Long ts = (Long)queue.peek();
-                    empty = ts == null;
-                    if (!empty) {
-                        if (ts.longValue() <= worker.now(unit) - timeout) {
-                            queue.poll();
-                            evicted = (T)queue.poll();
-                        } else {
-                            break;
-                        }
-                    }
-                }
-
-                evict(evicted);
+            sweep = true;
+            drain();
+        }
 
-                if (empty) {
-                    if (d) {
-                        drain();
-                    }
-                    break;
+        void evict(T evicted, boolean expired) {
+            BackpressureTimeoutCounters c = counters;
+            if (c != null) {
+                c.evicted.getAndIncrement();
+                if (expired) {
+                    c.expired.getAndIncrement();
                 }
             }
+            try {
+                onEvict.accept(evicted);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
         }
 
-        void evict(T evicted) {
-            if (evicted != null) {
-                try {
-                    onEvict.accept(evicted);
-                } catch (Throwable ex) {
-                    Exceptions.throwIfFatal(ex);
-                    RxJavaPlugins.onError(ex);
+        /**
+         * Evicts the elements beyond the maximum size and, if the sweep asked for it,
+         * the elements whose deadline has passed.
+         */
+        @SuppressWarnings("unchecked")
+        void evictOld() {
+            SpscLinkedArrayQueue<Object> q = queue;
+            long c = consumed;
+            long over = produced.get() - c - maxSize;
+
+            while (over > 0L && !cancelled) {
+                q.poll();
+                T v = (T)q.poll();
+                c++;
+                over--;
+                consumed = c;
+                evict(v, false);
+            }
+
+            if (sweep) {
+                sweep = false;
+                long now = worker.now(unit);
+                for (;;) {
+                    if (cancelled) {
+                        break;
+                    }
+                    Long deadline = (Long)q.peek();
+                    if (deadline == null || deadline > now) {
+                        break;
+                    }
+                    q.poll();
+                    T v = (T)q.poll();
+                    consumed = ++c;
+                    evict(v, true);
                 }
             }
         }
@@ -242,8 +272,17 @@ implements FlowableTransformer<T, T> {
             }
 
             int missed = 1;
+            SpscLinkedArrayQueue<Object> q = queue;
+            Subscriber<? super T> a = downstream;
 
             for (;;) {
+                if (cancelled) {
+                    clearQueue();
+                    return;
+                }
+
+                evictOld();
+
                 long r = requested.get();
                 long e = 0;
 
@@ -253,28 +292,26 @@ implements FlowableTransformer<T, T> {
                         return;
                     }
 
+                    // the upstream and the sweep may have run while the downstream was busy
+                    if (sweep || produced.get() - consumed > maxSize) {
+                        evictOld();
+                    }
+
                     boolean d = done;
                     T v;
 
-                    synchronized (this) {
-                        if (queue.poll() != null) {
-                            v = (T)queue.poll();
-                        } else {
-                            v = null;
-                        }
+                    if (q.poll() != null) {
+                        v = (T)q.poll();
+                        consumed++;
+                    } else {
+                        v = null;
                     }
 
                     boolean empty = v == null;
 
                     if (d && empty) {
-                        Throwable ex = error;
-                        if (ex != null) {
-                            downstream.onError(ex);
-                        } else {
-                            downstream.onComplete();
-                        }
-
-                        worker.dispose();
+                        delivered(e);
+                        terminate(a);
                         return;
                     }
 
@@ -282,41 +319,51 @@ implements FlowableTransformer<T, T> {
                         break;
                     }
 
-                    downstream.onNext(v);
+                    a.onNext(v);
 
                     e++;
                 }
 
+                delivered(e);
+
                 if (e == r) {
                     if (cancelled) {
                         clearQueue();
                         return;
                     }
 
-                    boolean d = done;
-                    boolean empty;
-                    synchronized (this) {
-                        empty = queue.isEmpty();
-                    }
-
-                    if (d && empty) {
-                        Throwable ex = error;
-                        if (ex != null) {
-                            downstream.onError(ex);
-                        } else {
-                            downstream.onComplete();
-                        }
-
-                        worker.dispose();
+                    if (done && q.isEmpty()) {
+                        terminate(a);
                         return;
                     }
                 }
 
+                if (e != 0L) {
+                    BackpressureHelper.produced(requested, e);
+                }
+
                 missed = addAndGet(-missed);
                 if (missed == 0) {
                     break;
                 }
             }
         }
+
+        void delivered(long e) {
+            BackpressureTimeoutCounters c = counters;
+            if (c != null && e != 0L) {
+                c.delivered.getAndAdd(e);
+            }
+        }
+
+        void terminate(Subscriber<? super T> a) {
+            worker.dispose();
+            Throwable ex = error;
+            if (ex != null) {
+                a.onError(ex);
+            } else {
+                a.onComplete();
+            }
+        }
     }
 }
@@ -220,6 +220,90 @@ public final class FlowableTransformers {
         return new FlowableBufferPredicate<>(null, predicate, FlowableBufferPredicate.Mode.SPLIT, bufferSupplier);
     }
 
+    /**
+     * Buffers elements into a custom collection while the given predicate returns true; if the
+     * predicate returns false for an item, a new collection is started with the specified item, reusing the collections released by the downstream.
+     * <p>
+     * The collections are emitted wrapped into {@link PooledBuffer}s; once the consumer
+     * releases such a buffer, the collection is cleared and returned into a pool of
+     * at most {@code poolSize} collections per subscription, which is checked before
+     * calling the {@code bufferSupplier}. See {@link IntArrayBuffer} and {@link LongArrayBuffer}
+     * for compact collections of primitive values.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current item and if returns false,
+     *                  a new collection is started with the specified item
+     * @param bufferSupplier the supplier that returns a fresh collection if the pool is empty
+     * @param poolSize the maximum number of released collections kept for reuse
+     * @return the new FlowableTransformer instance
+     *
+     * @since 3.0.0
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, PooledBuffer<C>> bufferWhilePooled(Predicate<? super T> predicate, Supplier<C> bufferSupplier, int poolSize) {
+        Objects.requireNonNull(predicate, "predicate is null");
+        Objects.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.verifyPositive(poolSize, "poolSize");
+        return new FlowableBufferPredicatePooled<>(null, predicate, FlowableBufferPredicate.Mode.BEFORE, bufferSupplier, poolSize);
+    }
+
+    /**
+     * Buffers elements into a custom collection until the given predicate returns true at which
+     * point a new empty collection is started, reusing the collections released by the downstream.
+     * <p>
+     * The collections are emitted wrapped into {@link PooledBuffer}s; once the consumer
+     * releases such a buffer, the collection is cleared and returned into a pool of
+     * at most {@code poolSize} collections per subscription, which is checked before
+     * calling the {@code bufferSupplier}. See {@link IntArrayBuffer} and {@link LongArrayBuffer}
+     * for compact collections of primitive values.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current collection is emitted and a new empty collection is started
+     * @param bufferSupplier the supplier that returns a fresh collection if the pool is empty
+     * @param poolSize the maximum number of released collections kept for reuse
+     * @return the new FlowableTransformer instance
+     *
+     * @since 3.0.0
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, PooledBuffer<C>> bufferUntilPooled(Predicate<? super T> predicate, Supplier<C> bufferSupplier, int poolSize) {
+        Objects.requireNonNull(predicate, "predicate is null");
+        Objects.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.verifyPositive(poolSize, "poolSize");
+        return new FlowableBufferPredicatePooled<>(null, predicate, FlowableBufferPredicate.Mode.AFTER, bufferSupplier, poolSize);
+    }
+
+    /**
+     * Buffers elements into a custom collection until the given predicate returns true at which
+     * point a new empty collection is started; the particular item will be dropped, reusing the collections released by the downstream.
+     * <p>
+     * The collections are emitted wrapped into {@link PooledBuffer}s; once the consumer
+     * releases such a buffer, the collection is cleared and returned into a pool of
+     * at most {@code poolSize} collections per subscription, which is checked before
+     * calling the {@code bufferSupplier}. See {@link IntArrayBuffer} and {@link LongArrayBuffer}
+     * for compact collections of primitive values.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current collection is emitted and a new empty collection is started
+     * @param bufferSupplier the supplier that returns a fresh collection if the pool is empty
+     * @param poolSize the maximum number of released collections kept for reuse
+     * @return the new FlowableTransformer instance
+     *
+     * @since 3.0.0
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, PooledBuffer<C>> bufferSplitPooled(Predicate<? super T> predicate, Supplier<C> bufferSupplier, int poolSize) {
+        Objects.requireNonNull(predicate, "predicate is null");
+        Objects.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.verifyPositive(poolSize, "poolSize");
+        return new FlowableBufferPredicatePooled<>(null, predicate, FlowableBufferPredicate.Mode.SPLIT, bufferSupplier, poolSize);
+    }
+
     /**
      * Inserts a time delay between emissions from the upstream source.
      * <dl>
@@ -463,7 +547,7 @@ public final class FlowableTransformers {
         Objects.requireNonNull(scheduler, "scheduler is null");
         Objects.requireNonNull(onEvict, "onEvict is null");
 
-        return new FlowableOnBackpressureTimeout<>(null, Integer.MAX_VALUE, timeout, unit, scheduler, onEvict);
+        return new FlowableOnBackpressureTimeout<>(null, Integer.MAX_VALUE, timeout, unit, scheduler, onEvict, null);
     }
 
     /**
@@ -506,7 +590,35 @@ public final class FlowableTransformers {
         Objects.requireNonNull(scheduler, "scheduler is null");
         Objects.requireNonNull(onEvict, "onEvict is null");
 
-        return new FlowableOnBackpressureTimeout<>(null, maxSize, timeout, unit, scheduler, onEvict);
+        return new FlowableOnBackpressureTimeout<>(null, maxSize, timeout, unit, scheduler, onEvict, null);
+    }
+
+    /**
+     * Buffers the incoming values from upstream up to a maximum size or timeout if
+     * the downstream can't keep up and counts the delivered and evicted elements.
+     * @param <T> the value type
+     * @param maxSize the maximum number of elements in the buffer, beyond that,
+     *                the oldest element is evicted
+     * @param timeout the maximum age of an element in the buffer
+     * @param unit the time unit of the timeout
+     * @param scheduler the scheduler to be used as time source and to trigger the timeout &amp; eviction
+     * @param onEvict called when an element is evicted, maybe concurrently
+     * @param counters the counters to increment, can be shared between subscriptions and transformers
+     * @return the new FlowableTransformer instance
+     *
+     * @since 3.0.0
+     */
+    @BackpressureSupport(BackpressureKind.UNBOUNDED_IN)
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    public static <T> FlowableTransformer<T, T> onBackpressureTimeout(int maxSize, long timeout, TimeUnit unit, Scheduler scheduler,
+            Consumer<? super T> onEvict, BackpressureTimeoutCounters counters) {
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        Objects.requireNonNull(unit, "unit is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        Objects.requireNonNull(onEvict, "onEvict is null");
+        Objects.requireNonNull(counters, "counters is null");
+
+        return new FlowableOnBackpressureTimeout<>(null, maxSize, timeout, unit, scheduler, onEvict, counters);
     }
 
     /**
@@ -764,6 +876,49 @@ public final class FlowableTransformers {
         return new FlowableFlatMapSync<>(null, mapper, maxConcurrency, bufferSize, depthFirst);
     }
 
+    /**
+     * Maps the upstream values into Publisher and merges at most 32 of them at once,
+     * optimized for many, mainly synchronous and short inner sources.
+     * <p>
+     * The inner sources are drained depth-first in batches: as many items as available
+     * and requested are taken from an inner source in one go and the inner source is
+     * replenished once per batch. The inner subscribers are reused once their source
+     * completed instead of allocating a new one for each upstream item.
+     * @param <T> the input value type
+     * @param <R> the result value type
+     * @param mapper the function mapping from a value into a Publisher
+     * @return the new FlowableTransformer instance
+     *
+     * @since 3.0.0
+     */
+    public static <T, R> FlowableTransformer<T, R> flatMapSyncBatched(Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        return flatMapSyncBatched(mapper, 32, Flowable.bufferSize());
+    }
+
+    /**
+     * Maps the upstream values into Publisher and merges at most maxConcurrency of them at once,
+     * optimized for many, mainly synchronous and short inner sources.
+     * <p>
+     * The inner sources are drained depth-first in batches: as many items as available
+     * and requested are taken from an inner source in one go and the inner source is
+     * replenished once per batch. The inner subscribers are reused once their source
+     * completed instead of allocating a new one for each upstream item.
+     * @param <T> the input value type
+     * @param <R> the result value type
+     * @param mapper the function mapping from a value into a Publisher
+     * @param maxConcurrency the maximum number of sources merged at once
+     * @param bufferSize the prefetch on each inner source
+     * @return the new FlowableTransformer instance
+     *
+     * @since 3.0.0
+     */
+    public static <T, R> FlowableTransformer<T, R> flatMapSyncBatched(Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, int bufferSize) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        return new FlowableFlatMapSync<>(null, mapper, maxConcurrency, bufferSize, true, true);
+    }
+
     /**
      * Maps the upstream values into Publisher and merges at most 32 of them at once,
      * collects and emits the items on the specified scheduler.
@@ -899,6 +1054,137 @@ public final class FlowableTransformers {
         return new FlowableExpand<>(null, expander, strategy, capacityHint, false);
     }
 
+    /**
+     * Emits elements from the source and then expands them into another layer of Publishers, emitting
+     * those items recursively until all Publishers become empty with the specified strategy,
+     * dropping the elements whose key has been seen already.
+     * <p>
+     * An element is emitted and expanded only if the visited predicate returns true for its key,
+     * which it should do only the first time it sees that key, therefore shared nodes of a graph
+     * are expanded at most once and cycles terminate. Use the {@code add} method of a {@code HashSet},
+     * for example {@code () -> new HashSet<K>()::add}, for exact deduplication or a {@link BloomFilter}
+     * to bound the memory used for huge graphs at the cost of skipping a small fraction of the nodes.
+     * @param <T> the value type
+     * @param <K> the key type
+     * @param expander the function that converts an element into a Publisher to be expanded
+     * @param strategy the expansion strategy; depth-first will recursively expand the first item until there is no
+     *                 more expansion possible, then the second items, and so on;
+     *                 breadth-first will first expand the main source, then runs the expaned
+     *                 Publishers in sequence, then the 3rd level, and so on.
+     * @param keySelector the function that returns the key of an element to be tested by the visited predicate
+     * @param visitedSupplier the supplier of the visited predicate, called for each subscriber
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, K> FlowableTransformer<T, T> expand(Function<? super T, ? extends Publisher<? extends T>> expander, ExpandStrategy strategy,
+            Function<? super T, ? extends K> keySelector, Supplier<? extends Predicate<? super K>> visitedSupplier) {
+        return expand(expander, strategy, keySelector, visitedSupplier, false);
+    }
+
+    /**
+     * Emits elements from the source and then expands them into another layer of Publishers, emitting
+     * those items recursively until all Publishers become empty with the specified strategy,
+     * dropping the elements whose key has been seen already and
+     * delaying errors until all sources terminate.
+     * <p>
+     * An element is emitted and expanded only if the visited predicate returns true for its key,
+     * which it should do only the first time it sees that key, therefore shared nodes of a graph
+     * are expanded at most once and cycles terminate. Use the {@code add} method of a {@code HashSet},
+     * for example {@code () -> new HashSet<K>()::add}, for exact deduplication or a {@link BloomFilter}
+     * to bound the memory used for huge graphs at the cost of skipping a small fraction of the nodes.
+     * @param <T> the value type
+     * @param <K> the key type
+     * @param expander the function that converts an element into a Publisher to be expanded
+     * @param strategy the expansion strategy; depth-first will recursively expand the first item until there is no
+     *                 more expansion possible, then the second items, and so on;
+     *                 breadth-first will first expand the main source, then runs the expaned
+     *                 Publishers in sequence, then the 3rd level, and so on.
+     * @param keySelector the function that returns the key of an element to be tested by the visited predicate
+     * @param visitedSupplier the supplier of the visited predicate, called for each subscriber
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, K> FlowableTransformer<T, T> expandDelayError(Function<? super T, ? extends Publisher<? extends T>> expander, ExpandStrategy strategy,
+            Function<? super T, ? extends K> keySelector, Supplier<? extends Predicate<? super K>> visitedSupplier) {
+        return expand(expander, strategy, keySelector, visitedSupplier, true);
+    }
+
+    static <T, K> FlowableTransformer<T, T> expand(Function<? super T, ? extends Publisher<? extends T>> expander, ExpandStrategy strategy,
+            Function<? super T, ? extends K> keySelector, Supplier<? extends Predicate<? super K>> visitedSupplier, boolean delayErrors) {
+        Objects.requireNonNull(expander, "expander is null");
+        Objects.requireNonNull(strategy, "strategy is null");
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        Objects.requireNonNull(visitedSupplier, "visitedSupplier is null");
+        return new FlowableExpand<>(null, expander, strategy, Flowable.bufferSize(), delayErrors,
+                keySelector, visitedSupplier);
+    }
+
+    /**
+     * Emits elements from the source and then expands them into another layer of Publishers, emitting
+     * those items recursively until all Publishers become empty, expanding up to the given number
+     * of elements at once on the specified scheduler.
+     * <p>
+     * The items are emitted in a roughly breadth-first order: the items of the expansions
+     * running at the same time may interleave. The upstream and the running expansions are
+     * requested from only while less than about {@code capacity} items await emission and
+     * no more items are emitted while {@code capacity} emitted items await expansion.
+     * @param <T> the value type
+     * @param expander the function that converts an element into a Publisher to be expanded,
+     *                 called on the scheduler
+     * @param maxConcurrency the maximum number of elements expanded at once
+     * @param capacity the number of items to keep awaiting emission and awaiting expansion, respectively
+     * @param scheduler the scheduler to call the expander and subscribe to the expansions on
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T> FlowableTransformer<T, T> expandParallel(Function<? super T, ? extends Publisher<? extends T>> expander,
+            int maxConcurrency, int capacity, Scheduler scheduler) {
+        Objects.requireNonNull(expander, "expander is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(capacity, "capacity");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new FlowableExpandParallel<T, Object>(null, expander, maxConcurrency, capacity, scheduler, null, null);
+    }
+
+    /**
+     * Emits elements from the source and then expands them into another layer of Publishers, emitting
+     * those items recursively until all Publishers become empty, expanding up to the given number
+     * of elements at once on the specified scheduler and dropping the elements whose key
+     * has been seen already.
+     * <p>
+     * The items are emitted in a roughly breadth-first order: the items of the expansions
+     * running at the same time may interleave. The upstream and the running expansions are
+     * requested from only while less than about {@code capacity} items await emission and
+     * no more items are emitted while {@code capacity} emitted items await expansion.
+     * <p>
+     * An item is emitted and expanded only if the visited predicate returns true for its key,
+     * which it should do only the first time it sees that key, therefore shared nodes of a graph
+     * are expanded at most once and cycles terminate.
+     * @param <T> the value type
+     * @param <K> the key type
+     * @param expander the function that converts an element into a Publisher to be expanded,
+     *                 called on the scheduler
+     * @param maxConcurrency the maximum number of elements expanded at once
+     * @param capacity the number of items to keep awaiting emission and awaiting expansion, respectively
+     * @param scheduler the scheduler to call the expander and subscribe to the expansions on
+     * @param keySelector the function that returns the key of an element to be tested by the visited predicate
+     * @param visitedSupplier the supplier of the visited predicate, called for each subscriber; the predicate
+     *                        is called from one thread at a time
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, K> FlowableTransformer<T, T> expandParallel(Function<? super T, ? extends Publisher<? extends T>> expander,
+            int maxConcurrency, int capacity, Scheduler scheduler,
+            Function<? super T, ? extends K> keySelector, Supplier<? extends Predicate<? super K>> visitedSupplier) {
+        Objects.requireNonNull(expander, "expander is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(capacity, "capacity");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        Objects.requireNonNull(visitedSupplier, "visitedSupplier is null");
+        return new FlowableExpandParallel<T, K>(null, expander, maxConcurrency, capacity, scheduler, keySelector, visitedSupplier);
+    }
+
     /**
      * Emits elements from the source and then expands them into another layer of Publishers, emitting
      * those items recursively until all Publishers become empty in a depth-first manner,
@@ -1038,6 +1324,58 @@ public final class FlowableTransformers {
         return new FlowableMapAsync<>(null, mapper, combiner, bufferSize);
     }
 
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value to be emitted to downstream, running up to the given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>Unlike {@link #mapAsync(Function)}, any error cancels everything and is
+     * signalled to the downstream immediately.
+     * @param <T> the input value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param maxConcurrency the maximum number of upstream items mapped, waiting for
+     * their result or for their turn to be emitted, at a time
+     * @param ordered if true, the results are emitted in the order of the upstream items;
+     * if false, the results are emitted as they become available
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, R> FlowableTransformer<T, R> mapAsyncConcurrent(Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, boolean ordered) {
+        return mapAsyncConcurrent(mapper, BiFunctionSecondIdentity.<T, R>instance(), maxConcurrency, ordered);
+    }
+
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value, running up to the given number of inner Publishers at once, and combines
+     * the original and generated single value into a final result item to be emitted to downstream.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>Unlike {@link #mapAsync(Function, BiFunction)}, any error cancels everything and is
+     * signalled to the downstream immediately.
+     * @param <T> the input value type
+     * @param <U> the intermediate value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param combiner the bi-function that receives the original upstream value and the
+     * single value emitted by the Publisher and returns a result value to be emitted to
+     * downstream.
+     * @param maxConcurrency the maximum number of upstream items mapped, waiting for
+     * their result or for their turn to be emitted, at a time
+     * @param ordered if true, the results are emitted in the order of the upstream items;
+     * if false, the results are emitted as they become available
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, U, R> FlowableTransformer<T, R> mapAsyncConcurrent(Function<? super T, ? extends Publisher<? extends U>> mapper, BiFunction<? super T, ? super U, ? extends R> combiner, int maxConcurrency, boolean ordered) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        Objects.requireNonNull(combiner, "combiner is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new FlowableMapAsyncConcurrent<>(null, mapper, combiner, maxConcurrency, ordered);
+    }
+
     /**
      * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
      * input value and emits the input value if the inner Publisher returned {@code true}.
@@ -1074,6 +1412,30 @@ public final class FlowableTransformers {
         return new FlowableFilterAsync<>(null, asyncPredicate, bufferSize);
     }
 
+    /**
+     * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
+     * input value and emits the input value if the inner Publisher returned {@code true}, running up to the given
+     * number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The input values are emitted in their original order. Unlike {@link #filterAsync(Function, int)},
+     * any error cancels everything and is signalled to the downstream immediately.
+     * @param <T> the input and output value type
+     * @param asyncPredicate the function that receives the upstream value and returns
+     * a Publisher that should emit a single true to indicate the original value should pass.
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their result can be emitted
+     * @param maxConcurrency the maximum number of inner Publishers running at once
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T> FlowableTransformer<T, T> filterAsync(Function<? super T, ? extends Publisher<Boolean>> asyncPredicate, int bufferSize, int maxConcurrency) {
+        Objects.requireNonNull(asyncPredicate, "asyncPredicate is null");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new FlowableFilterAsyncConcurrent<>(null, asyncPredicate, bufferSize, maxConcurrency);
+    }
+
     /**
      * Coalesces items from upstream into a container via a consumer and emits the container if
      * there is a downstream demand, otherwise it keeps coalescing into the same container.
@@ -1106,6 +1468,70 @@ public final class FlowableTransformers {
         return new FlowableCoalesce<>(null, containerSupplier, coalescer, bufferSize);
     }
 
+    /**
+     * Coalesces items from upstream into a container via a consumer until the container
+     * holds the given number of items, or it has been open for the given linger time
+     * while the downstream is waiting for items.
+     * <p>
+     * Unlike {@link #coalesce(Supplier, BiConsumer)}, a container is not handed
+     * to the downstream as soon as it requests, thus bursty producers result in larger containers.
+     * Full containers queue up while the downstream is not requesting.
+     * @param <T> the upstream value type
+     * @param <R> the container and result type
+     * @param containerSupplier the function called and should return a fresh container to coalesce into
+     * @param coalescer the consumer receiving the current container and upstream item to handle
+     * @param maxSize the maximum number of items per container
+     * @param maxLinger the time a partially filled container can wait for more items if the downstream is waiting
+     * @param unit the time unit of the linger time
+     * @param scheduler the scheduler to measure the linger time on
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, R> FlowableTransformer<T, R> coalesce(Supplier<R> containerSupplier, BiConsumer<R, T> coalescer,
+            int maxSize, long maxLinger, TimeUnit unit, Scheduler scheduler) {
+        Objects.requireNonNull(containerSupplier, "containerSupplier is null");
+        Objects.requireNonNull(coalescer, "coalescer is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        Objects.requireNonNull(unit, "unit is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new FlowableCoalesceAdaptive<>(null, containerSupplier, coalescer, maxSize, null, Long.MAX_VALUE,
+                maxLinger, unit, scheduler, Flowable.bufferSize());
+    }
+
+    /**
+     * Coalesces items from upstream into a container via a consumer until the container
+     * holds the given number of items, the total weight of its items reaches the given limit,
+     * or it has been open for the given linger time while the downstream is waiting for items.
+     * <p>
+     * Unlike {@link #coalesce(Supplier, BiConsumer)}, a container is not handed
+     * to the downstream as soon as it requests, thus bursty producers result in larger containers.
+     * Full containers queue up while the downstream is not requesting.
+     * @param <T> the upstream value type
+     * @param <R> the container and result type
+     * @param containerSupplier the function called and should return a fresh container to coalesce into
+     * @param coalescer the consumer receiving the current container and upstream item to handle
+     * @param maxSize the maximum number of items per container
+     * @param weigher the function returning the weight of an item, for example, its size in bytes
+     * @param maxWeight the total weight at which the container is emitted
+     * @param maxLinger the time a partially filled container can wait for more items if the downstream is waiting
+     * @param unit the time unit of the linger time
+     * @param scheduler the scheduler to measure the linger time on
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, R> FlowableTransformer<T, R> coalesce(Supplier<R> containerSupplier, BiConsumer<R, T> coalescer,
+            int maxSize, Function<? super T, Long> weigher, long maxWeight, long maxLinger, TimeUnit unit, Scheduler scheduler) {
+        Objects.requireNonNull(containerSupplier, "containerSupplier is null");
+        Objects.requireNonNull(coalescer, "coalescer is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        Objects.requireNonNull(weigher, "weigher is null");
+        ObjectHelper.verifyPositive(maxWeight, "maxWeight");
+        Objects.requireNonNull(unit, "unit is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new FlowableCoalesceAdaptive<>(null, containerSupplier, coalescer, maxSize, weigher, maxWeight,
+                maxLinger, unit, scheduler, Flowable.bufferSize());
+    }
+
     /**
      * Emits elements into a Flowable window while the given predicate returns true. If the
      * predicate returns false, a new Flowable window is emitted.
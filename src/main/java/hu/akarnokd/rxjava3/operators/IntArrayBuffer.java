@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.*;
+
+import io.reactivex.rxjava3.functions.Supplier;
+
+/**
+ * A growable List of Integers backed by a primitive int array, for use as the
+ * buffer collection of the buffer operators of {@link FlowableTransformers}.
+ * <p>
+ * The values are stored unboxed thus a buffer takes a fraction of the memory of
+ * an ArrayList and the garbage collector doesn't have to trace its elements.
+ * Clearing the buffer is constant time, which makes it cheap to reuse
+ * via the pooled buffer operators. Null elements are not supported.
+ * <p>
+ * Not thread-safe.
+ * @since 3.0.0
+ */
+public final class IntArrayBuffer extends AbstractList<Integer> implements RandomAccess {
+
+    int[] array;
+
+    int size;
+
+    /**
+     * Constructs an empty buffer with the given initial capacity.
+     * @param capacityHint the initial capacity, non-negative
+     */
+    public IntArrayBuffer(int capacityHint) {
+        if (capacityHint < 0) {
+            throw new IllegalArgumentException("capacityHint >= 0 required but it was " + capacityHint);
+        }
+        this.array = new int[capacityHint];
+    }
+
+    /**
+     * Returns a Supplier of empty buffers with the given initial capacity.
+     * @param capacityHint the initial capacity of the buffers, non-negative
+     * @return the new Supplier instance
+     */
+    public static Supplier<IntArrayBuffer> supplier(final int capacityHint) {
+        return new Supplier<IntArrayBuffer>() {
+            @Override
+            public IntArrayBuffer get() {
+                return new IntArrayBuffer(capacityHint);
+            }
+        };
+    }
+
+    /**
+     * Appends a primitive value.
+     * @param value the value to append
+     */
+    public void addInt(int value) {
+        int[] a = array;
+        int s = size;
+        if (s == a.length) {
+            a = Arrays.copyOf(a, Math.max(8, s + (s >> 1)));
+            array = a;
+        }
+        a[s] = value;
+        size = s + 1;
+        modCount++;
+    }
+
+    /**
+     * Returns the primitive value at the given index.
+     * @param index the index
+     * @return the value
+     */
+    public int getInt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return array[index];
+    }
+
+    /**
+     * Returns the backing array; only the first {@link #size()} elements are valid
+     * and the array may be replaced when the buffer grows.
+     * @return the backing array
+     */
+    public int[] array() {
+        return array;
+    }
+
+    /**
+     * Returns a copy of the values in a new array.
+     * @return the new array
+     */
+    public int[] toIntArray() {
+        return Arrays.copyOf(array, size);
+    }
+
+    @Override
+    public boolean add(Integer e) {
+        addInt(e);
+        return true;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer element) {
+        int old = getInt(index);
+        array[index] = element;
+        return old;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        int old = getInt(index);
+        int n = size - index - 1;
+        if (n > 0) {
+            System.arraycopy(array, index + 1, array, index, n);
+        }
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+}
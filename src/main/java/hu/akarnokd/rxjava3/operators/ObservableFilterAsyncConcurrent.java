@@ -0,0 +1,363 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.internal.disposables.DisposableHelper;
+import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.rxjava3.internal.util.*;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated
+ * ObservableSource for that input value, running up to the given number of inner ObservableSources at once,
+ * and emits the input values, in their original order, for which the inner ObservableSource returned {@code true}.
+ * <p>The values being tested and their results are kept in a fixed-size ring of slots indexed by
+ * the sequence number of the value; further upstream values wait in a queue.
+ * Any error, from the upstream, the inner ObservableSources or the function, disposes all
+ * and is signalled to the downstream immediately.
+ * @param <T> the input value type
+ *
+ * @since 3.0.0
+ */
+final class ObservableFilterAsyncConcurrent<T> extends Observable<T> implements ObservableTransformer<T, T> {
+
+    final ObservableSource<T> source;
+
+    final Function<? super T, ? extends ObservableSource<Boolean>> asyncPredicate;
+
+    final int bufferSize;
+
+    final int maxConcurrency;
+
+    ObservableFilterAsyncConcurrent(ObservableSource<T> source, Function<? super T, ? extends ObservableSource<Boolean>> asyncPredicate,
+            int bufferSize, int maxConcurrency) {
+        this.source = source;
+        this.asyncPredicate = asyncPredicate;
+        this.bufferSize = bufferSize;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public ObservableSource<T> apply(Observable<T> upstream) {
+        return new ObservableFilterAsyncConcurrent<>(upstream, asyncPredicate, bufferSize, maxConcurrency);
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        source.subscribe(new FilterAsyncConcurrentObserver<>(observer, asyncPredicate, bufferSize, maxConcurrency));
+    }
+
+    static final int STATE_FRESH = 0;
+    static final int STATE_RUNNING = 1;
+    static final int STATE_PASS = 2;
+    static final int STATE_DROP = 3;
+
+    static final class FilterAsyncConcurrentObserver<T> extends AtomicInteger implements Observer<T>, Disposable {
+
+        private static final long serialVersionUID = -7341883390435627446L;
+
+        final Observer<? super T> downstream;
+
+        final Function<? super T, ? extends ObservableSource<Boolean>> asyncPredicate;
+
+        final int maxConcurrency;
+
+        final SpscLinkedArrayQueue<T> queue;
+
+        final AtomicThrowable errors;
+
+        /** The values being tested by sequence number, accessed from the drain loop only. */
+        final Object[] items;
+
+        /** The STATE_x of the predicate of each slot. */
+        final AtomicIntegerArray states;
+
+        /** The running inner observer of each slot. */
+        final AtomicReferenceArray<InnerObserver> inners;
+
+        /** The number of inner ObservableSources that haven't produced their result yet. */
+        final AtomicInteger running;
+
+        Disposable upstream;
+
+        volatile boolean done;
+        volatile boolean disposed;
+
+        long producerIndex;
+
+        long consumerIndex;
+
+        FilterAsyncConcurrentObserver(Observer<? super T> downstream,
+                Function<? super T, ? extends ObservableSource<Boolean>> asyncPredicate, int bufferSize, int maxConcurrency) {
+            this.downstream = downstream;
+            this.asyncPredicate = asyncPredicate;
+            this.maxConcurrency = maxConcurrency;
+            this.queue = new SpscLinkedArrayQueue<>(bufferSize);
+            this.errors = new AtomicThrowable();
+            int n = Pow2.roundToPowerOfTwo(bufferSize);
+            this.items = new Object[n];
+            this.states = new AtomicIntegerArray(n);
+            this.inners = new AtomicReferenceArray<>(n);
+            this.running = new AtomicInteger();
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.validate(upstream, d)) {
+                this.upstream = d;
+                downstream.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            queue.offer(t);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (errors.tryAddThrowableOrReport(e)) {
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            upstream.dispose();
+            disposeInners();
+            errors.tryTerminateAndReport();
+            drain();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        void disposeInners() {
+            int n = inners.length();
+            for (int i = 0; i < n; i++) {
+                InnerObserver inner = inners.get(i);
+                if (inner != null) {
+                    inner.dispose();
+                }
+            }
+        }
+
+        void clear() {
+            queue.clear();
+            int n = items.length;
+            for (int i = 0; i < n; i++) {
+                items[i] = null;
+                inners.lazySet(i, null);
+            }
+        }
+
+        void innerResult(int index, boolean pass) {
+            states.set(index, pass ? STATE_PASS : STATE_DROP);
+            running.decrementAndGet();
+            drain();
+        }
+
+        void innerError(Throwable ex) {
+            running.decrementAndGet();
+            if (errors.tryAddThrowableOrReport(ex)) {
+                drain();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            long ci = consumerIndex;
+            long pi = producerIndex;
+            int max = maxConcurrency;
+            Object[] its = items;
+            AtomicIntegerArray sts = states;
+            int m = its.length - 1;
+            Observer<? super T> a = downstream;
+
+            for (;;) {
+                for (;;) {
+                    if (disposed) {
+                        clear();
+                        break;
+                    }
+
+                    if (errors.get() != null) {
+                        disposed = true;
+                        upstream.dispose();
+                        disposeInners();
+                        clear();
+                        errors.tryTerminateConsumer(a);
+                        break;
+                    }
+
+                    if (ci != pi) {
+                        int offset = (int)ci & m;
+                        int s = sts.get(offset);
+                        if (s == STATE_PASS || s == STATE_DROP) {
+                            T t = (T)its[offset];
+                            its[offset] = null;
+                            inners.lazySet(offset, null);
+                            sts.lazySet(offset, STATE_FRESH);
+                            ci++;
+                            if (s == STATE_PASS) {
+                                a.onNext(t);
+                            }
+                            continue;
+                        }
+                    }
+
+                    boolean d = done;
+
+                    T u = pi - ci <= m && running.get() != max ? queue.poll() : null;
+
+                    if (u != null) {
+                        ObservableSource<Boolean> p;
+
+                        try {
+                            p = Objects.requireNonNull(asyncPredicate.apply(u), "The asyncPredicate returned a null ObservableSource");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.tryAddThrowableOrReport(ex);
+                            continue;
+                        }
+
+                        int offset = (int)pi & m;
+                        its[offset] = u;
+                        pi++;
+
+                        if (p instanceof Supplier) {
+                            // short-circuit the constant result without an inner observer
+                            Boolean b;
+                            try {
+                                b = ((Supplier<Boolean>)p).get();
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                errors.tryAddThrowableOrReport(ex);
+                                continue;
+                            }
+                            sts.lazySet(offset, b != null && b ? STATE_PASS : STATE_DROP);
+                        } else {
+                            InnerObserver inner = new InnerObserver(this, offset);
+                            sts.lazySet(offset, STATE_RUNNING);
+                            running.getAndIncrement();
+                            inners.set(offset, inner);
+                            if (disposed) {
+                                continue;
+                            }
+                            p.subscribe(inner);
+                        }
+                        continue;
+                    }
+
+                    if (d && ci == pi && queue.isEmpty()) {
+                        disposed = true;
+                        errors.tryTerminateConsumer(a);
+                    }
+
+                    break;
+                }
+
+                consumerIndex = ci;
+                producerIndex = pi;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    static final class InnerObserver extends AtomicReference<Disposable> implements Observer<Boolean>, Disposable {
+
+        private static final long serialVersionUID = 5302245923461469938L;
+
+        final FilterAsyncConcurrentObserver<?> parent;
+
+        final int index;
+
+        boolean done;
+
+        InnerObserver(FilterAsyncConcurrentObserver<?> parent, int index) {
+            this.parent = parent;
+            this.index = index;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            DisposableHelper.setOnce(this, d);
+        }
+
+        @Override
+        public void onNext(Boolean t) {
+            if (!done) {
+                done = true;
+                DisposableHelper.dispose(this);
+                parent.innerResult(index, t);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                parent.innerError(t);
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.innerResult(index, false);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(get());
+        }
+    }
+}
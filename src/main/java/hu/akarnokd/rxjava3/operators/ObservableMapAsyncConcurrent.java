@@ -0,0 +1,382 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.disposables.*;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.internal.disposables.DisposableHelper;
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+import io.reactivex.rxjava3.internal.queue.*;
+import io.reactivex.rxjava3.internal.util.*;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * Maps each upstream element into the single result of an inner Observable, running
+ * up to the given number of inner Observables at once, and combines the original and inner
+ * item into the output value for the downstream, in the upstream order or as the results
+ * become available.
+ * <p>
+ * Any error, from the upstream, the inner Observables or the functions, disposes all
+ * and is signalled to the downstream immediately.
+ *
+ * @param <T> the upstream value type
+ * @param <U> the inner Observable's element type
+ * @param <R> the result element type
+ * @since 3.0.0
+ */
+final class ObservableMapAsyncConcurrent<T, U, R> extends Observable<R>
+implements ObservableTransformer<T, R> {
+
+    final ObservableSource<T> source;
+
+    final Function<? super T, ? extends ObservableSource<? extends U>> mapper;
+
+    final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+    final int maxConcurrency;
+
+    final boolean ordered;
+
+    final int capacityHint;
+
+    ObservableMapAsyncConcurrent(ObservableSource<T> source,
+            Function<? super T, ? extends ObservableSource<? extends U>> mapper,
+            BiFunction<? super T, ? super U, ? extends R> combiner,
+            int maxConcurrency, boolean ordered, int capacityHint) {
+        this.source = source;
+        this.mapper = mapper;
+        this.combiner = combiner;
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
+        this.capacityHint = capacityHint;
+    }
+
+    @Override
+    public ObservableSource<R> apply(Observable<T> upstream) {
+        return new ObservableMapAsyncConcurrent<>(upstream, mapper, combiner, maxConcurrency, ordered, capacityHint);
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super R> observer) {
+        source.subscribe(new MapAsyncConcurrentObserver<T, U, R>(observer, mapper, combiner, maxConcurrency, ordered, capacityHint));
+    }
+
+    static final class MapAsyncConcurrentObserver<T, U, R> extends AtomicInteger implements Observer<T>, Disposable {
+
+        private static final long serialVersionUID = 1785340592408588453L;
+
+        final Observer<? super R> downstream;
+
+        final Function<? super T, ? extends ObservableSource<? extends U>> mapper;
+
+        final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+        final int maxConcurrency;
+
+        final boolean ordered;
+
+        final SpscLinkedArrayQueue<T> queue;
+
+        final AtomicThrowable errors;
+
+        /** The running and finished inner observers by sequence number in ordered mode. */
+        final AtomicReferenceArray<InnerObserver<T, U>> ring;
+
+        /** The finished inner observers in unordered mode. */
+        final SimplePlainQueue<InnerObserver<T, U>> completed;
+
+        final CompositeDisposable inners;
+
+        Disposable upstream;
+
+        volatile boolean done;
+        volatile boolean disposed;
+
+        long producerIndex;
+
+        long consumerIndex;
+
+        /** The number of inner observers started but not yet emitted or dropped. */
+        int active;
+
+        MapAsyncConcurrentObserver(
+                Observer<? super R> downstream,
+                Function<? super T, ? extends ObservableSource<? extends U>> mapper,
+                BiFunction<? super T, ? super U, ? extends R> combiner,
+                int maxConcurrency, boolean ordered, int capacityHint) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+            this.combiner = combiner;
+            this.maxConcurrency = maxConcurrency;
+            this.ordered = ordered;
+            this.queue = new SpscLinkedArrayQueue<>(capacityHint);
+            this.errors = new AtomicThrowable();
+            this.inners = new CompositeDisposable();
+            if (ordered) {
+                this.ring = new AtomicReferenceArray<>(Pow2.roundToPowerOfTwo(maxConcurrency));
+                this.completed = null;
+            } else {
+                this.ring = null;
+                this.completed = new MpscLinkedQueue<>();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            upstream.dispose();
+            inners.dispose();
+            errors.tryTerminateAndReport();
+            drain();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.validate(upstream, d)) {
+                this.upstream = d;
+                downstream.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            queue.offer(t);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (errors.tryAddThrowableOrReport(e)) {
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        void clear() {
+            queue.clear();
+            if (ordered) {
+                int n = ring.length();
+                for (int i = 0; i < n; i++) {
+                    ring.lazySet(i, null);
+                }
+            } else {
+                completed.clear();
+            }
+        }
+
+        void innerDone(InnerObserver<T, U> inner) {
+            inners.delete(inner);
+            if (!ordered) {
+                completed.offer(inner);
+            }
+            drain();
+        }
+
+        void innerError(InnerObserver<T, U> inner, Throwable ex) {
+            inners.delete(inner);
+            if (errors.tryAddThrowableOrReport(ex)) {
+                drain();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            long ci = consumerIndex;
+            long pi = producerIndex;
+            int act = active;
+            int max = maxConcurrency;
+            boolean ord = ordered;
+            AtomicReferenceArray<InnerObserver<T, U>> rg = ring;
+            int m = ord ? rg.length() - 1 : 0;
+            SpscLinkedArrayQueue<T> q = queue;
+            Observer<? super R> a = downstream;
+
+            for (;;) {
+                for (;;) {
+                    if (disposed) {
+                        clear();
+                        break;
+                    }
+
+                    if (errors.get() != null) {
+                        disposed = true;
+                        upstream.dispose();
+                        inners.dispose();
+                        clear();
+                        errors.tryTerminateConsumer(a);
+                        break;
+                    }
+
+                    InnerObserver<T, U> h;
+                    if (ord) {
+                        h = rg.get((int)ci & m);
+                        if (h != null && !h.done) {
+                            h = null;
+                        }
+                    } else {
+                        h = completed.poll();
+                    }
+
+                    if (h != null) {
+                        U u = h.value;
+                        if (u != null) {
+                            R v;
+                            try {
+                                v = Objects.requireNonNull(combiner.apply(h.item, u), "The combiner returned a null value");
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                errors.tryAddThrowableOrReport(ex);
+                                continue;
+                            }
+
+                            a.onNext(v);
+                        }
+
+                        if (ord) {
+                            rg.lazySet((int)ci & m, null);
+                            ci++;
+                        }
+                        act--;
+                        continue;
+                    }
+
+                    boolean d = done;
+
+                    T t = act != max ? q.poll() : null;
+
+                    if (t != null) {
+                        ObservableSource<? extends U> p;
+
+                        try {
+                            p = Objects.requireNonNull(mapper.apply(t), "The mapper returned a null ObservableSource");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.tryAddThrowableOrReport(ex);
+                            continue;
+                        }
+
+                        InnerObserver<T, U> inner = new InnerObserver<>(this, t);
+                        act++;
+                        if (ord) {
+                            rg.lazySet((int)pi & m, inner);
+                            pi++;
+                        }
+                        inners.add(inner);
+                        p.subscribe(inner);
+                        continue;
+                    }
+
+                    if (d && act == 0 && q.isEmpty()) {
+                        disposed = true;
+                        errors.tryTerminateConsumer(a);
+                    }
+
+                    break;
+                }
+
+                consumerIndex = ci;
+                producerIndex = pi;
+                active = act;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    static final class InnerObserver<T, U> extends AtomicReference<Disposable>
+    implements Observer<U>, Disposable {
+
+        private static final long serialVersionUID = 3964234460359765478L;
+
+        final MapAsyncConcurrentObserver<T, U, ?> parent;
+
+        final T item;
+
+        U value;
+
+        volatile boolean done;
+
+        InnerObserver(MapAsyncConcurrentObserver<T, U, ?> parent, T item) {
+            this.parent = parent;
+            this.item = item;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            DisposableHelper.setOnce(this, d);
+        }
+
+        @Override
+        public void onNext(U t) {
+            if (!done) {
+                DisposableHelper.dispose(this);
+                value = t;
+                done = true;
+                parent.innerDone(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                parent.innerError(this, t);
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.innerDone(this);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(get());
+        }
+    }
+}
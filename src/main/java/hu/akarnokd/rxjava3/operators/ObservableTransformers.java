@@ -305,6 +305,58 @@ public final class ObservableTransformers {
         return new ObservableMapAsync<>(null, mapper, combiner, capacityHint);
     }
 
+    /**
+     * Maps each upstream value into a single value provided by a generated ObservableSource for that
+     * input value to be emitted to downstream, running up to the given number of inner ObservableSources at once.
+     * <p>Only the first item emitted by the inner ObservableSource's are considered. If
+     * the inner ObservableSource is empty, no resulting item is generated for that input value.
+     * <p>Unlike {@link #mapAsync(Function)}, any error disposes everything and is
+     * signalled to the downstream immediately.
+     * @param <T> the input value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a ObservableSource
+     * that should emit a single value to be emitted.
+     * @param maxConcurrency the maximum number of upstream items running or waiting
+     * for their turn to be emitted at a time; further upstream items are buffered
+     * @param ordered if true, the results are emitted in the order of the upstream items;
+     * if false, the results are emitted as they become available
+     * @return the new ObservableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, R> ObservableTransformer<T, R> mapAsyncConcurrent(Function<? super T, ? extends ObservableSource<? extends R>> mapper, int maxConcurrency, boolean ordered) {
+        return mapAsyncConcurrent(mapper, BiFunctionSecondIdentity.<T, R>instance(), maxConcurrency, ordered);
+    }
+
+    /**
+     * Maps each upstream value into a single value provided by a generated ObservableSource for that
+     * input value, running up to the given number of inner ObservableSources at once, and combines
+     * the original and generated single value into a final result item to be emitted to downstream.
+     * <p>Only the first item emitted by the inner ObservableSource's are considered. If
+     * the inner ObservableSource is empty, no resulting item is generated for that input value.
+     * <p>Unlike {@link #mapAsync(Function, BiFunction)}, any error disposes everything and is
+     * signalled to the downstream immediately.
+     * @param <T> the input value type
+     * @param <U> the intermediate value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a ObservableSource
+     * that should emit a single value to be emitted.
+     * @param combiner the bi-function that receives the original upstream value and the
+     * single value emitted by the ObservableSource and returns a result value to be emitted to
+     * downstream.
+     * @param maxConcurrency the maximum number of upstream items running or waiting
+     * for their turn to be emitted at a time; further upstream items are buffered
+     * @param ordered if true, the results are emitted in the order of the upstream items;
+     * if false, the results are emitted as they become available
+     * @return the new ObservableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T, U, R> ObservableTransformer<T, R> mapAsyncConcurrent(Function<? super T, ? extends ObservableSource<? extends U>> mapper, BiFunction<? super T, ? super U, ? extends R> combiner, int maxConcurrency, boolean ordered) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        Objects.requireNonNull(combiner, "combiner is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new ObservableMapAsyncConcurrent<>(null, mapper, combiner, maxConcurrency, ordered, Flowable.bufferSize());
+    }
+
     /**
      * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated ObservableSource for that
      * input value and emits the input value if the inner ObservableSource returned {@code true}.
@@ -340,4 +392,28 @@ public final class ObservableTransformers {
         ObjectHelper.verifyPositive(bufferSize, "capacityHint");
         return new ObservableFilterAsync<>(null, asyncPredicate, bufferSize);
     }
+
+    /**
+     * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated ObservableSource for that
+     * input value and emits the input value if the inner ObservableSource returned {@code true}, running up to the given
+     * number of inner ObservableSources at once.
+     * <p>Only the first item emitted by the inner ObservableSource's are considered. If
+     * the inner ObservableSource is empty, no resulting item is generated for that input value.
+     * <p>The input values are emitted in their original order. Unlike {@link #filterAsync(Function, int)},
+     * any error disposes everything and is signalled to the downstream immediately.
+     * @param <T> the input and output value type
+     * @param asyncPredicate the function that receives the upstream value and returns
+     * a ObservableSource that should emit a single true to indicate the original value should pass.
+     * @param bufferSize the number of items being tested or waiting for their result to be emitted
+     * and the capacity hint of the queue buffering further items from upstream
+     * @param maxConcurrency the maximum number of inner ObservableSources running at once
+     * @return the new ObservableTransformer instance
+     * @since 3.0.0
+     */
+    public static <T> ObservableTransformer<T, T> filterAsync(Function<? super T, ? extends ObservableSource<Boolean>> asyncPredicate, int bufferSize, int maxConcurrency) {
+        Objects.requireNonNull(asyncPredicate, "asyncPredicate is null");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new ObservableFilterAsyncConcurrent<>(null, asyncPredicate, bufferSize, maxConcurrency);
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.rxjava3.functions.Supplier;
+
+/**
+ * A buffer emitted by the pooled buffer operators of {@link FlowableTransformers}
+ * which should be released once the consumer is done with its contents so that
+ * the operator can reuse the underlying collection for a subsequent buffer.
+ * <p>
+ * Releasing clears the collection; the consumer should not access
+ * the collection after the release, but can copy or drain it before.
+ * Releasing is idempotent and can happen on any thread. Buffers that are
+ * never released are simply not reused.
+ * <pre><code>
+ * try (PooledBuffer&lt;List&lt;String&gt;&gt; b = pooledBuffer) {
+ *     process(b.buffer());
+ * }
+ * </code></pre>
+ * @param <C> the collection type
+ * @since 3.0.0
+ */
+public final class PooledBuffer<C extends Collection<?>> extends AtomicReference<C> implements AutoCloseable {
+
+    private static final long serialVersionUID = 6343727915437566413L;
+
+    final Pool<C> pool;
+
+    PooledBuffer(C buffer, Pool<C> pool) {
+        super(buffer);
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the collection holding the buffered items.
+     * @return the collection holding the buffered items
+     * @throws IllegalStateException if the buffer has been released
+     */
+    public C buffer() {
+        C c = get();
+        if (c == null) {
+            throw new IllegalStateException("The buffer has been released");
+        }
+        return c;
+    }
+
+    /**
+     * Returns true if this buffer has been released.
+     * @return true if this buffer has been released
+     */
+    public boolean isReleased() {
+        return get() == null;
+    }
+
+    /**
+     * Clears the collection and hands it back to the operator for reuse.
+     */
+    public void release() {
+        C c = getAndSet(null);
+        if (c != null) {
+            c.clear();
+            pool.release(c);
+        }
+    }
+
+    /**
+     * Releases the buffer, same as {@link #release()}.
+     */
+    @Override
+    public void close() {
+        release();
+    }
+
+    @Override
+    public String toString() {
+        C c = get();
+        return c != null ? c.toString() : "[released]";
+    }
+
+    /**
+     * A bounded pool of empty collections shared by the buffers of one subscription;
+     * acquires happen on the upstream's thread, releases on any thread.
+     * @param <C> the collection type
+     */
+    static final class Pool<C> extends AtomicReferenceArray<C> implements Supplier<C> {
+
+        private static final long serialVersionUID = -1424383454429633094L;
+
+        final Supplier<C> bufferSupplier;
+
+        Pool(Supplier<C> bufferSupplier, int capacity) {
+            super(capacity);
+            this.bufferSupplier = bufferSupplier;
+        }
+
+        @Override
+        public C get() throws Throwable {
+            int n = length();
+            for (int i = 0; i < n; i++) {
+                if (get(i) != null) {
+                    C c = getAndSet(i, null);
+                    if (c != null) {
+                        return c;
+                    }
+                }
+            }
+            return Objects.requireNonNull(bufferSupplier.get(), "The bufferSupplier returned a null buffer");
+        }
+
+        void release(C c) {
+            int n = length();
+            for (int i = 0; i < n; i++) {
+                if (get(i) == null && compareAndSet(i, null, c)) {
+                    return;
+                }
+            }
+            // the pool is full, let the collection go
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.parallel;
+
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava3.math.*;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.reactivex.rxjava3.internal.subscriptions.*;
+import io.reactivex.rxjava3.parallel.*;
+
+/**
+ * Collects the numbers on each parallel rail into a {@link QuantileSketch}, or empty if the rail doesn't produce any data.
+ * @param <T> the input element type extending Number
+ * @since 3.0.0
+ */
+final class ParallelQuantileSketch<T extends Number> extends ParallelFlowable<QuantileSketch> implements ParallelTransformer<T, QuantileSketch> {
+
+    final ParallelFlowable<? extends Number> source;
+
+    final double relativeAccuracy;
+
+    ParallelQuantileSketch(ParallelFlowable<? extends Number> source, double relativeAccuracy) {
+        this.source = source;
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    @Override
+    public ParallelFlowable<QuantileSketch> apply(ParallelFlowable<T> t) {
+        return new ParallelQuantileSketch<T>(t, relativeAccuracy);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super QuantileSketch>[] subscribers) {
+        if (!validate(subscribers)) {
+            return;
+        }
+
+        int n = subscribers.length;
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Subscriber<Number>[] parents = new Subscriber[n];
+        for (int i = 0; i < n; i++) {
+            parents[i] = new QuantileSketchSubscriber(subscribers[i], relativeAccuracy);
+        }
+
+        source.subscribe(parents);
+    }
+
+    @Override
+    public int parallelism() {
+        return source.parallelism();
+    }
+
+    static final class QuantileSketchSubscriber extends DeferredScalarSubscription<QuantileSketch>
+    implements FlowableSubscriber<Number> {
+        private static final long serialVersionUID = -8337458716924720637L;
+
+        final QuantileSketch sketch;
+
+        Subscription upstream;
+
+        QuantileSketchSubscriber(Subscriber<? super QuantileSketch> downstream, double relativeAccuracy) {
+            super(downstream);
+            this.sketch = new QuantileSketch(relativeAccuracy);
+        }
+
+        @Override
+        public void onNext(Number t) {
+            sketch.add(t.doubleValue());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            QuantileSketch a = sketch;
+            if (a.count() != 0) {
+                complete(a);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                downstream.onSubscribe(this);
+
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            upstream.cancel();
+        }
+    }
+
+}
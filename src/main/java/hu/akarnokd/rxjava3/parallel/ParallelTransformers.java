@@ -18,7 +18,9 @@ package hu.akarnokd.rxjava3.parallel;
 
 import java.util.*;
 
+import hu.akarnokd.rxjava3.math.*;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.*;
 import io.reactivex.rxjava3.internal.functions.*;
 import io.reactivex.rxjava3.parallel.*;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
@@ -151,4 +153,96 @@ public final class ParallelTransformers {
     public static <T extends Number> ParallelTransformer<T, Double> sumDouble() {
         return new ParallelSumDouble<>(null);
     }
+
+    /**
+     * Computes the {@link Statistics} (count, sum, mean, variance, min, max)
+     * of the numbers on each rail in a single pass.
+     * <p>
+     * The per-rail statistics can be merged into the statistics of the whole
+     * sequence via {@link Statistics#combine(Statistics)}, for example:
+     * <pre><code>
+     * source.parallel()
+     *   .compose(ParallelTransformers.statistics())
+     *   .reduce(Statistics::combine)
+     * </code></pre>
+     * which is what {@link #statistics(ParallelFlowable)} does.
+     * @param <T> the numerical type of the input values
+     * @return the new ParallelTransformer type
+     * @since 3.0.0
+     */
+    public static <T extends Number> ParallelTransformer<T, Statistics> statistics() {
+        return new ParallelStatistics<>(null);
+    }
+
+    /**
+     * Emits the {@link Statistics} (count, sum, mean, variance, min, max) of the numbers
+     * on all rails by combining the per-rail statistics, or completes empty
+     * if all rails are empty.
+     * @param source the source ParallelFlowable
+     * @return the new Flowable instance emitting the statistics of all rails
+     * @since 3.0.0
+     */
+    public static Flowable<Statistics> statistics(ParallelFlowable<? extends Number> source) {
+        Objects.requireNonNull(source, "source is null");
+        return new ParallelStatistics<>(source)
+                .reduce(new BiFunction<Statistics, Statistics, Statistics>() {
+                    @Override
+                    public Statistics apply(Statistics a, Statistics b) throws Exception {
+                        return a.combine(b);
+                    }
+                });
+    }
+
+    /**
+     * Collects the numbers on each rail into a {@link QuantileSketch} with 1% relative accuracy.
+     * <p>
+     * The per-rail sketches can be merged via {@link QuantileSketch#merge(QuantileSketch)}.
+     * @param <T> the numerical type of the input values
+     * @return the new ParallelTransformer type
+     * @since 3.0.0
+     */
+    public static <T extends Number> ParallelTransformer<T, QuantileSketch> quantileSketch() {
+        return quantileSketch(QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Collects the numbers on each rail into a {@link QuantileSketch} with the given relative accuracy.
+     * <p>
+     * The per-rail sketches can be merged via {@link QuantileSketch#merge(QuantileSketch)}.
+     * @param <T> the numerical type of the input values
+     * @param relativeAccuracy the relative accuracy of the quantiles, in (0, 1) exclusive
+     * @return the new ParallelTransformer type
+     * @since 3.0.0
+     */
+    public static <T extends Number> ParallelTransformer<T, QuantileSketch> quantileSketch(double relativeAccuracy) {
+        QuantileSketch.verifyRelativeAccuracy(relativeAccuracy);
+        return new ParallelQuantileSketch<>(null, relativeAccuracy);
+    }
+
+    /**
+     * Emits the approximate values (with 1% relative accuracy) at the given quantiles of the numbers
+     * on all rails by merging the per-rail {@link QuantileSketch}es, or completes empty
+     * if all rails are empty.
+     * @param source the source ParallelFlowable
+     * @param quantiles the quantiles, each in [0, 1], for example, 0.5, 0.99, 0.999
+     * @return the new Flowable instance emitting an array with the values in the order of the quantiles
+     * @since 3.0.0
+     */
+    public static Flowable<double[]> percentiles(ParallelFlowable<? extends Number> source, double... quantiles) {
+        Objects.requireNonNull(source, "source is null");
+        final double[] qs = QuantileSketch.verifyQuantiles(quantiles);
+        return new ParallelQuantileSketch<>(source, QuantileSketch.DEFAULT_RELATIVE_ACCURACY)
+                .reduce(new BiFunction<QuantileSketch, QuantileSketch, QuantileSketch>() {
+                    @Override
+                    public QuantileSketch apply(QuantileSketch a, QuantileSketch b) throws Exception {
+                        return a.merge(b);
+                    }
+                })
+                .map(new Function<QuantileSketch, double[]>() {
+                    @Override
+                    public double[] apply(QuantileSketch t) throws Exception {
+                        return t.quantiles(qs);
+                    }
+                });
+    }
 }
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.processors;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava3.util.*;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.exceptions.MissingBackpressureException;
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.rxjava3.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.rxjava3.internal.util.*;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.processors.FlowableProcessor;
+
+/**
+ * A {@link FlowableProcessor} that holds an unbounded or bounded queue of items and relays/replays
+ * it to a single {@link Subscriber} at a time, honoring its requests, and making sure that when
+ * the {@code Subscriber} cancels, any unconsumed items are available for the next {@code Subscriber}.
+ * <p>
+ * This {@link FlowableProcessor} doesn't allow more than one {@link Subscriber}s at a time.
+ * <p>
+ * The processor requests an unbounded amount from its optional upstream and the
+ * bounded variants apply a {@link BufferOverflowPolicy} when their buffer is full.
+ * The {@code UnicastWorkProcessor} also allows disconnecting from the optional upstream
+ * via {@link #dispose()}.
+ *
+ * @param <T> the input and output value type
+ * @since 3.0.0
+ */
+public final class UnicastWorkProcessor<T> extends FlowableProcessor<T> {
+
+    /**
+     * Constructs an empty {@link UnicastWorkProcessor} with the default capacity hint
+     * (expected number of cached items) of {@link Flowable#bufferSize()} and error delaying behavior.
+     * @param <T> the input and output value type
+     * @return the new UnicastWorkProcessor instance
+     * @see #create(int, boolean)
+     */
+    public static <T> UnicastWorkProcessor<T> create() {
+        return create(Flowable.bufferSize(), true);
+    }
+
+    /**
+     * Constructs an empty {@link UnicastWorkProcessor} with the given capacity hint
+     * (expected number of cached items) and optional error delaying behavior.
+     * @param <T> the input and output value type
+     * @param capacityHint the number of items expected to be cached, larger number
+     *                     reduces the internal allocation count if the consumer is slow
+     * @param delayErrors if true, errors are emitted last
+     * @return the new UnicastWorkProcessor instance
+     */
+    public static <T> UnicastWorkProcessor<T> create(int capacityHint, boolean delayErrors) {
+        return new UnicastWorkProcessor<>(new SpscLinkedArrayQueue<T>(capacityHint), null, delayErrors);
+    }
+
+    /**
+     * Constructs an empty {@link UnicastWorkProcessor} which holds at most the given number
+     * of items and applies the given overflow policy when it is full, with error delaying behavior.
+     * <p>
+     * The {@link BufferOverflowPolicy#BLOCK} policy waits indefinitely for room.
+     * @param <T> the input and output value type
+     * @param capacity the maximum number of items held, positive
+     * @param policy what to do when an item arrives while the buffer is full
+     * @return the new UnicastWorkProcessor instance
+     * @see #createBounded(int, BufferOverflowPolicy, long, TimeUnit, boolean)
+     */
+    public static <T> UnicastWorkProcessor<T> createBounded(int capacity, BufferOverflowPolicy policy) {
+        return createBounded(capacity, policy, Long.MAX_VALUE, TimeUnit.NANOSECONDS, true);
+    }
+
+    /**
+     * Constructs an empty {@link UnicastWorkProcessor} which holds at most the given number
+     * of items and applies the given overflow policy when it is full.
+     * <p>
+     * With the {@link BufferOverflowPolicy#ERROR} policy or when the {@link BufferOverflowPolicy#BLOCK}
+     * policy times out, the upstream is cancelled and a {@link MissingBackpressureException}
+     * is signaled. Note that the {@code BLOCK} policy blocks the thread calling {@code onNext}.
+     * @param <T> the input and output value type
+     * @param capacity the maximum number of items held, positive
+     * @param policy what to do when an item arrives while the buffer is full
+     * @param timeout the time to wait for room with the {@code BLOCK} policy
+     * @param unit the time unit of the timeout
+     * @param delayErrors if true, errors are emitted last
+     * @return the new UnicastWorkProcessor instance
+     */
+    public static <T> UnicastWorkProcessor<T> createBounded(int capacity, BufferOverflowPolicy policy,
+            long timeout, TimeUnit unit, boolean delayErrors) {
+        Objects.requireNonNull(unit, "unit is null");
+        BoundedRingQueue<T> q = new BoundedRingQueue<>(capacity, policy, timeout, unit);
+        return new UnicastWorkProcessor<>(q, q, delayErrors);
+    }
+
+    final SimplePlainQueue<T> queue;
+
+    final BoundedRingQueue<T> bounded;
+
+    final boolean delayErrors;
+
+    final AtomicInteger wip;
+
+    final AtomicReference<Subscription> upstream;
+
+    final AtomicReference<Throwable> error;
+
+    final AtomicReference<WorkSubscription> consumer;
+
+    T item;
+
+    UnicastWorkProcessor(SimplePlainQueue<T> queue, BoundedRingQueue<T> bounded, boolean delayErrors) {
+        this.queue = queue;
+        this.bounded = bounded;
+        this.delayErrors = delayErrors;
+        this.consumer = new AtomicReference<>();
+        this.upstream = new AtomicReference<>();
+        this.wip = new AtomicInteger();
+        this.error = new AtomicReference<>();
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.setOnce(upstream, s)) {
+            s.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        Objects.requireNonNull(t, "t is null");
+        if (error.get() == null) {
+            BoundedRingQueue<T> b = bounded;
+            if (b != null) {
+                if (!b.offerOrOverflow(t)) {
+                    SubscriptionHelper.cancel(upstream);
+                    onError(new MissingBackpressureException("The buffer of " + b.capacity() + " items is full"));
+                    return;
+                }
+            } else {
+                queue.offer(t);
+            }
+            drain();
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        Objects.requireNonNull(e, "e is null");
+        if (error.compareAndSet(null, e)) {
+            drain();
+        } else {
+            RxJavaPlugins.onError(e);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (error.compareAndSet(null, ExceptionHelper.TERMINATED)) {
+            drain();
+        }
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> subscriber) {
+        WorkSubscription w = new WorkSubscription(subscriber);
+        subscriber.onSubscribe(w);
+
+        if (consumer.compareAndSet(null, w)) {
+            if (w.cancelled) {
+                consumer.compareAndSet(w, null);
+            } else {
+                drain();
+            }
+        } else {
+            subscriber.onError(new IllegalStateException("Only one Subscriber allowed at a time"));
+        }
+    }
+
+    /**
+     * Cancels the upstream, if any, and completes this processor.
+     */
+    public void dispose() {
+        SubscriptionHelper.cancel(upstream);
+        if (error.compareAndSet(null, ExceptionHelper.TERMINATED)) {
+            drain();
+        }
+    }
+
+    /**
+     * Returns true if this processor has been disposed.
+     * @return true if this processor has been disposed
+     */
+    public boolean isDisposed() {
+        return upstream.get() == SubscriptionHelper.CANCELLED;
+    }
+
+    @Override
+    public boolean hasComplete() {
+        return error.get() == ExceptionHelper.TERMINATED;
+    }
+
+    @Override
+    public boolean hasThrowable() {
+        Throwable ex = error.get();
+        return ex != null && ex != ExceptionHelper.TERMINATED;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        Throwable ex = error.get();
+        return ex != ExceptionHelper.TERMINATED ? ex : null;
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        return consumer.get() != null;
+    }
+
+    /**
+     * Returns the number of items currently buffered if this processor is bounded.
+     * @return the number of items buffered or -1 if this processor is unbounded
+     */
+    public int depth() {
+        BoundedRingQueue<T> b = bounded;
+        return b != null ? b.size() : -1;
+    }
+
+    /**
+     * Returns the largest number of items buffered at any time if this processor is bounded.
+     * @return the high-water mark or -1 if this processor is unbounded
+     */
+    public int highWaterMark() {
+        BoundedRingQueue<T> b = bounded;
+        return b != null ? b.highWaterMark() : -1;
+    }
+
+    void remove(WorkSubscription d) {
+        consumer.compareAndSet(d, null);
+    }
+
+    void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        AtomicReference<Throwable> error = this.error;
+        AtomicReference<WorkSubscription> consumer = this.consumer;
+        boolean delayErrors = this.delayErrors;
+
+        for (;;) {
+
+            for (;;) {
+                WorkSubscription a = consumer.get();
+                if (a != null) {
+                    Throwable ex = error.get();
+                    boolean d = ex != null;
+                    if (d && !delayErrors) {
+                        if (ex != ExceptionHelper.TERMINATED) {
+                            queue.clear();
+                            item = null;
+                            if (consumer.compareAndSet(a, null)) {
+                                a.downstream.onError(ex);
+                            }
+                            break;
+                        }
+                    }
+
+                    T v = item;
+                    if (v == null) {
+                        v = queue.poll();
+                    }
+                    boolean empty = v == null;
+
+                    if (d && empty) {
+                        if (ex != ExceptionHelper.TERMINATED) {
+                            if (consumer.compareAndSet(a, null)) {
+                                a.downstream.onError(ex);
+                            }
+                        } else {
+                            if (consumer.compareAndSet(a, null)) {
+                                a.downstream.onComplete();
+                            }
+                        }
+                        break;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    // keep the item around until requested or for the next Subscriber
+                    item = v;
+
+                    long e = a.emitted;
+                    if (e == a.get()) {
+                        break;
+                    }
+
+                    if (a == consumer.get()) {
+                        item = null;
+                        a.emitted = e + 1;
+                        a.downstream.onNext(v);
+                    }
+                } else {
+                    break;
+                }
+            }
+
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    final class WorkSubscription extends AtomicLong implements Subscription {
+
+        private static final long serialVersionUID = -3574708954225968389L;
+
+        final Subscriber<? super T> downstream;
+
+        volatile boolean cancelled;
+
+        long emitted;
+
+        WorkSubscription(Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                remove(this);
+            }
+        }
+    }
+}
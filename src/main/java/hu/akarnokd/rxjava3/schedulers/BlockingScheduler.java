@@ -16,18 +16,18 @@
 
 package hu.akarnokd.rxjava3.schedulers;
 
-import java.util.Objects;
-import java.util.concurrent.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.*;
-import java.util.concurrent.locks.*;
+import java.util.concurrent.locks.LockSupport;
 
+import hu.akarnokd.rxjava3.util.MpscLinkedArrayQueue;
 import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.disposables.*;
 import io.reactivex.rxjava3.functions.Action;
 import io.reactivex.rxjava3.internal.disposables.SequentialDisposable;
 import io.reactivex.rxjava3.internal.functions.Functions;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * A Scheduler that uses the current thread, in an event-loop and
@@ -53,6 +53,19 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
  * 
  * In the example code above, {@code observeOn(scheduler)} will execute
  * on the main thread of the Java application.
+ * <p>
+ * How the event loop waits for new actions once it runs out of work can be
+ * tuned via {@link IdleStrategy}: spinning reduces the latency of handing
+ * actions over from other threads at the expense of CPU time. By default,
+ * {@link IdleStrategy#SPIN_YIELD_PARK} is used on multi-core machines and
+ * {@link IdleStrategy#PARK} otherwise.
+ * <p>
+ * Delayed actions are kept in a delay queue owned by the event loop thread
+ * which checks it between actions and parks no longer than the nearest
+ * deadline, so timed actions don't need another thread. Alternatively,
+ * the delays can be waited out by a {@code timedHelper} Scheduler, such as
+ * a {@link HashedWheelScheduler}. Cancelled timed actions are removed from
+ * the delay queue in batches, once enough of them have accumulated.
  * 
  * @since 0.15.1
  */
@@ -65,32 +78,102 @@ public final class BlockingScheduler extends Scheduler {
         }
     };
 
+    static final Action PURGE = new Action() {
+        @Override
+        public void run() throws Exception {
+            // deliberately no-op
+        }
+    };
+
     static final int SPIN_LIMIT = 64;
 
-    final ConcurrentLinkedQueue<Action> queue;
+    static final int YIELD_LIMIT = 16;
 
-    final AtomicLong wip;
+    static final int ISLAND_SIZE = 256;
 
-    final Lock lock;
+    /** The number of cancelled timed actions that makes the event loop purge its delay queue. */
+    static final int PURGE_THRESHOLD = 64;
 
-    final Condition condition;
+    /** Keeps {@code System.nanoTime() + delay} from overflowing so the deadline differences stay valid. */
+    static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 1;
+
+    /** Spinning only makes sense if the producer threads can run in parallel with the event loop. */
+    static final IdleStrategy DEFAULT_IDLE_STRATEGY = Runtime.getRuntime().availableProcessors() > 1
+            ? IdleStrategy.SPIN_YIELD_PARK : IdleStrategy.PARK;
+
+    final MpscLinkedArrayQueue<Action> queue;
+
+    final AtomicLong wip;
+
+    final IdleStrategy idleStrategy;
 
     final AtomicBoolean running;
 
     final AtomicBoolean shutdown;
 
+    /** If null, the event loop times the delayed actions via {@link #timedQueue}. */
     final Scheduler timedHelper;
 
+    /** Accessed only from the event loop thread. */
+    final PriorityQueue<BlockingTimedAction> timedQueue;
+
+    /** Accessed only from the event loop thread. */
+    long timedIndex;
+
+    /** The number of cancelled timed actions not yet removed from the delay queue. */
+    final AtomicInteger cancelledTimers;
+
     volatile Thread thread;
 
+    volatile boolean parked;
+
     public BlockingScheduler() {
-        this.queue = new ConcurrentLinkedQueue<>();
-        this.lock = new ReentrantLock();
-        this.condition = this.lock.newCondition();
+        this(DEFAULT_IDLE_STRATEGY);
+    }
+
+    /**
+     * Constructs a BlockingScheduler with the given idle strategy.
+     * @param idleStrategy the strategy to wait for new actions when the event loop is idle
+     * @since 3.0.0
+     */
+    public BlockingScheduler(IdleStrategy idleStrategy) {
+        this(idleStrategy, null);
+    }
+
+    /**
+     * Constructs a BlockingScheduler which uses the given Scheduler
+     * to wait out the delay of timed actions before they are queued
+     * up in the blocking event loop.
+     * @param timedHelper the scheduler timing the delayed actions, such as
+     *                    a {@link HashedWheelScheduler}
+     * @since 3.0.0
+     */
+    public BlockingScheduler(Scheduler timedHelper) {
+        this(timedHelper, DEFAULT_IDLE_STRATEGY);
+    }
+
+    /**
+     * Constructs a BlockingScheduler which uses the given Scheduler
+     * to wait out the delay of timed actions and the given idle strategy
+     * to wait for new actions.
+     * @param timedHelper the scheduler timing the delayed actions, such as
+     *                    a {@link HashedWheelScheduler}
+     * @param idleStrategy the strategy to wait for new actions when the event loop is idle
+     * @since 3.0.0
+     */
+    public BlockingScheduler(Scheduler timedHelper, IdleStrategy idleStrategy) {
+        this(idleStrategy, Objects.requireNonNull(timedHelper, "timedHelper is null"));
+    }
+
+    private BlockingScheduler(IdleStrategy idleStrategy, Scheduler timedHelper) {
+        this.queue = new MpscLinkedArrayQueue<>(ISLAND_SIZE);
+        this.idleStrategy = Objects.requireNonNull(idleStrategy, "idleStrategy is null");
         this.running = new AtomicBoolean();
         this.shutdown = new AtomicBoolean();
         this.wip = new AtomicLong();
-        this.timedHelper = Schedulers.single();
+        this.timedHelper = timedHelper;
+        this.timedQueue = new PriorityQueue<>();
+        this.cancelledTimers = new AtomicInteger();
     }
 
     /**
@@ -123,49 +206,162 @@ public final class BlockingScheduler extends Scheduler {
     void drainLoop() {
         final AtomicBoolean stop = shutdown;
         final AtomicLong wip = this.wip;
+        final PriorityQueue<BlockingTimedAction> timers = timedQueue;
 
         for (;;) {
             if (stop.get()) {
                 cancelAll();
                 return;
             }
-            do {
-                Action a = queue.poll();
-                if (a == SHUTDOWN) {
-                    cancelAll();
+            if (wip.get() != 0L) {
+                do {
+                    Action a = queue.poll();
+                    if (a == SHUTDOWN) {
+                        cancelAll();
+                        return;
+                    }
+                    if (a == PURGE) {
+                        purgeTimers();
+                    } else if (a instanceof BlockingTimedAction) {
+                        BlockingTimedAction ta = (BlockingTimedAction)a;
+                        if (ta.get()) {
+                            cancelledTimers.decrementAndGet();
+                        } else {
+                            ta.index = timedIndex++;
+                            timers.offer(ta);
+                        }
+                    } else {
+                        runAction(a);
+                    }
+                    if (!timers.isEmpty()) {
+                        runDueTimers();
+                    }
+                } while (wip.decrementAndGet() != 0);
+            }
+
+            if (!timers.isEmpty()) {
+                runDueTimers();
+            }
+
+            awaitWork();
+        }
+    }
+
+    static void runAction(Action a) {
+        try {
+            a.run();
+        } catch (Throwable ex) {
+            RxJavaPlugins.onError(ex);
+        }
+    }
+
+    void runDueTimers() {
+        final PriorityQueue<BlockingTimedAction> timers = timedQueue;
+        long now = System.nanoTime();
+        for (;;) {
+            BlockingTimedAction ta = timers.peek();
+            if (ta == null || ta.deadline - now > 0L) {
+                break;
+            }
+            timers.poll();
+            if (ta.compareAndSet(false, true)) {
+                runAction(ta.action);
+            } else {
+                cancelledTimers.decrementAndGet();
+            }
+        }
+    }
+
+    void purgeTimers() {
+        int removed = 0;
+        Iterator<BlockingTimedAction> it = timedQueue.iterator();
+        while (it.hasNext()) {
+            if (it.next().get()) {
+                it.remove();
+                removed++;
+            }
+        }
+        cancelledTimers.addAndGet(-removed);
+    }
+
+    void timerCancelled(BlockingTimedAction ta) {
+        if (ta.compareAndSet(false, true)
+                && cancelledTimers.incrementAndGet() == PURGE_THRESHOLD
+                && !shutdown.get()) {
+            enqueue(PURGE);
+        }
+    }
+
+    boolean hasDueTimer() {
+        BlockingTimedAction ta = timedQueue.peek();
+        return ta != null && ta.deadline - System.nanoTime() <= 0L;
+    }
+
+    void awaitWork() {
+        final AtomicBoolean stop = shutdown;
+        final AtomicLong wip = this.wip;
+        final IdleStrategy strategy = idleStrategy;
+        final PriorityQueue<BlockingTimedAction> timers = timedQueue;
+
+        if (strategy != IdleStrategy.PARK) {
+            int spins = 0;
+            for (;;) {
+                if (wip.get() != 0 || stop.get() || hasDueTimer()) {
                     return;
                 }
-                try {
-                    a.run();
-                } catch (Throwable ex) {
-                    RxJavaPlugins.onError(ex);
+                if (strategy == IdleStrategy.SPIN_YIELD_PARK) {
+                    if (spins < SPIN_LIMIT) {
+                        spins++;
+                    } else if (spins < SPIN_LIMIT + YIELD_LIMIT) {
+                        spins++;
+                        Thread.yield();
+                    } else {
+                        break;
+                    }
                 }
-            } while (wip.decrementAndGet() != 0);
+            }
+        }
 
-            if (wip.get() == 0 && !stop.get()) {
-                lock.lock();
-                try {
-                    while (wip.get() == 0 && !stop.get()) {
-                        condition.await();
-                    }
-                } catch (InterruptedException ex) {
-                    // deliberately ignored
-                } finally {
-                    lock.unlock();
+        parked = true;
+        while (wip.get() == 0 && !stop.get()) {
+            BlockingTimedAction ta = timers.peek();
+            if (ta == null) {
+                LockSupport.park(this);
+            } else {
+                long delay = ta.deadline - System.nanoTime();
+                if (delay <= 0L) {
+                    break;
                 }
+                LockSupport.parkNanos(this, delay);
             }
+            // interrupts of the idle event loop are deliberately ignored
+            Thread.interrupted();
         }
+        parked = false;
     }
 
     void cancelAll() {
-        final ConcurrentLinkedQueue<Action> q = queue;
+        final MpscLinkedArrayQueue<Action> q = queue;
 
         Action a;
 
         while ((a = q.poll()) != null) {
-            if (a instanceof Disposable) {
-                ((Disposable)a).dispose();
-            }
+            cancel(a);
+        }
+
+        final PriorityQueue<BlockingTimedAction> timers = timedQueue;
+
+        while ((a = timers.poll()) != null) {
+            cancel(a);
+        }
+    }
+
+    static void cancel(Action a) {
+        if (a instanceof BlockingTimedAction) {
+            a = ((BlockingTimedAction)a).action;
+        }
+        if (a instanceof Disposable) {
+            ((Disposable)a).dispose();
         }
     }
 
@@ -179,15 +375,28 @@ public final class BlockingScheduler extends Scheduler {
 
         final BlockingDirectTask task = new BlockingDirectTask(run);
 
-        if (delay == 0L) {
+        if (delay <= 0L) {
             enqueue(task);
             return task;
         }
 
+        return enqueueTimed(task, delay, unit);
+    }
+
+    Disposable enqueueTimed(final TimedTask task, long delay, TimeUnit unit) {
+        Scheduler helper = timedHelper;
+        if (helper == null) {
+            long delayNanos = Math.min(unit.toNanos(delay), MAX_DELAY_NANOS);
+            BlockingTimedAction ta = new BlockingTimedAction(task, System.nanoTime() + delayNanos);
+            task.setTimer(ta);
+            enqueue(ta);
+            return task;
+        }
+
         SequentialDisposable inner = new SequentialDisposable();
         final SequentialDisposable outer = new SequentialDisposable(inner);
 
-        Disposable d = timedHelper.scheduleDirect(new Runnable() {
+        Disposable d = helper.scheduleDirect(new Runnable() {
             @Override
             public void run() {
                 outer.replace(task);
@@ -213,12 +422,10 @@ public final class BlockingScheduler extends Scheduler {
 
     void enqueue(Action action) {
         queue.offer(action);
-        if (wip.getAndIncrement() == 0L) {
-            lock.lock();
-            try {
-                condition.signal();
-            } finally {
-                lock.unlock();
+        if (wip.getAndIncrement() == 0L && parked) {
+            Thread t = thread;
+            if (t != null) {
+                LockSupport.unpark(t);
             }
         }
     }
@@ -228,6 +435,74 @@ public final class BlockingScheduler extends Scheduler {
         return new BlockingWorker();
     }
 
+    /**
+     * The strategy of the blocking event loop to wait for new actions
+     * once it has run out of work.
+     * @since 3.0.0
+     */
+    public enum IdleStrategy {
+        /**
+         * Keep checking for new actions without ever giving up the CPU;
+         * lowest handoff latency but occupies a core all the time.
+         */
+        BUSY_SPIN,
+        /**
+         * Spin for a short while, then yield a couple of times before
+         * parking the thread.
+         */
+        SPIN_YIELD_PARK,
+        /**
+         * Park the thread immediately and wait for an unpark from the
+         * thread scheduling the next action.
+         */
+        PARK
+    }
+
+    /**
+     * An action which can be linked to its entry in the delay queue so that
+     * cancelling the action gets the entry purged.
+     */
+    interface TimedTask extends Action, Disposable {
+
+        void setTimer(BlockingTimedAction ta);
+    }
+
+    /**
+     * Wraps an action to be run by the event loop once the deadline has passed;
+     * set to true once the action has been run or cancelled.
+     */
+    static final class BlockingTimedAction extends AtomicBoolean
+    implements Action, Comparable<BlockingTimedAction> {
+
+        private static final long serialVersionUID = 4929311347312935282L;
+
+        final Action action;
+
+        final long deadline;
+
+        /** Set by the event loop to keep timed actions with the same deadline in FIFO order. */
+        long index;
+
+        BlockingTimedAction(Action action, long deadline) {
+            this.action = action;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() throws Throwable {
+            action.run();
+        }
+
+        @Override
+        public int compareTo(BlockingTimedAction o) {
+            int c = Long.compare(deadline - o.deadline, 0L);
+            if (c == 0) {
+                c = Long.compare(index, o.index);
+            }
+            return c;
+        }
+    }
+
     static final int READY = 0;
     static final int RUNNING = 1;
     static final int INTERRUPTING = 2;
@@ -237,11 +512,13 @@ public final class BlockingScheduler extends Scheduler {
 
     final class BlockingDirectTask
     extends AtomicInteger
-    implements Action, Disposable {
+    implements TimedTask {
 
         private static final long serialVersionUID = -9165914884456950194L;
         final Runnable task;
 
+        volatile BlockingTimedAction timer;
+
         BlockingDirectTask(Runnable task) {
             this.task = task;
         }
@@ -274,6 +551,10 @@ public final class BlockingScheduler extends Scheduler {
                 }
 
                 if (s == READY && compareAndSet(READY, CANCELLED)) {
+                    BlockingTimedAction ta = timer;
+                    if (ta != null) {
+                        timerCancelled(ta);
+                    }
                     break;
                 }
                 if (compareAndSet(RUNNING, INTERRUPTING)) {
@@ -291,6 +572,14 @@ public final class BlockingScheduler extends Scheduler {
         public boolean isDisposed() {
             return get() >= INTERRUPTING;
         }
+
+        @Override
+        public void setTimer(BlockingTimedAction ta) {
+            timer = ta;
+            if (get() == CANCELLED) {
+                timerCancelled(ta);
+            }
+        }
     }
 
     final class BlockingWorker extends Worker {
@@ -323,39 +612,24 @@ public final class BlockingScheduler extends Scheduler {
             final BlockingTask task = new BlockingTask(run);
             tasks.add(task);
 
-            if (delay == 0L) {
+            if (delay <= 0L) {
                 enqueue(task);
                 return task;
             }
 
-            SequentialDisposable inner = new SequentialDisposable();
-            final SequentialDisposable outer = new SequentialDisposable(inner);
-
-            Disposable d = timedHelper.scheduleDirect(new Runnable() {
-                @Override
-                public void run() {
-                    outer.replace(task);
-                    enqueue(task);
-                }
-            }, delay, unit);
-
-            if (d == Disposable.disposed()) {
-                return d;
-            }
-
-            inner.replace(d);
-
-            return outer;
+            return enqueueTimed(task, delay, unit);
         }
 
         final class BlockingTask
         extends AtomicInteger
-        implements Action, Disposable {
+        implements TimedTask {
 
             private static final long serialVersionUID = -9165914884456950194L;
 
             final Runnable task;
 
+            volatile BlockingTimedAction timer;
+
             BlockingTask(Runnable task) {
                 this.task = task;
             }
@@ -389,6 +663,10 @@ public final class BlockingScheduler extends Scheduler {
                     }
 
                     if (s == READY && compareAndSet(READY, CANCELLED)) {
+                        BlockingTimedAction ta = timer;
+                        if (ta != null) {
+                            timerCancelled(ta);
+                        }
                         break;
                     }
                     if (compareAndSet(RUNNING, INTERRUPTING)) {
@@ -407,6 +685,14 @@ public final class BlockingScheduler extends Scheduler {
             public boolean isDisposed() {
                 return get() >= INTERRUPTING;
             }
+
+            @Override
+            public void setTimer(BlockingTimedAction ta) {
+                timer = ta;
+                if (get() == CANCELLED) {
+                    timerCancelled(ta);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.*;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.internal.queue.MpscLinkedQueue;
+import io.reactivex.rxjava3.internal.schedulers.RxThreadFactory;
+import io.reactivex.rxjava3.internal.util.Pow2;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * A single-threaded Scheduler that keeps its delayed tasks in a hashed timing wheel,
+ * offering O(1) schedule and cancel at the expense of a configurable tick resolution.
+ * <p>
+ * The delay of a task is rounded up to the next tick. The tasks run on the wheel's own
+ * thread, therefore they should be short, such as signaling a timeout or handing over
+ * work to another Scheduler. This makes the scheduler a good timed helper of the
+ * {@link BlockingScheduler} and {@link ParallelScheduler} when there are lots of
+ * timed tasks which mostly get cancelled before they'd run.
+ * @since 3.0.0
+ */
+public final class HashedWheelScheduler extends Scheduler {
+
+    final ThreadFactory factory;
+
+    final long tickNanos;
+
+    final int wheelSize;
+
+    final AtomicReference<Wheel> wheel;
+
+    /**
+     * Constructs a HashedWheelScheduler with 10 milliseconds tick resolution and 512 buckets.
+     */
+    public HashedWheelScheduler() {
+        this(10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a HashedWheelScheduler with the given tick resolution and 512 buckets.
+     * @param tick the tick duration
+     * @param unit the tick duration unit
+     */
+    public HashedWheelScheduler(long tick, TimeUnit unit) {
+        this(tick, unit, 512);
+    }
+
+    /**
+     * Constructs a HashedWheelScheduler with the given tick resolution and number of buckets.
+     * @param tick the tick duration
+     * @param unit the tick duration unit
+     * @param wheelSize the number of buckets, rounded up to the next power of 2
+     */
+    public HashedWheelScheduler(long tick, TimeUnit unit, int wheelSize) {
+        this(tick, unit, wheelSize, new RxThreadFactory("RxHashedWheelScheduler"));
+    }
+
+    /**
+     * Constructs a HashedWheelScheduler with the given tick resolution, number of buckets
+     * and factory for the wheel's thread.
+     * @param tick the tick duration
+     * @param unit the tick duration unit
+     * @param wheelSize the number of buckets, rounded up to the next power of 2
+     * @param factory the factory for the wheel's thread
+     */
+    public HashedWheelScheduler(long tick, TimeUnit unit, int wheelSize, ThreadFactory factory) {
+        Objects.requireNonNull(unit, "unit is null");
+        Objects.requireNonNull(factory, "factory is null");
+        if (tick <= 0L) {
+            throw new IllegalArgumentException("tick > 0 required but it was " + tick);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize in (0, 2^30] required but it was " + wheelSize);
+        }
+        this.tickNanos = Math.max(1L, unit.toNanos(tick));
+        this.wheelSize = Pow2.roundToPowerOfTwo(wheelSize);
+        this.factory = factory;
+        this.wheel = new AtomicReference<>(Wheel.SHUTDOWN);
+        start();
+    }
+
+    @Override
+    public void start() {
+        for (;;) {
+            Wheel current = wheel.get();
+            if (current != Wheel.SHUTDOWN) {
+                return;
+            }
+            Wheel next = new Wheel(tickNanos, wheelSize);
+            if (wheel.compareAndSet(current, next)) {
+                next.start(factory);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        Wheel current = wheel.getAndSet(Wheel.SHUTDOWN);
+        if (current != Wheel.SHUTDOWN) {
+            current.shutdown();
+        }
+    }
+
+    @Override
+    public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+        Objects.requireNonNull(run, "run is null");
+        Objects.requireNonNull(unit, "unit is null");
+        Wheel w = wheel.get();
+        WheelTask task = new WheelTask(RxJavaPlugins.onSchedule(run), w, null);
+        if (w.schedule(task, unit.toNanos(delay))) {
+            return task;
+        }
+        return Disposable.disposed();
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new HashedWheelWorker(wheel.get());
+    }
+
+    static final class HashedWheelWorker extends Worker {
+
+        final Wheel wheel;
+
+        final CompositeDisposable tasks;
+
+        HashedWheelWorker(Wheel wheel) {
+            this.wheel = wheel;
+            this.tasks = new CompositeDisposable();
+        }
+
+        @Override
+        public void dispose() {
+            tasks.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return tasks.isDisposed();
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            Objects.requireNonNull(run, "run is null");
+            Objects.requireNonNull(unit, "unit is null");
+            if (!tasks.isDisposed()) {
+                WheelTask task = new WheelTask(RxJavaPlugins.onSchedule(run), wheel, tasks);
+                if (tasks.add(task)) {
+                    if (wheel.schedule(task, unit.toNanos(delay))) {
+                        return task;
+                    }
+                    tasks.delete(task);
+                }
+            }
+            return Disposable.disposed();
+        }
+    }
+
+    static final int WAITING = 0;
+    static final int FINISHED = 1;
+    static final int CANCELLED = 2;
+
+    /**
+     * A task waiting in the wheel, linked into its bucket.
+     */
+    static final class WheelTask extends AtomicInteger implements Disposable {
+
+        private static final long serialVersionUID = 1391424378421813006L;
+
+        final Runnable run;
+
+        final Wheel wheel;
+
+        final DisposableContainer parent;
+
+        /** The time to run, relative to the start of the wheel, in nanoseconds. */
+        long deadline;
+
+        /** The number of full turns of the wheel to wait before running. Accessed by the wheel thread only. */
+        long remainingRounds;
+
+        /** The index of the bucket this task is linked into, -1 if not linked. Accessed by the wheel thread only. */
+        int bucket;
+
+        WheelTask prev;
+
+        WheelTask next;
+
+        WheelTask(Runnable run, Wheel wheel, DisposableContainer parent) {
+            this.run = run;
+            this.wheel = wheel;
+            this.parent = parent;
+            this.bucket = -1;
+        }
+
+        void expire() {
+            if (compareAndSet(WAITING, FINISHED)) {
+                try {
+                    run.run();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
+                DisposableContainer p = parent;
+                if (p != null) {
+                    p.delete(this);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (compareAndSet(WAITING, CANCELLED)) {
+                wheel.cancelled.offer(this);
+                DisposableContainer p = parent;
+                if (p != null) {
+                    p.delete(this);
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() != WAITING;
+        }
+    }
+
+    /**
+     * The wheel of buckets driven by its own thread; new and cancelled tasks
+     * are handed over to this thread through queues.
+     */
+    static final class Wheel implements Runnable {
+
+        static final Wheel SHUTDOWN;
+
+        static {
+            SHUTDOWN = new Wheel(1L, 1);
+            SHUTDOWN.shutdown = true;
+        }
+
+        /** The maximum number of new tasks to move into the buckets per tick. */
+        static final int TRANSFER_LIMIT = 100000;
+
+        final long tickNanos;
+
+        final int mask;
+
+        final WheelTask[] heads;
+
+        final WheelTask[] tails;
+
+        final MpscLinkedQueue<WheelTask> immediate;
+
+        final MpscLinkedQueue<WheelTask> pending;
+
+        final MpscLinkedQueue<WheelTask> cancelled;
+
+        final long startTime;
+
+        volatile boolean shutdown;
+
+        volatile Thread thread;
+
+        Wheel(long tickNanos, int wheelSize) {
+            this.tickNanos = tickNanos;
+            this.mask = wheelSize - 1;
+            this.heads = new WheelTask[wheelSize];
+            this.tails = new WheelTask[wheelSize];
+            this.immediate = new MpscLinkedQueue<>();
+            this.pending = new MpscLinkedQueue<>();
+            this.cancelled = new MpscLinkedQueue<>();
+            this.startTime = System.nanoTime();
+        }
+
+        void start(ThreadFactory factory) {
+            Thread t = factory.newThread(this);
+            thread = t;
+            t.start();
+        }
+
+        void shutdown() {
+            shutdown = true;
+            LockSupport.unpark(thread);
+        }
+
+        boolean schedule(WheelTask task, long delayNanos) {
+            if (shutdown) {
+                return false;
+            }
+            if (delayNanos <= 0L) {
+                immediate.offer(task);
+                LockSupport.unpark(thread);
+            } else {
+                long d = System.nanoTime() - startTime + delayNanos;
+                // guard against overflow
+                task.deadline = d < 0L ? Long.MAX_VALUE : d;
+                pending.offer(task);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            long tick = 0L;
+            for (;;) {
+                long now = waitForNextTick(tick);
+                if (now < 0L) {
+                    break;
+                }
+                removeCancelled();
+                transferPending(tick);
+                expire((int)tick & mask);
+                tick++;
+            }
+            clear();
+        }
+
+        long waitForNextTick(long tick) {
+            long deadline = tickNanos * (tick + 1);
+            for (;;) {
+                runImmediate();
+                if (shutdown) {
+                    return -1L;
+                }
+                long now = System.nanoTime() - startTime;
+                long sleep = deadline - now;
+                if (sleep <= 0L) {
+                    return now;
+                }
+                LockSupport.parkNanos(this, sleep);
+            }
+        }
+
+        void runImmediate() {
+            MpscLinkedQueue<WheelTask> q = immediate;
+            for (;;) {
+                WheelTask t = q.poll();
+                if (t == null) {
+                    break;
+                }
+                t.expire();
+            }
+        }
+
+        void removeCancelled() {
+            MpscLinkedQueue<WheelTask> q = cancelled;
+            for (;;) {
+                WheelTask t = q.poll();
+                if (t == null) {
+                    break;
+                }
+                if (t.bucket >= 0) {
+                    remove(t);
+                }
+            }
+        }
+
+        void transferPending(long tick) {
+            MpscLinkedQueue<WheelTask> q = pending;
+            long tn = tickNanos;
+            long wheelLength = mask + 1L;
+            for (int i = 0; i < TRANSFER_LIMIT; i++) {
+                WheelTask t = q.poll();
+                if (t == null) {
+                    break;
+                }
+                if (t.get() != WAITING) {
+                    continue;
+                }
+                long calculated = t.deadline / tn;
+                t.remainingRounds = (calculated - tick) / wheelLength;
+                // tasks already past their deadline go into the current bucket
+                long ticks = Math.max(calculated, tick);
+                add((int)ticks & mask, t);
+            }
+        }
+
+        void expire(int idx) {
+            WheelTask t = heads[idx];
+            while (t != null) {
+                WheelTask next = t.next;
+                if (t.remainingRounds <= 0L) {
+                    remove(t);
+                    t.expire();
+                } else
+                if (t.get() != WAITING) {
+                    remove(t);
+                } else {
+                    t.remainingRounds--;
+                }
+                t = next;
+            }
+        }
+
+        void add(int idx, WheelTask t) {
+            t.bucket = idx;
+            WheelTask tail = tails[idx];
+            if (tail == null) {
+                heads[idx] = t;
+            } else {
+                tail.next = t;
+                t.prev = tail;
+            }
+            tails[idx] = t;
+        }
+
+        void remove(WheelTask t) {
+            int idx = t.bucket;
+            WheelTask prev = t.prev;
+            WheelTask next = t.next;
+            if (prev == null) {
+                heads[idx] = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                tails[idx] = prev;
+            } else {
+                next.prev = prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = -1;
+        }
+
+        void clear() {
+            immediate.clear();
+            pending.clear();
+            cancelled.clear();
+            for (int i = 0; i <= mask; i++) {
+                WheelTask t = heads[i];
+                while (t != null) {
+                    WheelTask next = t.next;
+                    t.prev = null;
+                    t.next = null;
+                    t = next;
+                }
+                heads[i] = null;
+                tails[i] = null;
+            }
+        }
+    }
+}
@@ -16,18 +16,30 @@
 
 package hu.akarnokd.rxjava3.schedulers;
 
+import java.util.Objects;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.*;
 
 import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.disposables.*;
 import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.internal.disposables.SequentialDisposable;
 import io.reactivex.rxjava3.internal.functions.Functions;
+import io.reactivex.rxjava3.internal.queue.MpscLinkedQueue;
 import io.reactivex.rxjava3.internal.schedulers.RxThreadFactory;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 
 /**
  * Scheduler with a configurable fixed amount of thread-pools.
+ * <p>
+ * By default, each Worker is pinned to one of the single-threaded pools in a round-robin
+ * fashion. In the work-stealing mode, the Workers share a FIFO work-stealing pool
+ * (each thread has its own task deque and idle threads steal from busy ones) and only
+ * the tasks of the same Worker are guaranteed to run one after the other, in FIFO order.
+ * Delayed tasks are timed by a separate timer thread and then handed to the work-stealing pool.
+ * <p>
+ * Optionally, the delayed tasks can be timed by another Scheduler, such as a
+ * {@link HashedWheelScheduler}, and handed over to the pools once their delay elapsed.
  */
 public final class ParallelScheduler extends Scheduler {
 
@@ -43,6 +55,15 @@ public final class ParallelScheduler extends Scheduler {
 
     final AtomicReference<ScheduledExecutorService[]> pool;
 
+    /** The work-stealing pool in use; null in the pinned mode. */
+    final AtomicReference<WorkStealingPool> stealing;
+
+    /** Creates the threads of the work-stealing pool; null in the pinned mode. */
+    final ForkJoinPool.ForkJoinWorkerThreadFactory stealingFactory;
+
+    /** Times the delayed tasks before handing them to the pools; null if the pools time them. */
+    final Scheduler timedHelper;
+
     int n;
 
     static {
@@ -76,6 +97,53 @@ public final class ParallelScheduler extends Scheduler {
         this(parallelism, new RxThreadFactory(threadNamePrefix, checkPriority(priority)), tracking);
     }
 
+    /**
+     * Constructs a ParallelScheduler with the given parallelism, optionally in the work-stealing mode.
+     * @param parallelism the number of threads executing the tasks
+     * @param tracking if true, Workers track their pending tasks and cancel them when disposed
+     * @param priority the priority of the threads
+     * @param threadNamePrefix the thread name prefix
+     * @param workStealing if true, the Workers share a work-stealing pool instead
+     *                     of being pinned to a single thread each
+     * @since 3.0.0
+     */
+    public ParallelScheduler(int parallelism, boolean tracking, int priority, String threadNamePrefix, boolean workStealing) {
+        this(parallelism, new RxThreadFactory(threadNamePrefix, checkPriority(priority)), tracking,
+                workStealing ? new WorkStealingThreadFactory(threadNamePrefix, priority) : null, null);
+    }
+
+    /**
+     * Constructs a ParallelScheduler with the given parallelism, optionally in the work-stealing mode,
+     * which uses the given Scheduler to time the delayed tasks.
+     * @param parallelism the number of threads executing the tasks
+     * @param tracking if true, Workers track their pending tasks and cancel them when disposed
+     * @param priority the priority of the threads
+     * @param threadNamePrefix the thread name prefix
+     * @param workStealing if true, the Workers share a work-stealing pool instead
+     *                     of being pinned to a single thread each
+     * @param timedHelper the scheduler timing the delayed tasks, such as a {@link HashedWheelScheduler}
+     * @since 3.0.0
+     */
+    public ParallelScheduler(int parallelism, boolean tracking, int priority, String threadNamePrefix,
+            boolean workStealing, Scheduler timedHelper) {
+        this(parallelism, new RxThreadFactory(threadNamePrefix, checkPriority(priority)), tracking,
+                workStealing ? new WorkStealingThreadFactory(threadNamePrefix, priority) : null,
+                Objects.requireNonNull(timedHelper, "timedHelper is null"));
+    }
+
+    /**
+     * Constructs a ParallelScheduler with the given parallelism and thread factory,
+     * which uses the given Scheduler to time the delayed tasks.
+     * @param parallelism the number of threads executing the tasks
+     * @param factory the thread factory
+     * @param tracking if true, Workers track their pending tasks and cancel them when disposed
+     * @param timedHelper the scheduler timing the delayed tasks, such as a {@link HashedWheelScheduler}
+     * @since 3.0.0
+     */
+    public ParallelScheduler(int parallelism, ThreadFactory factory, boolean tracking, Scheduler timedHelper) {
+        this(parallelism, factory, tracking, null, Objects.requireNonNull(timedHelper, "timedHelper is null"));
+    }
+
     static int checkPriority(int priority) {
         if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY) {
             throw new IllegalArgumentException("priority out of range");
@@ -88,6 +156,11 @@ public final class ParallelScheduler extends Scheduler {
     }
 
     public ParallelScheduler(int parallelism, ThreadFactory factory, boolean tracking) {
+        this(parallelism, factory, tracking, null, null);
+    }
+
+    ParallelScheduler(int parallelism, ThreadFactory factory, boolean tracking,
+            ForkJoinPool.ForkJoinWorkerThreadFactory stealingFactory, Scheduler timedHelper) {
         if (parallelism <= 0) {
             throw new IllegalArgumentException("parallelism > 0 required but it was " + parallelism);
         }
@@ -95,11 +168,18 @@ public final class ParallelScheduler extends Scheduler {
         this.factory = factory;
         this.tracking = tracking;
         this.pool = new AtomicReference<>(SHUTDOWN);
+        this.stealingFactory = stealingFactory;
+        this.timedHelper = timedHelper;
+        this.stealing = stealingFactory != null ? new AtomicReference<>(WorkStealingPool.SHUTDOWN) : null;
         start();
     }
 
     @Override
     public void start() {
+        if (stealing != null) {
+            startWorkStealing();
+            return;
+        }
         ScheduledExecutorService[] next = null;
         for (;;) {
             ScheduledExecutorService[] current = pool.get();
@@ -124,8 +204,43 @@ public final class ParallelScheduler extends Scheduler {
         }
     }
 
+    void startWorkStealing() {
+        WorkStealingPool next = null;
+        for (;;) {
+            WorkStealingPool current = stealing.get();
+            if (current != WorkStealingPool.SHUTDOWN) {
+                if (next != null) {
+                    next.shutdown();
+                }
+                return;
+            }
+            if (next == null) {
+                ScheduledExecutorService timer;
+                if (timedHelper != null) {
+                    timer = REJECTING;
+                } else {
+                    ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(1, factory);
+                    stpe.setRemoveOnCancelPolicy(true);
+                    timer = stpe;
+                }
+                next = new WorkStealingPool(new ForkJoinPool(parallelism, stealingFactory, null, true), timer);
+            }
+
+            if (stealing.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
     @Override
     public void shutdown() {
+        if (stealing != null) {
+            WorkStealingPool current = stealing.getAndSet(WorkStealingPool.SHUTDOWN);
+            if (current != WorkStealingPool.SHUTDOWN) {
+                current.shutdown();
+            }
+            return;
+        }
         for (;;) {
             ScheduledExecutorService[] current = pool.get();
             if (current == SHUTDOWN) {
@@ -154,14 +269,30 @@ public final class ParallelScheduler extends Scheduler {
 
     @Override
     public Worker createWorker() {
+        if (stealing != null) {
+            return new WorkStealingWorker(stealing.get(), tracking, timedHelper);
+        }
         if (tracking) {
-            return new TrackingParallelWorker(pick());
+            return new TrackingParallelWorker(pick(), timedHelper);
         }
-        return new NonTrackingParallelWorker(pick());
+        return new NonTrackingParallelWorker(pick(), timedHelper);
     }
 
     @Override
     public Disposable scheduleDirect(Runnable run) {
+        if (stealing != null) {
+            WorkStealingPool wsp = stealing.get();
+            if (wsp == WorkStealingPool.SHUTDOWN) {
+                return Disposable.disposed();
+            }
+            WorkStealingTask task = new WorkStealingTask(RxJavaPlugins.onSchedule(run));
+            try {
+                wsp.executor.execute(task);
+                return task;
+            } catch (RejectedExecutionException ex) {
+                return Disposable.disposed();
+            }
+        }
         ScheduledExecutorService exec = pick();
         if (exec == REJECTING) {
             return Disposable.disposed();
@@ -175,10 +306,41 @@ public final class ParallelScheduler extends Scheduler {
 
     @Override
     public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
-        ScheduledExecutorService exec = pick();
+        if (stealing != null) {
+            if (stealing.get() == WorkStealingPool.SHUTDOWN) {
+                return Disposable.disposed();
+            }
+            return super.scheduleDirect(run, delay, unit);
+        }
+        final ScheduledExecutorService exec = pick();
         if (exec == REJECTING) {
             return Disposable.disposed();
         }
+        if (timedHelper != null) {
+            final Runnable decorated = RxJavaPlugins.onSchedule(run);
+
+            SequentialDisposable inner = new SequentialDisposable();
+            final SequentialDisposable outer = new SequentialDisposable(inner);
+
+            Disposable d = timedHelper.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        outer.replace(Disposable.fromFuture(exec.submit(decorated)));
+                    } catch (RejectedExecutionException ex) {
+                        // the pool has been shut down in the meantime
+                    }
+                }
+            }, delay, unit);
+
+            if (d == Disposable.disposed()) {
+                return d;
+            }
+
+            inner.replace(d);
+
+            return outer;
+        }
         try {
             return Disposable.fromFuture(exec.schedule(RxJavaPlugins.onSchedule(run), delay, unit));
         } catch (RejectedExecutionException ex) {
@@ -188,6 +350,18 @@ public final class ParallelScheduler extends Scheduler {
 
     @Override
     public Disposable schedulePeriodicallyDirect(Runnable run, long initialDelay, long period, TimeUnit unit) {
+        if (stealing != null) {
+            if (stealing.get() == WorkStealingPool.SHUTDOWN) {
+                return Disposable.disposed();
+            }
+            return super.schedulePeriodicallyDirect(run, initialDelay, period, unit);
+        }
+        if (timedHelper != null) {
+            if (pool.get() == SHUTDOWN) {
+                return Disposable.disposed();
+            }
+            return super.schedulePeriodicallyDirect(run, initialDelay, period, unit);
+        }
         ScheduledExecutorService exec = pick();
         if (exec == REJECTING) {
             return Disposable.disposed();
@@ -203,10 +377,13 @@ public final class ParallelScheduler extends Scheduler {
 
         final ScheduledExecutorService exec;
 
+        final Scheduler timedHelper;
+
         volatile boolean shutdown;
 
-        NonTrackingParallelWorker(ScheduledExecutorService exec) {
+        NonTrackingParallelWorker(ScheduledExecutorService exec, Scheduler timedHelper) {
             this.exec = exec;
+            this.timedHelper = timedHelper;
         }
 
         @Override
@@ -236,8 +413,29 @@ public final class ParallelScheduler extends Scheduler {
         @Override
         public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
             if (!shutdown) {
+                final NonTrackingTask ntt = new NonTrackingTask(RxJavaPlugins.onSchedule(run));
+                if (timedHelper != null) {
+                    if (exec != REJECTING) {
+                        Disposable d = timedHelper.scheduleDirect(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (!ntt.disposed) {
+                                    try {
+                                        exec.submit(ntt);
+                                    } catch (RejectedExecutionException ex) {
+                                        // the pool has been shut down in the meantime
+                                    }
+                                }
+                            }
+                        }, delay, unit);
+                        if (d != Disposable.disposed()) {
+                            ntt.setTimed(d);
+                            return ntt;
+                        }
+                    }
+                    return Disposable.disposed();
+                }
                 try {
-                    NonTrackingTask ntt = new NonTrackingTask(RxJavaPlugins.onSchedule(run));
                     exec.schedule(ntt, delay, unit);
                     return ntt;
                 } catch (RejectedExecutionException ex) {
@@ -255,10 +453,20 @@ public final class ParallelScheduler extends Scheduler {
 
             volatile boolean disposed;
 
+            /** The pending task of the timed helper, if any. */
+            volatile Disposable timed;
+
             NonTrackingTask(Runnable actual) {
                 this.actual = actual;
             }
 
+            void setTimed(Disposable d) {
+                timed = d;
+                if (disposed) {
+                    d.dispose();
+                }
+            }
+
             @Override
             public Object call() throws Exception {
                 if (!disposed && !shutdown) {
@@ -275,6 +483,10 @@ public final class ParallelScheduler extends Scheduler {
             @Override
             public void dispose() {
                 disposed = true;
+                Disposable d = timed;
+                if (d != null) {
+                    d.dispose();
+                }
             }
 
             @Override
@@ -288,10 +500,13 @@ public final class ParallelScheduler extends Scheduler {
 
         final ScheduledExecutorService exec;
 
+        final Scheduler timedHelper;
+
         final CompositeDisposable tasks;
 
-        TrackingParallelWorker(ScheduledExecutorService exec) {
+        TrackingParallelWorker(ScheduledExecutorService exec, Scheduler timedHelper) {
             this.exec = exec;
+            this.timedHelper = timedHelper;
             this.tasks = new CompositeDisposable();
         }
 
@@ -325,7 +540,29 @@ public final class ParallelScheduler extends Scheduler {
         @Override
         public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
             if (!isDisposed()) {
-                TrackedAction ta = new TrackedAction(RxJavaPlugins.onSchedule(run), tasks);
+                final TrackedAction ta = new TrackedAction(RxJavaPlugins.onSchedule(run), tasks);
+                if (timedHelper != null) {
+                    if (exec != REJECTING && tasks.add(ta)) {
+                        Disposable d = timedHelper.scheduleDirect(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (!ta.isDisposed()) {
+                                    try {
+                                        ta.setFuture(exec.submit(ta));
+                                    } catch (RejectedExecutionException ex) {
+                                        ta.dispose();
+                                    }
+                                }
+                            }
+                        }, delay, unit);
+                        if (d != Disposable.disposed()) {
+                            ta.setTimedFuture(new DisposableFuture(d));
+                            return ta;
+                        }
+                        ta.dispose();
+                    }
+                    return Disposable.disposed();
+                }
                 if (tasks.add(ta)) {
                     try {
                         Future<?> f = exec.schedule(ta, delay, unit);
@@ -411,6 +648,19 @@ public final class ParallelScheduler extends Scheduler {
                 return get() == null;
             }
 
+            /**
+             * Sets the future of the timed helper's task unless the future of the
+             * actual execution has been set already.
+             * @param d the future representing the timed helper's task
+             */
+            void setTimedFuture(Future<?> d) {
+                if (!future.compareAndSet(null, d)) {
+                    if (future.get() == DISPOSED) {
+                        d.cancel(true);
+                    }
+                }
+            }
+
             void setFuture(Future<?> d) {
                 Future<?> f = future.get();
                 if (f != FINISHED) {
@@ -427,4 +677,316 @@ public final class ParallelScheduler extends Scheduler {
             }
         }
     }
+
+    /**
+     * The work-stealing pool executing the tasks and the timer handing over delayed tasks to it.
+     */
+    static final class WorkStealingPool {
+
+        static final WorkStealingPool SHUTDOWN;
+
+        static {
+            ForkJoinPool fjp = new ForkJoinPool(1);
+            fjp.shutdownNow();
+            SHUTDOWN = new WorkStealingPool(fjp, REJECTING);
+        }
+
+        final ForkJoinPool executor;
+
+        final ScheduledExecutorService timer;
+
+        WorkStealingPool(ForkJoinPool executor, ScheduledExecutorService timer) {
+            this.executor = executor;
+            this.timer = timer;
+        }
+
+        void shutdown() {
+            if (timer != REJECTING) {
+                timer.shutdownNow();
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    static final class WorkStealingThreadFactory extends AtomicLong
+    implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private static final long serialVersionUID = -4545312637268826066L;
+
+        final String prefix;
+
+        final int priority;
+
+        WorkStealingThreadFactory(String prefix, int priority) {
+            this.prefix = prefix;
+            this.priority = priority;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread t = new WorkStealingThread(pool);
+            t.setName(prefix + "-" + incrementAndGet());
+            t.setPriority(priority);
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    static final class WorkStealingThread extends ForkJoinWorkerThread {
+        WorkStealingThread(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    static final class WorkStealingTask implements Runnable, Disposable {
+
+        final Runnable actual;
+
+        volatile boolean disposed;
+
+        WorkStealingTask(Runnable actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void run() {
+            if (!disposed) {
+                try {
+                    actual.run();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * Queues up the tasks of a Worker and runs them one after the other, in FIFO order,
+     * on whichever thread of the work-stealing pool picks up the drain task.
+     */
+    static final class WorkStealingWorker extends Worker implements Runnable {
+
+        final WorkStealingPool pool;
+
+        final MpscLinkedQueue<WorkStealingTask> queue;
+
+        final AtomicInteger wip;
+
+        final CompositeDisposable tasks;
+
+        final Scheduler timedHelper;
+
+        volatile boolean disposed;
+
+        WorkStealingWorker(WorkStealingPool pool, boolean tracking, Scheduler timedHelper) {
+            this.pool = pool;
+            this.timedHelper = timedHelper;
+            this.queue = new MpscLinkedQueue<>();
+            this.wip = new AtomicInteger();
+            this.tasks = tracking ? new CompositeDisposable() : null;
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                if (tasks != null) {
+                    tasks.dispose();
+                }
+                if (wip.getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run) {
+            if (!disposed) {
+                return enqueue(new WorkStealingTask(RxJavaPlugins.onSchedule(run)));
+            }
+            return Disposable.disposed();
+        }
+
+        Disposable enqueue(WorkStealingTask task) {
+            queue.offer(task);
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    pool.executor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    disposed = true;
+                    queue.clear();
+                    return Disposable.disposed();
+                }
+            }
+            return task;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            if (delay <= 0L) {
+                return schedule(run);
+            }
+            if (!disposed) {
+                DelayedTask dt = new DelayedTask(new WorkStealingTask(RxJavaPlugins.onSchedule(run)));
+                if (tasks == null || tasks.add(dt)) {
+                    if (timedHelper != null) {
+                        if (pool != WorkStealingPool.SHUTDOWN) {
+                            Disposable d = timedHelper.scheduleDirect(dt, delay, unit);
+                            if (d != Disposable.disposed()) {
+                                dt.setFuture(new DisposableFuture(d));
+                                return dt;
+                            }
+                        }
+                        dt.dispose();
+                    } else {
+                        try {
+                            dt.setFuture(pool.timer.schedule(dt, delay, unit));
+                            return dt;
+                        } catch (RejectedExecutionException ex) {
+                            dt.dispose();
+                        }
+                    }
+                }
+            }
+            return Disposable.disposed();
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            MpscLinkedQueue<WorkStealingTask> q = queue;
+
+            for (;;) {
+                if (disposed) {
+                    q.clear();
+                    return;
+                }
+
+                for (;;) {
+                    WorkStealingTask task = q.poll();
+                    if (task == null) {
+                        break;
+                    }
+
+                    task.run();
+
+                    if (disposed) {
+                        q.clear();
+                        return;
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Waits on the timer thread and then queues up the task on the Worker.
+         */
+        final class DelayedTask extends AtomicReference<Future<?>> implements Runnable, Disposable {
+
+            private static final long serialVersionUID = 3166484637284316154L;
+
+            final WorkStealingTask task;
+
+            DelayedTask(WorkStealingTask task) {
+                this.task = task;
+            }
+
+            @Override
+            public void run() {
+                lazySet(TrackingParallelWorker.TrackedAction.FINISHED);
+                if (tasks != null) {
+                    tasks.delete(this);
+                }
+                if (!task.disposed && !disposed) {
+                    enqueue(task);
+                }
+            }
+
+            void setFuture(Future<?> f) {
+                if (!compareAndSet(null, f)) {
+                    if (get() == TrackingParallelWorker.TrackedAction.DISPOSED) {
+                        f.cancel(false);
+                    }
+                }
+            }
+
+            @Override
+            public void dispose() {
+                task.dispose();
+                Future<?> f = getAndSet(TrackingParallelWorker.TrackedAction.DISPOSED);
+                if (f != TrackingParallelWorker.TrackedAction.DISPOSED) {
+                    if (tasks != null) {
+                        tasks.delete(this);
+                    }
+                    if (f != null && f != TrackingParallelWorker.TrackedAction.FINISHED) {
+                        f.cancel(false);
+                    }
+                }
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return task.disposed;
+            }
+        }
+    }
+
+    /**
+     * Exposes the Disposable task of a timed helper Scheduler as a Future.
+     */
+    static final class DisposableFuture implements Future<Object> {
+
+        final Disposable task;
+
+        DisposableFuture(Disposable task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            task.dispose();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isDisposed();
+        }
+
+        @Override
+        public boolean isDone() {
+            return task.isDisposed();
+        }
+
+        @Override
+        public Object get() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -17,6 +17,7 @@
 /**
  * Special scheduler implementations, such as
  * {@link hu.akarnokd.rxjava3.schedulers.BlockingScheduler BlockingScheduler},
+ * {@link hu.akarnokd.rxjava3.schedulers.HashedWheelScheduler HashedWheelScheduler},
  * {@link hu.akarnokd.rxjava3.schedulers.ParallelScheduler ParallelScheduler} and
  * {@link hu.akarnokd.rxjava3.schedulers.SharedScheduler SharedScheduler}.
  */
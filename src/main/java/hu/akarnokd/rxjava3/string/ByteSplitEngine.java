@@ -0,0 +1,266 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.string;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import io.reactivex.rxjava3.functions.Supplier;
+
+/**
+ * Incrementally finds delimiter-terminated records in a sequence of byte chunks.
+ * <p>
+ * The delimiter is matched with a KMP automaton so it may straddle chunk
+ * boundaries; single-byte delimiters use a plain comparison loop. A record
+ * contained in a single chunk is handed to {@link #fromChunk} as a range of
+ * that chunk, a record spanning chunks is accumulated in a carry buffer
+ * and handed to {@link #fromCarry}.
+ * <p>
+ * Not thread-safe.
+ * @param <R> the record type
+ */
+abstract class ByteSplitEngine<R> {
+
+    final byte[] delimiter;
+
+    /** The KMP failure function of the delimiter. */
+    final int[] failure;
+
+    /** The number of delimiter bytes matched at the end of the data seen so far. */
+    int state;
+
+    byte[] carry;
+
+    int carryLength;
+
+    ByteSplitEngine(byte[] delimiter) {
+        this.delimiter = delimiter;
+        this.failure = failure(delimiter);
+        this.carry = new byte[16];
+    }
+
+    static int[] failure(byte[] d) {
+        int[] f = new int[d.length];
+        int k = 0;
+        for (int i = 1; i < d.length; i++) {
+            while (k > 0 && d[i] != d[k]) {
+                k = f[k - 1];
+            }
+            if (d[i] == d[k]) {
+                k++;
+            }
+            f[i] = k;
+        }
+        return f;
+    }
+
+    /**
+     * Creates a record from the given range of the chunk.
+     * @param chunk the chunk, its position and limit must not be changed
+     * @param start the absolute start index of the record
+     * @param end the absolute end index (exclusive) of the record
+     * @return the record
+     */
+    abstract R fromChunk(ByteBuffer chunk, int start, int end);
+
+    /**
+     * Creates a record from the first bytes of the carry buffer which is reused afterwards.
+     * @param carry the carry buffer
+     * @param length the number of bytes in the record
+     * @return the record
+     */
+    abstract R fromCarry(byte[] carry, int length);
+
+    /**
+     * Returns the next record completed by the remaining bytes of the chunk
+     * and moves the position of the chunk after the delimiter, or
+     * returns null if the chunk was consumed without completing a record.
+     * @param chunk the chunk to scan
+     * @return the record or null
+     */
+    final R next(ByteBuffer chunk) {
+        int start = chunk.position();
+        int limit = chunk.limit();
+        byte[] d = delimiter;
+        int m = d.length;
+        int end = -1;
+
+        if (m == 1) {
+            byte b = d[0];
+            for (int i = start; i < limit; i++) {
+                if (chunk.get(i) == b) {
+                    end = i + 1;
+                    break;
+                }
+            }
+        } else {
+            int[] f = failure;
+            int s = state;
+            for (int i = start; i < limit; i++) {
+                byte b = chunk.get(i);
+                while (s > 0 && b != d[s]) {
+                    s = f[s - 1];
+                }
+                if (b == d[s]) {
+                    if (++s == m) {
+                        s = 0;
+                        end = i + 1;
+                        break;
+                    }
+                }
+            }
+            state = s;
+        }
+
+        if (end < 0) {
+            append(chunk, start, limit);
+            chunk.position(limit);
+            return null;
+        }
+
+        chunk.position(end);
+        int recordEnd = end - m;
+        if (carryLength == 0) {
+            return fromChunk(chunk, start, recordEnd);
+        }
+        if (recordEnd >= start) {
+            append(chunk, start, recordEnd);
+        } else {
+            // part of the delimiter was carried over from the previous chunk
+            carryLength -= start - recordEnd;
+        }
+        int n = carryLength;
+        carryLength = 0;
+        return fromCarry(carry, n);
+    }
+
+    /**
+     * Returns the last, not delimiter-terminated record, or null if there is none.
+     * @return the last record or null
+     */
+    final R finish() {
+        int n = carryLength;
+        if (n == 0) {
+            return null;
+        }
+        carryLength = 0;
+        state = 0;
+        return fromCarry(carry, n);
+    }
+
+    final boolean isEmpty() {
+        return carryLength == 0;
+    }
+
+    final void append(ByteBuffer chunk, int start, int end) {
+        int n = end - start;
+        if (n == 0) {
+            return;
+        }
+        byte[] c = carry;
+        int len = carryLength;
+        if (len + n > c.length) {
+            c = Arrays.copyOf(c, Math.max(len + n, c.length + (c.length >> 1)));
+            carry = c;
+        }
+        if (chunk.hasArray()) {
+            System.arraycopy(chunk.array(), chunk.arrayOffset() + start, c, len, n);
+        } else {
+            for (int i = 0; i < n; i++) {
+                c[len + i] = chunk.get(start + i);
+            }
+        }
+        carryLength = len + n;
+    }
+
+    /**
+     * Hands out the records as ByteBuffers: slices of the chunk
+     * if possible, copies of the carry buffer otherwise.
+     */
+    static final class Slices extends ByteSplitEngine<ByteBuffer> {
+
+        Slices(byte[] delimiter) {
+            super(delimiter);
+        }
+
+        @Override
+        ByteBuffer fromChunk(ByteBuffer chunk, int start, int end) {
+            ByteBuffer b = chunk.duplicate();
+            b.limit(end);
+            b.position(start);
+            return b.slice();
+        }
+
+        @Override
+        ByteBuffer fromCarry(byte[] carry, int length) {
+            return ByteBuffer.wrap(Arrays.copyOf(carry, length));
+        }
+    }
+
+    /**
+     * Decodes the records as UTF-8 strings.
+     */
+    static final class Utf8Strings extends ByteSplitEngine<String> {
+
+        Utf8Strings(byte[] delimiter) {
+            super(delimiter);
+        }
+
+        @Override
+        String fromChunk(ByteBuffer chunk, int start, int end) {
+            if (chunk.hasArray()) {
+                return new String(chunk.array(), chunk.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+            }
+            ByteBuffer b = chunk.duplicate();
+            b.limit(end);
+            b.position(start);
+            return StandardCharsets.UTF_8.decode(b).toString();
+        }
+
+        @Override
+        String fromCarry(byte[] carry, int length) {
+            return new String(carry, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    static final class SlicesSupplier implements Supplier<ByteSplitEngine<ByteBuffer>> {
+        final byte[] delimiter;
+
+        SlicesSupplier(byte[] delimiter) {
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        public ByteSplitEngine<ByteBuffer> get() {
+            return new Slices(delimiter);
+        }
+    }
+
+    static final class Utf8StringsSupplier implements Supplier<ByteSplitEngine<String>> {
+        final byte[] delimiter;
+
+        Utf8StringsSupplier(byte[] delimiter) {
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        public ByteSplitEngine<String> get() {
+            return new Utf8Strings(delimiter);
+        }
+    }
+}
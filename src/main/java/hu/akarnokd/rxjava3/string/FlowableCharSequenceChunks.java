@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.string;
+
+import java.nio.CharBuffer;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.internal.fuseable.QueueFuseable;
+import io.reactivex.rxjava3.internal.subscriptions.*;
+import io.reactivex.rxjava3.internal.util.BackpressureHelper;
+
+/**
+ * Streams the characters of a string in chunks of a given size.
+ * @param <T> the chunk type
+ * @since 3.0.0
+ */
+abstract class FlowableCharSequenceChunks<T> extends Flowable<T> {
+
+    final CharSequence string;
+
+    final int chunkSize;
+
+    final boolean codePoints;
+
+    FlowableCharSequenceChunks(CharSequence string, int chunkSize, boolean codePoints) {
+        this.string = string;
+        this.chunkSize = chunkSize;
+        this.codePoints = codePoints;
+    }
+
+    /**
+     * Creates a chunk from the given range of the string.
+     * @param string the string
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @return the chunk
+     */
+    abstract T chunk(CharSequence string, int start, int end);
+
+    @Override
+    public void subscribeActual(Subscriber<? super T> s) {
+        s.onSubscribe(new CharSequenceChunksSubscription<>(s, this));
+    }
+
+    /**
+     * Emits copies of the characters as char arrays.
+     */
+    static final class CharArrays extends FlowableCharSequenceChunks<char[]> {
+
+        CharArrays(CharSequence string, int chunkSize, boolean codePoints) {
+            super(string, chunkSize, codePoints);
+        }
+
+        @Override
+        char[] chunk(CharSequence string, int start, int end) {
+            char[] a = new char[end - start];
+            if (string instanceof String) {
+                ((String)string).getChars(start, end, a, 0);
+            } else if (string instanceof StringBuilder) {
+                ((StringBuilder)string).getChars(start, end, a, 0);
+            } else {
+                for (int i = start; i < end; i++) {
+                    a[i - start] = string.charAt(i);
+                }
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Emits read-only CharBuffer views of the string without copying.
+     */
+    static final class CharBuffers extends FlowableCharSequenceChunks<CharBuffer> {
+
+        CharBuffers(CharSequence string, int chunkSize, boolean codePoints) {
+            super(string, chunkSize, codePoints);
+        }
+
+        @Override
+        CharBuffer chunk(CharSequence string, int start, int end) {
+            return CharBuffer.wrap(string, start, end);
+        }
+    }
+
+    static final class CharSequenceChunksSubscription<T>
+    extends BasicQueueSubscription<T> {
+
+        private static final long serialVersionUID = 4591475651464472460L;
+
+        final Subscriber<? super T> downstream;
+
+        final FlowableCharSequenceChunks<T> parent;
+
+        final CharSequence string;
+
+        final int chunkSize;
+
+        final boolean codePoints;
+
+        final int end;
+
+        int index;
+
+        volatile boolean cancelled;
+
+        CharSequenceChunksSubscription(Subscriber<? super T> downstream, FlowableCharSequenceChunks<T> parent) {
+            this.downstream = downstream;
+            this.parent = parent;
+            this.string = parent.string;
+            this.chunkSize = parent.chunkSize;
+            this.codePoints = parent.codePoints;
+            this.end = string.length();
+        }
+
+        /**
+         * Returns the end index of the chunk starting at the given index.
+         * @param i the start index of the chunk
+         * @return the end index of the chunk, exclusive
+         */
+        int chunkEnd(int i) {
+            int f = end;
+            int j = f - i > chunkSize ? i + chunkSize : f;
+            if (codePoints && j != f
+                    && Character.isHighSurrogate(string.charAt(j - 1))
+                    && Character.isLowSurrogate(string.charAt(j))) {
+                // don't split the surrogate pair; if it would leave an empty chunk, include it whole
+                j = j - 1 != i ? j - 1 : j + 1;
+            }
+            return j;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                if (BackpressureHelper.add(this, n) == 0) {
+                    if (n == Long.MAX_VALUE) {
+                        fastPath();
+                    } else {
+                        slowPath(n);
+                    }
+                }
+            }
+        }
+
+        void fastPath() {
+            int f = end;
+            CharSequence s = string;
+            FlowableCharSequenceChunks<T> p = parent;
+            Subscriber<? super T> a = downstream;
+
+            int i = index;
+            while (i != f) {
+                if (cancelled) {
+                    return;
+                }
+
+                int j = chunkEnd(i);
+                a.onNext(p.chunk(s, i, j));
+                i = j;
+            }
+
+            if (!cancelled) {
+                a.onComplete();
+            }
+        }
+
+        void slowPath(long r) {
+            long e = 0L;
+            int i = index;
+            int f = end;
+            CharSequence s = string;
+            FlowableCharSequenceChunks<T> p = parent;
+            Subscriber<? super T> a = downstream;
+
+            for (;;) {
+
+                while (e != r && i != f) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    int j = chunkEnd(i);
+                    a.onNext(p.chunk(s, i, j));
+
+                    i = j;
+                    e++;
+                }
+
+                if (i == f) {
+                    if (!cancelled) {
+                        a.onComplete();
+                    }
+                    return;
+                }
+
+                r = get();
+                if (e == r) {
+                    index = i;
+                    r = addAndGet(-e);
+                    if (r == 0L) {
+                        break;
+                    }
+                    e = 0L;
+                }
+            }
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return requestedMode & QueueFuseable.SYNC;
+        }
+
+        @Override
+        public T poll() {
+            int i = index;
+            if (i != end) {
+                int j = chunkEnd(i);
+                index = j;
+                return parent.chunk(string, i, j);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return index == end;
+        }
+
+        @Override
+        public void clear() {
+            index = end;
+        }
+    }
+}
@@ -22,7 +22,7 @@ import java.util.regex.Pattern;
 import org.reactivestreams.*;
 
 import io.reactivex.rxjava3.core.*;
-import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.exceptions.*;
 import io.reactivex.rxjava3.internal.fuseable.*;
 import io.reactivex.rxjava3.internal.queue.SpscArrayQueue;
 import io.reactivex.rxjava3.internal.subscriptions.SubscriptionHelper;
@@ -83,7 +83,7 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
         volatile boolean cancelled;
 
-        String leftOver;
+        final SplitEngine engine;
 
         String[] current;
 
@@ -99,6 +99,7 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
         SplitSubscriber(Subscriber<? super String> downstream, Pattern pattern, int bufferSize) {
             this.downstream = downstream;
             this.pattern = pattern;
+            this.engine = new SplitEngine(pattern);
             this.bufferSize = bufferSize;
             this.limit = bufferSize - (bufferSize >> 2);
             this.queue = new SpscArrayQueue<>(bufferSize);
@@ -144,14 +145,9 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
         @Override
         public boolean tryOnNext(String t) {
-            String lo = leftOver;
             String[] a;
             try {
-                if (lo == null || lo.isEmpty()) {
-                    a = pattern.split(t, -1);
-                } else {
-                    a = pattern.split(lo + t, -1);
-                }
+                a = engine.next(t);
             } catch (Throwable ex) {
                 Exceptions.throwIfFatal(ex);
                 this.upstream.cancel();
@@ -159,15 +155,9 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
                 return true;
             }
 
-            if (a.length == 0) {
-                leftOver = null;
-                return false;
-            } else
-            if (a.length == 1) {
-                leftOver = a[0];
+            if (a == null) {
                 return false;
             }
-            leftOver = a[a.length - 1];
             queue.offer(a);
             drain();
             return true;
@@ -179,12 +169,8 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
                 RxJavaPlugins.onError(t);
                 return;
             }
-            String lo = leftOver;
-            if (lo != null && !lo.isEmpty()) {
-                leftOver = null;
-                queue.offer(new String[] { lo, null });
-            }
-            error = t;
+            Throwable ex = offerRest();
+            error = ex != null ? new CompositeException(t, ex) : t;
             done = true;
             drain();
         }
@@ -192,16 +178,26 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
         @Override
         public void onComplete() {
             if (!done) {
+                error = offerRest();
                 done = true;
-                String lo = leftOver;
-                if (lo != null && !lo.isEmpty()) {
-                    leftOver = null;
-                    queue.offer(new String[] { lo, null });
-                }
                 drain();
             }
         }
 
+        Throwable offerRest() {
+            String[] a;
+            try {
+                a = engine.finish();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                return ex;
+            }
+            if (a != null) {
+                queue.offer(a);
+            }
+            return null;
+        }
+
         void drain() {
             if (getAndIncrement() != 0) {
                 return;
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.string;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.Supplier;
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+import io.reactivex.rxjava3.internal.queue.SpscArrayQueue;
+import io.reactivex.rxjava3.internal.subscriptions.*;
+import io.reactivex.rxjava3.internal.util.BackpressureHelper;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+/**
+ * Consider a sequence of ByteBuffers as one and split it into records
+ * terminated by a delimiter byte sequence; the records are located
+ * lazily, as the downstream requests them.
+ *
+ * @param <R> the record type
+ * @since 3.0.0
+ */
+final class FlowableSplitBytes<R> extends Flowable<R> implements FlowableTransformer<ByteBuffer, R> {
+
+    final Publisher<ByteBuffer> source;
+
+    final Supplier<? extends ByteSplitEngine<R>> engineSupplier;
+
+    final int bufferSize;
+
+    FlowableSplitBytes(Publisher<ByteBuffer> source, Supplier<? extends ByteSplitEngine<R>> engineSupplier, int bufferSize) {
+        this.source = source;
+        this.engineSupplier = engineSupplier;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public Publisher<R> apply(Flowable<ByteBuffer> upstream) {
+        return new FlowableSplitBytes<>(upstream, engineSupplier, bufferSize);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super R> s) {
+        ByteSplitEngine<R> engine;
+        try {
+            engine = engineSupplier.get();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+        source.subscribe(new SplitBytesSubscriber<>(s, engine, bufferSize));
+    }
+
+    static final class SplitBytesSubscriber<R>
+    extends AtomicInteger
+    implements FlowableSubscriber<ByteBuffer>, Subscription {
+
+        private static final long serialVersionUID = 2431604455737393373L;
+
+        final Subscriber<? super R> downstream;
+
+        final ByteSplitEngine<R> engine;
+
+        final SimplePlainQueue<ByteBuffer> queue;
+
+        final AtomicLong requested;
+
+        final int bufferSize;
+
+        final int limit;
+
+        Subscription upstream;
+
+        volatile boolean cancelled;
+
+        ByteBuffer current;
+
+        int consumed;
+
+        volatile boolean done;
+        Throwable error;
+
+        SplitBytesSubscriber(Subscriber<? super R> downstream, ByteSplitEngine<R> engine, int bufferSize) {
+            this.downstream = downstream;
+            this.engine = engine;
+            this.bufferSize = bufferSize;
+            this.limit = bufferSize - (bufferSize >> 2);
+            this.queue = new SpscArrayQueue<>(bufferSize);
+            this.requested = new AtomicLong();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(this.upstream, s)) {
+                this.upstream = s;
+
+                downstream.onSubscribe(this);
+
+                s.request(bufferSize);
+            }
+        }
+
+        @Override
+        public void onNext(ByteBuffer t) {
+            if (!queue.offer(t)) {
+                upstream.cancel();
+                onError(new IllegalStateException("Queue full?!"));
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                RxJavaPlugins.onError(t);
+                return;
+            }
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+
+            if (getAndIncrement() == 0) {
+                current = null;
+                queue.clear();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super R> a = downstream;
+            SimplePlainQueue<ByteBuffer> q = queue;
+            ByteSplitEngine<R> en = engine;
+            ByteBuffer c = current;
+
+            for (;;) {
+                long r = requested.get();
+                long e = 0L;
+
+                while (e != r) {
+                    if (cancelled) {
+                        current = null;
+                        q.clear();
+                        return;
+                    }
+
+                    boolean d = done;
+
+                    if (c == null) {
+                        c = q.poll();
+                        if (c != null) {
+                            // scan a view so the position of the upstream's buffer is not changed
+                            c = c.duplicate();
+                            current = c;
+                            if (++consumed == limit) {
+                                consumed = 0;
+                                upstream.request(limit);
+                            }
+                        }
+                    }
+
+                    R v;
+                    if (c == null) {
+                        if (!d) {
+                            break;
+                        }
+                        v = en.finish();
+                        if (v == null) {
+                            terminate(a);
+                            return;
+                        }
+                    } else {
+                        v = en.next(c);
+                        if (v == null) {
+                            c = null;
+                            current = null;
+                            continue;
+                        }
+                    }
+
+                    a.onNext(v);
+
+                    e++;
+                }
+
+                if (e == r) {
+                    if (cancelled) {
+                        current = null;
+                        q.clear();
+                        return;
+                    }
+
+                    if (c != null && !c.hasRemaining()) {
+                        c = null;
+                        current = null;
+                    }
+
+                    if (done && c == null && q.isEmpty() && en.isEmpty()) {
+                        terminate(a);
+                        return;
+                    }
+                }
+
+                if (e != 0L) {
+                    BackpressureHelper.produced(requested, e);
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void terminate(Subscriber<? super R> a) {
+            current = null;
+            Throwable ex = error;
+            if (ex != null) {
+                a.onError(ex);
+            } else {
+                a.onComplete();
+            }
+        }
+    }
+}
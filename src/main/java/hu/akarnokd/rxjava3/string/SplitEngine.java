@@ -0,0 +1,274 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.string;
+
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * Incrementally splits a sequence of chunks along a pattern, with the same
+ * results as {@code Pattern.split(all, -1)} over the concatenation of the chunks.
+ * <p>
+ * The chunks are appended to a buffer and the search resumes from the
+ * position where a delimiter may still start, thus a token spanning many
+ * chunks is scanned only once. Literal delimiters (single characters, plain
+ * strings or {@link Pattern#LITERAL} patterns) are searched for without
+ * the regex engine. A regex match that hit the end of the buffer is deferred
+ * until more input arrives, as it may turn out to be longer or different.
+ * <p>
+ * Not thread-safe.
+ */
+final class SplitEngine {
+
+    /** Release the buffer after a token larger than this many characters was consumed. */
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    static final String REGEX_META = ".$|()[{^?*+\\";
+
+    final Matcher matcher;
+
+    final String literal;
+
+    final List<String> tokens;
+
+    StringBuilder buffer;
+
+    /** The start of the current, not yet delimited token. */
+    int tokenStart;
+
+    /** The position from where a delimiter may still start. */
+    int scanFrom;
+
+    /**
+     * Set if a zero-width match at {@link #tokenStart} doesn't delimit a token: at the
+     * start of the input, like with {@code Pattern.split}, or right after a zero-width
+     * delimiter, which {@code Matcher.find} would have stepped over.
+     */
+    boolean skipEmpty = true;
+
+    SplitEngine(Pattern pattern) {
+        this.buffer = new StringBuilder();
+        this.tokens = new ArrayList<>();
+        this.literal = literalOf(pattern);
+        if (literal == null) {
+            matcher = pattern.matcher(buffer);
+            matcher.useTransparentBounds(true);
+        } else {
+            matcher = null;
+        }
+    }
+
+    /**
+     * Returns the literal string the pattern matches or null if
+     * the pattern requires the regex engine.
+     * @param pattern the pattern to check
+     * @return the literal or null
+     */
+    static String literalOf(Pattern pattern) {
+        String s = pattern.pattern();
+        if (s.isEmpty()) {
+            return null;
+        }
+        int flags = pattern.flags();
+        if (flags == Pattern.LITERAL) {
+            return s;
+        }
+        if (flags != 0) {
+            return null;
+        }
+        if (s.length() == 2 && s.charAt(0) == '\\') {
+            // an escaped ASCII character that is not a letter or digit, as in String.split
+            char c = s.charAt(1);
+            if (c < 128 && !Character.isLetterOrDigit(c)) {
+                return String.valueOf(c);
+            }
+            return null;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (REGEX_META.indexOf(s.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Appends the chunk and returns the tokens it completed.
+     * @param chunk the next chunk
+     * @return the completed tokens followed by a null slot, or null if
+     * no token was completed
+     */
+    String[] next(CharSequence chunk) {
+        buffer.append(chunk);
+        if (literal != null) {
+            scanLiteral();
+        } else {
+            scanPattern(false);
+        }
+        return collect(null);
+    }
+
+    /**
+     * Splits the rest of the buffer assuming no more chunks will arrive.
+     * @return the remaining tokens, including the non-empty last token,
+     * followed by a null slot, or null if there are no tokens left
+     */
+    String[] finish() {
+        if (literal == null) {
+            scanPattern(true);
+        }
+        String rest = null;
+        if (tokenStart != buffer.length()) {
+            rest = buffer.substring(tokenStart);
+            tokenStart = buffer.length();
+        }
+        return collect(rest);
+    }
+
+    void scanLiteral() {
+        StringBuilder b = buffer;
+        String lit = literal;
+        int n = lit.length();
+        int len = b.length();
+        int start = tokenStart;
+        int from = scanFrom;
+
+        if (n == 1) {
+            char c = lit.charAt(0);
+            for (int i = from; i < len; i++) {
+                if (b.charAt(i) == c) {
+                    tokens.add(b.substring(start, i));
+                    start = i + 1;
+                }
+            }
+        } else {
+            for (;;) {
+                int idx = b.indexOf(lit, from);
+                if (idx < 0) {
+                    break;
+                }
+                tokens.add(b.substring(start, idx));
+                start = idx + n;
+                from = start;
+            }
+        }
+
+        tokenStart = start;
+        scanFrom = Math.max(start, len - n + 1);
+    }
+
+    void scanPattern(boolean last) {
+        StringBuilder b = buffer;
+        Matcher m = matcher;
+        int len = b.length();
+        int start = tokenStart;
+        int from = scanFrom;
+
+        m.reset(b);
+        // so that ^ matches at the start of the token, like with Pattern.split
+        m.useAnchoringBounds(from == start);
+        m.region(from, len);
+
+        int searchFrom = from;
+        int pendingLimit = -1;
+
+        while (m.find()) {
+            int ms = m.start();
+            int me = m.end();
+            if (!last && m.hitEnd()) {
+                // more input may extend or change this match
+                pendingLimit = ms;
+                break;
+            }
+            if (ms == me && ms == start && skipEmpty) {
+                continue;
+            }
+            tokens.add(b.substring(start, ms));
+            skipEmpty = ms == me;
+            start = me;
+            searchFrom = me;
+        }
+
+        tokenStart = start;
+
+        if (last) {
+            scanFrom = start;
+            return;
+        }
+        if (pendingLimit < 0) {
+            if (!m.hitEnd()) {
+                scanFrom = len;
+                return;
+            }
+            pendingLimit = len;
+        }
+
+        // find the first position where a match may still start once more input arrives
+        m.useAnchoringBounds(false);
+        int p = searchFrom;
+        while (p < pendingLimit) {
+            m.region(p, len);
+            if (m.lookingAt() || m.hitEnd()) {
+                break;
+            }
+            p++;
+        }
+        scanFrom = Math.max(p, start);
+    }
+
+    String[] collect(String rest) {
+        List<String> t = tokens;
+        int n = t.size();
+        if (n == 0 && rest == null) {
+            compact();
+            return null;
+        }
+        String[] a = new String[n + (rest != null ? 2 : 1)];
+        for (int i = 0; i < n; i++) {
+            a[i] = t.get(i);
+        }
+        if (rest != null) {
+            a[n] = rest;
+        }
+        t.clear();
+        compact();
+        return a;
+    }
+
+    /**
+     * Drops the consumed prefix of the buffer once it is at least as long
+     * as the unconsumed part so the copying stays linear overall.
+     */
+    void compact() {
+        StringBuilder b = buffer;
+        int s = tokenStart;
+        int len = b.length();
+        if (s == len) {
+            if (b.capacity() > MAX_RETAINED_CAPACITY) {
+                buffer = new StringBuilder();
+            } else {
+                b.setLength(0);
+            }
+            tokenStart = 0;
+            scanFrom = 0;
+        } else if (s != 0 && s >= len - s) {
+            b.delete(0, s);
+            tokenStart = 0;
+            scanFrom -= s;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package hu.akarnokd.rxjava3.string;
 
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.regex.Pattern;
 
@@ -42,6 +44,83 @@ public final class StringFlowable {
         return RxJavaPlugins.onAssembly(new FlowableCharSequence(string));
     }
 
+    /**
+     * Signals the characters of the given string CharSequence in char arrays of
+     * the given size (the last one may be shorter).
+     * <p>
+     * Each array is a new copy of the respective characters. Supports synchronous
+     * queue-fusion so fusion-capable consumers can pull the chunks directly.
+     * @param string the source of characters
+     * @param chunkSize the maximum number of characters per array, positive
+     * @return the new Flowable instance
+     * @since 3.0.0
+     * @see #codePointChunks(CharSequence, int)
+     */
+    public static Flowable<char[]> characterChunks(CharSequence string, int chunkSize) {
+        Objects.requireNonNull(string, "string is null");
+        ObjectHelper.verifyPositive(chunkSize, "chunkSize");
+        return RxJavaPlugins.onAssembly(new FlowableCharSequenceChunks.CharArrays(string, chunkSize, false));
+    }
+
+    /**
+     * Signals the characters of the given string CharSequence in read-only
+     * CharBuffer windows of the given size (the last one may be shorter).
+     * <p>
+     * The windows are views of the string without copying, thus
+     * a mutable CharSequence must not be modified while the windows are in use.
+     * Supports synchronous queue-fusion so fusion-capable consumers can pull the chunks directly.
+     * @param string the source of characters
+     * @param chunkSize the maximum number of characters per window, positive
+     * @return the new Flowable instance
+     * @since 3.0.0
+     * @see #codePointBuffers(CharSequence, int)
+     */
+    public static Flowable<CharBuffer> characterBuffers(CharSequence string, int chunkSize) {
+        Objects.requireNonNull(string, "string is null");
+        ObjectHelper.verifyPositive(chunkSize, "chunkSize");
+        return RxJavaPlugins.onAssembly(new FlowableCharSequenceChunks.CharBuffers(string, chunkSize, false));
+    }
+
+    /**
+     * Signals the characters of the given string CharSequence in char arrays of
+     * at most the given size without splitting a surrogate pair between subsequent arrays.
+     * <p>
+     * An array is one character shorter if it would end with the high surrogate of
+     * a pair; with a chunk size of 1, a surrogate pair is signaled in a single array of 2.
+     * Each array is a new copy of the respective characters. Supports synchronous
+     * queue-fusion so fusion-capable consumers can pull the chunks directly.
+     * @param string the source of characters
+     * @param chunkSize the maximum number of characters per array, positive
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<char[]> codePointChunks(CharSequence string, int chunkSize) {
+        Objects.requireNonNull(string, "string is null");
+        ObjectHelper.verifyPositive(chunkSize, "chunkSize");
+        return RxJavaPlugins.onAssembly(new FlowableCharSequenceChunks.CharArrays(string, chunkSize, true));
+    }
+
+    /**
+     * Signals the characters of the given string CharSequence in read-only
+     * CharBuffer windows of at most the given size without splitting a surrogate
+     * pair between subsequent windows.
+     * <p>
+     * A window is one character shorter if it would end with the high surrogate of
+     * a pair; with a chunk size of 1, a surrogate pair is signaled in a single window of 2.
+     * The windows are views of the string without copying, thus
+     * a mutable CharSequence must not be modified while the windows are in use.
+     * Supports synchronous queue-fusion so fusion-capable consumers can pull the chunks directly.
+     * @param string the source of characters
+     * @param chunkSize the maximum number of characters per window, positive
+     * @return the new Flowable instance
+     * @since 3.0.0
+     */
+    public static Flowable<CharBuffer> codePointBuffers(CharSequence string, int chunkSize) {
+        Objects.requireNonNull(string, "string is null");
+        ObjectHelper.verifyPositive(chunkSize, "chunkSize");
+        return RxJavaPlugins.onAssembly(new FlowableCharSequenceChunks.CharBuffers(string, chunkSize, true));
+    }
+
     /**
      * Splits the input sequence of strings based on a pattern even across subsequent
      * elements if needed.
@@ -94,4 +173,89 @@ public final class StringFlowable {
         return split(Pattern.compile(pattern), bufferSize);
     }
 
+    /**
+     * Splits the input sequence of ByteBuffers into records terminated by the
+     * given delimiter bytes, even across subsequent elements if needed.
+     * <p>
+     * A record that lies within a single upstream ByteBuffer is emitted as a
+     * {@link ByteBuffer#slice() slice} of it without copying, thus the upstream must
+     * not reuse or modify the contents of the buffers it emitted; a record spanning
+     * multiple buffers is copied into a new ByteBuffer. The delimiter is not part of the records.
+     * Every delimiter-terminated record is emitted, including empty ones,
+     * followed by the unterminated rest of the input if it is not empty.
+     * Use {@code map(ByteBuffer::wrap)} to split a sequence of {@code byte[]} chunks.
+     * @param delimiter the non-empty delimiter byte sequence, copied
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> splitBytes(byte[] delimiter) {
+        return splitBytes(delimiter, Flowable.bufferSize());
+    }
+
+    /**
+     * Splits the input sequence of ByteBuffers into records terminated by the
+     * given delimiter bytes, even across subsequent elements if needed.
+     * <p>
+     * A record that lies within a single upstream ByteBuffer is emitted as a
+     * {@link ByteBuffer#slice() slice} of it without copying, thus the upstream must
+     * not reuse or modify the contents of the buffers it emitted; a record spanning
+     * multiple buffers is copied into a new ByteBuffer. The delimiter is not part of the records.
+     * Every delimiter-terminated record is emitted, including empty ones,
+     * followed by the unterminated rest of the input if it is not empty.
+     * Use {@code map(ByteBuffer::wrap)} to split a sequence of {@code byte[]} chunks.
+     * @param delimiter the non-empty delimiter byte sequence, copied
+     * @param bufferSize the number of ByteBuffers to prefetch from the upstream
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> splitBytes(byte[] delimiter, int bufferSize) {
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        return new FlowableSplitBytes<>(null, new ByteSplitEngine.SlicesSupplier(verifyDelimiter(delimiter)), bufferSize);
+    }
+
+    /**
+     * Splits the input sequence of UTF-8 encoded ByteBuffers into records terminated
+     * by the given delimiter and decodes each record into a String.
+     * <p>
+     * The delimiter is searched for in the raw bytes and only the completed
+     * records are decoded, thus a character split between subsequent ByteBuffers
+     * is decoded correctly. Every delimiter-terminated record is emitted,
+     * including empty ones, followed by the unterminated rest of the input if it is not empty.
+     * Use {@code map(ByteBuffer::wrap)} to split a sequence of {@code byte[]} chunks.
+     * @param delimiter the non-empty delimiter, for example, {@code "\n"}
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static FlowableTransformer<ByteBuffer, String> splitUtf8(String delimiter) {
+        return splitUtf8(delimiter, Flowable.bufferSize());
+    }
+
+    /**
+     * Splits the input sequence of UTF-8 encoded ByteBuffers into records terminated
+     * by the given delimiter and decodes each record into a String.
+     * <p>
+     * The delimiter is searched for in the raw bytes and only the completed
+     * records are decoded, thus a character split between subsequent ByteBuffers
+     * is decoded correctly. Every delimiter-terminated record is emitted,
+     * including empty ones, followed by the unterminated rest of the input if it is not empty.
+     * Use {@code map(ByteBuffer::wrap)} to split a sequence of {@code byte[]} chunks.
+     * @param delimiter the non-empty delimiter, for example, {@code "\n"}
+     * @param bufferSize the number of ByteBuffers to prefetch from the upstream
+     * @return the new FlowableTransformer instance
+     * @since 3.0.0
+     */
+    public static FlowableTransformer<ByteBuffer, String> splitUtf8(String delimiter, int bufferSize) {
+        Objects.requireNonNull(delimiter, "delimiter is null");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        byte[] d = verifyDelimiter(delimiter.getBytes(StandardCharsets.UTF_8));
+        return new FlowableSplitBytes<>(null, new ByteSplitEngine.Utf8StringsSupplier(d), bufferSize);
+    }
+
+    static byte[] verifyDelimiter(byte[] delimiter) {
+        Objects.requireNonNull(delimiter, "delimiter is null");
+        if (delimiter.length == 0) {
+            throw new IllegalArgumentException("delimiter is empty");
+        }
+        return delimiter.clone();
+    }
 }
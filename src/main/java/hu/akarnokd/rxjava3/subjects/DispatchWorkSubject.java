@@ -16,14 +16,17 @@
 
 package hu.akarnokd.rxjava3.subjects;
 
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.concurrent.atomic.*;
 
+import hu.akarnokd.rxjava3.util.MpmcLinkedArrayQueue;
 import hu.akarnokd.rxjava3.util.SpmcLinkedArrayQueue;
 import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.core.Scheduler.Worker;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.internal.disposables.DisposableHelper;
+import io.reactivex.rxjava3.internal.functions.ObjectHelper;
 import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
 import io.reactivex.rxjava3.internal.util.ExceptionHelper;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
@@ -88,11 +91,42 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
      * @return the new DispatchWorkSubject instance
      */
     public static <T> DispatchWorkSubject<T> create(Scheduler scheduler, int capacityHint, boolean delayErrors) {
-        return new DispatchWorkSubject<>(capacityHint, delayErrors, scheduler);
+        return create(scheduler, capacityHint, delayErrors, 1);
+    }
+
+    /**
+     * Create an empty {@link DispatchWorkSubject} instance with the given scheduler,
+     * capacity hint (expected number of items cached until consumption), if an
+     * error should be delayed and the maximum number of items an {@link Observer}
+     * can claim from the shared queue in one step.
+     * <p>
+     * With a batch size greater than one, an {@code Observer} takes a contiguous block
+     * of at most its fair share of the currently available items and emits them
+     * without touching the shared state per item. Faster {@code Observer}s return
+     * more often and thus claim more items overall. A non-delayed error is
+     * checked for between the blocks.
+     * <p>
+     * The blocks are claimed from a queue built on fetch-and-add indexes, which
+     * scales better with many contending consumers than the default queue
+     * but costs more per item for a single consumer.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param capacityHint the expected number of items to be cached until consumption
+     * @param delayErrors if true, errors are delivered after items have been consumed
+     * @param maxBatchSize the maximum number of items to claim at once, 1 dispatches items one by one
+     * @return the new DispatchWorkSubject instance
+     * @since 3.0.0
+     */
+    public static <T> DispatchWorkSubject<T> create(Scheduler scheduler, int capacityHint, boolean delayErrors, int maxBatchSize) {
+        ObjectHelper.verifyPositive(maxBatchSize, "maxBatchSize");
+        return new DispatchWorkSubject<>(capacityHint, delayErrors, scheduler, maxBatchSize);
     }
 
     final SimplePlainQueue<T> queue;
 
+    /** The same queue as {@link #queue} if blocks of items are claimed at once, null otherwise. */
+    final MpmcLinkedArrayQueue<T> batchQueue;
+
     final AtomicInteger wip;
 
     final AtomicReference<Disposable> upstream;
@@ -105,20 +139,33 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
 
     final Scheduler scheduler;
 
+    final int maxBatchSize;
+
+    /** The Observers present at termination, which may still drain requeued items. */
+    volatile WorkDisposable<T>[] lastObservers;
+
     @SuppressWarnings("rawtypes")
     static final WorkDisposable[] EMPTY = new WorkDisposable[0];
     @SuppressWarnings("rawtypes")
     static final WorkDisposable[] TERMINATED = new WorkDisposable[0];
 
     @SuppressWarnings("unchecked")
-    DispatchWorkSubject(int capacityHint, boolean delayErrors, Scheduler scheduler) {
-        this.queue = new SpmcLinkedArrayQueue<>(capacityHint);
+    DispatchWorkSubject(int capacityHint, boolean delayErrors, Scheduler scheduler, int maxBatchSize) {
+        if (maxBatchSize > 1) {
+            MpmcLinkedArrayQueue<T> q = new MpmcLinkedArrayQueue<>(capacityHint);
+            this.batchQueue = q;
+            this.queue = q;
+        } else {
+            this.batchQueue = null;
+            this.queue = new SpmcLinkedArrayQueue<>(capacityHint);
+        }
         this.delayErrors = delayErrors;
         this.wip = new AtomicInteger();
         this.upstream = new AtomicReference<>();
         this.error = new AtomicReference<>();
         this.observers = new AtomicReference<>(EMPTY);
         this.scheduler = scheduler;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
@@ -141,7 +188,9 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
     public void onError(Throwable e) {
         Objects.requireNonNull(e, "e is null");
         if (error.compareAndSet(null, e)) {
-            for (WorkDisposable<T> wd : observers.getAndSet(TERMINATED)) {
+            WorkDisposable<T>[] a = observers.getAndSet(TERMINATED);
+            lastObservers = a;
+            for (WorkDisposable<T> wd : a) {
                 wd.drain();
             }
         } else {
@@ -153,7 +202,9 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
     @Override
     public void onComplete() {
         if (error.compareAndSet(null, ExceptionHelper.TERMINATED)) {
-            for (WorkDisposable<T> wd : observers.getAndSet(TERMINATED)) {
+            WorkDisposable<T>[] a = observers.getAndSet(TERMINATED);
+            lastObservers = a;
+            for (WorkDisposable<T> wd : a) {
                 wd.drain();
             }
         }
@@ -161,7 +212,7 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
 
     @Override
     protected void subscribeActual(Observer<? super T> observer) {
-        WorkDisposable<T> wd = new WorkDisposable<>(observer, this, scheduler.createWorker(), delayErrors);
+        WorkDisposable<T> wd = new WorkDisposable<>(observer, this, scheduler.createWorker(), delayErrors, maxBatchSize);
         observer.onSubscribe(wd);
         if (add(wd)) {
             if (wd.isDisposed()) {
@@ -255,6 +306,28 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
         }
     }
 
+    /**
+     * Puts back the items a disposed Observer claimed but couldn't emit
+     * and lets the other Observers pick them up.
+     * @param items the array of claimed items
+     * @param start the index of the first item not emitted
+     * @param end the index after the last claimed item
+     */
+    void requeue(T[] items, int start, int end) {
+        batchQueue.offer(items, start, end - start);
+        WorkDisposable<T>[] a = observers.get();
+        if (a == TERMINATED) {
+            a = lastObservers;
+            if (a == null) {
+                // the terminating thread is about to drain them
+                return;
+            }
+        }
+        for (WorkDisposable<T> wd : a) {
+            wd.drain();
+        }
+    }
+
     static final class WorkDisposable<T> extends AtomicInteger implements Disposable, Runnable {
 
         private static final long serialVersionUID = 7597704795244221647L;
@@ -267,13 +340,17 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
 
         final boolean delayErrors;
 
+        final T[] batch;
+
         volatile boolean disposed;
 
-        WorkDisposable(Observer<? super T> downstream, DispatchWorkSubject<T> parent, Worker worker, boolean delayErrors) {
+        @SuppressWarnings("unchecked")
+        WorkDisposable(Observer<? super T> downstream, DispatchWorkSubject<T> parent, Worker worker, boolean delayErrors, int maxBatchSize) {
             this.downstream = downstream;
             this.parent = parent;
             this.worker = worker;
             this.delayErrors = delayErrors;
+            this.batch = maxBatchSize > 1 ? (T[])new Object[maxBatchSize] : null;
         }
 
         @Override
@@ -290,6 +367,14 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
 
         @Override
         public void run() {
+            if (batch != null) {
+                runBatched();
+            } else {
+                runSingle();
+            }
+        }
+
+        void runSingle() {
             int missed = 1;
 
             SimplePlainQueue<T> q = parent.queue;
@@ -341,6 +426,67 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
             }
         }
 
+        void runBatched() {
+            int missed = 1;
+
+            DispatchWorkSubject<T> parent = this.parent;
+            MpmcLinkedArrayQueue<T> q = parent.batchQueue;
+            Observer<? super T> downstream = this.downstream;
+            AtomicReference<Throwable> error = parent.error;
+            boolean delayErrors = this.delayErrors;
+            T[] b = batch;
+
+            for (;;) {
+                for (;;) {
+                    if (disposed) {
+                        return;
+                    }
+
+                    Throwable ex = error.get();
+                    boolean d = ex != null;
+                    if (d && !delayErrors) {
+                        if (ex != ExceptionHelper.TERMINATED) {
+                            q.clear();
+                            downstream.onError(ex);
+                            worker.dispose();
+                            return;
+                        }
+                    }
+
+                    int n = q.poll(b, b.length, parent.observers.get().length);
+
+                    if (n == 0) {
+                        if (d) {
+                            if (ex == ExceptionHelper.TERMINATED) {
+                                downstream.onComplete();
+                            } else {
+                                downstream.onError(ex);
+                            }
+                            worker.dispose();
+                            return;
+                        }
+                        break;
+                    }
+
+                    for (int i = 0; i < n; i++) {
+                        if (disposed) {
+                            parent.requeue(b, i, n);
+                            Arrays.fill(b, 0, n, null);
+                            return;
+                        }
+                        T v = b[i];
+                        b[i] = null;
+                        downstream.onNext(v);
+                    }
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
         void drain() {
             if (getAndIncrement() == 0) {
                 worker.schedule(this);
@@ -0,0 +1,486 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.subjects;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.internal.disposables.DisposableHelper;
+import io.reactivex.rxjava3.internal.functions.ObjectHelper;
+import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.rxjava3.internal.util.ExceptionHelper;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.subjects.Subject;
+
+/**
+ * A {@link Subject} variant that hashes the keys of the items onto a fixed number of lanes,
+ * each with its own queue, and dispatches each lane to exactly one of the currently subscribed
+ * {@link Observer}s asynchronously, otherwise caches the items until an {@code Observer} subscribes.
+ * <p>
+ * Items with the same key are always delivered, in order, to the same {@code Observer}
+ * as long as it stays subscribed, without allocating a group per key. When an {@code Observer}
+ * leaves, its lanes are handed over to the remaining {@code Observer}s which continue
+ * where the leaving one stopped, keeping the per-key order.
+ * <p>
+ * Each {@code Observer} is completed once the subject terminated and the lanes
+ * it owns have been drained.
+ *
+ * @param <T> the input and output value type
+ * @since 3.0.0
+ */
+public final class KeyedDispatchWorkSubject<T> extends Subject<T> implements Disposable {
+
+    /**
+     * Create an empty {@link KeyedDispatchWorkSubject} instance with the given scheduler,
+     * key selector, one lane per available processor, default capacity hint
+     * ({@link Flowable#bufferSize()}, expected number of items cached per lane) and delaying errors.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param keySelector the function returning the key of an item whose hash determines its lane
+     * @return the new KeyedDispatchWorkSubject instance
+     */
+    public static <T> KeyedDispatchWorkSubject<T> create(Scheduler scheduler, Function<? super T, ?> keySelector) {
+        return create(scheduler, keySelector, Runtime.getRuntime().availableProcessors(), Flowable.bufferSize(), true);
+    }
+
+    /**
+     * Create an empty {@link KeyedDispatchWorkSubject} instance with the given scheduler,
+     * key selector, number of lanes, default capacity hint ({@link Flowable#bufferSize()},
+     * expected number of items cached per lane) and delaying errors.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param keySelector the function returning the key of an item whose hash determines its lane
+     * @param lanes the number of lanes, the maximum number of {@code Observer}s consuming in parallel
+     * @return the new KeyedDispatchWorkSubject instance
+     */
+    public static <T> KeyedDispatchWorkSubject<T> create(Scheduler scheduler, Function<? super T, ?> keySelector, int lanes) {
+        return create(scheduler, keySelector, lanes, Flowable.bufferSize(), true);
+    }
+
+    /**
+     * Create an empty {@link KeyedDispatchWorkSubject} instance with the given scheduler,
+     * key selector, number of lanes, capacity hint (expected number of items cached per lane)
+     * and if an error should be delayed.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param keySelector the function returning the key of an item whose hash determines its lane
+     * @param lanes the number of lanes, the maximum number of {@code Observer}s consuming in parallel
+     * @param capacityHint the expected number of items to be cached per lane until consumption
+     * @param delayErrors if true, errors are delivered after items have been consumed
+     * @return the new KeyedDispatchWorkSubject instance
+     */
+    public static <T> KeyedDispatchWorkSubject<T> create(Scheduler scheduler, Function<? super T, ?> keySelector,
+            int lanes, int capacityHint, boolean delayErrors) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        ObjectHelper.verifyPositive(lanes, "lanes");
+        ObjectHelper.verifyPositive(capacityHint, "capacityHint");
+        return new KeyedDispatchWorkSubject<>(scheduler, keySelector, lanes, capacityHint, delayErrors);
+    }
+
+    final Scheduler scheduler;
+
+    final Function<? super T, ?> keySelector;
+
+    final Lane<T>[] lanes;
+
+    final boolean delayErrors;
+
+    final AtomicReference<Disposable> upstream;
+
+    final AtomicReference<Throwable> error;
+
+    /** The current observers, copy-on-write under the monitor of this. */
+    volatile WorkDisposable<T>[] observers;
+
+    @SuppressWarnings("rawtypes")
+    static final WorkDisposable[] EMPTY = new WorkDisposable[0];
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    KeyedDispatchWorkSubject(Scheduler scheduler, Function<? super T, ?> keySelector, int lanes, int capacityHint, boolean delayErrors) {
+        this.scheduler = scheduler;
+        this.keySelector = keySelector;
+        this.delayErrors = delayErrors;
+        this.lanes = new Lane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane<>(capacityHint);
+        }
+        this.upstream = new AtomicReference<>();
+        this.error = new AtomicReference<>();
+        this.observers = EMPTY;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        DisposableHelper.setOnce(upstream, d);
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (error.get() == null) {
+            Object key;
+            try {
+                key = keySelector.apply(t);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                DisposableHelper.dispose(upstream);
+                onError(ex);
+                return;
+            }
+            int h = key != null ? key.hashCode() : 0;
+            h ^= h >>> 16;
+            Lane<T> lane = lanes[(h & Integer.MAX_VALUE) % lanes.length];
+            lane.queue.offer(t);
+            WorkDisposable<T> wd = lane.owner;
+            if (wd != null) {
+                wd.drain();
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        Objects.requireNonNull(e, "e is null");
+        if (error.compareAndSet(null, e)) {
+            for (WorkDisposable<T> wd : observers) {
+                wd.drain();
+            }
+        } else {
+            RxJavaPlugins.onError(e);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (error.compareAndSet(null, ExceptionHelper.TERMINATED)) {
+            for (WorkDisposable<T> wd : observers) {
+                wd.drain();
+            }
+        }
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        WorkDisposable<T> wd = new WorkDisposable<>(observer, this, scheduler.createWorker(), delayErrors);
+        observer.onSubscribe(wd);
+        if (!wd.isDisposed()) {
+            add(wd);
+            if (wd.isDisposed()) {
+                remove(wd);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        DisposableHelper.dispose(upstream);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return DisposableHelper.isDisposed(upstream.get());
+    }
+
+    @Override
+    public boolean hasComplete() {
+        return error.get() == ExceptionHelper.TERMINATED;
+    }
+
+    @Override
+    public boolean hasThrowable() {
+        Throwable ex = error.get();
+        return ex != null && ex != ExceptionHelper.TERMINATED;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        Throwable ex = error.get();
+        return ex != ExceptionHelper.TERMINATED ? ex : null;
+    }
+
+    @Override
+    public boolean hasObservers() {
+        return observers.length != 0;
+    }
+
+    void add(WorkDisposable<T> wd) {
+        WorkDisposable<T>[] b;
+        synchronized (this) {
+            WorkDisposable<T>[] a = observers;
+            int n = a.length;
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            WorkDisposable<T>[] c = new WorkDisposable[n + 1];
+            System.arraycopy(a, 0, c, 0, n);
+            c[n] = wd;
+            b = c;
+            observers = b;
+            rebalance(b);
+        }
+        for (WorkDisposable<T> o : b) {
+            o.drain();
+        }
+    }
+
+    void remove(WorkDisposable<T> wd) {
+        WorkDisposable<T>[] b;
+        synchronized (this) {
+            WorkDisposable<T>[] a = observers;
+            int n = a.length;
+
+            int j = -1;
+            for (int i = 0; i < n; i++) {
+                if (a[i] == wd) {
+                    j = i;
+                    break;
+                }
+            }
+
+            if (j < 0) {
+                return;
+            }
+            if (n == 1) {
+                @SuppressWarnings("unchecked")
+                WorkDisposable<T>[] c = EMPTY;
+                b = c;
+            } else {
+                @SuppressWarnings({ "unchecked", "rawtypes" })
+                WorkDisposable<T>[] c = new WorkDisposable[n - 1];
+                System.arraycopy(a, 0, c, 0, j);
+                System.arraycopy(a, j + 1, c, j, n - j - 1);
+                b = c;
+            }
+            wd.index = -1;
+            observers = b;
+            rebalance(b);
+        }
+        for (WorkDisposable<T> o : b) {
+            o.drain();
+        }
+    }
+
+    /**
+     * Distributes the lanes evenly among the given observers while keeping
+     * as many lanes as possible with their current owner.
+     * <p>
+     * Should be called while holding the monitor of this; the caller has
+     * to signal the observers afterwards.
+     * @param observers the current observers
+     */
+    void rebalance(WorkDisposable<T>[] observers) {
+        Lane<T>[] ls = lanes;
+        int n = observers.length;
+        if (n == 0) {
+            for (Lane<T> lane : ls) {
+                lane.owner = null;
+            }
+            return;
+        }
+        int quota = ls.length / n;
+        int extra = ls.length % n;
+        int[] counts = new int[n];
+        for (int i = 0; i < n; i++) {
+            observers[i].index = i;
+        }
+
+        // keep the lanes of the remaining observers up to their quota
+        for (Lane<T> lane : ls) {
+            WorkDisposable<T> wd = lane.owner;
+            if (wd != null) {
+                int idx = wd.index;
+                if (idx >= 0 && counts[idx] < quota + (idx < extra ? 1 : 0)) {
+                    counts[idx]++;
+                } else {
+                    lane.owner = null;
+                }
+            }
+        }
+
+        // hand out the rest to the observers below their quota
+        int k = 0;
+        for (Lane<T> lane : ls) {
+            if (lane.owner == null) {
+                while (counts[k] >= quota + (k < extra ? 1 : 0)) {
+                    k++;
+                }
+                counts[k]++;
+                lane.owner = observers[k];
+            }
+        }
+    }
+
+    /**
+     * A queue of items with an owning observer; the consumer of the queue is
+     * whoever holds the lease (this atomic integer is 1).
+     * @param <T> the element type
+     */
+    static final class Lane<T> extends AtomicInteger {
+
+        private static final long serialVersionUID = -1573604766545418937L;
+
+        final SpscLinkedArrayQueue<T> queue;
+
+        volatile WorkDisposable<T> owner;
+
+        Lane(int capacityHint) {
+            this.queue = new SpscLinkedArrayQueue<>(capacityHint);
+        }
+
+        boolean tryAcquire() {
+            return get() == 0 && compareAndSet(0, 1);
+        }
+
+        /**
+         * Gives up the lease and signals the owner if the lane changed hands
+         * while the given observer was consuming it.
+         * @param previous the observer that held the lease
+         */
+        void release(WorkDisposable<T> previous) {
+            set(0);
+            WorkDisposable<T> wd = owner;
+            if (wd != previous && wd != null) {
+                wd.drain();
+            }
+        }
+    }
+
+    static final class WorkDisposable<T> extends AtomicInteger implements Disposable, Runnable {
+
+        private static final long serialVersionUID = -5203716346437054458L;
+
+        final Observer<? super T> downstream;
+
+        final KeyedDispatchWorkSubject<T> parent;
+
+        final Worker worker;
+
+        final boolean delayErrors;
+
+        volatile boolean disposed;
+
+        /** The index in the observers array, -1 if removed; accessed while holding the monitor of the parent. */
+        int index;
+
+        WorkDisposable(Observer<? super T> downstream, KeyedDispatchWorkSubject<T> parent, Worker worker, boolean delayErrors) {
+            this.downstream = downstream;
+            this.parent = parent;
+            this.worker = worker;
+            this.delayErrors = delayErrors;
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                parent.remove(this);
+                worker.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+
+            Lane<T>[] lanes = parent.lanes;
+            Observer<? super T> downstream = this.downstream;
+            AtomicReference<Throwable> error = parent.error;
+            boolean delayErrors = this.delayErrors;
+
+            for (;;) {
+                if (disposed) {
+                    return;
+                }
+
+                Throwable ex = error.get();
+                if (ex != null && !delayErrors && ex != ExceptionHelper.TERMINATED) {
+                    terminate(ex);
+                    return;
+                }
+
+                boolean empty = true;
+
+                for (Lane<T> lane : lanes) {
+                    if (lane.owner != this) {
+                        continue;
+                    }
+                    if (!lane.tryAcquire()) {
+                        // the previous owner is still emitting, it will signal when done
+                        empty = false;
+                        continue;
+                    }
+
+                    SpscLinkedArrayQueue<T> q = lane.queue;
+                    for (;;) {
+                        if (disposed) {
+                            lane.release(this);
+                            return;
+                        }
+                        if (lane.owner != this) {
+                            break;
+                        }
+                        T v = q.poll();
+                        if (v == null) {
+                            break;
+                        }
+                        downstream.onNext(v);
+                    }
+
+                    if (!q.isEmpty()) {
+                        empty = false;
+                    }
+                    lane.release(this);
+                }
+
+                if (ex != null && empty) {
+                    terminate(ex);
+                    return;
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void terminate(Throwable ex) {
+            disposed = true;
+            parent.remove(this);
+            if (ex == ExceptionHelper.TERMINATED) {
+                downstream.onComplete();
+            } else {
+                downstream.onError(ex);
+            }
+            worker.dispose();
+        }
+
+        void drain() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+    }
+}
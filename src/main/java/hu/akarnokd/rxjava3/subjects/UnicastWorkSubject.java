@@ -17,10 +17,13 @@
 package hu.akarnokd.rxjava3.subjects;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.*;
 
+import hu.akarnokd.rxjava3.util.*;
 import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.exceptions.MissingBackpressureException;
 import io.reactivex.rxjava3.internal.disposables.DisposableHelper;
 import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
 import io.reactivex.rxjava3.internal.queue.SpscLinkedArrayQueue;
@@ -29,7 +32,7 @@ import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 import io.reactivex.rxjava3.subjects.Subject;
 
 /**
- * A {@link Subject} that holds an unbounded queue of items and relays/replays it to
+ * A {@link Subject} that holds an unbounded or bounded queue of items and relays/replays it to
  * a single {@link Observer} at a time, making sure that when the {@code Observer} disposes,
  * any unconsumed items are available for the next {@code Observer}.
  * <p>
@@ -90,11 +93,52 @@ public final class UnicastWorkSubject<T> extends Subject<T> implements Disposabl
      * @return the new UnicastWorkSubject instance
      */
     public static <T> UnicastWorkSubject<T> create(int capacityHint, boolean delayErrors) {
-        return new UnicastWorkSubject<>(capacityHint, delayErrors);
+        return new UnicastWorkSubject<>(new SpscLinkedArrayQueue<T>(capacityHint), null, delayErrors);
+    }
+
+    /**
+     * Constructs an empty {@link UnicastWorkSubject} which holds at most the given number
+     * of items and applies the given overflow policy when it is full, with error delaying behavior.
+     * <p>
+     * The {@link BufferOverflowPolicy#BLOCK} policy waits indefinitely for room.
+     * @param <T> the input and output value type
+     * @param capacity the maximum number of items held, positive
+     * @param policy what to do when an item arrives while the buffer is full
+     * @return the new UnicastWorkSubject instance
+     * @since 3.0.0
+     * @see #createBounded(int, BufferOverflowPolicy, long, TimeUnit, boolean)
+     */
+    public static <T> UnicastWorkSubject<T> createBounded(int capacity, BufferOverflowPolicy policy) {
+        return createBounded(capacity, policy, Long.MAX_VALUE, TimeUnit.NANOSECONDS, true);
+    }
+
+    /**
+     * Constructs an empty {@link UnicastWorkSubject} which holds at most the given number
+     * of items and applies the given overflow policy when it is full.
+     * <p>
+     * With the {@link BufferOverflowPolicy#ERROR} policy or when the {@link BufferOverflowPolicy#BLOCK}
+     * policy times out, the upstream is disposed and a {@link MissingBackpressureException}
+     * is signaled. Note that the {@code BLOCK} policy blocks the thread calling {@code onNext}.
+     * @param <T> the input and output value type
+     * @param capacity the maximum number of items held, positive
+     * @param policy what to do when an item arrives while the buffer is full
+     * @param timeout the time to wait for room with the {@code BLOCK} policy
+     * @param unit the time unit of the timeout
+     * @param delayErrors if true, errors are emitted last
+     * @return the new UnicastWorkSubject instance
+     * @since 3.0.0
+     */
+    public static <T> UnicastWorkSubject<T> createBounded(int capacity, BufferOverflowPolicy policy,
+            long timeout, TimeUnit unit, boolean delayErrors) {
+        Objects.requireNonNull(unit, "unit is null");
+        BoundedRingQueue<T> q = new BoundedRingQueue<>(capacity, policy, timeout, unit);
+        return new UnicastWorkSubject<>(q, q, delayErrors);
     }
 
     final SimplePlainQueue<T> queue;
 
+    final BoundedRingQueue<T> bounded;
+
     final boolean delayErrors;
 
     final AtomicInteger wip;
@@ -107,8 +151,9 @@ public final class UnicastWorkSubject<T> extends Subject<T> implements Disposabl
 
     T item;
 
-    UnicastWorkSubject(int capacityHint, boolean delayErrors) {
-        this.queue = new SpscLinkedArrayQueue<>(capacityHint);
+    UnicastWorkSubject(SimplePlainQueue<T> queue, BoundedRingQueue<T> bounded, boolean delayErrors) {
+        this.queue = queue;
+        this.bounded = bounded;
         this.delayErrors = delayErrors;
         this.consumer = new AtomicReference<>();
         this.upstream = new AtomicReference<>();
@@ -125,7 +170,16 @@ public final class UnicastWorkSubject<T> extends Subject<T> implements Disposabl
     public void onNext(T t) {
         Objects.requireNonNull(t, "t is null");
         if (error.get() == null) {
-            queue.offer(t);
+            BoundedRingQueue<T> b = bounded;
+            if (b != null) {
+                if (!b.offerOrOverflow(t)) {
+                    DisposableHelper.dispose(upstream);
+                    onError(new MissingBackpressureException("The buffer of " + b.capacity() + " items is full"));
+                    return;
+                }
+            } else {
+                queue.offer(t);
+            }
             drain();
         }
     }
@@ -198,6 +252,26 @@ public final class UnicastWorkSubject<T> extends Subject<T> implements Disposabl
         return consumer.get() != null;
     }
 
+    /**
+     * Returns the number of items currently buffered if this subject is bounded.
+     * @return the number of items buffered or -1 if this subject is unbounded
+     * @since 3.0.0
+     */
+    public int depth() {
+        BoundedRingQueue<T> b = bounded;
+        return b != null ? b.size() : -1;
+    }
+
+    /**
+     * Returns the largest number of items buffered at any time if this subject is bounded.
+     * @return the high-water mark or -1 if this subject is unbounded
+     * @since 3.0.0
+     */
+    public int highWaterMark() {
+        BoundedRingQueue<T> b = bounded;
+        return b != null ? b.highWaterMark() : -1;
+    }
+
     void remove(WorkDisposable d) {
         consumer.compareAndSet(d, null);
     }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.util;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+import io.reactivex.rxjava3.internal.util.Pow2;
+
+/**
+ * A fixed-capacity, single-producer ring buffer which can be polled concurrently
+ * by the consumer and the producer (for dropping the oldest item), and which
+ * applies a {@link BufferOverflowPolicy} when it is full.
+ * <p>
+ * Each slot has a sequence number telling if it is ready to be written or read,
+ * so neither side needs to lock. Only a producer blocked by the {@link BufferOverflowPolicy#BLOCK}
+ * policy waits on the monitor of the queue, and the consumer only touches the monitor
+ * when such a producer is waiting.
+ *
+ * @param <T> the item type to be queued
+ * @since 3.0.0
+ */
+public final class BoundedRingQueue<T> implements SimplePlainQueue<T> {
+
+    static final long MAX_WAIT_SLICE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    final int capacity;
+
+    final int mask;
+
+    final AtomicReferenceArray<T> values;
+
+    final AtomicLongArray sequences;
+
+    final AtomicLong producerIndex;
+
+    final AtomicLong consumerIndex;
+
+    final BufferOverflowPolicy policy;
+
+    final long timeoutNanos;
+
+    volatile long highWaterMark;
+
+    volatile boolean producerWaiting;
+
+    /**
+     * Constructs an empty queue with the given capacity and overflow policy.
+     * @param capacity the maximum number of items held, positive
+     * @param policy the overflow policy applied by {@link #offerOrOverflow(Object)}
+     * @param timeout the time to wait for room with the {@link BufferOverflowPolicy#BLOCK} policy
+     * @param unit the time unit of the timeout
+     */
+    public BoundedRingQueue(int capacity, BufferOverflowPolicy policy, long timeout, TimeUnit unit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        this.capacity = capacity;
+        int c = Pow2.roundToPowerOfTwo(capacity);
+        this.mask = c - 1;
+        this.values = new AtomicReferenceArray<>(c);
+        this.sequences = new AtomicLongArray(c);
+        for (int i = 0; i < c; i++) {
+            sequences.lazySet(i, i);
+        }
+        this.producerIndex = new AtomicLong();
+        this.consumerIndex = new AtomicLong();
+        this.policy = Objects.requireNonNull(policy, "policy is null");
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Offers an item if there is room for it.
+     * @param value the value to offer, not null
+     * @return true if the value was queued, false if the queue is full
+     */
+    @Override
+    public boolean offer(T value) {
+        Objects.requireNonNull(value, "value is null");
+        long pi = producerIndex.get();
+        long ci = consumerIndex.get();
+        if (pi - ci >= capacity) {
+            return false;
+        }
+        int offset = (int)pi & mask;
+        while (sequences.get(offset) != pi) {
+            // a consumer has claimed the slot but hasn't finished reading it,
+            // there is room though so wait for the slot to be released
+            Thread.yield();
+        }
+        values.lazySet(offset, value);
+        sequences.lazySet(offset, pi + 1);
+        producerIndex.lazySet(pi + 1);
+        long size = pi + 1 - ci;
+        if (size > highWaterMark) {
+            highWaterMark = size;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offer(T v1, T v2) {
+        return offer(v1) && offer(v2);
+    }
+
+    /**
+     * Offers an item and applies the overflow policy if the queue is full.
+     * @param value the value to offer, not null
+     * @return false if the value could not be queued and an error should be signaled,
+     * that is, the policy is {@link BufferOverflowPolicy#ERROR} or the
+     * {@link BufferOverflowPolicy#BLOCK} policy timed out
+     */
+    public boolean offerOrOverflow(T value) {
+        if (offer(value)) {
+            return true;
+        }
+        switch (policy) {
+        case DROP_NEWEST:
+            return true;
+        case DROP_OLDEST:
+            while (!offer(value)) {
+                poll();
+            }
+            return true;
+        case BLOCK:
+            return offerBlocking(value);
+        default:
+            return false;
+        }
+    }
+
+    boolean offerBlocking(T value) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        synchronized (this) {
+            producerWaiting = true;
+            try {
+                while (!offer(value)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        return false;
+                    }
+                    // the slices cover a wakeup missed while the consumer was releasing the slot
+                    TimeUnit.NANOSECONDS.timedWait(this, Math.min(remaining, MAX_WAIT_SLICE));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                producerWaiting = false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        AtomicLong consumerIndex = this.consumerIndex;
+        AtomicLongArray sequences = this.sequences;
+        for (;;) {
+            long ci = consumerIndex.get();
+            int offset = (int)ci & mask;
+            long s = sequences.get(offset);
+            if (s == ci + 1) {
+                if (consumerIndex.compareAndSet(ci, ci + 1)) {
+                    T v = values.get(offset);
+                    values.lazySet(offset, null);
+                    sequences.lazySet(offset, ci + mask + 1);
+                    if (producerWaiting) {
+                        synchronized (this) {
+                            notifyAll();
+                        }
+                    }
+                    return v;
+                }
+            } else if (s < ci + 1) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex.get();
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) { }
+    }
+
+    /**
+     * Returns the number of items currently in the queue.
+     * @return the number of items
+     */
+    public int size() {
+        long ci = consumerIndex.get();
+        long pi = producerIndex.get();
+        return (int)Math.max(0L, pi - ci);
+    }
+
+    /**
+     * Returns the largest number of items the queue held at any time.
+     * @return the high-water mark
+     */
+    public int highWaterMark() {
+        return (int)highWaterMark;
+    }
+
+    /**
+     * Returns the capacity of this queue.
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.util;
+
+/**
+ * Determines what a bounded buffer does when a new item arrives while it is full.
+ * @since 3.0.0
+ */
+public enum BufferOverflowPolicy {
+    /** Keep the buffer and drop the new item. */
+    DROP_NEWEST,
+    /** Drop the oldest item(s) from the buffer to make room for the new item. */
+    DROP_OLDEST,
+    /** Block the producer until there is room in the buffer or the timeout elapses, then signal an error. */
+    BLOCK,
+    /** Signal an error immediately. */
+    ERROR
+}
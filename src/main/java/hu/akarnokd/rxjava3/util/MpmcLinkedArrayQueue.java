@@ -0,0 +1,287 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+
+/**
+ * A multiple-producer multiple-consumer unbounded queue implementation with array islands.
+ * <p>
+ * Both producers and consumers claim slots with a single atomic increment
+ * of the island's padded enqueue or dequeue index instead of a compare-and-set
+ * retry loop, thus contending consumers always make progress. A consumer that
+ * claims a slot before its producer could store the value marks the slot as
+ * taken, in which case the producer simply claims another slot.
+ * <p>
+ * Producers can publish a batch of values with a single claim via {@link #offer(Object[], int, int)}.
+ *
+ * @param <T> the item type to be queued
+ * @since 3.0.0
+ */
+public final class MpmcLinkedArrayQueue<T> implements SimplePlainQueue<T> {
+
+    static final Object TAKEN = new Object();
+
+    final int islandSize;
+
+    final AtomicReference<Island> producerIsland;
+
+    final AtomicReference<Island> consumerIsland;
+
+    /**
+     * Constructs an empty queue with the given island size.
+     * @param islandSize the number of elements per array island
+     */
+    public MpmcLinkedArrayQueue(int islandSize) {
+        this.islandSize = Math.max(2, islandSize);
+        Island a = new Island(this.islandSize);
+        this.producerIsland = new AtomicReference<>(a);
+        this.consumerIsland = new AtomicReference<>(a);
+    }
+
+    @Override
+    public boolean offer(T value) {
+        Objects.requireNonNull(value, "value is null");
+        AtomicReference<Island> pa = producerIsland;
+        int size = islandSize;
+        for (;;) {
+            Island a = pa.get();
+            int idx = a.enqueueIndex.getAndIncrement();
+            if (idx < size) {
+                if (a.compareAndSet(idx, null, value)) {
+                    return true;
+                }
+                // a consumer gave up on this slot
+                continue;
+            }
+            if (a == pa.get() && linkNext(a, value)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(T v1, T v2) {
+        Objects.requireNonNull(v1, "v1 is null");
+        Objects.requireNonNull(v2, "v2 is null");
+        @SuppressWarnings("unchecked")
+        T[] a = (T[])new Object[] { v1, v2 };
+        offer(a, 0, 2);
+        return true;
+    }
+
+    /**
+     * Offers a range of values by claiming as many slots as possible
+     * at once; the values become available to consumers in order.
+     * @param values the array of values, the range must not contain nulls
+     * @param start the index of the first value to offer
+     * @param count the number of values to offer
+     */
+    public void offer(T[] values, int start, int count) {
+        int end = start + count;
+        for (int i = start; i < end; i++) {
+            Objects.requireNonNull(values[i], "values contains null");
+        }
+        AtomicReference<Island> pa = producerIsland;
+        int size = islandSize;
+        int i = start;
+        outer:
+        while (i != end) {
+            Island a = pa.get();
+            int k = Math.min(end - i, size);
+            int idx = a.enqueueIndex.getAndAdd(k);
+            if (idx < size) {
+                int n = Math.min(size, idx + k);
+                for (int j = idx; j < n; j++) {
+                    if (!a.compareAndSet(j, null, values[i])) {
+                        // consumers are past this slot, retry the rest in new slots
+                        continue outer;
+                    }
+                    i++;
+                }
+                continue;
+            }
+            if (a == pa.get() && linkNext(a, values[i])) {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Links a new island after the given full island, containing
+     * the value in its first slot, or helps move the producer island
+     * forward if some other producer linked one already.
+     * @param a the full island
+     * @param value the value to put into the first slot of the new island
+     * @return true if the value was stored in a new island
+     */
+    boolean linkNext(Island a, Object value) {
+        Island next = a.next.get();
+        if (next == null) {
+            Island b = new Island(islandSize);
+            b.lazySet(0, value);
+            b.enqueueIndex.lazySet(1);
+            if (a.next.compareAndSet(null, b)) {
+                producerIsland.compareAndSet(a, b);
+                return true;
+            }
+            next = a.next.get();
+        }
+        producerIsland.compareAndSet(a, next);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T poll() {
+        AtomicReference<Island> ca = consumerIsland;
+        int size = islandSize;
+        for (;;) {
+            Island a = ca.get();
+            int di = a.dequeueIndex.get();
+            if (di >= size) {
+                Island next = a.next.get();
+                if (next == null) {
+                    return null;
+                }
+                ca.compareAndSet(a, next);
+                continue;
+            }
+            if (di >= a.enqueueIndex.get()) {
+                return null;
+            }
+            int idx = a.dequeueIndex.getAndIncrement();
+            if (idx >= size) {
+                continue;
+            }
+            Object o = a.getAndSet(idx, TAKEN);
+            if (o != null && o != TAKEN) {
+                return (T)o;
+            }
+        }
+    }
+
+    /**
+     * Claims a contiguous block of the available values with a single atomic
+     * operation and moves them, in order, into the given array.
+     * <p>
+     * The block is at most the {@code consumers}-th part of the values available
+     * at the moment, so that a consumer doesn't take away the work
+     * from the others; faster consumers come back more often and thus claim more.
+     * @param out the array to store the values into, starting at index 0
+     * @param maxCount the maximum number of values to claim, positive
+     * @param consumers the number of consumers sharing this queue
+     * @return the number of values moved into the array, zero if the queue was empty
+     */
+    @SuppressWarnings("unchecked")
+    public int poll(T[] out, int maxCount, int consumers) {
+        AtomicReference<Island> ca = consumerIsland;
+        int size = islandSize;
+        for (;;) {
+            Island a = ca.get();
+            int di = a.dequeueIndex.get();
+            if (di >= size) {
+                Island next = a.next.get();
+                if (next == null) {
+                    return 0;
+                }
+                ca.compareAndSet(a, next);
+                continue;
+            }
+            int available = Math.min(size, a.enqueueIndex.get()) - di;
+            if (available <= 0) {
+                return 0;
+            }
+            int k = Math.min(maxCount, Math.max(1, available / Math.max(1, consumers)));
+            int idx = a.dequeueIndex.getAndAdd(k);
+            if (idx >= size) {
+                continue;
+            }
+            int end = Math.min(size, idx + k);
+            int n = 0;
+            for (int j = idx; j < end; j++) {
+                Object o = a.getAndSet(j, TAKEN);
+                if (o != null && o != TAKEN) {
+                    out[n++] = (T)o;
+                }
+            }
+            if (n != 0) {
+                return n;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        AtomicReference<Island> ca = consumerIsland;
+        int size = islandSize;
+        Island a = ca.get();
+        for (;;) {
+            int di = a.dequeueIndex.get();
+            int ei = Math.min(size, a.enqueueIndex.get());
+            if (di < ei) {
+                return false;
+            }
+            Island next = a.next.get();
+            if (next == null) {
+                return true;
+            }
+            a = next;
+        }
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) { }
+    }
+
+    /**
+     * An array island with its own enqueue and dequeue indexes.
+     */
+    static final class Island extends AtomicReferenceArray<Object> {
+
+        private static final long serialVersionUID = -3315047233460036838L;
+
+        final PaddedAtomicInteger enqueueIndex;
+
+        final PaddedAtomicInteger dequeueIndex;
+
+        final AtomicReference<Island> next;
+
+        Island(int capacity) {
+            super(capacity);
+            this.enqueueIndex = new PaddedAtomicInteger();
+            this.dequeueIndex = new PaddedAtomicInteger();
+            this.next = new AtomicReference<>();
+        }
+    }
+
+    /**
+     * An AtomicInteger followed by enough padding so that the
+     * indexes updated by the producers and the consumers don't share a cache line.
+     */
+    static final class PaddedAtomicInteger extends AtomicInteger {
+
+        private static final long serialVersionUID = 6513142711280243198L;
+
+        long p1, p2, p3, p4, p5, p6, p7, p8;
+        long p9, p10, p11, p12, p13, p14, p15;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.rxjava3.internal.fuseable.SimplePlainQueue;
+import io.reactivex.rxjava3.internal.util.Pow2;
+
+/**
+ * A multiple-producer single-consumer unbounded queue implementation with array islands.
+ * <p>
+ * Producers claim a slot by atomically incrementing the producer index and
+ * only allocate when they are the first to reach a new island, thus
+ * the amortized allocation cost of an offer is one array per island size.
+ *
+ * @param <T> the item type to be queued
+ * @since 3.0.0
+ */
+public final class MpscLinkedArrayQueue<T> implements SimplePlainQueue<T> {
+
+    final int mask;
+
+    final int shift;
+
+    final AtomicLong producerIndex;
+
+    final AtomicReference<ARA> producerArray;
+
+    final AtomicReference<ARA> consumerArray;
+
+    long consumerIndex;
+
+    /**
+     * Constructs an empty queue with the given island size.
+     * @param islandSize the number of elements per array island, rounded up to
+     *                   the next power of 2
+     */
+    public MpscLinkedArrayQueue(int islandSize) {
+        int c = Pow2.roundToPowerOfTwo(Math.max(2, islandSize));
+        this.mask = c - 1;
+        this.shift = Integer.numberOfTrailingZeros(c);
+        this.producerIndex = new AtomicLong();
+        ARA a = new ARA(c, 0L);
+        this.producerArray = new AtomicReference<>(a);
+        this.consumerArray = new AtomicReference<>(a);
+    }
+
+    @Override
+    public boolean offer(T value) {
+        Objects.requireNonNull(value, "value is null");
+        long pi = producerIndex.getAndIncrement();
+        long id = pi >>> shift;
+
+        ARA a = producerArray.get();
+        if (a.id > id) {
+            // the consumer can't move past the island of an unfilled slot
+            a = consumerArray.get();
+        }
+
+        while (a.id < id) {
+            ARA next = a.lvNext();
+            if (next == null) {
+                ARA b = new ARA(mask + 1, a.id + 1);
+                if (a.casNext(b)) {
+                    next = b;
+                } else {
+                    next = a.lvNext();
+                }
+            }
+            a = next;
+        }
+
+        for (;;) {
+            ARA p = producerArray.get();
+            if (p.id >= a.id || producerArray.compareAndSet(p, a)) {
+                break;
+            }
+        }
+
+        a.lazySet((int)pi & mask, value);
+        return true;
+    }
+
+    @Override
+    public boolean offer(T v1, T v2) {
+        return offer(v1) && offer(v2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T poll() {
+        long ci = consumerIndex;
+        ARA a = consumerArray.get();
+
+        if (a.id != ci >>> shift) {
+            ARA next = a.lvNext();
+            if (next == null) {
+                if (producerIndex.get() == ci) {
+                    return null;
+                }
+                // a producer is in the middle of linking the next island
+                while ((next = a.lvNext()) == null) { }
+            }
+            consumerArray.lazySet(next);
+            a = next;
+        }
+
+        int offset = (int)ci & mask;
+        Object o = a.get(offset);
+        if (o == null) {
+            if (producerIndex.get() == ci) {
+                return null;
+            }
+            // a producer has claimed the slot but hasn't stored the value yet
+            while ((o = a.get(offset)) == null) { }
+        }
+        a.lazySet(offset, null);
+        consumerIndex = ci + 1;
+        return (T)o;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) { }
+    }
+
+    static final class ARA extends AtomicReferenceArray<Object> {
+
+        private static final long serialVersionUID = -2474527416286366485L;
+
+        final long id;
+
+        ARA(int capacity, long id) {
+            super(capacity + 1);
+            this.id = id;
+        }
+
+        ARA lvNext() {
+            return (ARA)get(length() - 1);
+        }
+
+        boolean casNext(ARA next) {
+            return compareAndSet(length() - 1, null, next);
+        }
+    }
+}
@@ -19,6 +19,10 @@ package hu.akarnokd.rxjava3.debug;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
 
 import org.junit.Test;
@@ -360,4 +364,141 @@ public class RxJava3AssemblyTrackingTest {
             RxJavaAssemblyTracking.disable();
         }
     }
+
+    @Test
+    public void productionMode() {
+        RxJavaAssemblyTracking.enableProductionMode();
+        try {
+            Flowable<Integer> source = createFlowable();
+
+            RxJavaAssemblyException assembled = ((FlowableOnAssembly<Integer>)source).assembled;
+            assertNull(assembled.callSite.stacktrace);
+
+            TestSubscriber<Integer> ts = source.test()
+            .assertFailure(IOException.class, 1, 2, 3, 4, 5);
+
+            String st = RxJavaAssemblyException.find(TestHelper.errors(ts).get(0)).stacktrace();
+
+            assertTrue(st, st.contains("RxJava3AssemblyTrackingTest.createFlowable"));
+            assertSame(assembled.stacktrace(), assembled.stacktrace());
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+        assertNull(RxJavaAssemblyException.callSites);
+    }
+
+    @Test
+    public void productionModeInternsCallSites() {
+        RxJavaAssemblyTracking.enableProductionMode();
+        try {
+            List<RxJavaAssemblyException> list = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                list.add(((FlowableOnAssembly<Integer>)createFlowable()).assembled);
+            }
+
+            assertNotSame(list.get(0), list.get(1));
+            assertSame(list.get(0).callSite, list.get(1).callSite);
+            assertSame(list.get(0).callSite, list.get(2).callSite);
+
+            RxJavaAssemblyException other = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+
+            assertNotSame(list.get(0).callSite, other.callSite);
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    static int assemblyCauses(Throwable ex) {
+        Set<Throwable> memory = new HashSet<>();
+        int n = 0;
+        while (ex != null && memory.add(ex)) {
+            if (ex instanceof RxJavaAssemblyException) {
+                n++;
+            }
+            ex = ex.getCause();
+        }
+        return n;
+    }
+
+    @Test
+    public void productionModeSharedCallSiteChainsIndependent() {
+        RxJavaAssemblyTracking.enableProductionMode();
+        try {
+            int[] counts = new int[3];
+            for (int i = 0; i < 3; i++) {
+                Flowable<Integer> source = createFlowable();
+                if (i == 1) {
+                    source = source.map(v -> v);
+                }
+
+                TestSubscriber<Integer> ts = source.test()
+                .assertFailure(IOException.class, 1, 2, 3, 4, 5);
+
+                counts[i] = assemblyCauses(TestHelper.errors(ts).get(0));
+            }
+
+            assertEquals(counts[0] + 1, counts[1]);
+            // the error passing map() must not have linked the shared call-sites to the map() assembly
+            assertEquals(counts[0], counts[2]);
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    @Test
+    public void productionModeBounded() {
+        RxJavaAssemblyTracking.enableProductionMode(1d, 1);
+        try {
+            RxJavaAssemblyException first = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+            RxJavaAssemblyException second = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+            RxJavaAssemblyException third = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+
+            assertNotSame(first.callSite, second.callSite);
+            assertNotSame(second.callSite, third.callSite);
+            assertEquals(1, RxJavaAssemblyException.callSites.size());
+
+            assertTrue(third.stacktrace(), third.stacktrace().contains("RxJava3AssemblyTrackingTest.createFlowable"));
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    @Test
+    public void productionModeSampling() {
+        RxJavaAssemblyTracking.enableProductionMode(1e-9, RxJavaAssemblyTracking.DEFAULT_MAX_CALL_SITES);
+        try {
+            Flowable<Integer> source = createFlowable();
+
+            assertFalse(source instanceof FlowableOnAssembly);
+
+            TestSubscriber<Integer> ts = source.test()
+            .assertFailure(IOException.class, 1, 2, 3, 4, 5);
+
+            assertNull(RxJavaAssemblyException.find(TestHelper.errors(ts).get(0)));
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    @Test
+    public void productionModeInvalidArguments() {
+        try {
+            RxJavaAssemblyTracking.enableProductionMode(0d, 1);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            RxJavaAssemblyTracking.enableProductionMode(1.5d, 1);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            RxJavaAssemblyTracking.enableProductionMode(1d, -1);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
 }
@@ -16,7 +16,7 @@
 
 package hu.akarnokd.rxjava3.joins;
 
-import static org.junit.Assert.fail;
+import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -25,7 +25,7 @@ import java.util.concurrent.Callable;
 import org.junit.*;
 import org.mockito.*;
 
-import hu.akarnokd.rxjava3.test.TestException;
+import hu.akarnokd.rxjava3.test.*;
 import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.functions.*;
 import io.reactivex.rxjava3.internal.functions.Functions;
@@ -1392,4 +1392,69 @@ public class OperatorJoinsTest {
         .test()
         .assertResult(3, 6, 9, 12, 15);
     }
+
+    @Test
+    public void concurrentSources() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS; i++) {
+            final PublishSubject<Integer> ps1 = PublishSubject.create();
+            final PublishSubject<Integer> ps2 = PublishSubject.create();
+
+            TestObserver<Integer> to = JoinObservable.when(
+                    JoinObservable.from(ps1).and(ps2).then(new Adder())
+            ).toObservable()
+            .test();
+
+            TestHelper.race(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10; j++) {
+                        ps1.onNext(j);
+                    }
+                    ps1.onComplete();
+                }
+            }, new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10; j++) {
+                        ps2.onNext(j * 10);
+                    }
+                    ps2.onComplete();
+                }
+            });
+
+            to.assertResult(0, 11, 22, 33, 44, 55, 66, 77, 88, 99);
+        }
+    }
+
+    @Test
+    public void concurrentSourceError() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS; i++) {
+            final PublishSubject<Integer> ps1 = PublishSubject.create();
+            final PublishSubject<Integer> ps2 = PublishSubject.create();
+
+            TestObserver<Integer> to = JoinObservable.when(
+                    JoinObservable.from(ps1).and(ps2).then(new Adder())
+            ).toObservable()
+            .test();
+
+            TestHelper.race(new Runnable() {
+                @Override
+                public void run() {
+                    ps1.onNext(1);
+                    ps1.onError(new TestException());
+                }
+            }, new Runnable() {
+                @Override
+                public void run() {
+                    ps2.onNext(2);
+                }
+            });
+
+            to.assertError(TestException.class)
+            .assertNotComplete();
+
+            assertFalse(ps1.hasObservers());
+            assertFalse(ps2.hasObservers());
+        }
+    }
 }
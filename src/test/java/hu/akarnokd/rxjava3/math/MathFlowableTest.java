@@ -17,11 +17,17 @@
 package hu.akarnokd.rxjava3.math;
 
 import static hu.akarnokd.rxjava3.math.MathFlowable.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import hu.akarnokd.rxjava3.test.BaseTest;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
 
 public class MathFlowableTest extends BaseTest {
 
@@ -180,4 +186,221 @@ public class MathFlowableTest extends BaseTest {
     public void emptyAverageDouble() {
         assertResult(averageDouble(doubleEmpty()));
     }
+
+    @Test
+    public void normalLongArray() {
+        Flowable<long[]> source = Flowable.just(new long[] { 3L, 1L }, new long[0], new long[] { 10L, 2L, 4L });
+
+        assertResult(sumLongArray(source), 20L);
+        assertResult(minLongArray(source), 1L);
+        assertResult(maxLongArray(source), 10L);
+        assertResult(averageLongArray(source), 4D);
+    }
+
+    @Test
+    public void normalIntArray() {
+        Flowable<int[]> source = Flowable.just(new int[] { 3, 1 }, new int[0], new int[] { 10, 2, 4 });
+
+        assertResult(sumIntArray(source), 20);
+        assertResult(minIntArray(source), 1);
+        assertResult(maxIntArray(source), 10);
+        assertResult(averageIntArray(source), 4D);
+    }
+
+    @Test
+    public void normalDoubleArray() {
+        Flowable<double[]> source = Flowable.just(new double[] { 3D, 1D }, new double[0], new double[] { 10D, 2D, 4D });
+
+        assertResult(sumDoubleArray(source), 20D);
+        assertResult(minDoubleArray(source), 1D);
+        assertResult(maxDoubleArray(source), 10D);
+        assertResult(averageDoubleArray(source), 4D);
+    }
+
+    @Test
+    public void negativeArrays() {
+        assertResult(minLongArray(Flowable.just(new long[] { -3L, -1L }, new long[] { -5L })), -5L);
+        assertResult(maxIntArray(Flowable.just(new int[] { -3, -1 }, new int[] { -5 })), -1);
+        assertResult(maxDoubleArray(Flowable.just(new double[] { -3D })), -3D);
+    }
+
+    @Test
+    public void largeValuesAverageArray() {
+        assertResult(averageLongArray(Flowable.just(new long[] { Long.MAX_VALUE, Long.MAX_VALUE })), (double)Long.MAX_VALUE);
+        assertResult(averageIntArray(Flowable.just(new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE })), (double)Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void emptyArrays() {
+        Flowable<long[]> longs = Flowable.just(new long[0]);
+        Flowable<int[]> ints = Flowable.empty();
+        Flowable<double[]> doubles = Flowable.just(new double[0], new double[0]);
+
+        assertResult(sumLongArray(longs));
+        assertResult(minLongArray(longs));
+        assertResult(maxLongArray(longs));
+        assertResult(averageLongArray(longs));
+
+        assertResult(sumIntArray(ints));
+        assertResult(minIntArray(ints));
+        assertResult(maxIntArray(ints));
+        assertResult(averageIntArray(ints));
+
+        assertResult(sumDoubleArray(doubles));
+        assertResult(minDoubleArray(doubles));
+        assertResult(maxDoubleArray(doubles));
+        assertResult(averageDoubleArray(doubles));
+    }
+
+    @Test
+    public void statisticsNormal() {
+        Statistics st = statistics(Flowable.just(2, 4, 4, 4, 5, 5, 7, 9)).blockingSingle();
+
+        assertEquals(8, st.count());
+        assertEquals(40d, st.sum(), 0d);
+        assertEquals(5d, st.mean(), 0d);
+        assertEquals(4d, st.variance(), 1e-12);
+        assertEquals(32d / 7, st.sampleVariance(), 1e-12);
+        assertEquals(2d, st.standardDeviation(), 1e-12);
+        assertEquals(2d, st.min(), 0d);
+        assertEquals(9d, st.max(), 0d);
+        assertNotNull(st.toString());
+    }
+
+    @Test
+    public void statisticsSingle() {
+        Statistics st = statistics(Flowable.just(3L)).blockingSingle();
+
+        assertEquals(1, st.count());
+        assertEquals(3d, st.mean(), 0d);
+        assertEquals(0d, st.variance(), 0d);
+        assertTrue(Double.isNaN(st.sampleVariance()));
+    }
+
+    @Test
+    public void statisticsEmpty() {
+        assertResult(statistics(doubleEmpty()));
+    }
+
+    @Test
+    public void statisticsStable() {
+        double offset = 1e9;
+        Statistics st = statistics(Flowable.just(offset + 4, offset + 7, offset + 13, offset + 16)).blockingSingle();
+
+        assertEquals(offset + 10, st.mean(), 0d);
+        assertEquals(22.5d, st.variance(), 1e-6);
+    }
+
+    @Test
+    public void statisticsCompensatedSum() {
+        Statistics st = statistics(Flowable.just(1e100, 1d, -1e100)).blockingSingle();
+
+        assertEquals(1d, st.sum(), 0d);
+    }
+
+    @Test
+    public void statisticsCombine() {
+        Statistics all = statistics(Flowable.range(1, 100)).blockingSingle();
+        Statistics left = statistics(Flowable.range(1, 30)).blockingSingle();
+        Statistics right = statistics(Flowable.range(31, 70)).blockingSingle();
+
+        Statistics combined = left.combine(right);
+
+        assertEquals(all.count(), combined.count());
+        assertEquals(all.sum(), combined.sum(), 1e-9);
+        assertEquals(all.mean(), combined.mean(), 1e-9);
+        assertEquals(all.variance(), combined.variance(), 1e-9);
+        assertEquals(all.min(), combined.min(), 0d);
+        assertEquals(all.max(), combined.max(), 0d);
+    }
+
+    @Test
+    public void percentilesNormal() {
+        double[] p = percentiles(Flowable.range(1, 1000), 0, 0.5, 1).blockingSingle();
+
+        assertEquals(3, p.length);
+        assertEquals(1d, p[0], 0d);
+        assertEquals(500d, p[1], 5d);
+        assertEquals(1000d, p[2], 0d);
+    }
+
+    @Test
+    public void percentilesEmpty() {
+        percentiles(intEmpty(), 0.5)
+        .test()
+        .assertResult();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentilesNoQuantiles() {
+        percentiles(Flowable.range(1, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentilesInvalidQuantile() {
+        percentiles(Flowable.range(1, 10), 0.5, -0.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantileSketchInvalidAccuracy() {
+        quantileSketch(Flowable.range(1, 10), 0);
+    }
+
+    @Test
+    public void quantileSketchNormal() {
+        QuantileSketch s = quantileSketch(Flowable.range(1, 100), 0.05).blockingSingle();
+
+        assertEquals(100, s.count());
+        assertEquals(0.05, s.relativeAccuracy(), 0d);
+    }
+
+    @Test
+    public void windowedPercentilesCount() {
+        TestSubscriber<double[]> ts = windowedPercentiles(Flowable.range(1, 250), 100, 1)
+        .test();
+
+        ts.assertValueCount(3).assertNoErrors().assertComplete();
+
+        assertEquals(100d, ts.values().get(0)[0], 0d);
+        assertEquals(200d, ts.values().get(1)[0], 0d);
+        assertEquals(250d, ts.values().get(2)[0], 0d);
+    }
+
+    @Test
+    public void windowedPercentilesBackpressure() {
+        windowedPercentiles(Flowable.range(1, 250), 100, 1)
+        .test(1L)
+        .assertValueCount(1)
+        .assertNotComplete()
+        .requestMore(2)
+        .assertValueCount(3)
+        .assertComplete();
+    }
+
+    @Test
+    public void windowedPercentilesTime() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<double[]> ts = windowedPercentiles(pp, 1, TimeUnit.SECONDS, scheduler, 0, 1)
+        .test();
+
+        pp.onNext(1);
+        pp.onNext(5);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValueCount(1);
+        assertEquals(1d, ts.values().get(0)[0], 0d);
+        assertEquals(5d, ts.values().get(0)[1], 0d);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValueCount(1);
+
+        pp.onNext(7);
+        pp.onComplete();
+
+        ts.assertValueCount(2).assertComplete();
+        assertEquals(7d, ts.values().get(1)[0], 0d);
+    }
 }
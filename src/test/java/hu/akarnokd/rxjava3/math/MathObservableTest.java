@@ -17,6 +17,7 @@
 package hu.akarnokd.rxjava3.math;
 
 import static hu.akarnokd.rxjava3.math.MathObservable.*;
+import static org.junit.Assert.*;
 
 import org.junit.Test;
 
@@ -180,4 +181,131 @@ public class MathObservableTest extends BaseTest {
     public void emptyAverageDouble() {
         assertResult(averageDouble(doubleEmpty()));
     }
+
+    @Test
+    public void normalLongArray() {
+        Observable<long[]> source = Observable.just(new long[] { 3L, 1L }, new long[0], new long[] { 10L, 2L, 4L });
+
+        assertResult(sumLongArray(source), 20L);
+        assertResult(minLongArray(source), 1L);
+        assertResult(maxLongArray(source), 10L);
+        assertResult(averageLongArray(source), 4D);
+    }
+
+    @Test
+    public void normalIntArray() {
+        Observable<int[]> source = Observable.just(new int[] { 3, 1 }, new int[0], new int[] { 10, 2, 4 });
+
+        assertResult(sumIntArray(source), 20);
+        assertResult(minIntArray(source), 1);
+        assertResult(maxIntArray(source), 10);
+        assertResult(averageIntArray(source), 4D);
+    }
+
+    @Test
+    public void normalDoubleArray() {
+        Observable<double[]> source = Observable.just(new double[] { 3D, 1D }, new double[0], new double[] { 10D, 2D, 4D });
+
+        assertResult(sumDoubleArray(source), 20D);
+        assertResult(minDoubleArray(source), 1D);
+        assertResult(maxDoubleArray(source), 10D);
+        assertResult(averageDoubleArray(source), 4D);
+    }
+
+    @Test
+    public void negativeArrays() {
+        assertResult(minLongArray(Observable.just(new long[] { -3L, -1L }, new long[] { -5L })), -5L);
+        assertResult(maxIntArray(Observable.just(new int[] { -3, -1 }, new int[] { -5 })), -1);
+        assertResult(maxDoubleArray(Observable.just(new double[] { -3D })), -3D);
+    }
+
+    @Test
+    public void largeValuesAverageArray() {
+        assertResult(averageLongArray(Observable.just(new long[] { Long.MAX_VALUE, Long.MAX_VALUE })), (double)Long.MAX_VALUE);
+        assertResult(averageIntArray(Observable.just(new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE })), (double)Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void emptyArrays() {
+        Observable<long[]> longs = Observable.just(new long[0]);
+        Observable<int[]> ints = Observable.empty();
+        Observable<double[]> doubles = Observable.just(new double[0], new double[0]);
+
+        assertResult(sumLongArray(longs));
+        assertResult(minLongArray(longs));
+        assertResult(maxLongArray(longs));
+        assertResult(averageLongArray(longs));
+
+        assertResult(sumIntArray(ints));
+        assertResult(minIntArray(ints));
+        assertResult(maxIntArray(ints));
+        assertResult(averageIntArray(ints));
+
+        assertResult(sumDoubleArray(doubles));
+        assertResult(minDoubleArray(doubles));
+        assertResult(maxDoubleArray(doubles));
+        assertResult(averageDoubleArray(doubles));
+    }
+
+    @Test
+    public void statisticsNormal() {
+        Statistics st = statistics(Observable.just(2, 4, 4, 4, 5, 5, 7, 9)).blockingSingle();
+
+        assertEquals(8, st.count());
+        assertEquals(40d, st.sum(), 0d);
+        assertEquals(5d, st.mean(), 0d);
+        assertEquals(4d, st.variance(), 1e-12);
+        assertEquals(32d / 7, st.sampleVariance(), 1e-12);
+        assertEquals(2d, st.standardDeviation(), 1e-12);
+        assertEquals(2d, st.min(), 0d);
+        assertEquals(9d, st.max(), 0d);
+        assertNotNull(st.toString());
+    }
+
+    @Test
+    public void statisticsSingle() {
+        Statistics st = statistics(Observable.just(3L)).blockingSingle();
+
+        assertEquals(1, st.count());
+        assertEquals(3d, st.mean(), 0d);
+        assertEquals(0d, st.variance(), 0d);
+        assertTrue(Double.isNaN(st.sampleVariance()));
+    }
+
+    @Test
+    public void statisticsEmpty() {
+        assertResult(statistics(doubleEmpty()));
+    }
+
+    @Test
+    public void statisticsStable() {
+        double offset = 1e9;
+        Statistics st = statistics(Observable.just(offset + 4, offset + 7, offset + 13, offset + 16)).blockingSingle();
+
+        assertEquals(offset + 10, st.mean(), 0d);
+        assertEquals(22.5d, st.variance(), 1e-6);
+    }
+
+    @Test
+    public void statisticsCompensatedSum() {
+        Statistics st = statistics(Observable.just(1e100, 1d, -1e100)).blockingSingle();
+
+        assertEquals(1d, st.sum(), 0d);
+    }
+
+    @Test
+    public void statisticsCombine() {
+        Statistics all = statistics(Observable.range(1, 100)).blockingSingle();
+        Statistics left = statistics(Observable.range(1, 30)).blockingSingle();
+        Statistics right = statistics(Observable.range(31, 70)).blockingSingle();
+
+        Statistics combined = left.combine(right);
+
+        assertEquals(all.count(), combined.count());
+        assertEquals(all.sum(), combined.sum(), 1e-9);
+        assertEquals(all.mean(), combined.mean(), 1e-9);
+        assertEquals(all.variance(), combined.variance(), 1e-9);
+        assertEquals(all.min(), combined.min(), 0d);
+        assertEquals(all.max(), combined.max(), 0d);
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.math;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+    static void assertRelative(double expected, double actual, double accuracy) {
+        assertEquals(expected, actual, Math.abs(expected) * accuracy);
+    }
+
+    @Test
+    public void uniform() {
+        QuantileSketch s = new QuantileSketch();
+        for (int i = 1; i <= 10000; i++) {
+            s.add(i);
+        }
+
+        assertEquals(10000, s.count());
+        assertEquals(1d, s.quantile(0), 0d);
+        assertEquals(10000d, s.quantile(1), 0d);
+        assertRelative(5000, s.quantile(0.5), 0.01);
+        assertRelative(9900, s.quantile(0.99), 0.01);
+        assertRelative(9990, s.quantile(0.999), 0.01);
+    }
+
+    @Test
+    public void wideRange() {
+        QuantileSketch s = new QuantileSketch(0.02);
+        Random rnd = new Random(1);
+        double[] values = new double[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(rnd.nextDouble() * 30);
+            s.add(values[i]);
+        }
+        java.util.Arrays.sort(values);
+
+        for (double q : new double[] { 0.1, 0.5, 0.9, 0.99 }) {
+            double expected = values[(int)(q * (values.length - 1))];
+            assertRelative(expected, s.quantile(q), 0.02);
+        }
+
+        // ~ 30 / log(1.04) buckets instead of 100000 values
+        assertTrue(s.positive.counts.length < 2000);
+    }
+
+    @Test
+    public void negativeAndZero() {
+        QuantileSketch s = new QuantileSketch();
+        s.add(-100);
+        s.add(-10);
+        s.add(0);
+        s.add(10);
+        s.add(100);
+
+        assertEquals(-100d, s.quantile(0), 0d);
+        assertRelative(-10, s.quantile(0.25), 0.01);
+        assertEquals(0d, s.quantile(0.5), 0d);
+        assertRelative(10, s.quantile(0.75), 0.01);
+        assertEquals(100d, s.quantile(1), 0d);
+    }
+
+    @Test
+    public void specialValues() {
+        QuantileSketch s = new QuantileSketch();
+        assertTrue(Double.isNaN(s.quantile(0.5)));
+
+        s.add(Double.NaN);
+        assertEquals(0, s.count());
+
+        s.add(Double.POSITIVE_INFINITY);
+        s.add(Double.NEGATIVE_INFINITY);
+        s.add(Double.MIN_VALUE);
+
+        assertEquals(3, s.count());
+        assertEquals(Double.NEGATIVE_INFINITY, s.min(), 0d);
+        assertEquals(Double.POSITIVE_INFINITY, s.max(), 0d);
+    }
+
+    @Test
+    public void merge() {
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch a = new QuantileSketch();
+        QuantileSketch b = new QuantileSketch();
+
+        for (int i = 1; i <= 1000; i++) {
+            all.add(i);
+            all.add(-i * 1000);
+            a.add(i);
+            b.add(-i * 1000);
+        }
+
+        assertSame(a, a.merge(b));
+        assertSame(a, a.merge(new QuantileSketch()));
+
+        assertEquals(all.count(), a.count());
+        assertEquals(all.min(), a.min(), 0d);
+        assertEquals(all.max(), a.max(), 0d);
+        for (double q = 0; q <= 1; q += 0.05) {
+            assertEquals(all.quantile(q), a.quantile(q), 0d);
+        }
+    }
+
+    @Test
+    public void mergeIntoEmpty() {
+        QuantileSketch a = new QuantileSketch();
+        QuantileSketch b = new QuantileSketch();
+        b.add(5);
+        b.add(1e9);
+
+        a.merge(b);
+
+        assertEquals(2, a.count());
+        assertEquals(5d, a.quantile(0), 0d);
+        assertEquals(1e9, a.quantile(1), 0d);
+    }
+
+    @Test
+    public void clear() {
+        QuantileSketch s = new QuantileSketch();
+        s.add(1);
+        s.add(2);
+        s.clear();
+
+        assertEquals(0, s.count());
+        assertTrue(Double.isNaN(s.quantile(0.5)));
+
+        s.add(3);
+        assertEquals(3d, s.quantile(0.5), 0d);
+        assertNotNull(s.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeDifferentAccuracy() {
+        new QuantileSketch(0.01).merge(new QuantileSketch(0.02));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidAccuracy() {
+        new QuantileSketch(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidQuantile() {
+        new QuantileSketch().quantile(1.5);
+    }
+}
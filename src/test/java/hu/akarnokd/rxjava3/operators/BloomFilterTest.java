@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    public void addContains() {
+        BloomFilter<Integer> set = new BloomFilter<>(1000, 0.01);
+
+        assertEquals(0, set.size());
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.add(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.mightContain(i));
+            assertFalse(set.add(i));
+        }
+
+        assertEquals(1000, set.size());
+    }
+
+    @Test
+    public void falsePositiveRate() {
+        BloomFilter<Integer> set = new BloomFilter<>(10000, 0.01);
+
+        for (int i = 0; i < 10000; i++) {
+            set.add(i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 10000; i < 110000; i++) {
+            if (set.mightContain(i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue("" + falsePositives, falsePositives < 2000);
+    }
+
+    @Test
+    public void clear() {
+        BloomFilter<String> set = new BloomFilter<>(16, 0.01);
+        set.add("a");
+        set.add("b");
+
+        set.clear();
+
+        assertEquals(0, set.size());
+        assertFalse(set.mightContain("a"));
+        assertTrue(set.add("a"));
+    }
+
+    @Test
+    public void supplier() throws Throwable {
+        BloomFilter<Integer> a = BloomFilter.<Integer>supplier(16, 0.01).get();
+        BloomFilter<Integer> b = BloomFilter.<Integer>supplier(16, 0.01).get();
+
+        assertTrue(a.test(1));
+        assertFalse(a.test(1));
+        assertTrue(b.add(1));
+        assertNotSame(a, b);
+        assertTrue(a.toString(), a.toString().startsWith("BloomFilter[size=1"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void addNull() {
+        new BloomFilter<Integer>(16, 0.01).add(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroExpected() {
+        new BloomFilter<Integer>(0, 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidProbability() {
+        BloomFilter.supplier(16, 1d);
+    }
+}
@@ -16,6 +16,8 @@
 
 package hu.akarnokd.rxjava3.operators;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -26,8 +28,10 @@ import org.reactivestreams.*;
 import hu.akarnokd.rxjava3.test.TestHelper;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.internal.functions.Functions;
 import io.reactivex.rxjava3.internal.subscriptions.BooleanSubscription;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
 
 public class FlowableBufferPredicateTest {
 
@@ -522,4 +526,231 @@ public class FlowableBufferPredicateTest {
         })
         .blockingLast();
     }
+
+    static final Predicate<Integer> NOT_MINUS_ONE = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer v) throws Exception {
+            return v != -1;
+        }
+    };
+
+    static final Predicate<Integer> IS_MINUS_ONE = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer v) throws Exception {
+            return v == -1;
+        }
+    };
+
+    static <C extends Collection<?>> Function<PooledBuffer<C>, List<Object>> copyAndRelease() {
+        return new Function<PooledBuffer<C>, List<Object>>() {
+            @Override
+            public List<Object> apply(PooledBuffer<C> b) throws Exception {
+                try (PooledBuffer<C> h = b) {
+                    return new ArrayList<Object>(h.buffer());
+                }
+            }
+        };
+    }
+
+    @Test
+    public void whilePooled() {
+        Flowable.just(1, 2, -1, 3, 4, 5, -1, -1, 6)
+        .compose(FlowableTransformers.bufferWhilePooled(NOT_MINUS_ONE, IntArrayBuffer.supplier(4), 2))
+        .map(FlowableBufferPredicateTest.<IntArrayBuffer>copyAndRelease())
+        .test()
+        .assertResult(
+                Arrays.<Object>asList(1, 2),
+                Arrays.<Object>asList(-1, 3, 4, 5),
+                Arrays.<Object>asList(-1),
+                Arrays.<Object>asList(-1, 6)
+        );
+    }
+
+    @Test
+    public void untilPooled() {
+        Flowable.just(1, 2, -1, 3, 4, 5, -1, -1, 6)
+        .compose(FlowableTransformers.bufferUntilPooled(IS_MINUS_ONE, IntArrayBuffer.supplier(4), 2))
+        .map(FlowableBufferPredicateTest.<IntArrayBuffer>copyAndRelease())
+        .test()
+        .assertResult(
+                Arrays.<Object>asList(1, 2, -1),
+                Arrays.<Object>asList(3, 4, 5, -1),
+                Arrays.<Object>asList(-1),
+                Arrays.<Object>asList(6)
+        );
+    }
+
+    @Test
+    public void splitPooled() {
+        Flowable.just(1, 2, -1, 3, 4, 5, -1, -1, 6)
+        .compose(FlowableTransformers.bufferSplitPooled(IS_MINUS_ONE, IntArrayBuffer.supplier(4), 2))
+        .map(FlowableBufferPredicateTest.<IntArrayBuffer>copyAndRelease())
+        .test()
+        .assertResult(
+                Arrays.<Object>asList(1, 2),
+                Arrays.<Object>asList(3, 4, 5),
+                Arrays.<Object>asList(),
+                Arrays.<Object>asList(6)
+        );
+    }
+
+    @Test
+    public void pooledReusesReleased() throws Throwable {
+        final List<IntArrayBuffer> created = new ArrayList<>();
+        Supplier<IntArrayBuffer> supplier = new Supplier<IntArrayBuffer>() {
+            @Override
+            public IntArrayBuffer get() throws Exception {
+                IntArrayBuffer b = new IntArrayBuffer(4);
+                created.add(b);
+                return b;
+            }
+        };
+
+        final Set<IntArrayBuffer> seen = Collections.newSetFromMap(new IdentityHashMap<IntArrayBuffer, Boolean>());
+
+        Flowable.range(1, 100)
+        .compose(FlowableTransformers.bufferUntilPooled(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                return v % 5 == 0;
+            }
+        }, supplier, 4))
+        .doOnNext(new Consumer<PooledBuffer<IntArrayBuffer>>() {
+            @Override
+            public void accept(PooledBuffer<IntArrayBuffer> b) throws Exception {
+                seen.add(b.buffer());
+                assertEquals(5, b.buffer().size());
+                b.release();
+                assertTrue(b.isReleased());
+                // idempotent
+                b.close();
+            }
+        })
+        .test()
+        .assertValueCount(20)
+        .assertNoErrors()
+        .assertComplete();
+
+        // the current and the released buffer
+        assertTrue(created.toString(), created.size() <= 2);
+        assertEquals(created.size(), seen.size());
+    }
+
+    @Test
+    public void pooledNotReleased() {
+        final int[] created = { 0 };
+        Supplier<List<Integer>> supplier = new Supplier<List<Integer>>() {
+            @Override
+            public List<Integer> get() throws Exception {
+                created[0]++;
+                return new ArrayList<>();
+            }
+        };
+
+        TestSubscriber<PooledBuffer<List<Integer>>> ts = Flowable.range(1, 10)
+        .compose(FlowableTransformers.bufferUntilPooled(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                return v % 2 == 0;
+            }
+        }, supplier, 4))
+        .test()
+        .assertValueCount(5)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertEquals(6, created[0]);
+        assertEquals(Arrays.asList(1, 2), ts.values().get(0).buffer());
+        assertFalse(ts.values().get(0).isReleased());
+    }
+
+    @Test
+    public void pooledBoundedPool() throws Throwable {
+        PooledBuffer.Pool<List<Integer>> pool = new PooledBuffer.Pool<List<Integer>>(new Supplier<List<Integer>>() {
+            @Override
+            public List<Integer> get() throws Exception {
+                return new ArrayList<>();
+            }
+        }, 2);
+
+        List<Integer> a = pool.get();
+        List<Integer> b = pool.get();
+        List<Integer> c = pool.get();
+        a.add(1);
+
+        new PooledBuffer<>(a, pool).release();
+        new PooledBuffer<>(b, pool).release();
+        new PooledBuffer<>(c, pool).release();
+
+        assertTrue(a.isEmpty());
+        List<Integer> d = pool.get();
+        List<Integer> e = pool.get();
+        assertNotSame(d, e);
+        assertTrue(d == a || d == b);
+        assertTrue(e == a || e == b);
+        assertNotSame(c, pool.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void pooledAccessAfterRelease() {
+        PooledBuffer<List<Integer>> b = new PooledBuffer<List<Integer>>(new ArrayList<Integer>(),
+                new PooledBuffer.Pool<List<Integer>>(new Supplier<List<Integer>>() {
+                    @Override
+                    public List<Integer> get() throws Exception {
+                        return new ArrayList<>();
+                    }
+                }, 1));
+        b.release();
+        assertEquals("[released]", b.toString());
+        b.buffer();
+    }
+
+    @Test
+    public void pooledPredicateCrash() {
+        Flowable.just(1, 2)
+        .compose(FlowableTransformers.bufferWhilePooled(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                throw new IOException();
+            }
+        }, IntArrayBuffer.supplier(4), 2))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void pooledBufferSupplierCrash() {
+        Flowable.just(1, 2)
+        .compose(FlowableTransformers.bufferWhilePooled(Functions.alwaysTrue(), new Supplier<List<Integer>>() {
+            @Override
+            public List<Integer> get() throws Exception {
+                throw new IOException();
+            }
+        }, 2))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void pooledBackpressured() {
+        Flowable.just(1L, 2L, -1L, 3L, 4L, 5L, -1L, -1L, 6L)
+        .compose(FlowableTransformers.bufferSplitPooled(new Predicate<Long>() {
+            @Override
+            public boolean test(Long v) throws Exception {
+                return v == -1L;
+            }
+        }, LongArrayBuffer.supplier(4), 2))
+        .map(FlowableBufferPredicateTest.<LongArrayBuffer>copyAndRelease())
+        .test(0)
+        .assertEmpty()
+        .requestMore(1)
+        .assertValuesOnly(Arrays.<Object>asList(1L, 2L))
+        .requestMore(3)
+        .assertResult(
+                Arrays.<Object>asList(1L, 2L),
+                Arrays.<Object>asList(3L, 4L, 5L),
+                Arrays.<Object>asList(),
+                Arrays.<Object>asList(6L)
+        );
+    }
 }
@@ -18,6 +18,9 @@ package hu.akarnokd.rxjava3.operators;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
 
 import org.junit.Test;
 
@@ -26,7 +29,7 @@ import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.functions.*;
 import io.reactivex.rxjava3.internal.functions.Functions;
 import io.reactivex.rxjava3.processors.PublishProcessor;
-import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.schedulers.*;
 import io.reactivex.rxjava3.subscribers.TestSubscriber;
 
 public class FlowableCoalesceTest {
@@ -201,4 +204,186 @@ public class FlowableCoalesceTest {
 
         ts.assertFailure(IOException.class, Arrays.asList(1));
     }
+
+    @Test
+    public void adaptiveSizeLimit() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 2, 1, TimeUnit.MINUTES, Schedulers.single()))
+        .test()
+        .assertResult(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5));
+    }
+
+    @Test
+    public void adaptiveWeightLimit() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 100, new Function<Integer, Long>() {
+            @Override
+            public Long apply(Integer v) throws Exception {
+                return (long)v;
+            }
+        }, 5, 1, TimeUnit.MINUTES, Schedulers.single()))
+        .test()
+        .assertResult(Arrays.asList(1, 2, 3), Arrays.asList(4, 5));
+    }
+
+    @Test
+    public void adaptiveLingerWithDemand() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 10, 100, TimeUnit.MILLISECONDS, scheduler))
+        .test();
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        ts.assertEmpty();
+
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        pp.onNext(3);
+
+        ts.assertEmpty();
+
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        ts.assertValuesOnly(Arrays.asList(1, 2, 3));
+
+        pp.onNext(4);
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts.assertValuesOnly(Arrays.asList(1, 2, 3), Arrays.asList(4));
+
+        pp.onComplete();
+
+        ts.assertResult(Arrays.asList(1, 2, 3), Arrays.asList(4));
+    }
+
+    @Test
+    public void adaptiveLingerWithoutDemand() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 3, 100, TimeUnit.MILLISECONDS, scheduler))
+        .test(0);
+
+        pp.onNext(1);
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        // not starved, keep filling the container
+        pp.onNext(2);
+        pp.onNext(3);
+        pp.onNext(4);
+
+        ts.assertEmpty();
+
+        ts.request(1);
+
+        ts.assertValuesOnly(Arrays.asList(1, 2, 3));
+
+        ts.request(1);
+
+        ts.assertValuesOnly(Arrays.asList(1, 2, 3));
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts.assertValuesOnly(Arrays.asList(1, 2, 3), Arrays.asList(4));
+    }
+
+    @Test
+    public void adaptiveLingerExpiredWhileReadyWaiting() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 2, 100, TimeUnit.MILLISECONDS, scheduler))
+        .test(0);
+
+        pp.onNext(1);
+        pp.onNext(2);
+        pp.onNext(3);
+
+        scheduler.advanceTimeBy(200, TimeUnit.MILLISECONDS);
+
+        ts.assertEmpty();
+
+        ts.request(2);
+
+        ts.assertValuesOnly(Arrays.asList(1, 2), Arrays.asList(3));
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        ts.assertValuesOnly(Arrays.asList(1, 2), Arrays.asList(3));
+    }
+
+    @Test
+    public void adaptiveCompleteWithoutDemand() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 2, 1, TimeUnit.MINUTES, Schedulers.single()))
+        .test(0)
+        .assertEmpty()
+        .requestMore(2)
+        .assertValuesOnly(Arrays.asList(1, 2), Arrays.asList(3, 4))
+        .requestMore(1)
+        .assertResult(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5));
+    }
+
+    @Test
+    public void adaptiveError() {
+        Flowable.range(1, 3).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 2, 1, TimeUnit.MINUTES, Schedulers.single()))
+        .test()
+        .assertFailure(IOException.class, Arrays.asList(1, 2), Arrays.asList(3));
+    }
+
+    @Test
+    public void adaptiveCoalescerCrash() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        pp
+        .compose(FlowableTransformers.coalesce(listSupplier, listAddCrash, 2, 1, TimeUnit.MINUTES, Schedulers.single()))
+        .test()
+        .assertEmpty();
+
+        pp.onNext(1);
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void adaptiveCancel() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 10, 100, TimeUnit.MILLISECONDS, scheduler))
+        .test();
+
+        pp.onNext(1);
+
+        ts.cancel();
+
+        assertFalse(pp.hasSubscribers());
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts.assertEmpty();
+    }
+
+    @Test
+    public void adaptiveAsync() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.coalesce(listSupplier, listAdd, 16, 1, TimeUnit.MILLISECONDS, Schedulers.single()))
+        .observeOn(Schedulers.computation(), false, 4)
+        .flatMapIterable(Functions.<List<Integer>>identity())
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
 }
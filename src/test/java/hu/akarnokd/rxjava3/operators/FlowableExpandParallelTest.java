@@ -0,0 +1,283 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
+public class FlowableExpandParallelTest {
+
+    static final Function<Integer, Publisher<Integer>> COUNT_DOWN = v -> v == 0 ? Flowable.<Integer>empty() : Flowable.just(v - 1);
+
+    static final Function<Integer, Publisher<Integer>> BINARY_TREE = v -> v >= 1024 ? Flowable.<Integer>empty() : Flowable.just(2 * v, 2 * v + 1);
+
+    @Test
+    public void recursiveCountdown() {
+        Flowable.just(10)
+        .compose(FlowableTransformers.expandParallel(COUNT_DOWN, 4, 16, Schedulers.trampoline()))
+        .test()
+        .assertResult(10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0);
+    }
+
+    @Test
+    public void recursiveCountdownBackpressured() {
+        Flowable.just(10)
+        .compose(FlowableTransformers.expandParallel(COUNT_DOWN, 4, 16, Schedulers.trampoline()))
+        .test(0)
+        .assertEmpty()
+        .requestMore(4)
+        .assertValuesOnly(10, 9, 8, 7)
+        .requestMore(10)
+        .assertResult(10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0);
+    }
+
+    @Test
+    public void binaryTreeSingleThreaded() {
+        List<Integer> list = Flowable.just(1)
+        .compose(FlowableTransformers.expandParallel(BINARY_TREE, 1, 4, Schedulers.trampoline()))
+        .toList()
+        .blockingGet();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i < 2048; i++) {
+            expected.add(i);
+        }
+        // with a single expansion at a time, the order is strictly breadth-first
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void binaryTreeParallel() {
+        for (int j = 0; j < 10; j++) {
+            List<Integer> list = Flowable.just(1)
+            .compose(FlowableTransformers.expandParallel(BINARY_TREE, 8, 16, Schedulers.computation()))
+            .toList()
+            .blockingGet();
+
+            Collections.sort(list);
+
+            assertEquals(2047, list.size());
+            for (int i = 0; i < 2047; i++) {
+                assertEquals(i + 1, list.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void empty() {
+        Flowable.<Integer>empty()
+        .compose(FlowableTransformers.expandParallel(COUNT_DOWN, 4, 16, Schedulers.computation()))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult();
+    }
+
+    @Test
+    public void maxConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+
+        Flowable.range(1, 50)
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> {
+            if (v > 50) {
+                return Flowable.empty();
+            }
+            return Flowable.just(v + 100)
+                    .delay(1, TimeUnit.MILLISECONDS)
+                    .doOnSubscribe(s -> {
+                        int n = running.incrementAndGet();
+                        max.accumulateAndGet(n, Math::max);
+                    })
+                    .doOnComplete(running::decrementAndGet);
+        }, 4, 16, Schedulers.io()))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(100)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertTrue("" + max.get(), max.get() <= 4);
+    }
+
+    @Test
+    public void boundedFrontier() {
+        AtomicInteger generated = new AtomicInteger();
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 1000000)
+        .doOnNext(v -> generated.getAndIncrement())
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> Flowable.<Integer>empty(), 2, 16, Schedulers.trampoline()))
+        .test(0);
+
+        // the frontier is filled up in prefetch sized batches
+        assertTrue("" + generated.get(), generated.get() <= 16 + 8);
+
+        ts.requestMore(100);
+
+        ts.assertValueCount(100);
+        assertTrue("" + generated.get(), generated.get() <= 100 + 16 + 8);
+    }
+
+    @Test
+    public void noDemandNoExpansion() {
+        AtomicInteger expansions = new AtomicInteger();
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 100)
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> {
+            expansions.getAndIncrement();
+            return Flowable.range(1000, 1000);
+        }, 2, 16, Schedulers.trampoline()))
+        .test(0);
+
+        assertEquals(0, expansions.get());
+
+        ts.requestMore(1);
+
+        ts.assertValuesOnly(0);
+        assertEquals(1, expansions.get());
+    }
+
+    @Test
+    public void visitedCycle() {
+        Map<Integer, List<Integer>> graph = new HashMap<>();
+        graph.put(1, Arrays.asList(2, 3));
+        graph.put(2, Arrays.asList(3, 4));
+        graph.put(3, Arrays.asList(1, 4));
+        graph.put(4, Arrays.asList(1, 2, 3, 4));
+
+        List<Integer> list = Flowable.just(1)
+        .compose(FlowableTransformers.<Integer, Integer>expandParallel(v -> Flowable.fromIterable(graph.get(v)),
+                4, 16, Schedulers.computation(), v -> v, () -> new HashSet<Integer>()::add))
+        .toList()
+        .blockingGet();
+
+        Collections.sort(list);
+        assertEquals(Arrays.asList(1, 2, 3, 4), list);
+    }
+
+    @Test
+    public void visitedPerSubscriber() {
+        Flowable<Integer> f = Flowable.just(1, 1, 2)
+        .compose(FlowableTransformers.<Integer, Integer>expandParallel(v -> Flowable.<Integer>empty(),
+                4, 16, Schedulers.trampoline(), v -> v, () -> new HashSet<Integer>()::add));
+
+        f.test().assertResult(1, 2);
+        f.test().assertResult(1, 2);
+    }
+
+    @Test
+    public void visitedSupplierNull() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.<Integer, Integer>expandParallel(COUNT_DOWN,
+                4, 16, Schedulers.trampoline(), v -> v, () -> null))
+        .test()
+        .assertFailure(NullPointerException.class);
+    }
+
+    @Test
+    public void keySelectorCrash() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.<Integer, Integer>expandParallel(COUNT_DOWN,
+                4, 16, Schedulers.trampoline(), v -> { throw new IOException(); }, () -> new HashSet<Integer>()::add))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void expanderCrash() {
+        Flowable.just(10)
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> {
+            if (v == 5) {
+                throw new IOException();
+            }
+            return Flowable.just(v - 1);
+        }, 4, 16, Schedulers.trampoline()))
+        .test()
+        .assertFailure(IOException.class, 10, 9, 8, 7, 6, 5);
+    }
+
+    @Test
+    public void upstreamError() {
+        Flowable.just(1).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> Flowable.never(), 4, 16, Schedulers.trampoline()))
+        .test()
+        .assertFailure(IOException.class, 1);
+    }
+
+    @Test
+    public void innerError() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> Flowable.<Integer>error(new IOException()), 4, 16, Schedulers.computation()))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertFailure(IOException.class, 1);
+    }
+
+    @Test
+    public void cancel() {
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        TestSubscriber<Integer> ts = Flowable.just(1)
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> Flowable.<Integer>never()
+                .doOnSubscribe(s -> subscriptions.getAndIncrement())
+                .doOnCancel(subscriptions::getAndDecrement),
+                4, 16, Schedulers.trampoline()))
+        .test();
+
+        ts.assertValuesOnly(1);
+        assertEquals(1, subscriptions.get());
+
+        ts.cancel();
+
+        assertEquals(0, subscriptions.get());
+    }
+
+    @Test
+    public void infiniteTreeTake() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.<Integer>expandParallel(v -> Flowable.range(1, 1000), 4, 16, Schedulers.computation()))
+        .take(10000)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(10000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void asyncUpstreamCompletionRace() {
+        for (int i = 0; i < 1000; i++) {
+            Flowable.range(0, 10).subscribeOn(Schedulers.computation())
+            .compose(FlowableTransformers.<Integer>expandParallel(v -> Flowable.<Integer>empty(), 4, 16, Schedulers.computation()))
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(10)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+}
@@ -606,4 +606,152 @@ public class FlowableExpandTest {
         .assertFailure(IOException.class, 10, 5, 9, 4, 3, 2, 1, 0)
         .assertError(TestHelper.assertErrorMessage("error"));
     }
+
+    /** Each node links to the next two, shared by the previous two; exponential without deduplication. */
+    Function<Integer, Publisher<Integer>> lattice = new Function<Integer, Publisher<Integer>>() {
+        @Override
+        public Publisher<Integer> apply(Integer v) throws Exception {
+            return Flowable.just(v + 1, v + 2).filter(w -> w <= 30);
+        }
+    };
+
+    static List<Integer> upTo(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i <= n; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    public void visitedDepth() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer, Integer>expand(lattice, ExpandStrategy.DEPTH_FIRST, v -> v, () -> new HashSet<Integer>()::add))
+        .test()
+        .assertResult(upTo(30).toArray(new Integer[0]));
+    }
+
+    @Test
+    public void visitedBreadth() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer, Integer>expand(lattice, ExpandStrategy.BREADTH_FIRST, v -> v, () -> new HashSet<Integer>()::add))
+        .test()
+        .assertResult(upTo(30).toArray(new Integer[0]));
+    }
+
+    @Test
+    public void visitedCycle() {
+        for (ExpandStrategy strategy : ExpandStrategy.values()) {
+            Flowable.just(0)
+            .compose(FlowableTransformers.<Integer, Integer>expand(v -> Flowable.just((v + 1) % 5, v), strategy, v -> v, () -> new HashSet<Integer>()::add))
+            .test()
+            .assertResult(0, 1, 2, 3, 4);
+        }
+    }
+
+    @Test
+    public void visitedBackpressuredDepth() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer, Integer>expand(lattice, ExpandStrategy.DEPTH_FIRST, v -> v, () -> new HashSet<Integer>()::add))
+        .test(0)
+        .assertEmpty()
+        .requestMore(5)
+        .assertValuesOnly(0, 1, 2, 3, 4)
+        .requestMore(26)
+        .assertResult(upTo(30).toArray(new Integer[0]));
+    }
+
+    @Test
+    public void visitedBackpressuredBreadth() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer, Integer>expand(lattice, ExpandStrategy.BREADTH_FIRST, v -> v, () -> new HashSet<Integer>()::add))
+        .test(0)
+        .assertEmpty()
+        .requestMore(5)
+        .assertValuesOnly(0, 1, 2, 3, 4)
+        .requestMore(26)
+        .assertValuesOnly(upTo(30).toArray(new Integer[0]))
+        // like with filter(), the remaining duplicates are only dropped once requested
+        .requestMore(1)
+        .assertResult(upTo(30).toArray(new Integer[0]));
+    }
+
+    @Test
+    public void visitedPerSubscriber() {
+        Flowable<Integer> f = Flowable.just(0)
+        .compose(FlowableTransformers.<Integer, Integer>expand(lattice, ExpandStrategy.DEPTH_FIRST, v -> v, () -> new HashSet<Integer>()::add));
+
+        f.test().assertValueCount(31);
+        f.test().assertValueCount(31);
+    }
+
+    @Test
+    public void visitedBloomFilter() {
+        for (ExpandStrategy strategy : ExpandStrategy.values()) {
+            Flowable.just(0)
+            .compose(FlowableTransformers.<Integer, Integer>expand(v -> v < 10000 ? Flowable.just(v + 1, v / 2) : Flowable.<Integer>empty(),
+                    strategy, v -> v, BloomFilter.supplier(100000, 0.01)))
+            .test()
+            .assertValueCount(10001)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test
+    public void visitedKeySelectorCrash() {
+        for (ExpandStrategy strategy : ExpandStrategy.values()) {
+            Flowable.just(0)
+            .compose(FlowableTransformers.<Integer, Integer>expand(lattice, strategy, v -> {
+                if (v == 3) {
+                    throw new IOException();
+                }
+                return v;
+            }, () -> new HashSet<Integer>()::add))
+            .test()
+            .assertFailure(IOException.class, 0, 1, 2);
+        }
+    }
+
+    @Test
+    public void visitedPredicateCrash() {
+        for (ExpandStrategy strategy : ExpandStrategy.values()) {
+            Flowable.just(0)
+            .compose(FlowableTransformers.<Integer, Integer>expand(lattice, strategy, v -> v, () -> {
+                HashSet<Integer> set = new HashSet<>();
+                return v -> {
+                    if (v == 3) {
+                        throw new IOException();
+                    }
+                    return set.add(v);
+                };
+            }))
+            .test()
+            .assertFailure(IOException.class, 0, 1, 2);
+        }
+    }
+
+    @Test
+    public void visitedDelayError() {
+        for (ExpandStrategy strategy : ExpandStrategy.values()) {
+            Flowable.just(0)
+            .compose(FlowableTransformers.<Integer, Integer>expandDelayError(v -> {
+                if (v == 2) {
+                    return Flowable.error(new IOException());
+                }
+                return lattice.apply(v);
+            }, strategy, v -> v, () -> new HashSet<Integer>()::add))
+            .test()
+            .assertError(IOException.class)
+            .assertNotComplete();
+        }
+    }
+
+    @Test
+    public void visitedSupplierNull() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer, Integer>expand(lattice, ExpandStrategy.DEPTH_FIRST, v -> v, () -> null))
+        .test()
+        .assertFailure(NullPointerException.class);
+    }
 }
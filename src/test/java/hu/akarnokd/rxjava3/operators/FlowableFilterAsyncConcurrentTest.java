@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
+public class FlowableFilterAsyncConcurrentTest {
+
+    @Test
+    public void orderedWithReverseLatency() {
+        Flowable.range(1, 6)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 2 == 0).delay((6 - v) * 30, TimeUnit.MILLISECONDS);
+            }
+        }, 16, 6))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(2, 4, 6);
+    }
+
+    @Test
+    public void synchronousShortcut() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 3 == 0);
+            }
+        }, 4, 2))
+        .test()
+        .assertResult(3, 6, 9);
+    }
+
+    @Test
+    public void emptyInnerDrops() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return v == 3 ? Flowable.<Boolean>empty().hide() : Flowable.just(true).hide();
+            }
+        }, 4, 2))
+        .test()
+        .assertResult(1, 2, 4, 5);
+    }
+
+    @Test
+    public void maxConcurrencyRespected() {
+        final List<PublishProcessor<Boolean>> inners = new ArrayList<>();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 6)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                PublishProcessor<Boolean> pp = PublishProcessor.create();
+                inners.add(pp);
+                return pp;
+            }
+        }, 4, 2))
+        .test();
+
+        assertEquals(2, inners.size());
+
+        // a finished but not yet emitted result frees up its predicate slot
+        inners.get(1).onNext(true);
+
+        assertEquals(3, inners.size());
+        ts.assertEmpty();
+
+        inners.get(2).onNext(true);
+
+        // the ring holds 4 items at most
+        assertEquals(4, inners.size());
+
+        inners.get(0).onNext(false);
+
+        ts.assertValuesOnly(2, 3);
+        assertEquals(5, inners.size());
+
+        inners.get(3).onNext(true);
+        inners.get(4).onComplete();
+
+        assertEquals(6, inners.size());
+
+        inners.get(5).onNext(true);
+
+        ts.assertResult(2, 3, 4, 6);
+    }
+
+    @Test
+    public void backpressure() {
+        Flowable.range(1, 6)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v != 2).hide();
+            }
+        }, 2, 2))
+        .test(0)
+        .assertEmpty()
+        .requestMore(2)
+        .assertValuesOnly(1, 3)
+        .requestMore(1)
+        .assertValuesOnly(1, 3, 4)
+        .requestMore(2)
+        .assertResult(1, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void innerError() {
+        final List<PublishProcessor<Boolean>> inners = new ArrayList<>();
+        PublishProcessor<Integer> main = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = main
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                PublishProcessor<Boolean> pp = PublishProcessor.create();
+                inners.add(pp);
+                return pp;
+            }
+        }, 4, 4))
+        .test();
+
+        main.onNext(1);
+        main.onNext(2);
+
+        inners.get(1).onError(new IOException());
+
+        ts.assertFailure(IOException.class);
+
+        assertFalse(main.hasSubscribers());
+        assertFalse(inners.get(0).hasSubscribers());
+    }
+
+    @Test
+    public void predicateCrash() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                if (v == 3) {
+                    throw new IOException();
+                }
+                return Flowable.just(true);
+            }
+        }, 4, 4))
+        .test()
+        .assertFailure(IOException.class, 1, 2);
+    }
+
+    @Test
+    public void mainError() {
+        Flowable.range(1, 3).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.never();
+            }
+        }, 4, 4))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void cancel() {
+        final List<PublishProcessor<Boolean>> inners = new ArrayList<>();
+        PublishProcessor<Integer> main = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = main
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                PublishProcessor<Boolean> pp = PublishProcessor.create();
+                inners.add(pp);
+                return pp;
+            }
+        }, 4, 4))
+        .test();
+
+        main.onNext(1);
+        main.onNext(2);
+
+        ts.cancel();
+
+        assertFalse(main.hasSubscribers());
+        assertFalse(inners.get(0).hasSubscribers());
+        assertFalse(inners.get(1).hasSubscribers());
+    }
+
+    @Test
+    public void asyncLong() {
+        final AtomicInteger calls = new AtomicInteger();
+        TestSubscriber<Integer> ts = Flowable.range(1, 1000)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                calls.getAndIncrement();
+                return Flowable.just(v % 2 == 0).subscribeOn(Schedulers.computation());
+            }
+        }, 32, 8))
+        .observeOn(Schedulers.single(), false, 8)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(500)
+        .assertNoErrors()
+        .assertComplete();
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals((i + 1) * 2, ts.values().get(i).intValue());
+        }
+        assertEquals(1000, calls.get());
+    }
+}
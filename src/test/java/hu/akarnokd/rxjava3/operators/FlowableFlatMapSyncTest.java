@@ -21,9 +21,11 @@ import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.reactivestreams.Publisher;
 
+import hu.akarnokd.rxjava3.test.TestException;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.functions.Function;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
 
 public class FlowableFlatMapSyncTest {
 
@@ -210,4 +212,167 @@ public class FlowableFlatMapSyncTest {
             }
         }
     }
+
+    @Test(timeout = 10000)
+    public void batched() {
+        for (final int n : new int[] { 0, 1, 2, 10, 100, 1000 }) {
+            Flowable.range(1, 1000)
+            .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return Flowable.range(v * 1000, n);
+                }
+            }))
+            .test()
+            .assertValueCount(n * 1000)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void batchedHidden() {
+        for (final int n : new int[] { 0, 1, 2, 10, 100, 1000 }) {
+            Flowable.range(1, 1000)
+            .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return Flowable.range(v * 1000, n).hide();
+                }
+            }))
+            .test()
+            .assertValueCount(n * 1000)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void batchedOrderReusingInners() {
+        for (final int c : new int[] { 1, 2, 4 }) {
+            for (final int n : new int[] { 0, 1, 2, 10, 100 }) {
+                Flowable.range(0, 100)
+                .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+                    @Override
+                    public Publisher<Integer> apply(Integer v) throws Exception {
+                        return Flowable.range(v * n, n);
+                    }
+                }, c, 16))
+                .test()
+                .assertValueSequence(Flowable.range(0, 100 * n).toList().blockingGet())
+                .assertNoErrors()
+                .assertComplete();
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void batchedBackpressured() {
+        TestSubscriber<Integer> ts = Flowable.range(0, 10)
+        .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.range(v * 10, 10).hide();
+            }
+        }, 2, 4))
+        .test(0L);
+
+        ts.assertEmpty();
+
+        ts.request(3);
+
+        ts.assertValuesOnly(0, 1, 2);
+
+        ts.request(15);
+
+        ts.assertValueCount(18)
+        .assertNotComplete();
+
+        ts.request(Long.MAX_VALUE);
+
+        ts.assertValueCount(100)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test(timeout = 10000)
+    public void batchedTake() {
+        Flowable.range(0, 10)
+        .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.range(v * 10, 10);
+            }
+        }))
+        .take(5)
+        .test()
+        .assertResult(0, 1, 2, 3, 4);
+    }
+
+    @Test(timeout = 20000)
+    public void batchedAsyncUpstreamCompletionRace() {
+        for (int i = 0; i < 1000; i++) {
+            Flowable.range(0, 10).subscribeOn(Schedulers.computation())
+            .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return Flowable.range(v * 10, 10);
+                }
+            }))
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(100)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void batchedInnerError() {
+        Flowable.range(0, 10)
+        .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v == 1) {
+                    return Flowable.error(new TestException());
+                }
+                return Flowable.range(v * 10, 2);
+            }
+        }))
+        .test()
+        .assertFailure(TestException.class, 0, 1);
+    }
+
+    @Test(timeout = 10000)
+    public void batchedMapperCrash() {
+        Flowable.range(0, 10)
+        .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                throw new TestException();
+            }
+        }))
+        .test()
+        .assertFailure(TestException.class);
+    }
+
+    @Test(timeout = 1000000)
+    public void batchedAsyncHidden() {
+        for (int m = 1; m < 1011; m = m < 16 ? m + 1 : m + 10) {
+            for (final int n : new int[] { 0, 1, 2, 10, 100, 1000 }) {
+                Flowable.range(1, m)
+                .compose(FlowableTransformers.flatMapSyncBatched(new Function<Integer, Publisher<Integer>>() {
+                    @Override
+                    public Publisher<Integer> apply(Integer v) throws Exception {
+                        return Flowable.range(v * 1000, n).observeOn(Schedulers.computation()).hide();
+                    }
+                }))
+                .test()
+                .awaitDone(9, TimeUnit.SECONDS)
+                .assertValueCount(n * m)
+                .assertNoErrors()
+                .assertComplete();
+            }
+        }
+    }
 }
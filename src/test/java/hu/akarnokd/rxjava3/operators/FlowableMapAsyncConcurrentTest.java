@@ -0,0 +1,313 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
+public class FlowableMapAsyncConcurrentTest {
+
+    static Function<Integer, Publisher<Integer>> reverseDelay(final int count) {
+        return new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v * 10).delay((count - v) * 50, TimeUnit.MILLISECONDS);
+            }
+        };
+    }
+
+    @Test
+    public void ordered() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsyncConcurrent(reverseDelay(5), 5, true))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(10, 20, 30, 40, 50);
+    }
+
+    @Test
+    public void unordered() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsyncConcurrent(reverseDelay(5), 5, false))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(50, 40, 30, 20, 10);
+    }
+
+    @Test
+    public void maxConcurrencyRespected() {
+        for (final boolean ordered : new boolean[] { true, false }) {
+            final AtomicInteger active = new AtomicInteger();
+            final AtomicInteger maxActive = new AtomicInteger();
+
+            Flowable.range(1, 50)
+            .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(final Integer v) throws Exception {
+                    return Flowable.timer(1, TimeUnit.MILLISECONDS)
+                            .map(new Function<Long, Integer>() {
+                                @Override
+                                public Integer apply(Long t) throws Exception {
+                                    return v;
+                                }
+                            })
+                            .doOnSubscribe(s -> {
+                                int a = active.incrementAndGet();
+                                if (a > maxActive.get()) {
+                                    maxActive.set(a);
+                                }
+                            })
+                            .doFinally(() -> active.decrementAndGet());
+                }
+            }, 4, ordered))
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(50)
+            .assertNoErrors()
+            .assertComplete();
+
+            assertTrue("" + maxActive.get(), maxActive.get() <= 4);
+        }
+    }
+
+    @Test
+    public void emptyInnersDropped() {
+        for (boolean ordered : new boolean[] { true, false }) {
+            Flowable.range(1, 10)
+            .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    if (v % 2 == 0) {
+                        return Flowable.<Integer>empty().hide();
+                    }
+                    return Flowable.just(v).hide();
+                }
+            }, 3, ordered))
+            .test()
+            .assertResult(1, 3, 5, 7, 9);
+        }
+    }
+
+    @Test
+    public void scalarInners() {
+        for (boolean ordered : new boolean[] { true, false }) {
+            Flowable.range(1, 10)
+            .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    if (v % 2 == 0) {
+                        return Flowable.<Integer>empty();
+                    }
+                    return Flowable.just(v);
+                }
+            }, 3, ordered))
+            .test()
+            .assertResult(1, 3, 5, 7, 9);
+        }
+    }
+
+    @Test
+    public void combiner() {
+        Flowable.range(1, 3)
+        .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<String>>() {
+            @Override
+            public Publisher<String> apply(Integer v) throws Exception {
+                return Flowable.just("" + (v + 1)).subscribeOn(Schedulers.computation());
+            }
+        }, new BiFunction<Integer, String, String>() {
+            @Override
+            public String apply(Integer a, String b) throws Exception {
+                return a + "-" + b;
+            }
+        }, 2, true))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult("1-2", "2-3", "3-4");
+    }
+
+    @Test
+    public void backpressure() {
+        for (boolean ordered : new boolean[] { true, false }) {
+            Flowable.range(1, 5)
+            .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return Flowable.just(v).hide();
+                }
+            }, 2, ordered))
+            .test(0)
+            .assertEmpty()
+            .requestMore(1)
+            .assertValuesOnly(1)
+            .requestMore(3)
+            .assertValuesOnly(1, 2, 3, 4)
+            .requestMore(1)
+            .assertResult(1, 2, 3, 4, 5);
+        }
+    }
+
+    @Test
+    public void orderedWaitsForHead() {
+        final List<PublishProcessor<Integer>> inners = new ArrayList<>();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 3)
+        .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                PublishProcessor<Integer> pp = PublishProcessor.create();
+                inners.add(pp);
+                return pp;
+            }
+        }, 2, true))
+        .test();
+
+        assertEquals(2, inners.size());
+
+        inners.get(1).onNext(20);
+
+        ts.assertEmpty();
+
+        inners.get(0).onNext(10);
+
+        ts.assertValuesOnly(10, 20);
+
+        assertEquals(3, inners.size());
+
+        inners.get(2).onComplete();
+
+        ts.assertResult(10, 20);
+    }
+
+    @Test
+    public void innerErrorCancelsAll() {
+        final List<PublishProcessor<Integer>> inners = new ArrayList<>();
+        PublishProcessor<Integer> main = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = main
+        .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                PublishProcessor<Integer> pp = PublishProcessor.create();
+                inners.add(pp);
+                return pp;
+            }
+        }, 4, false))
+        .test();
+
+        main.onNext(1);
+        main.onNext(2);
+
+        inners.get(1).onError(new IOException());
+
+        ts.assertFailure(IOException.class);
+
+        assertFalse(main.hasSubscribers());
+        assertFalse(inners.get(0).hasSubscribers());
+    }
+
+    @Test
+    public void mainError() {
+        Flowable.range(1, 3).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.never();
+            }
+        }, 4, true))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void mapperCrash() {
+        Flowable.range(1, 3)
+        .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v == 2) {
+                    throw new IOException();
+                }
+                return Flowable.just(v).hide();
+            }
+        }, 4, true))
+        .test()
+        .assertFailure(IOException.class, 1);
+    }
+
+    @Test
+    public void cancel() {
+        final List<PublishProcessor<Integer>> inners = new ArrayList<>();
+        PublishProcessor<Integer> main = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = main
+        .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                PublishProcessor<Integer> pp = PublishProcessor.create();
+                inners.add(pp);
+                return pp;
+            }
+        }, 4, true))
+        .test();
+
+        main.onNext(1);
+        main.onNext(2);
+
+        ts.cancel();
+
+        assertFalse(main.hasSubscribers());
+        assertFalse(inners.get(0).hasSubscribers());
+        assertFalse(inners.get(1).hasSubscribers());
+    }
+
+    @Test
+    public void asyncLong() {
+        for (boolean ordered : new boolean[] { true, false }) {
+            TestSubscriber<Integer> ts = Flowable.range(1, 1000)
+            .compose(FlowableTransformers.mapAsyncConcurrent(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return Flowable.just(v).subscribeOn(Schedulers.computation());
+                }
+            }, 16, ordered))
+            .observeOn(Schedulers.single(), false, 8)
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(1000)
+            .assertNoErrors()
+            .assertComplete();
+
+            if (ordered) {
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals(i + 1, ts.values().get(i).intValue());
+                }
+            }
+        }
+    }
+}
@@ -313,4 +313,140 @@ public class FlowableOnBackpressureTimeoutTest implements Consumer<Object> {
 
         Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), evicted);
     }
+
+    @Test
+    public void counters() {
+        BackpressureTimeoutCounters counters = new BackpressureTimeoutCounters();
+        TestScheduler scheduler = new TestScheduler();
+
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>onBackpressureTimeout(3, 1, TimeUnit.SECONDS, scheduler, this, counters))
+        .test(1);
+
+        TestHelper.emit(pp, 1, 2, 3, 4, 5, 6);
+
+        ts.assertValuesOnly(1);
+
+        Assert.assertEquals(1, counters.delivered());
+        Assert.assertEquals(2, counters.evicted());
+        Assert.assertEquals(0, counters.expired());
+
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        Assert.assertEquals(5, counters.evicted());
+        Assert.assertEquals(3, counters.expired());
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6), evicted);
+
+        ts.assertResult(1);
+        Assert.assertTrue(counters.toString(), counters.toString().contains("delivered=1"));
+    }
+
+    @Test
+    public void expireInBulk() {
+        TestScheduler scheduler = new TestScheduler();
+
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>onBackpressureTimeout(1000, TimeUnit.MILLISECONDS, scheduler, this))
+        .test(0);
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        scheduler.advanceTimeBy(600, TimeUnit.MILLISECONDS);
+
+        pp.onNext(3);
+
+        // not expired yet
+        scheduler.advanceTimeBy(399, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(Collections.emptyList(), evicted);
+
+        // the next sweep evicts both in one go, within a quarter of the timeout
+        scheduler.advanceTimeBy(250, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(Arrays.asList(1, 2), evicted);
+
+        ts.requestMore(1).assertValuesOnly(3);
+    }
+
+    @Test
+    public void asyncProducerSlowConsumer() {
+        BackpressureTimeoutCounters counters = new BackpressureTimeoutCounters();
+
+        Flowable.range(1, 100000)
+        .subscribeOn(Schedulers.computation())
+        .compose(FlowableTransformers.<Integer>onBackpressureTimeout(16, 1, TimeUnit.MILLISECONDS, Schedulers.single(), this, counters))
+        .observeOn(Schedulers.io(), false, 1)
+        .test()
+        .awaitDone(10, TimeUnit.SECONDS)
+        .assertNoErrors()
+        .assertComplete();
+
+        Assert.assertEquals(100000, counters.delivered() + counters.evicted());
+        Assert.assertEquals(counters.evicted(), evicted.size());
+    }
+
+    @Test
+    public void bufferLimitWhileEmitting() {
+        final PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<Integer>(0L) {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                if (t == 1) {
+                    for (int i = 2; i < 6; i++) {
+                        pp.onNext(i);
+                    }
+                }
+            }
+        };
+
+        pp
+        .compose(FlowableTransformers.<Integer>onBackpressureTimeout(2, 1, TimeUnit.MINUTES, Schedulers.single(), this))
+        .subscribe(ts);
+
+        pp.onNext(1);
+
+        ts.requestMore(Long.MAX_VALUE);
+
+        ts.assertValuesOnly(1, 4, 5);
+
+        Assert.assertEquals(Arrays.asList(2, 3), evicted);
+    }
+
+    @Test
+    public void timeoutWhileEmitting() {
+        final TestScheduler scheduler = new TestScheduler();
+
+        final PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<Integer>(0L) {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                if (t == 1) {
+                    pp.onNext(2);
+                    scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+                    pp.onNext(3);
+                }
+            }
+        };
+
+        pp
+        .compose(FlowableTransformers.<Integer>onBackpressureTimeout(1, TimeUnit.SECONDS, scheduler, this))
+        .subscribe(ts);
+
+        pp.onNext(1);
+
+        ts.requestMore(Long.MAX_VALUE);
+
+        ts.assertValuesOnly(1, 3);
+
+        Assert.assertEquals(Arrays.asList(2), evicted);
+    }
 }
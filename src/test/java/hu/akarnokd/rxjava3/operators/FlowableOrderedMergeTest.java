@@ -502,4 +502,171 @@ public class FlowableOrderedMergeTest {
         .test()
         .assertResult(1, 2);
     }
+
+    static List<Flowable<Integer>> interleaved(int n, int count) {
+        List<Flowable<Integer>> sources = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int k = i;
+            sources.add(Flowable.range(0, count).map(v -> v * n + k));
+        }
+        return sources;
+    }
+
+    @Test
+    public void heapMany() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 4;
+        Flowables.orderedMerge(interleaved(n, 10),
+                Functions.<Integer>naturalComparator()
+        )
+        .test()
+        .assertValueCount(n * 10)
+        .assertNoErrors()
+        .assertComplete()
+        .assertValueSequence(Flowable.range(0, n * 10).toList().blockingGet());
+    }
+
+    @Test
+    public void heapManyHidden() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 2;
+        List<Flowable<Integer>> sources = new ArrayList<>();
+        for (Flowable<Integer> f : interleaved(n, 10)) {
+            sources.add(f.hide());
+        }
+        Flowables.orderedMerge(sources,
+                Functions.<Integer>naturalComparator(), false, 1
+        )
+        .test()
+        .assertValueSequence(Flowable.range(0, n * 10).toList().blockingGet())
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void heapManyBackpressured() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 2;
+        TestSubscriber<Integer> ts = Flowables.orderedMerge(interleaved(n, 2),
+                Functions.<Integer>naturalComparator()
+        )
+        .test(0L);
+
+        ts.assertEmpty();
+
+        ts.request(5);
+
+        ts.assertValuesOnly(0, 1, 2, 3, 4);
+
+        ts.request(Long.MAX_VALUE);
+
+        ts.assertValueCount(n * 2)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void heapManyUneven() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 3;
+        List<Flowable<Integer>> sources = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            sources.add(Flowable.range(i, i % 5));
+            for (int j = 0; j < i % 5; j++) {
+                expected.add(i + j);
+            }
+        }
+        Collections.sort(expected);
+
+        Flowables.orderedMerge(sources,
+                Functions.<Integer>naturalComparator()
+        )
+        .test()
+        .assertResult(expected.toArray(new Integer[0]));
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void heapMatchesLinear() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 2;
+        Random rnd = new Random(1);
+        Flowable<Integer>[] sources = new Flowable[n];
+        for (int i = 0; i < n; i++) {
+            Integer[] values = new Integer[rnd.nextInt(20)];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = rnd.nextInt(50);
+            }
+            Arrays.sort(values);
+            sources[i] = Flowable.fromArray(values);
+        }
+
+        for (int prefetch : new int[] { 1, 2, 16 }) {
+            TestSubscriber<Integer> linear = new TestSubscriber<>();
+            BasicMergeSubscription<Integer> linearParent = new BasicMergeSubscription<>(linear,
+                    Functions.<Integer>naturalComparator(), n, prefetch, false, false);
+            linear.onSubscribe(linearParent);
+            linearParent.subscribe(sources, n);
+
+            TestSubscriber<Integer> heap = new TestSubscriber<>();
+            BasicMergeSubscription<Integer> heapParent = new BasicMergeSubscription<>(heap,
+                    Functions.<Integer>naturalComparator(), n, prefetch, false, true);
+            heap.onSubscribe(heapParent);
+            heapParent.subscribe(sources, n);
+
+            linear.assertNoErrors().assertComplete();
+            heap.assertResult(linear.values().toArray(new Integer[0]));
+        }
+    }
+
+    @Test
+    public void heapManyError() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 2;
+        List<Flowable<Integer>> sources = interleaved(n, 2);
+        sources.set(n / 2, Flowable.<Integer>error(new IOException()));
+
+        Flowables.orderedMerge(sources,
+                Functions.<Integer>naturalComparator()
+        )
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void heapManyErrorDelayed() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 2;
+        List<Flowable<Integer>> sources = interleaved(n, 2);
+        sources.set(1, Flowable.<Integer>error(new IOException()));
+
+        Flowables.orderedMerge(sources,
+                Functions.<Integer>naturalComparator(), true
+        )
+        .test()
+        .assertFailure(IOException.class, 0, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+                16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31,
+                32, 34, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47,
+                48, 49, 50, 51, 52, 53, 54, 55, 56, 57, 58, 59, 60, 61, 62, 63);
+    }
+
+    @Test
+    public void heapManyComparatorThrows() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 2;
+        Flowables.orderedMerge(interleaved(n, 2),
+                new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer o1, Integer o2) {
+                        throw new IllegalArgumentException();
+                    }
+                }
+        )
+        .test()
+        .assertFailure(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void heapManyTake() {
+        int n = BasicMergeSubscription.HEAP_THRESHOLD * 2;
+        Flowables.orderedMerge(interleaved(n, 10),
+                Functions.<Integer>naturalComparator()
+        )
+        .take(3)
+        .test()
+        .assertResult(0, 1, 2);
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class IntArrayBufferTest {
+
+    @Test
+    public void addGrowAndGet() {
+        IntArrayBuffer b = new IntArrayBuffer(0);
+
+        for (int i = 0; i < 100; i++) {
+            b.add(i);
+        }
+
+        assertEquals(100, b.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, b.getInt(i));
+            assertEquals(i, b.get(i).intValue());
+        }
+        assertEquals(100, b.toIntArray().length);
+        assertTrue(b.array().length >= 100);
+    }
+
+    @Test
+    public void listSemantics() {
+        IntArrayBuffer b = new IntArrayBuffer(2);
+        b.addInt(1);
+        b.addInt(2);
+        b.addInt(3);
+
+        assertEquals(Arrays.asList(1, 2, 3), b);
+        assertEquals(Arrays.asList(1, 2, 3).hashCode(), b.hashCode());
+
+        assertEquals(2, b.set(1, 20).intValue());
+        assertEquals(1, b.remove(0).intValue());
+        assertEquals(Arrays.asList(20, 3), b);
+        assertEquals("[20, 3]", b.toString());
+    }
+
+    @Test
+    public void clearKeepsCapacity() {
+        IntArrayBuffer b = new IntArrayBuffer(4);
+        b.addInt(1);
+        int[] a = b.array();
+
+        b.clear();
+
+        assertTrue(b.isEmpty());
+        assertSame(a, b.array());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfBounds() {
+        IntArrayBuffer b = new IntArrayBuffer(4);
+        b.addInt(1);
+        b.clear();
+        b.getInt(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeCapacity() {
+        new IntArrayBuffer(-1);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailFast() {
+        IntArrayBuffer b = new IntArrayBuffer(4);
+        b.addInt(1);
+        b.addInt(2);
+        for (Integer v : b) {
+            b.addInt(v);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class LongArrayBufferTest {
+
+    @Test
+    public void addGrowAndGet() {
+        LongArrayBuffer b = new LongArrayBuffer(0);
+
+        for (int i = 0; i < 100; i++) {
+            b.add((long) i);
+        }
+
+        assertEquals(100, b.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, b.getLong(i));
+            assertEquals(i, b.get(i).longValue());
+        }
+        assertEquals(100, b.toLongArray().length);
+        assertTrue(b.array().length >= 100);
+    }
+
+    @Test
+    public void listSemantics() {
+        LongArrayBuffer b = new LongArrayBuffer(2);
+        b.addLong(1L);
+        b.addLong(2L);
+        b.addLong(3L);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), b);
+        assertEquals(Arrays.asList(1L, 2L, 3L).hashCode(), b.hashCode());
+
+        assertEquals(2L, b.set(1, 20L).longValue());
+        assertEquals(1L, b.remove(0).longValue());
+        assertEquals(Arrays.asList(20L, 3L), b);
+        assertEquals("[20, 3]", b.toString());
+    }
+
+    @Test
+    public void clearKeepsCapacity() {
+        LongArrayBuffer b = new LongArrayBuffer(4);
+        b.addLong(1L);
+        long[] a = b.array();
+
+        b.clear();
+
+        assertTrue(b.isEmpty());
+        assertSame(a, b.array());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfBounds() {
+        LongArrayBuffer b = new LongArrayBuffer(4);
+        b.addLong(1L);
+        b.clear();
+        b.getLong(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeCapacity() {
+        new LongArrayBuffer(-1);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailFast() {
+        LongArrayBuffer b = new LongArrayBuffer(4);
+        b.addLong(1L);
+        b.addLong(2L);
+        for (Long v : b) {
+            b.addLong(v);
+        }
+    }
+
+    @Test
+    public void supplier() throws Throwable {
+        LongArrayBuffer b = LongArrayBuffer.supplier(1).get();
+        b.addLong(1L);
+        b.add(2L);
+        assertEquals(Arrays.asList(1L, 2L), b);
+        assertArrayEquals(new long[] { 1L, 2L }, b.toLongArray());
+        assertEquals(2L, b.getLong(1));
+    }
+}
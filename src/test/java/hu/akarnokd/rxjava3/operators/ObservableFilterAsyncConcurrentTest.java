@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+
+public class ObservableFilterAsyncConcurrentTest {
+
+    @Test
+    public void orderedWithReverseLatency() {
+        Observable.range(1, 6)
+        .compose(ObservableTransformers.filterAsync(new Function<Integer, ObservableSource<Boolean>>() {
+            @Override
+            public ObservableSource<Boolean> apply(Integer v) throws Exception {
+                return Observable.just(v % 2 == 0).delay((6 - v) * 30, TimeUnit.MILLISECONDS);
+            }
+        }, 16, 6))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(2, 4, 6);
+    }
+
+    @Test
+    public void synchronousShortcut() {
+        Observable.range(1, 10)
+        .compose(ObservableTransformers.filterAsync(new Function<Integer, ObservableSource<Boolean>>() {
+            @Override
+            public ObservableSource<Boolean> apply(Integer v) throws Exception {
+                return Observable.just(v % 3 == 0);
+            }
+        }, 4, 2))
+        .test()
+        .assertResult(3, 6, 9);
+    }
+
+    @Test
+    public void maxConcurrencyRespected() {
+        final List<PublishSubject<Boolean>> inners = new ArrayList<>();
+
+        TestObserver<Integer> to = Observable.range(1, 4)
+        .compose(ObservableTransformers.filterAsync(new Function<Integer, ObservableSource<Boolean>>() {
+            @Override
+            public ObservableSource<Boolean> apply(Integer v) throws Exception {
+                PublishSubject<Boolean> ps = PublishSubject.create();
+                inners.add(ps);
+                return ps;
+            }
+        }, 8, 2))
+        .test();
+
+        assertEquals(2, inners.size());
+
+        inners.get(1).onNext(true);
+
+        assertEquals(3, inners.size());
+        to.assertEmpty();
+
+        inners.get(0).onComplete();
+
+        to.assertValuesOnly(2);
+        assertEquals(4, inners.size());
+
+        inners.get(3).onNext(true);
+        inners.get(2).onNext(true);
+
+        to.assertResult(2, 3, 4);
+    }
+
+    @Test
+    public void innerError() {
+        final List<PublishSubject<Boolean>> inners = new ArrayList<>();
+        PublishSubject<Integer> main = PublishSubject.create();
+
+        TestObserver<Integer> to = main
+        .compose(ObservableTransformers.filterAsync(new Function<Integer, ObservableSource<Boolean>>() {
+            @Override
+            public ObservableSource<Boolean> apply(Integer v) throws Exception {
+                PublishSubject<Boolean> ps = PublishSubject.create();
+                inners.add(ps);
+                return ps;
+            }
+        }, 4, 4))
+        .test();
+
+        main.onNext(1);
+        main.onNext(2);
+
+        inners.get(0).onError(new IOException());
+
+        to.assertFailure(IOException.class);
+
+        assertFalse(main.hasObservers());
+        assertFalse(inners.get(1).hasObservers());
+    }
+
+    @Test
+    public void dispose() {
+        final List<PublishSubject<Boolean>> inners = new ArrayList<>();
+        PublishSubject<Integer> main = PublishSubject.create();
+
+        TestObserver<Integer> to = main
+        .compose(ObservableTransformers.filterAsync(new Function<Integer, ObservableSource<Boolean>>() {
+            @Override
+            public ObservableSource<Boolean> apply(Integer v) throws Exception {
+                PublishSubject<Boolean> ps = PublishSubject.create();
+                inners.add(ps);
+                return ps;
+            }
+        }, 4, 4))
+        .test();
+
+        main.onNext(1);
+
+        to.dispose();
+
+        assertFalse(main.hasObservers());
+        assertFalse(inners.get(0).hasObservers());
+    }
+
+    @Test
+    public void asyncLong() {
+        TestObserver<Integer> to = Observable.range(1, 1000)
+        .compose(ObservableTransformers.filterAsync(new Function<Integer, ObservableSource<Boolean>>() {
+            @Override
+            public ObservableSource<Boolean> apply(Integer v) throws Exception {
+                return Observable.just(v % 2 == 0).subscribeOn(Schedulers.computation());
+            }
+        }, 32, 8))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(500)
+        .assertNoErrors()
+        .assertComplete();
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals((i + 1) * 2, to.values().get(i).intValue());
+        }
+    }
+}
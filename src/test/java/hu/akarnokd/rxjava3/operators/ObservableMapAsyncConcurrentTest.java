@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.functions.*;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+
+public class ObservableMapAsyncConcurrentTest {
+
+    static Function<Integer, ObservableSource<Integer>> reverseDelay(final int count) {
+        return new Function<Integer, ObservableSource<Integer>>() {
+            @Override
+            public ObservableSource<Integer> apply(Integer v) throws Exception {
+                return Observable.just(v * 10).delay((count - v) * 50, TimeUnit.MILLISECONDS);
+            }
+        };
+    }
+
+    @Test
+    public void ordered() {
+        Observable.range(1, 5)
+        .compose(ObservableTransformers.mapAsyncConcurrent(reverseDelay(5), 5, true))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(10, 20, 30, 40, 50);
+    }
+
+    @Test
+    public void unordered() {
+        Observable.range(1, 5)
+        .compose(ObservableTransformers.mapAsyncConcurrent(reverseDelay(5), 5, false))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(50, 40, 30, 20, 10);
+    }
+
+    @Test
+    public void maxConcurrencyAndBuffering() {
+        final List<PublishSubject<Integer>> inners = new ArrayList<>();
+
+        TestObserver<Integer> to = Observable.range(1, 5)
+        .compose(ObservableTransformers.mapAsyncConcurrent(new Function<Integer, ObservableSource<Integer>>() {
+            @Override
+            public ObservableSource<Integer> apply(Integer v) throws Exception {
+                PublishSubject<Integer> ps = PublishSubject.create();
+                inners.add(ps);
+                return ps;
+            }
+        }, 2, true))
+        .test();
+
+        assertEquals(2, inners.size());
+
+        inners.get(1).onNext(2);
+
+        to.assertEmpty();
+        assertEquals(2, inners.size());
+
+        inners.get(0).onComplete();
+
+        to.assertValuesOnly(2);
+        assertEquals(4, inners.size());
+
+        inners.get(2).onNext(3);
+        inners.get(3).onNext(4);
+        inners.get(4).onNext(5);
+
+        to.assertResult(2, 3, 4, 5);
+    }
+
+    @Test
+    public void combiner() {
+        Observable.range(1, 3)
+        .compose(ObservableTransformers.mapAsyncConcurrent(new Function<Integer, ObservableSource<String>>() {
+            @Override
+            public ObservableSource<String> apply(Integer v) throws Exception {
+                return Observable.just("" + (v + 1)).subscribeOn(Schedulers.computation());
+            }
+        }, new BiFunction<Integer, String, String>() {
+            @Override
+            public String apply(Integer a, String b) throws Exception {
+                return a + "-" + b;
+            }
+        }, 2, false))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(3)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void innerErrorDisposesAll() {
+        final List<PublishSubject<Integer>> inners = new ArrayList<>();
+        PublishSubject<Integer> main = PublishSubject.create();
+
+        TestObserver<Integer> to = main
+        .compose(ObservableTransformers.mapAsyncConcurrent(new Function<Integer, ObservableSource<Integer>>() {
+            @Override
+            public ObservableSource<Integer> apply(Integer v) throws Exception {
+                PublishSubject<Integer> ps = PublishSubject.create();
+                inners.add(ps);
+                return ps;
+            }
+        }, 4, true))
+        .test();
+
+        main.onNext(1);
+        main.onNext(2);
+
+        inners.get(1).onError(new IOException());
+
+        to.assertFailure(IOException.class);
+
+        assertFalse(main.hasObservers());
+        assertFalse(inners.get(0).hasObservers());
+    }
+
+    @Test
+    public void mapperCrash() {
+        Observable.range(1, 3)
+        .compose(ObservableTransformers.mapAsyncConcurrent(new Function<Integer, ObservableSource<Integer>>() {
+            @Override
+            public ObservableSource<Integer> apply(Integer v) throws Exception {
+                if (v == 2) {
+                    throw new IOException();
+                }
+                return Observable.just(v);
+            }
+        }, 4, true))
+        .test()
+        .assertFailure(IOException.class, 1);
+    }
+
+    @Test
+    public void dispose() {
+        final List<PublishSubject<Integer>> inners = new ArrayList<>();
+        PublishSubject<Integer> main = PublishSubject.create();
+
+        TestObserver<Integer> to = main
+        .compose(ObservableTransformers.mapAsyncConcurrent(new Function<Integer, ObservableSource<Integer>>() {
+            @Override
+            public ObservableSource<Integer> apply(Integer v) throws Exception {
+                PublishSubject<Integer> ps = PublishSubject.create();
+                inners.add(ps);
+                return ps;
+            }
+        }, 4, false))
+        .test();
+
+        main.onNext(1);
+
+        to.dispose();
+
+        assertFalse(main.hasObservers());
+        assertFalse(inners.get(0).hasObservers());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava3.parallel;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.math.*;
+import hu.akarnokd.rxjava3.test.TestHelper;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+public class ParallelPercentilesTest {
+
+    @Test
+    public void normal() {
+        double[] p = ParallelTransformers.percentiles(Flowable.range(1, 10000)
+                .parallel(4)
+                .runOn(Schedulers.computation()), 0, 0.5, 0.99, 1)
+        .blockingSingle();
+
+        double[] expected = MathFlowable.percentiles(Flowable.range(1, 10000), 0, 0.5, 0.99, 1).blockingSingle();
+
+        assertArrayEquals(expected, p, 0d);
+    }
+
+    @Test
+    public void empty() {
+        ParallelTransformers.percentiles(Flowable.<Integer>empty().parallel(2), 0.5)
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void error() {
+        ParallelTransformers.percentiles(Flowable.<Integer>error(new IOException()).parallel(2), 0.5)
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void sketchPerRail() {
+        Flowable.range(1, 10)
+        .parallel(2)
+        .compose(ParallelTransformers.<Integer>quantileSketch(0.05))
+        .sequential()
+        .test()
+        .assertValueCount(2)
+        .assertComplete();
+    }
+
+    @Test
+    public void invalidRails() {
+        TestHelper.checkInvalidParallelSubscribers(Flowable.range(1, 5)
+                .parallel(1)
+                .compose(ParallelTransformers.<Integer>quantileSketch()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidAccuracy() {
+        ParallelTransformers.quantileSketch(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidQuantile() {
+        ParallelTransformers.percentiles(Flowable.range(1, 5).parallel(1), 2);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.parallel;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.math.*;
+import hu.akarnokd.rxjava3.test.TestHelper;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.BiFunction;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+public class ParallelStatisticsTest {
+
+    static final BiFunction<Statistics, Statistics, Statistics> COMBINE = new BiFunction<Statistics, Statistics, Statistics>() {
+        @Override
+        public Statistics apply(Statistics a, Statistics b) throws Exception {
+            return a.combine(b);
+        }
+    };
+
+    @Test
+    public void normal() {
+        Statistics st = Flowable.range(1, 1000)
+        .parallel(4)
+        .runOn(Schedulers.computation())
+        .compose(ParallelTransformers.<Integer>statistics())
+        .reduce(COMBINE)
+        .blockingSingle();
+
+        Statistics expected = MathFlowable.statistics(Flowable.range(1, 1000)).blockingSingle();
+
+        assertEquals(expected.count(), st.count());
+        assertEquals(expected.sum(), st.sum(), 1e-9);
+        assertEquals(expected.mean(), st.mean(), 1e-9);
+        assertEquals(expected.variance(), st.variance(), 1e-6);
+        assertEquals(1d, st.min(), 0d);
+        assertEquals(1000d, st.max(), 0d);
+    }
+
+    @Test
+    public void emptyRails() {
+        Statistics st = Flowable.range(1, 2)
+        .parallel(4)
+        .compose(ParallelTransformers.<Integer>statistics())
+        .reduce(COMBINE)
+        .blockingSingle();
+
+        assertEquals(2, st.count());
+        assertEquals(1.5d, st.mean(), 0d);
+        assertEquals(0.25d, st.variance(), 0d);
+    }
+
+    @Test
+    public void merged() {
+        Statistics st = ParallelTransformers.statistics(Flowable.range(1, 1000)
+                .parallel(4)
+                .runOn(Schedulers.computation()))
+        .blockingSingle();
+
+        Statistics expected = MathFlowable.statistics(Flowable.range(1, 1000)).blockingSingle();
+
+        assertEquals(expected.count(), st.count());
+        assertEquals(expected.sum(), st.sum(), 1e-9);
+        assertEquals(expected.mean(), st.mean(), 1e-9);
+        assertEquals(expected.variance(), st.variance(), 1e-6);
+        assertEquals(1d, st.min(), 0d);
+        assertEquals(1000d, st.max(), 0d);
+    }
+
+    @Test
+    public void mergedEmpty() {
+        ParallelTransformers.statistics(Flowable.<Integer>empty().parallel(2))
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void mergedError() {
+        ParallelTransformers.statistics(Flowable.<Integer>error(new IOException()).parallel(2))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void empty() {
+        Flowable.<Integer>empty()
+        .parallel(1)
+        .compose(ParallelTransformers.<Integer>statistics())
+        .sequential()
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void error() {
+        Flowable.<Integer>error(new IOException())
+        .parallel(1)
+        .compose(ParallelTransformers.<Integer>statistics())
+        .sequential()
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void invalidRails() {
+        TestHelper.checkInvalidParallelSubscribers(Flowable.range(1, 5)
+                .parallel(1)
+                .compose(ParallelTransformers.<Integer>statistics()));
+    }
+
+    @Test
+    public void cancel() {
+        Flowable.range(1, 5)
+        .parallel(1)
+        .compose(ParallelTransformers.<Integer>statistics())
+        .sequential()
+        .test(0L, true)
+        .assertEmpty();
+    }
+}
@@ -26,6 +26,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 
 import hu.akarnokd.rxjava3.test.*;
+import hu.akarnokd.rxjava3.util.*;
 import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.functions.*;
 import io.reactivex.rxjava3.internal.subscriptions.BooleanSubscription;
@@ -559,4 +560,156 @@ public class DispatchWorkProcessorTest {
 
         dws.requestMore(6);
     }
+
+    @Test
+    public void batchedOffline() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, true, 4);
+
+        for (int i = 1; i <= 10; i++) {
+            dws.onNext(i);
+        }
+        dws.onComplete();
+
+        dws.take(3).test().assertResult(1, 2, 3);
+        dws.test(5).assertValuesOnly(4, 5, 6, 7, 8);
+        dws.test().assertResult(9, 10);
+    }
+
+    @Test
+    public void batchedOnline() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.createUnbounded(Schedulers.trampoline(), 16, true, 8);
+
+        TestSubscriber<Integer> ts = dws.test();
+
+        for (int i = 1; i <= 20; i++) {
+            dws.onNext(i);
+        }
+        dws.onComplete();
+
+        ts.assertValueCount(20)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void batchedCancelRequeues() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, true, 8);
+
+        for (int i = 1; i <= 10; i++) {
+            dws.onNext(i);
+        }
+        dws.onComplete();
+
+        // claims a block of 8 but cancels after the second item
+        dws.takeUntil(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                return v == 2;
+            }
+        }).test().assertResult(1, 2);
+
+        TestSubscriber<Integer> ts = dws.test();
+
+        ts.assertValueCount(8)
+        .assertNoErrors()
+        .assertComplete();
+
+        Set<Integer> set = new HashSet<>(ts.values());
+        for (int i = 3; i <= 10; i++) {
+            assertTrue(set.remove(i));
+        }
+    }
+
+    @Test
+    public void batchedCancelReplenishes() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 8, true, 8);
+
+        List<Long> requests = new ArrayList<>();
+
+        Flowable.range(1, 100)
+        .doOnRequest(new LongConsumer() {
+            @Override
+            public void accept(long n) throws Exception {
+                requests.add(n);
+            }
+        })
+        .subscribe(dws);
+
+        // claims a block of 8 but cancels after the sixth item
+        dws.takeUntil(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                return v == 6;
+            }
+        }).test().assertResult(1, 2, 3, 4, 5, 6);
+
+        assertEquals(Arrays.asList(8L, 6L), requests);
+
+        // the requeued 7 and 8 are behind the replenished items
+        dws.take(8).test().assertResult(9, 10, 11, 12, 13, 14, 7, 8);
+    }
+
+    @Test
+    public void batchedErrorNoDelay() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, false, 8);
+
+        dws.onNext(1);
+        dws.onNext(2);
+        dws.onError(new TestException());
+
+        dws.test().assertFailure(TestException.class);
+    }
+
+    @Test
+    public void batchedErrorDelayed() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, true, 8);
+
+        dws.onNext(1);
+        dws.onNext(2);
+        dws.onError(new TestException());
+
+        dws.test().assertFailure(TestException.class, 1, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchedInvalidSize() {
+        DispatchWorkProcessor.create(Schedulers.trampoline(), 16, true, 0);
+    }
+
+    @Test
+    public void batchedManySubscribers() {
+        for (int k = 0; k < 100; k++) {
+            DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.computation(), 16, true, 16);
+
+            List<TestSubscriber<Integer>> list = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                list.add(dws.test());
+            }
+
+            Flowable.range(0, 1000).subscribe(dws);
+
+            Set<Integer> set = new HashSet<>();
+            for (TestSubscriber<Integer> ts : list) {
+                ts.awaitDone(5, TimeUnit.SECONDS)
+                .assertNoErrors()
+                .assertComplete();
+
+                for (Integer v : ts.values()) {
+                    assertTrue(set.add(v));
+                }
+            }
+
+            assertEquals(1000, set.size());
+        }
+    }
+
+    @Test
+    public void queueSelection() {
+        assertTrue(DispatchWorkProcessor.create(Schedulers.trampoline()).queue instanceof SpmcLinkedArrayQueue);
+        assertNull(DispatchWorkProcessor.create(Schedulers.trampoline(), 16, true, 1).batchQueue);
+
+        DispatchWorkProcessor<Integer> batched = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, true, 4);
+        assertTrue(batched.queue instanceof MpmcLinkedArrayQueue);
+        assertSame(batched.queue, batched.batchQueue);
+    }
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.processors;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.test.*;
+import hu.akarnokd.rxjava3.util.BufferOverflowPolicy;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.exceptions.MissingBackpressureException;
+import io.reactivex.rxjava3.internal.subscriptions.BooleanSubscription;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
+public class UnicastWorkProcessorTest {
+
+    @Test
+    public void offline() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        uwp.onNext(1);
+        uwp.onNext(2);
+        uwp.onNext(3);
+        uwp.onNext(4);
+        uwp.onNext(5);
+        uwp.onComplete();
+
+        uwp.take(2).test().assertResult(1, 2);
+
+        uwp.take(2).test().assertResult(3, 4);
+
+        uwp.take(2).test().assertResult(5);
+
+        uwp.test().assertResult();
+    }
+
+    @Test
+    public void online() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        assertFalse(uwp.hasComplete());
+        assertFalse(uwp.hasThrowable());
+        assertNull(uwp.getThrowable());
+
+        TestSubscriber<Integer> ts1 = uwp.test();
+
+        assertTrue(uwp.hasSubscribers());
+
+        uwp.onNext(1);
+        uwp.onNext(2);
+
+        ts1.assertValuesOnly(1, 2);
+
+        ts1.cancel();
+
+        assertFalse(uwp.hasSubscribers());
+
+        uwp.onNext(3);
+        uwp.onNext(4);
+
+        TestSubscriber<Integer> ts2 = uwp.test();
+
+        ts2.assertValuesOnly(3, 4);
+
+        uwp.onComplete();
+
+        ts2.assertResult(3, 4);
+
+        assertTrue(uwp.hasComplete());
+        assertFalse(uwp.hasSubscribers());
+    }
+
+    @Test
+    public void backpressure() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        Flowable.range(1, 5).subscribe(uwp);
+
+        TestSubscriber<Integer> ts = uwp.test(0L);
+
+        ts.assertEmpty();
+
+        ts.request(2);
+
+        ts.assertValuesOnly(1, 2);
+
+        ts.cancel();
+
+        ts = uwp.test(1L);
+
+        ts.assertValuesOnly(3);
+
+        ts.cancel();
+
+        uwp.test().assertResult(4, 5);
+    }
+
+    @Test
+    public void onlyOneSubscriber() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        uwp.test();
+
+        uwp.test().assertFailure(IllegalStateException.class);
+    }
+
+    @Test
+    public void cancelUpfront() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        uwp.test(0L, true);
+
+        assertFalse(uwp.hasSubscribers());
+    }
+
+    @Test
+    public void errorDelayed() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        uwp.onNext(1);
+        uwp.onError(new IOException());
+
+        assertTrue(uwp.hasThrowable());
+        assertTrue(uwp.getThrowable() instanceof IOException);
+
+        uwp.test().assertFailure(IOException.class, 1);
+    }
+
+    @Test
+    public void errorNotDelayed() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create(16, false);
+
+        uwp.onNext(1);
+        uwp.onError(new IOException());
+
+        uwp.test().assertFailure(IOException.class);
+    }
+
+    @Test
+    public void onErrorTwice() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+            uwp.onError(new IOException());
+            uwp.onError(new TestException());
+
+            TestHelper.assertUndeliverable(errors, 0, TestException.class);
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void dispose() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        BooleanSubscription bs = new BooleanSubscription();
+        uwp.onSubscribe(bs);
+
+        assertFalse(uwp.isDisposed());
+
+        uwp.dispose();
+
+        assertTrue(bs.isCancelled());
+        assertTrue(uwp.isDisposed());
+        uwp.test().assertResult();
+    }
+
+    @Test
+    public void boundedDropNewest() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.createBounded(3, BufferOverflowPolicy.DROP_NEWEST);
+
+        TestSubscriber<Integer> ts = uwp.test(1L);
+
+        for (int i = 1; i <= 6; i++) {
+            uwp.onNext(i);
+        }
+        uwp.onComplete();
+
+        ts.assertValuesOnly(1);
+
+        // one item is held by the processor for the not yet requesting Subscriber
+        assertEquals(3, uwp.highWaterMark());
+
+        ts.request(10);
+
+        ts.assertResult(1, 2, 3, 4, 5);
+        assertEquals(0, uwp.depth());
+    }
+
+    @Test
+    public void boundedDropOldest() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.createBounded(3, BufferOverflowPolicy.DROP_OLDEST);
+
+        Flowable.range(1, 10).subscribe(uwp);
+
+        assertEquals(3, uwp.depth());
+
+        uwp.test().assertResult(8, 9, 10);
+    }
+
+    @Test
+    public void boundedError() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.createBounded(2, BufferOverflowPolicy.ERROR);
+
+        BooleanSubscription bs = new BooleanSubscription();
+        uwp.onSubscribe(bs);
+
+        uwp.onNext(1);
+        uwp.onNext(2);
+        uwp.onNext(3);
+
+        assertTrue(bs.isCancelled());
+
+        uwp.test().assertFailure(MissingBackpressureException.class, 1, 2);
+    }
+
+    @Test
+    public void unboundedDepth() {
+        UnicastWorkProcessor<Integer> uwp = UnicastWorkProcessor.create();
+
+        assertEquals(-1, uwp.depth());
+        assertEquals(-1, uwp.highWaterMark());
+    }
+}
@@ -18,7 +18,7 @@ package hu.akarnokd.rxjava3.schedulers;
 
 import static org.junit.Assert.*;
 
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
@@ -608,4 +608,306 @@ public class BlockingSchedulerTest {
             RxJavaPlugins.reset();
         }
     }
+
+    @Test(timeout = 10000)
+    public void asyncFeedIntoIdleStrategies() {
+        for (BlockingScheduler.IdleStrategy strategy : BlockingScheduler.IdleStrategy.values()) {
+            List<Throwable> errors = TestHelper.trackPluginErrors();
+            try {
+                final BlockingScheduler scheduler = new BlockingScheduler(strategy);
+
+                final int n = 1000;
+
+                final int[] counter = { 0 };
+
+                scheduler.execute(new Action() {
+                    @Override
+                    public void run() throws Exception {
+                        Schedulers.single().scheduleDirect(new Runnable() {
+                            @Override
+                            public void run() {
+                                for (int i = 0; i < n; i++) {
+                                    scheduler.scheduleDirect(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            counter[0]++;
+                                        }
+                                    });
+                                    if (i % 100 == 0) {
+                                        // let the event loop go idle in between
+                                        try {
+                                            Thread.sleep(1);
+                                        } catch (InterruptedException ex) {
+                                            throw new RuntimeException(ex);
+                                        }
+                                    }
+                                }
+                                scheduler.scheduleDirect(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        scheduler.shutdown();
+                                    }
+                                });
+                            }
+                        });
+                    }
+                });
+
+                assertEquals(strategy.toString(), n, counter[0]);
+                assertTrue(errors.toString(), errors.isEmpty());
+            } finally {
+                RxJavaPlugins.reset();
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void workerTimedIdleStrategies() {
+        for (BlockingScheduler.IdleStrategy strategy : BlockingScheduler.IdleStrategy.values()) {
+            final TestSubscriber<Integer> ts = new TestSubscriber<>();
+            final BlockingScheduler scheduler = new BlockingScheduler(Schedulers.single(), strategy);
+            scheduler.execute(new Action() {
+                @Override
+                public void run() throws Exception {
+                    Flowable.range(1, 5)
+                    .subscribeOn(scheduler)
+                    .delay(20, TimeUnit.MILLISECONDS, scheduler)
+                    .doAfterTerminate(new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            scheduler.shutdown();
+                        }
+                    })
+                    .subscribe(ts);
+                }
+            });
+
+            ts.assertResult(1, 2, 3, 4, 5);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shutdownFromOtherThreadWhileIdle() throws Exception {
+        for (BlockingScheduler.IdleStrategy strategy : BlockingScheduler.IdleStrategy.values()) {
+            final BlockingScheduler scheduler = new BlockingScheduler(strategy);
+
+            Schedulers.single().scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.shutdown();
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+
+            scheduler.execute();
+
+            assertSame(Disposable.disposed(), scheduler.scheduleDirect(Functions.EMPTY_RUNNABLE));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void idleStrategyNull() {
+        new BlockingScheduler((BlockingScheduler.IdleStrategy)null);
+    }
+
+    @Test(timeout = 10000)
+    public void ownDelayQueueOrderAndThread() {
+        for (BlockingScheduler.IdleStrategy strategy : BlockingScheduler.IdleStrategy.values()) {
+            final BlockingScheduler scheduler = new BlockingScheduler(strategy);
+
+            final Thread t0 = Thread.currentThread();
+            final List<Integer> list = new ArrayList<>();
+
+            scheduler.execute(new Action() {
+                @Override
+                public void run() throws Exception {
+                    int[] delays = { 50, 10, 30, 10, 20 };
+                    for (int i = 0; i < delays.length; i++) {
+                        final int j = i;
+                        scheduler.scheduleDirect(new Runnable() {
+                            @Override
+                            public void run() {
+                                assertSame(t0, Thread.currentThread());
+                                list.add(j);
+                                if (list.size() == 5) {
+                                    scheduler.shutdown();
+                                }
+                            }
+                        }, delays[i], TimeUnit.MILLISECONDS);
+                    }
+                }
+            });
+
+            assertEquals(strategy.toString(), Arrays.asList(1, 3, 4, 2, 0), list);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void ownDelayQueueFromOtherThread() {
+        final BlockingScheduler scheduler = new BlockingScheduler();
+
+        final Thread t0 = Thread.currentThread();
+        final Thread[] t1 = { null };
+
+        Schedulers.single().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                scheduler.createWorker().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        t1[0] = Thread.currentThread();
+                        scheduler.shutdown();
+                    }
+                }, 50, TimeUnit.MILLISECONDS);
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+
+        scheduler.execute();
+
+        assertSame(t0, t1[0]);
+    }
+
+    @Test(timeout = 10000)
+    public void ownDelayQueueCancel() {
+        final BlockingScheduler scheduler = new BlockingScheduler();
+
+        final int[] counter = { 0 };
+
+        scheduler.execute(new Action() {
+            @Override
+            public void run() throws Exception {
+                Runnable r = new Runnable() {
+                    @Override
+                    public void run() {
+                        counter[0]++;
+                    }
+                };
+
+                Worker w = scheduler.createWorker();
+
+                scheduler.scheduleDirect(r, 20, TimeUnit.MILLISECONDS).dispose();
+                w.schedule(r, 20, TimeUnit.MILLISECONDS).dispose();
+                w.schedule(r, 30, TimeUnit.MILLISECONDS);
+                w.dispose();
+
+                scheduler.scheduleDirect(new Runnable() {
+                    @Override
+                    public void run() {
+                        scheduler.shutdown();
+                    }
+                }, 100, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        assertEquals(0, counter[0]);
+    }
+
+    @Test(timeout = 10000)
+    public void ownDelayQueueShutdownDisposesPending() {
+        final BlockingScheduler scheduler = new BlockingScheduler();
+
+        final Disposable[] d = { null };
+
+        scheduler.execute(new Action() {
+            @Override
+            public void run() throws Exception {
+                d[0] = scheduler.scheduleDirect(Functions.EMPTY_RUNNABLE, 1, TimeUnit.DAYS);
+                scheduler.shutdown();
+            }
+        });
+
+        assertTrue(d[0].isDisposed());
+    }
+
+    @Test(timeout = 10000)
+    public void ownDelayQueueHugeDelay() {
+        final BlockingScheduler scheduler = new BlockingScheduler();
+
+        final int[] counter = { 0 };
+
+        scheduler.execute(new Action() {
+            @Override
+            public void run() throws Exception {
+                Runnable r = new Runnable() {
+                    @Override
+                    public void run() {
+                        counter[0]++;
+                    }
+                };
+
+                scheduler.scheduleDirect(r, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                scheduler.createWorker().schedule(r, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+                scheduler.scheduleDirect(new Runnable() {
+                    @Override
+                    public void run() {
+                        scheduler.shutdown();
+                    }
+                }, 50, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        assertEquals(0, counter[0]);
+    }
+
+    @Test(timeout = 10000)
+    public void ownDelayQueueCancelledTimersPurged() {
+        final BlockingScheduler scheduler = new BlockingScheduler();
+
+        final List<Disposable> timers = new ArrayList<>();
+        final int[] sizes = { -1, -1, -1 };
+
+        scheduler.execute(new Action() {
+            @Override
+            public void run() throws Exception {
+                final Worker w = scheduler.createWorker();
+
+                for (int i = 0; i < 500; i++) {
+                    timers.add(scheduler.scheduleDirect(Functions.EMPTY_RUNNABLE, 1, TimeUnit.HOURS));
+                    timers.add(w.schedule(Functions.EMPTY_RUNNABLE, 1, TimeUnit.HOURS));
+                }
+
+                scheduler.scheduleDirect(new Runnable() {
+                    @Override
+                    public void run() {
+                        sizes[0] = scheduler.timedQueue.size();
+
+                        for (Disposable d : timers) {
+                            d.dispose();
+                        }
+
+                        scheduler.scheduleDirect(new Runnable() {
+                            @Override
+                            public void run() {
+                                sizes[1] = scheduler.timedQueue.size();
+
+                                for (int i = 0; i < 100; i++) {
+                                    w.schedule(Functions.EMPTY_RUNNABLE, 1, TimeUnit.HOURS);
+                                }
+
+                                scheduler.scheduleDirect(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        w.dispose();
+
+                                        scheduler.scheduleDirect(new Runnable() {
+                                            @Override
+                                            public void run() {
+                                                sizes[2] = scheduler.timedQueue.size();
+                                                scheduler.shutdown();
+                                            }
+                                        });
+                                    }
+                                });
+                            }
+                        });
+                    }
+                });
+            }
+        });
+
+        assertEquals(1000, sizes[0]);
+        assertEquals(0, sizes[1]);
+        assertEquals(0, sizes[2]);
+        assertEquals(0, scheduler.cancelledTimers.get());
+    }
 }
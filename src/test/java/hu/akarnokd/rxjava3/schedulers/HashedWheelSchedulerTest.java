@@ -0,0 +1,394 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.test.TestHelper;
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Action;
+import io.reactivex.rxjava3.internal.schedulers.RxThreadFactory;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
+public class HashedWheelSchedulerTest implements Runnable {
+
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public void run() {
+        calls.getAndIncrement();
+    }
+
+    @Test
+    public void normal() {
+        Scheduler s = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS);
+        try {
+            for (int i = 0; i < 100; i++) {
+                Flowable.range(1, 10).hide()
+                .observeOn(s, false, 4)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void delayed() {
+        Scheduler s = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS, 16);
+        try {
+            for (int i = 0; i < 20; i++) {
+                Flowable.range(1, 10).hide()
+                .delay(50, TimeUnit.MILLISECONDS, s)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void delayOrder() throws Exception {
+        Scheduler s = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS, 8);
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(4);
+            int[] delays = { 60, 5, 30, 15 };
+            for (final int d : delays) {
+                s.scheduleDirect(new Runnable() {
+                    @Override
+                    public void run() {
+                        list.add(d);
+                        cdl.countDown();
+                    }
+                }, d, TimeUnit.MILLISECONDS);
+            }
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            assertEquals(Arrays.asList(5, 15, 30, 60), list);
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void multipleRounds() throws Exception {
+        // 4 buckets of 5 ms cover 20 ms per round
+        Scheduler s = new HashedWheelScheduler(5, TimeUnit.MILLISECONDS, 4);
+        try {
+            long before = System.nanoTime();
+            final CountDownLatch cdl = new CountDownLatch(1);
+            s.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 100, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - before);
+            assertTrue("" + elapsed, elapsed >= 100);
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void cancelled() throws Exception {
+        Scheduler s = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS, 16);
+        try {
+            Worker w = s.createWorker();
+            try {
+                List<Disposable> list = new ArrayList<>();
+                for (int i = 0; i < 1000; i++) {
+                    list.add(w.schedule(this, 20 + (i % 50), TimeUnit.MILLISECONDS));
+                }
+                for (Disposable d : list) {
+                    assertFalse(d.isDisposed());
+                    d.dispose();
+                    assertTrue(d.isDisposed());
+                }
+
+                Disposable d = s.scheduleDirect(this, 20, TimeUnit.MILLISECONDS);
+                d.dispose();
+
+                Thread.sleep(200);
+
+                assertEquals(0, calls.get());
+            } finally {
+                w.dispose();
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void workerDisposeCancelsTasks() throws Exception {
+        Scheduler s = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS);
+        try {
+            Worker w = s.createWorker();
+
+            w.schedule(this, 50, TimeUnit.MILLISECONDS);
+            w.schedule(this, 100, TimeUnit.MILLISECONDS);
+
+            w.dispose();
+
+            assertTrue(w.isDisposed());
+            assertSame(Disposable.disposed(), w.schedule(this));
+
+            Thread.sleep(200);
+
+            assertEquals(0, calls.get());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdown() throws Exception {
+        Scheduler s = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS);
+        try {
+            Worker w = s.createWorker();
+
+            w.dispose();
+
+            assertSame(Disposable.disposed(), w.schedule(this));
+
+            assertSame(Disposable.disposed(), w.schedule(this, 100, TimeUnit.MILLISECONDS));
+
+            assertSame(Disposable.disposed(), w.schedulePeriodically(this, 100, 100, TimeUnit.MILLISECONDS));
+
+            s.shutdown();
+
+            assertSame(Disposable.disposed(), s.scheduleDirect(this));
+
+            assertSame(Disposable.disposed(), s.scheduleDirect(this, 100, TimeUnit.MILLISECONDS));
+
+            w = s.createWorker();
+
+            assertSame(Disposable.disposed(), w.schedule(this));
+
+            assertSame(Disposable.disposed(), w.schedule(this, 100, TimeUnit.MILLISECONDS));
+
+            assertSame(Disposable.disposed(), w.schedulePeriodically(this, 100, 100, TimeUnit.MILLISECONDS));
+
+            assertEquals(0, calls.get());
+
+            s.start();
+
+            s.scheduleDirect(this);
+
+            s.scheduleDirect(this, 100, TimeUnit.MILLISECONDS);
+
+            s.schedulePeriodicallyDirect(this, 100, 100, TimeUnit.MILLISECONDS);
+
+            w = s.createWorker();
+
+            w.schedule(this);
+
+            w.schedule(this, 100, TimeUnit.MILLISECONDS);
+
+            w.schedulePeriodically(this, 100, 100, TimeUnit.MILLISECONDS);
+
+            Thread.sleep(1000);
+
+            int c = calls.get();
+            assertTrue("" + c, c > 6);
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void taskThrows() throws Exception {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        Scheduler s = new HashedWheelScheduler();
+        try {
+            s.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+
+            while (errors.isEmpty()) {
+                Thread.sleep(20);
+            }
+
+            TestHelper.assertError(errors, 0, IllegalStateException.class);
+        } finally {
+            s.shutdown();
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void constructors() {
+        startStop(new HashedWheelScheduler());
+        startStop(new HashedWheelScheduler(1, TimeUnit.MILLISECONDS));
+        startStop(new HashedWheelScheduler(1, TimeUnit.MILLISECONDS, 100));
+        startStop(new HashedWheelScheduler(1, TimeUnit.MILLISECONDS, 100, new RxThreadFactory("Test")));
+    }
+
+    private void startStop(Scheduler s) {
+        s.start();
+        s.start();
+        s.shutdown();
+        s.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalTick() {
+        new HashedWheelScheduler(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalWheelSize() {
+        new HashedWheelScheduler(1, TimeUnit.MILLISECONDS, 0);
+    }
+
+    @Test
+    public void startRace() {
+        for (int i = 0; i < 100; i++) {
+            final Scheduler s = new HashedWheelScheduler();
+            s.shutdown();
+
+            Runnable r = new Runnable() {
+                @Override
+                public void run() {
+                    s.start();
+                }
+            };
+
+            TestHelper.race(r, r, Schedulers.single());
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void timedHelperOfParallelScheduler() {
+        Scheduler wheel = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS);
+        try {
+            for (Scheduler s : Arrays.asList(
+                    new ParallelScheduler(2, true, Thread.NORM_PRIORITY, "Test", false, wheel),
+                    new ParallelScheduler(2, false, Thread.NORM_PRIORITY, "Test", false, wheel),
+                    new ParallelScheduler(2, true, Thread.NORM_PRIORITY, "Test", true, wheel),
+                    new ParallelScheduler(2, new RxThreadFactory("Test"), true, wheel))) {
+                try {
+                    Flowable.range(1, 10).hide()
+                    .delay(20, TimeUnit.MILLISECONDS, s)
+                    .test()
+                    .awaitDone(5, TimeUnit.SECONDS)
+                    .assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+                    Flowable.interval(1, TimeUnit.MILLISECONDS, s)
+                    .take(5)
+                    .test()
+                    .awaitDone(5, TimeUnit.SECONDS)
+                    .assertResult(0L, 1L, 2L, 3L, 4L);
+
+                    Single.timer(10, TimeUnit.MILLISECONDS, s)
+                    .test()
+                    .awaitDone(5, TimeUnit.SECONDS)
+                    .assertResult(0L);
+                } finally {
+                    s.shutdown();
+                }
+            }
+        } finally {
+            wheel.shutdown();
+        }
+    }
+
+    @Test
+    public void timedHelperOfParallelSchedulerCancel() throws Exception {
+        Scheduler wheel = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS);
+        try {
+            for (boolean tracking : new boolean[] { true, false }) {
+                for (boolean stealing : new boolean[] { true, false }) {
+                    Scheduler s = new ParallelScheduler(2, tracking, Thread.NORM_PRIORITY, "Test", stealing, wheel);
+                    try {
+                        Worker w = s.createWorker();
+                        w.schedule(this, 50, TimeUnit.MILLISECONDS).dispose();
+                        s.scheduleDirect(this, 50, TimeUnit.MILLISECONDS).dispose();
+
+                        Worker w2 = s.createWorker();
+                        w2.schedule(this, 50, TimeUnit.MILLISECONDS);
+                        w2.dispose();
+
+                        Thread.sleep(150);
+
+                        assertEquals(0, calls.get());
+                    } finally {
+                        s.shutdown();
+                    }
+                }
+            }
+        } finally {
+            wheel.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void timedHelperOfBlockingScheduler() {
+        final Scheduler wheel = new HashedWheelScheduler(1, TimeUnit.MILLISECONDS);
+        try {
+            final TestSubscriber<Integer> ts = new TestSubscriber<>();
+            final BlockingScheduler scheduler = new BlockingScheduler(wheel);
+            scheduler.execute(new Action() {
+                @Override
+                public void run() throws Exception {
+                    final Thread t = Thread.currentThread();
+                    Flowable.range(1, 5)
+                    .subscribeOn(scheduler)
+                    .delay(50, TimeUnit.MILLISECONDS, scheduler)
+                    .doOnNext(v -> assertSame(t, Thread.currentThread()))
+                    .doAfterTerminate(new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            scheduler.shutdown();
+                        }
+                    })
+                    .subscribe(ts);
+
+                    ts.assertEmpty();
+                }
+            });
+
+            ts.assertResult(1, 2, 3, 4, 5);
+        } finally {
+            wheel.shutdown();
+        }
+    }
+}
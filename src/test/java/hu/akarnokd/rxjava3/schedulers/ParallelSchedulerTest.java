@@ -18,7 +18,7 @@ package hu.akarnokd.rxjava3.schedulers;
 
 import static org.junit.Assert.*;
 
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -413,4 +413,276 @@ public class ParallelSchedulerTest implements Runnable {
     public void illegalPriority() {
         new ParallelScheduler(2, true, -1);
     }
+
+    static ParallelScheduler workStealing(int parallelism, boolean tracking) {
+        return new ParallelScheduler(parallelism, tracking, Thread.NORM_PRIORITY, "RxWorkStealingTest", true);
+    }
+
+    @Test
+    public void normalWorkStealing() {
+        Scheduler s = workStealing(2, true);
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                Flowable.range(1, 10).hide()
+                .observeOn(s, false, 4)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void delayedWorkStealing() {
+        Scheduler s = workStealing(2, true);
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                Flowable.range(1, 10).hide()
+                .delay(50, TimeUnit.MILLISECONDS, s)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdownWorkStealing() throws Exception {
+        shutdown(workStealing(2, true));
+    }
+
+    @Test
+    public void shutdownWorkStealingNonTracking() throws Exception {
+        shutdown(workStealing(2, false));
+    }
+
+    @Test(timeout = 5000)
+    public void taskThrowsWorkStealing() throws Exception {
+        taskThrows(workStealing(2, true));
+    }
+
+    @Test
+    public void cancelledTaskWorkStealing() throws Exception {
+        cancelledTask(workStealing(2, true));
+    }
+
+    @Test
+    public void cancelledTaskWorkStealingNonTracking() throws Exception {
+        cancelledTask(workStealing(2, false));
+    }
+
+    @Test
+    public void constructorsWorkStealing() {
+        startStop(workStealing(1, true));
+        startStop(workStealing(1, false));
+    }
+
+    @Test
+    public void startRaceWorkStealing() {
+        for (int i = 0; i < 1000; i++) {
+            final Scheduler s = workStealing(2, true);
+            s.shutdown();
+
+            Runnable r = new Runnable() {
+                @Override
+                public void run() {
+                    s.start();
+                }
+            };
+
+            TestHelper.race(r, r, Schedulers.single());
+            s.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void workStealingWorkerFifo() throws Exception {
+        Scheduler s = workStealing(4, true);
+        try {
+            final int n = 10000;
+            final List<Integer> list = new ArrayList<>();
+            final CountDownLatch cdl = new CountDownLatch(1);
+            Worker w = s.createWorker();
+            try {
+                for (int i = 0; i < n; i++) {
+                    final int j = i;
+                    w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(j);
+                            if (j == n - 1) {
+                                cdl.countDown();
+                            }
+                        }
+                    });
+                }
+
+                assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+                for (int i = 0; i < n; i++) {
+                    assertEquals(i, list.get(i).intValue());
+                }
+            } finally {
+                w.dispose();
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void workStealingSlowTaskDoesNotBlockOtherWorkers() throws Exception {
+        Scheduler s = workStealing(2, true);
+        try {
+            final CountDownLatch block = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(10);
+
+            Worker slow = s.createWorker();
+            slow.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        block.await();
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            for (int i = 0; i < 10; i++) {
+                Worker w = s.createWorker();
+                w.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            block.countDown();
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void workStealingDisposeStopsQueuedTasks() throws Exception {
+        Scheduler s = workStealing(1, true);
+        try {
+            final CountDownLatch block = new CountDownLatch(1);
+            final CountDownLatch started = new CountDownLatch(1);
+            final Worker w = s.createWorker();
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        block.await();
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            Disposable d = w.schedule(this);
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            d.dispose();
+            assertTrue(d.isDisposed());
+
+            w.schedule(this);
+            w.dispose();
+            block.countDown();
+
+            Thread.sleep(100);
+
+            assertEquals(0, calls.get());
+            assertSame(Disposable.disposed(), w.schedule(this));
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void workStealingDirect() throws Exception {
+        Scheduler s = workStealing(2, true);
+        try {
+            final CountDownLatch cdl = new CountDownLatch(3);
+            Runnable r = new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            };
+
+            s.scheduleDirect(r);
+            s.scheduleDirect(r, 10, TimeUnit.MILLISECONDS);
+            Disposable d = s.schedulePeriodicallyDirect(r, 10, 10, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            d.dispose();
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void workStealingThreadName() throws Exception {
+        Scheduler s = workStealing(1, true);
+        try {
+            String name = Single.fromCallable(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return Thread.currentThread().getName();
+                }
+            })
+            .subscribeOn(s)
+            .blockingGet();
+
+            assertTrue(name, name.startsWith("RxWorkStealingTest-"));
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void nonTrackingTimedHelperDisposeCancelsTimedTask() {
+        final Disposable timed = Disposable.empty();
+        Scheduler helper = new Scheduler() {
+            @Override
+            public Worker createWorker() {
+                return Schedulers.trampoline().createWorker();
+            }
+
+            @Override
+            public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+                return timed;
+            }
+        };
+
+        ParallelScheduler s = new ParallelScheduler(2, new RxThreadFactory("Test"), false, helper);
+        try {
+            Worker w = s.createWorker();
+
+            Disposable d = w.schedule(this, 1, TimeUnit.MINUTES);
+
+            assertFalse(timed.isDisposed());
+
+            d.dispose();
+
+            assertTrue(timed.isDisposed());
+        } finally {
+            s.shutdown();
+        }
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.string;
+
+import static org.junit.Assert.*;
+
+import java.nio.CharBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.test.*;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.internal.fuseable.QueueFuseable;
+
+public class FlowableCharSequenceChunksTest {
+
+    static final Function<char[], String> ARRAY_TO_STRING = new Function<char[], String>() {
+        @Override
+        public String apply(char[] t) throws Exception {
+            return new String(t);
+        }
+    };
+
+    static final Function<CharBuffer, String> BUFFER_TO_STRING = new Function<CharBuffer, String>() {
+        @Override
+        public String apply(CharBuffer t) throws Exception {
+            return t.toString();
+        }
+    };
+
+    @Test
+    public void arrays() {
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .map(ARRAY_TO_STRING)
+        .test()
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void arraysStringBuilder() {
+        StringFlowable.characterChunks(new StringBuilder("abcdefgh"), 4)
+        .map(ARRAY_TO_STRING)
+        .test()
+        .assertResult("abcd", "efgh");
+    }
+
+    @Test
+    public void arraysCharBuffer() {
+        StringFlowable.characterChunks(CharBuffer.wrap("abcdefgh"), 5)
+        .map(ARRAY_TO_STRING)
+        .test()
+        .assertResult("abcde", "fgh");
+    }
+
+    @Test
+    public void buffers() {
+        StringFlowable.characterBuffers("abcdefgh", 3)
+        .map(BUFFER_TO_STRING)
+        .test()
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void buffersReadOnly() {
+        List<CharBuffer> list = StringFlowable.characterBuffers("abcdefgh", 8)
+        .toList()
+        .blockingGet();
+
+        assertEquals(1, list.size());
+        assertTrue(list.get(0).isReadOnly());
+    }
+
+    @Test
+    public void empty() {
+        StringFlowable.characterChunks("", 3)
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void backpressure() {
+        StringFlowable.characterChunks("abcdefgh", 2)
+        .map(ARRAY_TO_STRING)
+        .test(0)
+        .assertEmpty()
+        .requestMore(1)
+        .assertValues("ab")
+        .requestMore(2)
+        .assertValues("ab", "cd", "ef")
+        .requestMore(1)
+        .assertResult("ab", "cd", "ef", "gh");
+    }
+
+    @Test
+    public void take() {
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .take(2)
+        .map(ARRAY_TO_STRING)
+        .test()
+        .assertResult("abc", "def");
+    }
+
+    @Test
+    public void fused() {
+        TestSubscriberEx<char[]> ts = TestHelper.fusedSubscriber(QueueFuseable.ANY);
+
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .subscribe(ts);
+
+        ts.assertFusionMode(QueueFuseable.SYNC)
+        .assertValueCount(3)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void fusedConcatMap() {
+        StringFlowable.characterBuffers("abcdefgh", 3)
+        .concatMap(new Function<CharBuffer, Flowable<String>>() {
+            @Override
+            public Flowable<String> apply(CharBuffer v) throws Exception {
+                return Flowable.just(v.toString());
+            }
+        })
+        .test()
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void fusedIsEmptyClear() {
+        TestHelper.checkFusedIsEmptyClear(StringFlowable.characterChunks("abcdefgh", 3));
+    }
+
+    @Test
+    public void charactersSplitSurrogatePair() {
+        StringFlowable.characterChunks("ab\ud83d\ude00c", 3)
+        .map(ARRAY_TO_STRING)
+        .test()
+        .assertResult("ab\ud83d", "\ude00c");
+    }
+
+    @Test
+    public void codePointsKeepSurrogatePair() {
+        StringFlowable.codePointChunks("ab\ud83d\ude00cd", 3)
+        .map(ARRAY_TO_STRING)
+        .test()
+        .assertResult("ab", "\ud83d\ude00c", "d");
+    }
+
+    @Test
+    public void codePointsChunkSize1() {
+        StringFlowable.codePointBuffers("a\ud83d\ude00b", 1)
+        .map(BUFFER_TO_STRING)
+        .test()
+        .assertResult("a", "\ud83d\ude00", "b");
+    }
+
+    @Test
+    public void codePointsLoneSurrogates() {
+        StringFlowable.codePointChunks("a\ud83d\ud83d\ude00\ude00", 2)
+        .map(ARRAY_TO_STRING)
+        .test()
+        .assertResult("a\ud83d", "\ud83d\ude00", "\ude00");
+    }
+
+    @Test
+    public void codePointsFused() {
+        TestSubscriberEx<CharBuffer> ts = TestHelper.fusedSubscriber(QueueFuseable.ANY);
+
+        StringFlowable.codePointBuffers("\ud83d\ude00\ud83d\ude00\ud83d\ude00", 3)
+        .subscribe(ts);
+
+        ts.assertFusionMode(QueueFuseable.SYNC)
+        .assertValueCount(3)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeNonPositive() {
+        StringFlowable.characterChunks("abc", 0);
+    }
+}
@@ -16,12 +16,19 @@
 
 package hu.akarnokd.rxjava3.string;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
 
 import org.junit.Test;
 
 import hu.akarnokd.rxjava3.test.BaseTest;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.Function;
 
 public class StringFlowableTest extends BaseTest {
 
@@ -211,4 +218,306 @@ public class StringFlowableTest extends BaseTest {
         .test()
         .assertResult("ab", "cd", "ef");
     }
+
+    @Test
+    public void splitRegexAcrossChunks() {
+        Flowable.just("ab  ", "  cd", " ", " ef")
+        .compose(StringFlowable.split("\\s+"))
+        .test()
+        .assertResult("ab", "cd", "ef");
+    }
+
+    @Test
+    public void splitRegexAlternativeAcrossChunks() {
+        Flowable.just("xa", "bcyb", "z")
+        .compose(StringFlowable.split("abc|b"))
+        .test()
+        .assertResult("x", "y", "z");
+    }
+
+    @Test
+    public void splitLiteralPattern() {
+        Flowable.just("a.", "b..c", ".")
+        .compose(StringFlowable.split(Pattern.compile(".", Pattern.LITERAL)))
+        .test()
+        .assertResult("a", "b", "", "c");
+    }
+
+    @Test
+    public void splitEscapedCharacter() {
+        Flowable.just("a|b", "|", "c")
+        .compose(StringFlowable.split("\\|"))
+        .test()
+        .assertResult("a", "b", "c");
+    }
+
+    @Test
+    public void splitHugeToken() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            sb.append((char)('a' + i % 26));
+        }
+        String token = sb.toString();
+
+        List<String> chunks = new ArrayList<>();
+        chunks.add("x\n");
+        for (int i = 0; i < token.length(); i += 100) {
+            chunks.add(token.substring(i, i + 100));
+        }
+        chunks.add("\ny");
+
+        Flowable.fromIterable(chunks)
+        .compose(StringFlowable.split("\n"))
+        .test()
+        .assertResult("x", token, "y");
+    }
+
+    @Test
+    public void splitRandomChunksMatchesPatternSplit() {
+        String[] patterns = { ":", "qwer", "\\s+", "\r?\n", ",+", "[,;]", "abc|b", "o" };
+        String alphabet = "abco:qwer ,;\r\n";
+        Random random = new Random(12345);
+
+        for (String p : patterns) {
+            Pattern pattern = Pattern.compile(p);
+            for (int round = 0; round < 200; round++) {
+                StringBuilder sb = new StringBuilder();
+                int n = random.nextInt(60);
+                for (int i = 0; i < n; i++) {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                String text = sb.toString();
+
+                List<String> chunks = new ArrayList<>();
+                int i = 0;
+                while (i < text.length()) {
+                    int j = Math.min(text.length(), i + 1 + random.nextInt(5));
+                    chunks.add(text.substring(i, j));
+                    i = j;
+                }
+
+                List<String> expected = new ArrayList<>();
+                if (!text.isEmpty()) {
+                    expected.addAll(Arrays.asList(pattern.split(text)));
+                }
+
+                Flowable.fromIterable(chunks)
+                .compose(StringFlowable.split(pattern, 1))
+                .test()
+                .assertValueSequence(expected)
+                .assertNoErrors()
+                .assertComplete();
+            }
+        }
+    }
+
+    @Test
+    public void splitLookahead() {
+        Flowable.just("Hel", "loWorld", "Foo", "Ba", "r")
+        .compose(StringFlowable.split("(?=[A-Z])"))
+        .test()
+        .assertResult("Hello", "World", "Foo", "Bar");
+    }
+
+    @Test
+    public void splitLookaheadAfterDelimiter() {
+        Flowable.just("a,", "xb,", "c")
+        .compose(StringFlowable.split(",|(?=x)"))
+        .test()
+        .assertResult(Pattern.compile(",|(?=x)").split("a,xb,c"));
+    }
+
+    @Test
+    public void splitLookaheadRandomChunksMatchesPatternSplit() {
+        String[] patterns = { "(?=[A-Z])", ",|(?=x)", "(?=,)", "(?=A)|B" };
+        String alphabet = "aAbB,x";
+        Random random = new Random(12345);
+
+        for (String p : patterns) {
+            Pattern pattern = Pattern.compile(p);
+            for (int round = 0; round < 200; round++) {
+                StringBuilder sb = new StringBuilder();
+                int n = random.nextInt(60);
+                for (int i = 0; i < n; i++) {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                String text = sb.toString();
+
+                List<String> chunks = new ArrayList<>();
+                int i = 0;
+                while (i < text.length()) {
+                    int j = Math.min(text.length(), i + 1 + random.nextInt(5));
+                    chunks.add(text.substring(i, j));
+                    i = j;
+                }
+
+                List<String> expected = new ArrayList<>();
+                if (!text.isEmpty()) {
+                    expected.addAll(Arrays.asList(pattern.split(text)));
+                }
+
+                Flowable.fromIterable(chunks)
+                .compose(StringFlowable.split(pattern, 1))
+                .test()
+                .assertValueSequence(expected)
+                .assertNoErrors()
+                .assertComplete();
+            }
+        }
+    }
+
+    static ByteBuffer utf8(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String utf8(ByteBuffer b) {
+        return StandardCharsets.UTF_8.decode(b).toString();
+    }
+
+    @Test
+    public void splitUtf8() {
+        Flowable.just(utf8("ab\ncd"), utf8("e\n\nfg"))
+        .compose(StringFlowable.splitUtf8("\n"))
+        .test()
+        .assertResult("ab", "cde", "", "fg");
+    }
+
+    @Test
+    public void splitUtf8DelimiterAcrossChunks() {
+        Flowable.just(utf8("ab\r"), utf8("\ncd\r"), utf8("\r"), utf8("\ne\r\n"))
+        .compose(StringFlowable.splitUtf8("\r\n", 1))
+        .test()
+        .assertResult("ab", "cd\r", "e");
+    }
+
+    @Test
+    public void splitUtf8CharacterAcrossChunks() {
+        byte[] bytes = "\u00e1rv\u00edzt\u0171r\u0151;\ud83d\ude00;".getBytes(StandardCharsets.UTF_8);
+        List<ByteBuffer> chunks = new ArrayList<>();
+        for (byte b : bytes) {
+            chunks.add(ByteBuffer.wrap(new byte[] { b }));
+        }
+
+        Flowable.fromIterable(chunks)
+        .compose(StringFlowable.splitUtf8(";"))
+        .test()
+        .assertResult("\u00e1rv\u00edzt\u0171r\u0151", "\ud83d\ude00");
+    }
+
+    @Test
+    public void splitUtf8Request1() {
+        Flowable.just(utf8("a,b,c"), utf8(",d"))
+        .compose(StringFlowable.splitUtf8(","))
+        .rebatchRequests(1)
+        .test()
+        .assertResult("a", "b", "c", "d");
+    }
+
+    @Test
+    public void splitUtf8Error() {
+        Flowable.just(utf8("a,b"))
+        .concatWith(Flowable.<ByteBuffer>error(new IOException()))
+        .compose(StringFlowable.splitUtf8(","))
+        .test()
+        .assertFailure(IOException.class, "a", "b");
+    }
+
+    @Test
+    public void splitUtf8DirectBuffers() {
+        ByteBuffer b = ByteBuffer.allocateDirect(16);
+        b.put("a;bc;d".getBytes(StandardCharsets.UTF_8));
+        b.flip();
+        Flowable.just(b, b.duplicate())
+        .compose(StringFlowable.splitUtf8(";"))
+        .test()
+        .assertResult("a", "bc", "da", "bc", "d");
+    }
+
+    @Test
+    public void splitBytesSlicesWithoutCopying() {
+        byte[] array = "ab;cd;ef".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer source = ByteBuffer.wrap(array);
+
+        List<ByteBuffer> list = Flowable.just(source)
+        .compose(StringFlowable.splitBytes(new byte[] { ';' }))
+        .toList()
+        .blockingGet();
+
+        assertEquals(3, list.size());
+        assertSame(array, list.get(0).array());
+        assertSame(array, list.get(1).array());
+        assertEquals("ab", utf8(list.get(0)));
+        assertEquals("cd", utf8(list.get(1)));
+        assertEquals("ef", utf8(list.get(2)));
+        assertEquals(0, source.position());
+    }
+
+    @Test
+    public void splitBytesAcrossChunks() {
+        List<String> list = Flowable.just(utf8("ab;"), utf8(";c"), utf8("d;;"), utf8(";e"))
+        .compose(StringFlowable.splitBytes(";;".getBytes(StandardCharsets.UTF_8)))
+        .map(new Function<ByteBuffer, String>() {
+            @Override
+            public String apply(ByteBuffer b) throws Exception {
+                return utf8(b);
+            }
+        })
+        .toList()
+        .blockingGet();
+
+        assertEquals(Arrays.asList("ab", "cd", ";e"), list);
+    }
+
+    @Test
+    public void splitUtf8RandomChunks() {
+        String[] delimiters = { "\n", "\r\n", "abab", "\u00e9" };
+        String alphabet = "ab\r\n\u00e9\u0151x";
+        Random random = new Random(12345);
+
+        for (String delimiter : delimiters) {
+            for (int round = 0; round < 200; round++) {
+                StringBuilder sb = new StringBuilder();
+                int n = random.nextInt(60);
+                for (int i = 0; i < n; i++) {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                String text = sb.toString();
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+                List<ByteBuffer> chunks = new ArrayList<>();
+                int i = 0;
+                while (i < bytes.length) {
+                    int j = Math.min(bytes.length, i + 1 + random.nextInt(5));
+                    chunks.add(ByteBuffer.wrap(Arrays.copyOfRange(bytes, i, j)));
+                    i = j;
+                }
+
+                List<String> expected = new ArrayList<>();
+                int start = 0;
+                for (;;) {
+                    int idx = text.indexOf(delimiter, start);
+                    if (idx < 0) {
+                        break;
+                    }
+                    expected.add(text.substring(start, idx));
+                    start = idx + delimiter.length();
+                }
+                if (start != text.length()) {
+                    expected.add(text.substring(start));
+                }
+
+                Flowable.fromIterable(chunks)
+                .compose(StringFlowable.splitUtf8(delimiter, 1))
+                .test()
+                .assertValueSequence(expected)
+                .assertNoErrors()
+                .assertComplete();
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void splitBytesEmptyDelimiter() {
+        StringFlowable.splitBytes(new byte[0]);
+    }
 }
@@ -25,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 
 import hu.akarnokd.rxjava3.test.*;
+import hu.akarnokd.rxjava3.util.*;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.functions.BiFunction;
@@ -292,4 +293,95 @@ public class DispatchWorkSubjectTest {
 
         assertTrue(set.isEmpty());
     }
+
+    @Test
+    public void batchedOffline() {
+        DispatchWorkSubject<Integer> dws = DispatchWorkSubject.create(Schedulers.trampoline(), 16, true, 4);
+
+        for (int i = 1; i <= 10; i++) {
+            dws.onNext(i);
+        }
+        dws.onComplete();
+
+        dws.test().assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void batchedDisposeRequeues() {
+        DispatchWorkSubject<Integer> dws = DispatchWorkSubject.create(Schedulers.trampoline(), 16, true, 8);
+
+        for (int i = 1; i <= 10; i++) {
+            dws.onNext(i);
+        }
+        dws.onComplete();
+
+        // claims a block of 8 but disposes after the second item
+        dws.take(2).test().assertResult(1, 2);
+
+        TestObserver<Integer> to = dws.test();
+
+        to.assertValueCount(8)
+        .assertNoErrors()
+        .assertComplete();
+
+        Set<Integer> set = new HashSet<>(to.values());
+        for (int i = 3; i <= 10; i++) {
+            assertTrue(set.remove(i));
+        }
+    }
+
+    @Test
+    public void batchedErrorNoDelay() {
+        DispatchWorkSubject<Integer> dws = DispatchWorkSubject.create(Schedulers.trampoline(), 16, false, 8);
+
+        dws.onNext(1);
+        dws.onError(new TestException());
+
+        dws.test().assertFailure(TestException.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchedInvalidSize() {
+        DispatchWorkSubject.create(Schedulers.trampoline(), 16, true, 0);
+    }
+
+    @Test
+    public void batchedManyObservers() {
+        for (int k = 0; k < 100; k++) {
+            DispatchWorkSubject<Integer> dws = DispatchWorkSubject.create(Schedulers.computation(), 16, true, 16);
+
+            List<TestObserver<Integer>> list = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                list.add(dws.test());
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                dws.onNext(i);
+            }
+            dws.onComplete();
+
+            Set<Integer> set = new HashSet<>();
+            for (TestObserver<Integer> to : list) {
+                to.awaitDone(5, TimeUnit.SECONDS)
+                .assertNoErrors()
+                .assertComplete();
+
+                for (Integer v : to.values()) {
+                    assertTrue(set.add(v));
+                }
+            }
+
+            assertEquals(1000, set.size());
+        }
+    }
+
+    @Test
+    public void queueSelection() {
+        assertTrue(DispatchWorkSubject.create(Schedulers.trampoline()).queue instanceof SpmcLinkedArrayQueue);
+        assertNull(DispatchWorkSubject.create(Schedulers.trampoline(), 16, true, 1).batchQueue);
+
+        DispatchWorkSubject<Integer> batched = DispatchWorkSubject.create(Schedulers.trampoline(), 16, true, 4);
+        assertTrue(batched.queue instanceof MpmcLinkedArrayQueue);
+        assertSame(batched.queue, batched.batchQueue);
+    }
 }
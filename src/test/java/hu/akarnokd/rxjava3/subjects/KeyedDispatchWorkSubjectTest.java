@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.subjects;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.test.TestException;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+public class KeyedDispatchWorkSubjectTest {
+
+    static final Function<Integer, Integer> MOD10 = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer v) throws Exception {
+            return v % 10;
+        }
+    };
+
+    @Test
+    public void offline() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), MOD10, 4);
+
+        assertFalse(kws.hasComplete());
+        assertFalse(kws.hasThrowable());
+        assertNull(kws.getThrowable());
+        assertFalse(kws.hasObservers());
+
+        for (int i = 0; i < 100; i++) {
+            kws.onNext(i);
+        }
+        kws.onComplete();
+
+        assertTrue(kws.hasComplete());
+        assertFalse(kws.hasThrowable());
+        assertNull(kws.getThrowable());
+
+        TestObserver<Integer> to = kws.test();
+
+        to.assertValueCount(100)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertPerKeyOrder(to.values());
+
+        kws.test().assertResult();
+
+        assertFalse(kws.hasObservers());
+    }
+
+    @Test
+    public void sameKeySameObserver() {
+        for (int k = 0; k < 100; k++) {
+            KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.computation(), MOD10, 8);
+
+            List<TestObserver<Integer>> list = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                list.add(kws.test());
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                kws.onNext(i);
+            }
+            kws.onComplete();
+
+            Map<Integer, TestObserver<Integer>> owners = new HashMap<>();
+            int count = 0;
+            for (TestObserver<Integer> to : list) {
+                to.awaitDone(5, TimeUnit.SECONDS)
+                .assertNoErrors()
+                .assertComplete();
+
+                assertPerKeyOrder(to.values());
+                for (Integer v : to.values()) {
+                    TestObserver<Integer> prev = owners.put(v % 10, to);
+                    assertTrue(prev == null || prev == to);
+                }
+                count += to.values().size();
+            }
+
+            assertEquals(1000, count);
+        }
+    }
+
+    @Test
+    public void rebalanceOnDispose() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), MOD10, 4);
+
+        TestObserver<Integer> to1 = kws.test();
+        TestObserver<Integer> to2 = kws.test();
+
+        for (int i = 0; i < 50; i++) {
+            kws.onNext(i);
+        }
+
+        assertEquals(50, to1.values().size() + to2.values().size());
+
+        to1.dispose();
+
+        for (int i = 50; i < 100; i++) {
+            kws.onNext(i);
+        }
+        kws.onComplete();
+
+        to2.assertNoErrors().assertComplete();
+
+        List<Integer> all = new ArrayList<>(to1.values());
+        all.addAll(to2.values());
+        assertEquals(100, all.size());
+        int after = 0;
+        for (Integer v : to2.values()) {
+            if (v >= 50) {
+                after++;
+            }
+        }
+        assertEquals(50, after);
+
+        assertPerKeyOrder(to2.values());
+        assertFalse(kws.hasObservers());
+    }
+
+    @Test
+    public void resumeAfterAllLeft() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), MOD10, 4);
+
+        for (int i = 0; i < 20; i++) {
+            kws.onNext(i);
+        }
+
+        kws.take(5).test().assertValueCount(5).assertComplete();
+
+        assertFalse(kws.hasObservers());
+
+        kws.onComplete();
+
+        TestObserver<Integer> to = kws.test();
+        to.assertValueCount(15).assertComplete();
+        assertPerKeyOrder(to.values());
+    }
+
+    @Test
+    public void errorDelayed() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), MOD10, 4);
+
+        kws.onNext(1);
+        kws.onNext(2);
+        kws.onError(new TestException());
+
+        assertTrue(kws.hasThrowable());
+        assertTrue(kws.getThrowable() instanceof TestException);
+
+        kws.test().assertFailure(TestException.class, 1, 2);
+    }
+
+    @Test
+    public void errorNoDelay() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), MOD10, 4, 16, false);
+
+        kws.onNext(1);
+        kws.onNext(2);
+        kws.onError(new TestException());
+
+        kws.test().assertFailure(TestException.class);
+    }
+
+    @Test
+    public void keySelectorCrash() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), new Function<Integer, Object>() {
+            @Override
+            public Object apply(Integer v) throws Exception {
+                if (v == 2) {
+                    throw new TestException();
+                }
+                return v;
+            }
+        }, 4);
+
+        TestObserver<Integer> to = kws.test();
+
+        kws.onNext(1);
+        kws.onNext(2);
+        kws.onNext(3);
+
+        to.assertFailure(TestException.class, 1);
+        assertTrue(kws.hasThrowable());
+    }
+
+    @Test
+    public void nullKey() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), new Function<Integer, Object>() {
+            @Override
+            public Object apply(Integer v) throws Exception {
+                return null;
+            }
+        }, 4);
+
+        kws.onNext(1);
+        kws.onNext(2);
+        kws.onComplete();
+
+        kws.test().assertResult(1, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLanes() {
+        KeyedDispatchWorkSubject.create(Schedulers.trampoline(), MOD10, 0);
+    }
+
+    @Test
+    public void disposedUpFront() {
+        KeyedDispatchWorkSubject<Integer> kws = KeyedDispatchWorkSubject.create(Schedulers.trampoline(), MOD10);
+
+        kws.test(true);
+
+        assertFalse(kws.hasObservers());
+    }
+
+    static void assertPerKeyOrder(List<Integer> values) {
+        Map<Integer, Integer> last = new HashMap<>();
+        for (Integer v : values) {
+            Integer prev = last.put(v % 10, v);
+            if (prev != null) {
+                assertTrue(prev + " before " + v, prev < v);
+            }
+        }
+    }
+}
@@ -19,14 +19,19 @@ package hu.akarnokd.rxjava3.subjects;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import hu.akarnokd.rxjava3.test.*;
+import hu.akarnokd.rxjava3.util.BufferOverflowPolicy;
 import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.exceptions.MissingBackpressureException;
+import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.observers.TestObserver;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 public class UnicastWorkSubjectTest {
 
@@ -412,4 +417,103 @@ public class UnicastWorkSubjectTest {
             uws.subscribeWith(new TestObserverEx<>()).assertNotTerminated();
         }
     }
+
+    @Test
+    public void boundedDropNewest() {
+        UnicastWorkSubject<Integer> uws = UnicastWorkSubject.createBounded(3, BufferOverflowPolicy.DROP_NEWEST);
+
+        for (int i = 1; i <= 5; i++) {
+            uws.onNext(i);
+        }
+        uws.onComplete();
+
+        assertEquals(3, uws.depth());
+        assertEquals(3, uws.highWaterMark());
+
+        uws.test().assertResult(1, 2, 3);
+
+        assertEquals(0, uws.depth());
+        assertEquals(3, uws.highWaterMark());
+    }
+
+    @Test
+    public void boundedDropOldest() {
+        UnicastWorkSubject<Integer> uws = UnicastWorkSubject.createBounded(3, BufferOverflowPolicy.DROP_OLDEST);
+
+        for (int i = 1; i <= 5; i++) {
+            uws.onNext(i);
+        }
+        uws.onComplete();
+
+        uws.test().assertResult(3, 4, 5);
+    }
+
+    @Test
+    public void boundedError() {
+        UnicastWorkSubject<Integer> uws = UnicastWorkSubject.createBounded(2, BufferOverflowPolicy.ERROR);
+
+        Disposable d = Disposable.empty();
+        uws.onSubscribe(d);
+
+        uws.onNext(1);
+        uws.onNext(2);
+        uws.onNext(3);
+
+        assertTrue(d.isDisposed());
+        assertTrue(uws.hasThrowable());
+
+        uws.test().assertFailure(MissingBackpressureException.class, 1, 2);
+    }
+
+    @Test
+    public void boundedBlockTimeout() {
+        UnicastWorkSubject<Integer> uws = UnicastWorkSubject.createBounded(1, BufferOverflowPolicy.BLOCK,
+                10, TimeUnit.MILLISECONDS, false);
+
+        uws.onNext(1);
+        uws.onNext(2);
+
+        uws.test().assertFailure(MissingBackpressureException.class);
+    }
+
+    @Test
+    public void boundedBlockResumes() throws Exception {
+        final UnicastWorkSubject<Integer> uws = UnicastWorkSubject.createBounded(1, BufferOverflowPolicy.BLOCK,
+                5, TimeUnit.SECONDS, true);
+
+        uws.onNext(1);
+
+        final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+        Schedulers.single().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                uws.subscribe(new Consumer<Integer>() {
+                    @Override
+                    public void accept(Integer v) throws Exception {
+                        list.add(v);
+                    }
+                });
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        uws.onNext(2);
+        uws.onComplete();
+
+        assertEquals(1, uws.highWaterMark());
+
+        for (int i = 0; i < 500 && list.size() != 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Arrays.asList(1, 2), list);
+    }
+
+    @Test
+    public void unboundedDepth() {
+        UnicastWorkSubject<Integer> uws = UnicastWorkSubject.create();
+
+        uws.onNext(1);
+
+        assertEquals(-1, uws.depth());
+        assertEquals(-1, uws.highWaterMark());
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.test.TestHelper;
+
+public class BoundedRingQueueTest {
+
+    @Test
+    public void simple() {
+        BoundedRingQueue<Integer> q = new BoundedRingQueue<>(3, BufferOverflowPolicy.ERROR, 0, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(q.isEmpty());
+            assertTrue(q.offer(i));
+            assertTrue(q.offer(i + 1));
+            assertTrue(q.offer(i + 2));
+            assertFalse(q.offer(i + 3));
+            assertFalse(q.offerOrOverflow(i + 3));
+            assertEquals(3, q.size());
+            assertEquals(i, q.poll().intValue());
+            assertEquals(i + 1, q.poll().intValue());
+            assertEquals(i + 2, q.poll().intValue());
+            assertNull(q.poll());
+        }
+
+        assertEquals(3, q.highWaterMark());
+        assertEquals(3, q.capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity() {
+        new BoundedRingQueue<Integer>(0, BufferOverflowPolicy.ERROR, 0, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void dropOldestRace() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS; i++) {
+            final BoundedRingQueue<Integer> q = new BoundedRingQueue<>(4, BufferOverflowPolicy.DROP_OLDEST, 0, TimeUnit.SECONDS);
+
+            final int n = 1000;
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        assertTrue(q.offerOrOverflow(j));
+                    }
+                }
+            };
+
+            final int[] last = { -1 };
+
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        Integer v = q.poll();
+                        if (v != null) {
+                            assertTrue(v > last[0]);
+                            last[0] = v;
+                        }
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            for (;;) {
+                Integer v = q.poll();
+                if (v == null) {
+                    break;
+                }
+                assertTrue(v > last[0]);
+                last[0] = v;
+            }
+
+            assertEquals(n - 1, last[0]);
+            assertTrue(q.size() <= 4);
+        }
+    }
+
+    @Test
+    public void blockRace() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS / 10; i++) {
+            final BoundedRingQueue<Integer> q = new BoundedRingQueue<>(2, BufferOverflowPolicy.BLOCK, 5, TimeUnit.SECONDS);
+
+            final int n = 1000;
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        assertTrue(q.offerOrOverflow(j));
+                    }
+                }
+            };
+
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    int expected = 0;
+                    while (expected != n) {
+                        Integer v = q.poll();
+                        if (v != null) {
+                            assertEquals(expected, v.intValue());
+                            expected++;
+                        }
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            assertTrue(q.isEmpty());
+            assertTrue(q.highWaterMark() <= 2);
+        }
+    }
+
+    @Test
+    public void offerWithRoomWhileSlotClaimedRace() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS; i++) {
+            final BoundedRingQueue<Integer> q = new BoundedRingQueue<>(4, BufferOverflowPolicy.ERROR, 0, TimeUnit.SECONDS);
+
+            final int n = 1000;
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        while (q.size() == 4) {
+                            Thread.yield();
+                        }
+                        assertTrue(q.offerOrOverflow(j));
+                    }
+                }
+            };
+
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    int expected = 0;
+                    while (expected != n) {
+                        Integer v = q.poll();
+                        if (v == null) {
+                            Thread.yield();
+                        } else {
+                            assertEquals(expected, v.intValue());
+                            expected++;
+                        }
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            assertTrue(q.isEmpty());
+        }
+    }
+}
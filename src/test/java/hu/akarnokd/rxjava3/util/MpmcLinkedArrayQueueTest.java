@@ -0,0 +1,276 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.util;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.test.TestHelper;
+
+public class MpmcLinkedArrayQueueTest {
+
+    @Test(timeout = 5000)
+    public void simple() {
+        MpmcLinkedArrayQueue<Integer> q = new MpmcLinkedArrayQueue<>(32);
+
+        for (int i = 0; i < 128; i++) {
+            assertTrue(q.isEmpty());
+            assertTrue(q.offer(i));
+            assertFalse(q.isEmpty());
+            assertEquals(i, q.poll().intValue());
+            assertTrue("" + i, q.isEmpty());
+            assertNull(q.poll());
+        }
+
+        for (int i = 0; i < 128; i++) {
+            q.offer(i);
+        }
+
+        for (int i = 0; i < 128; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+
+        for (int i = 0; i < 128; i++) {
+            q.offer(i);
+        }
+
+        q.clear();
+
+        assertTrue(q.isEmpty());
+    }
+
+    @Test(timeout = 5000)
+    public void simple2() {
+        MpmcLinkedArrayQueue<Integer> q = new MpmcLinkedArrayQueue<>(3);
+
+        for (int i = 0; i < 128; i++) {
+            assertTrue(q.offer(i, i + 1));
+            assertEquals(i, q.poll().intValue());
+            assertEquals(i + 1, q.poll().intValue());
+            assertTrue(q.isEmpty());
+            assertNull(q.poll());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void offerBatch() {
+        MpmcLinkedArrayQueue<Integer> q = new MpmcLinkedArrayQueue<>(8);
+
+        Integer[] a = new Integer[100];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i;
+        }
+
+        q.offer(a, 0, 5);
+        q.offer(a, 5, 0);
+        q.offer(a, 5, 95);
+
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offerNull() {
+        new MpmcLinkedArrayQueue<Integer>(16).offer(null);
+    }
+
+    @Test
+    public void offerBatchNull() {
+        MpmcLinkedArrayQueue<Integer> q = new MpmcLinkedArrayQueue<>(16);
+        try {
+            q.offer(new Integer[] { 1, null }, 0, 2);
+            fail("Should have thrown");
+        } catch (NullPointerException expected) {
+            // expected
+        }
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void consumerRace() {
+        for (int i = 0; i < TestHelper.RACE_LONG_LOOPS; i++) {
+            final MpmcLinkedArrayQueue<Integer> q = new MpmcLinkedArrayQueue<>(32);
+
+            for (int j = 0; j < 1000; j++) {
+                q.offer(j);
+            }
+
+            final Set<Integer> set1 = new HashSet<>();
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    for (;;) {
+                        Integer k = q.poll();
+                        if (k == null) {
+                            break;
+                        }
+                        set1.add(k);
+                    }
+                }
+            };
+
+            final Set<Integer> set2 = new HashSet<>();
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    while (!q.isEmpty()) {
+                        Integer k = q.poll();
+                        if (k == null) {
+                            break;
+                        }
+                        set2.add(k);
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            set1.addAll(set2);
+
+            assertEquals(1000, set1.size());
+
+            for (int k = 0; k < 1000; k++) {
+                assertTrue(set1.remove(k));
+            }
+        }
+    }
+
+    @Test
+    public void produceConsumeRace() {
+        for (int i = 0; i < TestHelper.RACE_LONG_LOOPS; i++) {
+            final MpmcLinkedArrayQueue<Integer> q = new MpmcLinkedArrayQueue<>(16);
+
+            final int n = 1000;
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    Integer[] a = new Integer[3];
+                    for (int j = 0; j < n; j += 3) {
+                        int k = Math.min(3, n - j);
+                        for (int m = 0; m < k; m++) {
+                            a[m] = j + m;
+                        }
+                        if (k == 1) {
+                            q.offer(a[0]);
+                        } else {
+                            q.offer(a, 0, k);
+                        }
+                    }
+                }
+            };
+
+            final List<Integer> list = new ArrayList<>();
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    int c = 0;
+                    while (!Thread.currentThread().isInterrupted() && c != n) {
+                        Integer k = q.poll();
+                        if (k != null) {
+                            list.add(k);
+                            c++;
+                        }
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            assertEquals(n, list.size());
+
+            for (int k = 0; k < n; k++) {
+                assertEquals(k, list.get(k).intValue());
+            }
+            assertTrue(q.isEmpty());
+        }
+    }
+
+    @Test
+    public void producersConsumersRace() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS / 10; i++) {
+            final MpmcLinkedArrayQueue<Integer> q = new MpmcLinkedArrayQueue<>(8);
+
+            final int n = 2000;
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        q.offer(j);
+                    }
+                }
+            };
+
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = n; j < 2 * n; j++) {
+                        q.offer(j);
+                    }
+                }
+            };
+
+            final Set<Integer> set = Collections.synchronizedSet(new HashSet<Integer>());
+
+            Runnable r3 = new Runnable() {
+                @Override
+                public void run() {
+                    int last1 = -1;
+                    int last2 = n - 1;
+                    for (int j = 0; j < 4 * n; j++) {
+                        Integer v = q.poll();
+                        if (v != null) {
+                            // each consumer sees the items of a producer in order
+                            if (v < n) {
+                                assertTrue(v > last1);
+                                last1 = v;
+                            } else {
+                                assertTrue(v > last2);
+                                last2 = v;
+                            }
+                            assertTrue(set.add(v));
+                        }
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+            TestHelper.race(r3, r3);
+
+            for (;;) {
+                Integer v = q.poll();
+                if (v == null) {
+                    break;
+                }
+                assertTrue(set.add(v));
+            }
+
+            assertEquals(2 * n, set.size());
+            assertTrue(q.isEmpty());
+        }
+    }
+}
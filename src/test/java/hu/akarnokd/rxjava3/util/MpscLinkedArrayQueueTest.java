@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016-2019 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava3.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava3.test.TestHelper;
+
+public class MpscLinkedArrayQueueTest {
+
+    @Test(timeout = 5000)
+    public void simple() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(32);
+
+        for (int i = 0; i < 128; i++) {
+            assertTrue(q.isEmpty());
+            assertTrue(q.offer(i));
+            assertFalse(q.isEmpty());
+            assertEquals(i, q.poll().intValue());
+            assertTrue("" + i, q.isEmpty());
+            assertNull(q.poll());
+        }
+
+        for (int i = 0; i < 128; i++) {
+            q.offer(i);
+        }
+
+        for (int i = 0; i < 128; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+
+        for (int i = 0; i < 128; i++) {
+            q.offer(i);
+        }
+
+        q.clear();
+
+        assertTrue(q.isEmpty());
+    }
+
+    @Test(timeout = 5000)
+    public void simple2() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(3);
+
+        for (int i = 0; i < 128; i++) {
+            assertTrue(q.offer(i, i + 1));
+            assertEquals(i, q.poll().intValue());
+            assertEquals(i + 1, q.poll().intValue());
+            assertTrue(q.isEmpty());
+            assertNull(q.poll());
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offerNull() {
+        new MpscLinkedArrayQueue<Integer>(16).offer(null);
+    }
+
+    @Test
+    public void producerRace() {
+        for (int i = 0; i < TestHelper.RACE_LONG_LOOPS; i++) {
+            final MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(8);
+
+            final int n = 1000;
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        q.offer(j);
+                    }
+                }
+            };
+
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = n; j < 2 * n; j++) {
+                        q.offer(j);
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            int last1 = -1;
+            int last2 = n - 1;
+            for (int j = 0; j < 2 * n; j++) {
+                int v = q.poll();
+                if (v < n) {
+                    assertTrue(v > last1);
+                    last1 = v;
+                } else {
+                    assertTrue(v > last2);
+                    last2 = v;
+                }
+            }
+
+            assertEquals(n - 1, last1);
+            assertEquals(2 * n - 1, last2);
+            assertTrue(q.isEmpty());
+            assertNull(q.poll());
+        }
+    }
+
+    @Test
+    public void producerConsumerRace() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS / 10; i++) {
+            final MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(16);
+
+            final int n = 10000;
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        q.offer(j);
+                    }
+                }
+            };
+
+            final int[] received = { 0 };
+
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    int expected = 0;
+                    while (expected != n) {
+                        Integer v = q.poll();
+                        if (v != null) {
+                            assertEquals(expected, v.intValue());
+                            expected++;
+                        }
+                    }
+                    received[0] = expected;
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            assertEquals(n, received[0]);
+            assertTrue(q.isEmpty());
+        }
+    }
+}